@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2016. Fábrica de Software - Instituto de Informática (UFG)
+ * Creative Commons Attribution 4.0 International License.
+ */
+
+package br.ufg.inf.es.saep.sandbox.dominio;
+
+import java.util.*;
+
+/**
+ * Avaliação de RADOC mantida entre alterações produzidas
+ * por notas.
+ *
+ * <p>Uma nota substitui um relato ou uma pontuação. Em vez de
+ * avaliar novamente todas as regras, apenas aquelas afetadas pela
+ * substituição são reavaliadas: as regras que consideram relatos
+ * do tipo alterado, a regra cuja pontuação foi substituída e,
+ * transitivamente, as regras que dependem dos resultados dessas.
+ *
+ * <p>Uma pontuação fornecida por nota prevalece sobre o valor
+ * produzido pela regra correspondente. Instâncias não podem ser
+ * empregadas simultaneamente por várias threads.
+ */
+public class AvaliacaoIncremental {
+
+    private final AvaliaRegraService regraService;
+
+    /**
+     * Regras na ordem de avaliação.
+     */
+    private final List<Regra> ordenadas;
+
+    /**
+     * Posição da regra em {@link #ordenadas}, pela variável.
+     */
+    private final Map<String, Integer> posicaoPorVariavel;
+
+    /**
+     * Posições das regras que dependem de uma variável.
+     */
+    private final Map<String, List<Integer>> dependentesPorVariavel = new HashMap<>();
+
+    /**
+     * Posições das regras que consideram relatos de um tipo.
+     */
+    private final Map<String, List<Integer>> regrasPorTipo = new HashMap<>();
+
+    private final Map<String, List<Avaliavel>> relatosPorTipo = new HashMap<>();
+    private final Map<String, Valor> pontuacoes = new HashMap<>();
+    private final Map<String, Valor> contexto = new HashMap<>();
+
+    /**
+     * Realiza a avaliação completa dos relatos, a ser mantida
+     * pelas notas aplicadas em seguida.
+     *
+     * @param regraService Serviço de avaliação de regra.
+     *
+     * @param regras Regras a serem avaliadas.
+     *
+     * @param relatos Conjunto de relatos sobre os quais a avaliação
+     *                das regras será executada.
+     */
+    public AvaliacaoIncremental(AvaliaRegraService regraService, List<Regra> regras, List<Relato> relatos) {
+        this.regraService = regraService;
+        this.ordenadas = OrdenacaoService.ordena(regras);
+        this.posicaoPorVariavel = new HashMap<>(ordenadas.size() * 2);
+
+        for (int i = 0; i < ordenadas.size(); i++) {
+            Regra regra = ordenadas.get(i);
+            posicaoPorVariavel.put(regra.getVariavel(), i);
+
+            if (regra.getDependeDe() != null) {
+                for (String variavel : regra.getDependeDe()) {
+                    posicoes(dependentesPorVariavel, variavel).add(i);
+                }
+            }
+
+            if (regra.getTipoRelato() != null) {
+                posicoes(regrasPorTipo, regra.getTipoRelato()).add(i);
+            }
+        }
+
+        for (Relato relato : relatos) {
+            adiciona(relato);
+        }
+
+        for (Regra regra : ordenadas) {
+            avalia(regra);
+        }
+    }
+
+    /**
+     * Aplica a substituição definida pela nota e reavalia as
+     * regras afetadas.
+     *
+     * @param nota A nota a ser aplicada.
+     *
+     * @return As variáveis reavaliadas.
+     */
+    public Set<String> aplica(Nota nota) {
+        return aplica(Collections.singletonList(nota));
+    }
+
+    /**
+     * Aplica as substituições definidas pelas notas, na ordem
+     * fornecida, e reavalia uma única vez as regras afetadas.
+     *
+     * @param notas As notas a serem aplicadas.
+     *
+     * @return As variáveis reavaliadas.
+     */
+    public Set<String> aplica(List<Nota> notas) {
+
+        // Posições das regras diretamente afetadas.
+        BitSet afetadas = new BitSet(ordenadas.size());
+
+        for (Nota nota : notas) {
+            remove(nota.getItemOriginal(), afetadas);
+            inclui(nota.getItemNovo(), afetadas);
+        }
+
+        return reavalia(afetadas);
+    }
+
+    /**
+     * Recupera os resultados da avaliação, atualizados
+     * pelas notas aplicadas.
+     *
+     * @return Resultados da avaliação (somente leitura).
+     */
+    public Map<String, Valor> getContexto() {
+        return Collections.unmodifiableMap(contexto);
+    }
+
+    private void remove(Avaliavel original, BitSet afetadas) {
+        if (original instanceof Relato) {
+            Relato relato = (Relato) original;
+            List<Avaliavel> lista = relatosPorTipo.get(relato.getTipo());
+            if (lista != null) {
+                lista.remove(relato);
+            }
+
+            marcaTipo(relato.getTipo(), afetadas);
+        } else if (original instanceof Pontuacao) {
+            String variavel = ((Pontuacao) original).getAtributo();
+            if (pontuacoes.remove(variavel) != null && !posicaoPorVariavel.containsKey(variavel)) {
+                contexto.remove(variavel);
+            }
+
+            marcaVariavel(variavel, afetadas);
+        }
+    }
+
+    private void inclui(Avaliavel novo, BitSet afetadas) {
+        if (novo instanceof Relato) {
+            Relato relato = (Relato) novo;
+            adiciona(relato);
+            marcaTipo(relato.getTipo(), afetadas);
+        } else if (novo instanceof Pontuacao) {
+            Pontuacao pontuacao = (Pontuacao) novo;
+            pontuacoes.put(pontuacao.getAtributo(), pontuacao.getValor());
+
+            // Pontuação de variável que não é produzida por regra.
+            if (!posicaoPorVariavel.containsKey(pontuacao.getAtributo())) {
+                contexto.put(pontuacao.getAtributo(), pontuacao.getValor());
+            }
+
+            marcaVariavel(pontuacao.getAtributo(), afetadas);
+        }
+    }
+
+    private void marcaTipo(String tipo, BitSet afetadas) {
+        List<Integer> regras = regrasPorTipo.get(tipo);
+        if (regras != null) {
+            for (int posicao : regras) {
+                afetadas.set(posicao);
+            }
+        }
+    }
+
+    /**
+     * Marca a regra que produz a variável ou, se não há tal regra,
+     * as regras que dependem da variável.
+     */
+    private void marcaVariavel(String variavel, BitSet afetadas) {
+        Integer posicao = posicaoPorVariavel.get(variavel);
+        if (posicao != null) {
+            afetadas.set(posicao);
+            return;
+        }
+
+        List<Integer> dependentes = dependentesPorVariavel.get(variavel);
+        if (dependentes != null) {
+            for (int dependente : dependentes) {
+                afetadas.set(dependente);
+            }
+        }
+    }
+
+    /**
+     * Reavalia as regras afetadas na ordem de avaliação. Como
+     * dependentes sempre ocupam posições posteriores, uma única
+     * passagem em ordem crescente alcança todas elas.
+     */
+    private Set<String> reavalia(BitSet afetadas) {
+        Set<String> reavaliadas = new LinkedHashSet<>();
+
+        for (int i = afetadas.nextSetBit(0); i >= 0; i = afetadas.nextSetBit(i + 1)) {
+            Regra regra = ordenadas.get(i);
+            avalia(regra);
+            reavaliadas.add(regra.getVariavel());
+
+            List<Integer> dependentes = dependentesPorVariavel.get(regra.getVariavel());
+            if (dependentes != null) {
+                for (int dependente : dependentes) {
+                    afetadas.set(dependente);
+                }
+            }
+        }
+
+        return reavaliadas;
+    }
+
+    private void avalia(Regra regra) {
+        String variavel = regra.getVariavel();
+
+        Valor valor = pontuacoes.get(variavel);
+        if (valor == null) {
+            List<Avaliavel> considerados = relatosPorTipo.get(regra.getTipoRelato());
+            valor = regraService.avaliaRegra(regra, contexto, considerados);
+        }
+
+        contexto.put(variavel, valor);
+    }
+
+    private void adiciona(Relato relato) {
+        List<Avaliavel> lista = relatosPorTipo.get(relato.getTipo());
+        if (lista == null) {
+            lista = new ArrayList<>();
+            relatosPorTipo.put(relato.getTipo(), lista);
+        }
+
+        lista.add(relato);
+    }
+
+    private static List<Integer> posicoes(Map<String, List<Integer>> mapa, String chave) {
+        List<Integer> lista = mapa.get(chave);
+        if (lista == null) {
+            lista = new ArrayList<>(2);
+            mapa.put(chave, lista);
+        }
+
+        return lista;
+    }
+}
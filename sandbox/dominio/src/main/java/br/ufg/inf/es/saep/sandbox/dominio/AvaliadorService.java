@@ -5,20 +5,175 @@
 
 package br.ufg.inf.es.saep.sandbox.dominio;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Serviço de avaliação automática de RADOC.
  */
 public class AvaliadorService {
 
+    /**
+     * Quantidade de regras a partir da qual a avaliação em
+     * paralelo é empregada.
+     */
+    public static final int REGRAS_PARA_PARALELISMO = 64;
+
+    /**
+     * Quantidade de relatos a partir da qual a avaliação em
+     * paralelo é empregada, independente do total de regras.
+     */
+    public static final int RELATOS_PARA_PARALELISMO = 5000;
+
+    /**
+     * Quantidade máxima de resoluções cujas ordens de avaliação
+     * são retidas. Quando atingida, a ordem usada há mais tempo
+     * é descartada.
+     */
+    public static final int ORDENS_RETIDAS = 64;
+
     private AvaliaRegraService regraService;
 
+    /**
+     * Executor das avaliações em paralelo.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Ordem de avaliação das regras de cada resolução, pelo
+     * identificador da resolução, na ordem de acesso.
+     */
+    private final Map<String, Ordem> ordens = new LinkedHashMap<String, Ordem>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Ordem> maisAntiga) {
+            return size() > ORDENS_RETIDAS;
+        }
+    };
+
     public AvaliadorService(AvaliaRegraService regraService) {
+        this(regraService, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Cria serviço de avaliação cujas avaliações em paralelo são
+     * executadas no pool fornecido.
+     *
+     * @param regraService Serviço de avaliação de regra. Deve
+     *                     admitir uso simultâneo por várias threads
+     *                     caso {@link #avaliaEmParalelo(List, List)}
+     *                     seja empregado.
+     *
+     * @param pool Executor das avaliações em paralelo.
+     */
+    public AvaliadorService(AvaliaRegraService regraService, ForkJoinPool pool) {
         this.regraService = regraService;
+        this.pool = pool;
+    }
+
+    /**
+     * Realiza avaliação dos itens fornecidos conforme as regras
+     * da resolução. A ordem de avaliação das regras é calculada
+     * na primeira avaliação de uma resolução (identificador) e
+     * reutilizada nas seguintes, enquanto as regras da resolução
+     * forem as mesmas (instâncias, na mesma sequência).
+     *
+     * @param resolucao Resolução cujas regras serão avaliadas.
+     *
+     * @param relatos Conjunto de relatos sobre os quais a avaliação
+     *                das regras será executada.
+     *
+     * @return Resultados produzidos pela avaliação.
+     */
+    public Map<String, Valor> avalia(Resolucao resolucao, List<Relato> relatos) {
+        List<Regra> ordem = ordem(resolucao);
+        return avaliaOrdenadas(ordem, agrupa(relatos, ordem));
+    }
+
+    /**
+     * Realiza avaliação do RADOC conforme as regras da resolução.
+     * Os relatos agrupados por tipo retidos pelo RADOC
+     * ({@link Radoc#getRelatosPorTipo()}) são empregados, ou seja,
+     * o agrupamento não é refeito a cada avaliação do mesmo RADOC.
+     *
+     * @param resolucao Resolução cujas regras serão avaliadas.
+     *
+     * @param radoc RADOC cujos relatos serão avaliados.
+     *
+     * @return Resultados produzidos pela avaliação.
+     */
+    public Map<String, Valor> avalia(Resolucao resolucao, Radoc radoc) {
+        return avaliaOrdenadas(ordem(resolucao), radoc.getRelatosPorTipo());
+    }
+
+    private List<Regra> ordem(Resolucao resolucao) {
+        List<Regra> regras = resolucao.getRegras();
+
+        Ordem retida;
+        synchronized (ordens) {
+            retida = ordens.get(resolucao.getId());
+        }
+
+        if (retida != null && retida.valida(regras)) {
+            return retida.ordenadas;
+        }
+
+        // A ordenação ocorre fora da região crítica.
+        Ordem ordem = new Ordem(regras);
+
+        synchronized (ordens) {
+            ordens.put(resolucao.getId(), ordem);
+        }
+
+        return ordem.ordenadas;
+    }
+
+    /**
+     * Descarta a ordem de avaliação retida para a resolução,
+     * se existir. Alterações nas regras da resolução são
+     * identificadas na avaliação seguinte, portanto o descarte
+     * apenas libera a memória correspondente.
+     *
+     * @param resolucao Identificador da resolução.
+     */
+    public void descartaOrdem(String resolucao) {
+        synchronized (ordens) {
+            ordens.remove(resolucao);
+        }
+    }
+
+    /**
+     * Ordem de avaliação e as regras a partir das quais
+     * foi calculada.
+     */
+    private static final class Ordem {
+        private final Regra[] regras;
+        private final List<Regra> ordenadas;
+
+        private Ordem(List<Regra> regras) {
+            this.regras = regras.toArray(new Regra[regras.size()]);
+            this.ordenadas = Collections.unmodifiableList(OrdenacaoService.ordena(Arrays.asList(this.regras)));
+        }
+
+        /**
+         * Verifica se as regras fornecidas são as mesmas
+         * instâncias, na mesma sequência, daquelas a partir
+         * das quais a ordem foi calculada.
+         */
+        private boolean valida(List<Regra> atuais) {
+            if (atuais.size() != regras.length) {
+                return false;
+            }
+
+            int i = 0;
+            for (Regra regra : atuais) {
+                if (regra != regras[i++]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
     }
 
     /**
@@ -36,55 +191,165 @@ public class AvaliadorService {
         // Obtém itens na ordem em que devem ser avaliados.
         List<Regra> ordenados = OrdenacaoService.ordena(regras);
 
-        // Retém valores produzidos pela avaliação.
-        Map<String, Valor> contexto = new HashMap<>();
+        return avaliaOrdenadas(ordenados, agrupa(relatos, ordenados));
+    }
 
-        // Identifica grupos de relatos pelo tipo, ou seja,
-        // agrupa todos os "libros sem corpo editorial", "ensino graduação",
-        // e assim sucessivamente.
-        Map<String, List<Avaliavel>> relatosPorTipo = montaRelatosPorTipo(relatos);
+    /**
+     * Realiza avaliação apenas das regras necessárias para produzir
+     * as variáveis indicadas. Uma prévia do resultado final, por
+     * exemplo, não exige a avaliação de todas as regras.
+     *
+     * @param regras Regras disponíveis para a avaliação.
+     *
+     * @param relatos Conjunto de relatos sobre os quais a avaliação
+     *                das regras será executada.
+     *
+     * @param variaveis Variáveis cujos valores são desejados.
+     *
+     * @return Resultados produzidos pela avaliação, que incluem os
+     * das variáveis desejadas e os daquelas das quais dependem.
+     *
+     * @throws IdentificadorDesconhecido Caso nenhuma regra produza
+     * uma das variáveis indicadas.
+     */
+    public Map<String, Valor> avalia(List<Regra> regras, List<Relato> relatos, Collection<String> variaveis) {
+        List<Regra> requeridas = OrdenacaoService.requeridas(regras, variaveis);
 
-        for (Regra regra : ordenados) {
-            //Regra regra = item.getRegra();
+        return avaliaOrdenadas(OrdenacaoService.ordena(requeridas), agrupa(relatos, requeridas));
+    }
 
-            // A avaliação da regra de um item pode depender dos
-            // relatos correspondentes. Nesse caso, recupere-os.
-            String tipo = regra.getTipoRelato();
-            List<Avaliavel> considerados = relatosPorTipo.get(tipo);
+    /**
+     * Realiza avaliação dos itens fornecidos, com avaliação simultânea
+     * das regras independentes entre si. As regras são particionadas
+     * em níveis de dependência ({@link OrdenacaoService#niveis(List)})
+     * e as regras de um mesmo nível são avaliadas em paralelo.
+     *
+     * <p>Para poucas regras e poucos relatos, o custo da coordenação
+     * supera o ganho. Nesse caso, a avaliação é sequencial, assim como
+     * em {@link #avalia(List, List)}.
+     *
+     * @param regras Sequência de regras a serem avaliadas.
+     *
+     * @param relatos Conjunto de relatos sobre os quais a avaliação
+     *                das regras será executada.
+     *
+     * @return Resultados produzidos pela avaliação.
+     */
+    public Map<String, Valor> avaliaEmParalelo(List<Regra> regras, List<Relato> relatos) {
+        boolean paralelo = pool.getParallelism() > 1
+                && (regras.size() >= REGRAS_PARA_PARALELISMO || relatos.size() >= RELATOS_PARA_PARALELISMO);
 
-            // Avalie a regra, para o contexto disponível.
-            Valor valor = regraService.avaliaRegra(regra, contexto, considerados);
+        if (!paralelo) {
+            return avalia(regras, relatos);
+        }
 
-            String variavel = regra.getVariavel();
-            contexto.put(variavel, valor);
+        List<List<Regra>> niveis = OrdenacaoService.niveis(regras);
+
+        Map<String, Valor> contexto = new HashMap<>();
+        RelatosPorTipo relatosPorTipo = agrupa(relatos, regras);
+
+        for (List<Regra> nivel : niveis) {
+            Valor[] valores = new Valor[nivel.size()];
+
+            if (nivel.size() == 1) {
+                valores[0] = avaliaRegra(nivel.get(0), contexto, relatosPorTipo);
+            } else {
+                pool.invoke(new AvaliacaoDeNivel(this, nivel, contexto, relatosPorTipo, valores, 0, nivel.size()));
+            }
+
+            // O contexto é alterado apenas entre níveis, portanto
+            // é apenas consultado durante as avaliações simultâneas.
+            for (int i = 0; i < valores.length; i++) {
+                contexto.put(nivel.get(i).getVariavel(), valores[i]);
+            }
         }
 
         return contexto;
     }
 
     /**
-     * Dado um conjunto de relatos, agrupa-os por tipo.
-     *
-     * @param relatos Conjunto de relatos.
-     *
-     * @return Dicionário que reúne os relatos fornecidos pelos tipos
-     * correspondentes.
+     * Agrupa os relatos pelo tipo. Apenas tipos empregados
+     * pelas regras são considerados.
      */
-    private Map<String, List<Avaliavel>> montaRelatosPorTipo(List<Relato> relatos) {
-        Map<String, List<Avaliavel>> relatosPorTipo = new HashMap<>();
-        for (Relato relato : relatos) {
-            String tipo = relato.getTipo();
-
-            List<Avaliavel> lista = relatosPorTipo.get(tipo);
-            if (lista == null) {
-                lista = new ArrayList<>();
-                relatosPorTipo.put(tipo, lista);
+    private static RelatosPorTipo agrupa(List<Relato> relatos, List<Regra> regras) {
+        Set<String> tipos = new HashSet<>();
+        for (Regra regra : regras) {
+            if (regra.getTipoRelato() != null) {
+                tipos.add(regra.getTipoRelato());
             }
+        }
+
+        return new RelatosPorTipo(relatos, tipos);
+    }
 
-            lista.add(relato);
+    private Valor avaliaRegra(Regra regra, Map<String, Valor> contexto, RelatosPorTipo relatosPorTipo) {
+        return regraService.avaliaRegra(regra, contexto, relatosPorTipo.avaliaveis(regra.getSimboloTipoRelato()));
+    }
+
+    /**
+     * Avaliação das regras de um nível no intervalo [inicio, fim),
+     * dividido ao meio enquanto houver mais de uma regra.
+     *
+     * <p>A tarefa existe apenas durante a avaliação e não é
+     * serializada, embora {@link RecursiveAction} seja
+     * {@link java.io.Serializable}.
+     */
+    private static final class AvaliacaoDeNivel extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient AvaliadorService avaliador;
+        private final transient List<Regra> nivel;
+        private final transient Map<String, Valor> contexto;
+        private final transient RelatosPorTipo relatosPorTipo;
+        private final transient Valor[] valores;
+        private final int inicio;
+        private final int fim;
+
+        AvaliacaoDeNivel(AvaliadorService avaliador,
+                         List<Regra> nivel,
+                         Map<String, Valor> contexto,
+                         RelatosPorTipo relatosPorTipo,
+                         Valor[] valores,
+                         int inicio,
+                         int fim) {
+            this.avaliador = avaliador;
+            this.nivel = nivel;
+            this.contexto = contexto;
+            this.relatosPorTipo = relatosPorTipo;
+            this.valores = valores;
+            this.inicio = inicio;
+            this.fim = fim;
         }
 
-        return relatosPorTipo;
+        @Override
+        protected void compute() {
+            if (fim - inicio == 1) {
+                valores[inicio] = avaliador.avaliaRegra(nivel.get(inicio), contexto, relatosPorTipo);
+                return;
+            }
+
+            int meio = (inicio + fim) >>> 1;
+            invokeAll(new AvaliacaoDeNivel(avaliador, nivel, contexto, relatosPorTipo, valores, inicio, meio),
+                    new AvaliacaoDeNivel(avaliador, nivel, contexto, relatosPorTipo, valores, meio, fim));
+        }
     }
 
+    private Map<String, Valor> avaliaOrdenadas(List<Regra> ordenados, RelatosPorTipo relatosPorTipo) {
+
+        // Retém valores produzidos pela avaliação.
+        Map<String, Valor> contexto = new HashMap<>();
+
+        for (Regra regra : ordenados) {
+
+            // A avaliação da regra de um item pode depender dos
+            // relatos correspondentes (do tipo empregado pela regra),
+            // já agrupados em relatosPorTipo.
+            Valor valor = avaliaRegra(regra, contexto, relatosPorTipo);
+
+            String variavel = regra.getVariavel();
+            contexto.put(variavel, valor);
+        }
+
+        return contexto;
+    }
 }
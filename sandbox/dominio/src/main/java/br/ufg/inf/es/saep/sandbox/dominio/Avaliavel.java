@@ -24,4 +24,17 @@ public interface Avaliavel {
      * @return O valor do atributo.
      */
     Valor get(String atributo);
+
+    /**
+     * Recupera o valor do atributo identificado
+     * pelo símbolo do nome.
+     *
+     * @param simbolo O símbolo do nome do atributo
+     *                (veja {@link Simbolos}).
+     *
+     * @return O valor do atributo.
+     */
+    default Valor getPeloSimbolo(int simbolo) {
+        return get(Simbolos.nome(simbolo));
+    }
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2016. Fábrica de Software - Instituto de Informática (UFG)
+ * Creative Commons Attribution 4.0 International License.
+ */
+
+package br.ufg.inf.es.saep.sandbox.dominio;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Indica que regras dependem, direta ou indiretamente, de
+ * si mesmas, o que impede a ordenação das regras para
+ * avaliação.
+ */
+public class DependenciaCircular extends RuntimeException {
+
+    private final List<String> variaveis;
+
+    /**
+     * Cria exceção para o ciclo formado pelas variáveis
+     * fornecidas.
+     *
+     * @param variaveis Variáveis do ciclo, na ordem em que uma
+     *                  depende da seguinte (a última depende da
+     *                  primeira).
+     */
+    public DependenciaCircular(List<String> variaveis) {
+        super("Dependência circular: " + String.join(" -> ", variaveis) + " -> " + variaveis.get(0));
+        this.variaveis = Collections.unmodifiableList(variaveis);
+    }
+
+    /**
+     * Recupera as variáveis envolvidas no ciclo.
+     *
+     * @return Variáveis do ciclo.
+     */
+    public List<String> getVariaveis() {
+        return variaveis;
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2016. Fábrica de Software - Instituto de Informática (UFG)
+ * Creative Commons Attribution 4.0 International License.
+ */
+
+package br.ufg.inf.es.saep.sandbox.dominio;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Disposição dos valores de um relato: associa cada
+ * atributo a uma posição (0, 1, ...).
+ *
+ * <p>Todos os relatos de um tipo possuem os mesmos
+ * atributos, definidos por {@link Tipo#getAtributos()}.
+ * Dessa forma, um único esquema é compartilhado por
+ * esses relatos, que retêm apenas os valores, na ordem
+ * das posições (veja {@link Relato#get(int)}).
+ *
+ * <p>Os atributos são posicionados em ordem alfabética.
+ * Em geral, há uma única instância para um dado conjunto
+ * de atributos, obtida por {@link #de(Collection)}: até
+ * {@link #ESQUEMAS_RETIDOS} instâncias são retidas e
+ * reutilizadas. Instâncias são imutáveis.
+ */
+public final class Esquema {
+
+    /**
+     * Quantidade máxima de esquemas retidos para reutilização.
+     * Atingido esse total, os esquemas de outros conjuntos de
+     * atributos são criados a cada requisição.
+     */
+    public static final int ESQUEMAS_RETIDOS = 4096;
+
+    /**
+     * Esquemas retidos, pela chave dos atributos
+     * ({@link #chave(Collection)}), que independe da ordem.
+     * Atributos distintos podem produzir a mesma chave,
+     * portanto o esquema obtido deve ser conferido.
+     */
+    private static final ConcurrentMap<Integer, Esquema> ESQUEMAS = new ConcurrentHashMap<>();
+
+    /**
+     * Atributos, na ordem das posições.
+     */
+    private final String[] atributos;
+
+    /**
+     * Posição pelo nome do atributo.
+     */
+    private final Map<String, Integer> posicoes;
+
+    /**
+     * Símbolos ({@link Simbolos}) dos atributos, na ordem
+     * das posições, ou {@link Simbolos#NENHUM}, para atributo
+     * não registrado na criação do esquema.
+     */
+    private final int[] simbolos;
+
+    /**
+     * Posição pelo símbolo do atributo.
+     */
+    private final MapaDeSimbolos posicoesPorSimbolo;
+
+    /**
+     * Atributos, na ordem das posições (somente leitura).
+     */
+    private final Set<String> conjunto;
+
+    /**
+     * Código hash dos atributos.
+     */
+    private final int hash;
+
+    private Esquema(List<String> atributos) {
+        this.atributos = atributos.toArray(new String[atributos.size()]);
+
+        Map<String, Integer> posicoes = new HashMap<>(2 * this.atributos.length);
+        for (int i = 0; i < this.atributos.length; i++) {
+            posicoes.put(this.atributos[i], i);
+        }
+
+        this.posicoes = posicoes;
+
+        // Atributos de relatos não são registrados (Simbolos).
+        this.simbolos = new int[this.atributos.length];
+        for (int i = 0; i < simbolos.length; i++) {
+            simbolos[i] = Simbolos.existente(this.atributos[i]);
+        }
+
+        this.posicoesPorSimbolo = new MapaDeSimbolos(simbolos);
+
+        this.conjunto = Collections.unmodifiableSet(new LinkedHashSet<>(atributos));
+        this.hash = Arrays.hashCode(this.atributos);
+    }
+
+    /**
+     * Recupera o esquema dos atributos fornecidos.
+     *
+     * @param atributos Os nomes dos atributos.
+     * @return O esquema (compartilhado) dos atributos.
+     *
+     * @throws CampoExigidoNaoFornecido Caso nenhum
+     * atributo seja fornecido.
+     */
+    public static Esquema de(Collection<String> atributos) {
+        if (atributos == null || atributos.isEmpty()) {
+            throw new CampoExigidoNaoFornecido("atributos");
+        }
+
+        // Consulta sem ordenar nem copiar os atributos.
+        Integer chave = chave(atributos);
+        Esquema retido = ESQUEMAS.get(chave);
+        if (retido != null && retido.formadoPor(atributos)) {
+            return retido;
+        }
+
+        Esquema esquema = new Esquema(new ArrayList<>(new TreeSet<>(atributos)));
+        if (retido == null && ESQUEMAS.size() < ESQUEMAS_RETIDOS) {
+            retido = ESQUEMAS.putIfAbsent(chave, esquema);
+            if (retido != null && retido.formadoPor(atributos)) {
+                return retido;
+            }
+        }
+
+        return esquema;
+    }
+
+    /**
+     * Chave dos atributos, independente da ordem em que
+     * são fornecidos.
+     */
+    private static int chave(Collection<String> atributos) {
+        int chave = atributos.size();
+        for (String atributo : atributos) {
+            chave += atributo.hashCode();
+        }
+
+        return chave;
+    }
+
+    /**
+     * Verifica se o esquema é formado exatamente pelos
+     * atributos fornecidos.
+     */
+    private boolean formadoPor(Collection<String> atributos) {
+        if (atributos.size() != this.atributos.length) {
+            return false;
+        }
+
+        for (String atributo : atributos) {
+            if (!posicoes.containsKey(atributo)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Recupera a posição do atributo.
+     *
+     * @param atributo O nome do atributo.
+     * @return A posição do atributo ou -1, caso
+     * não faça parte do esquema.
+     */
+    public int posicao(String atributo) {
+        Integer posicao = posicoes.get(atributo);
+        return posicao == null ? -1 : posicao;
+    }
+
+    /**
+     * Recupera a posição do atributo identificado pelo
+     * símbolo, sem consulta pelo nome.
+     *
+     * @param simbolo O símbolo do nome do atributo
+     *                (veja {@link Simbolos#de(String)}).
+     * @return A posição do atributo ou -1, caso
+     * não faça parte do esquema.
+     */
+    public int posicaoPeloSimbolo(int simbolo) {
+        int posicao = posicoesPorSimbolo.posicao(simbolo);
+
+        // O nome pode ter sido registrado após a criação do
+        // esquema, portanto a ausência é confirmada pelo nome.
+        return posicao >= 0 ? posicao : posicao(Simbolos.nome(simbolo));
+    }
+
+    /**
+     * Recupera o símbolo do atributo na posição indicada.
+     *
+     * @param posicao A posição do atributo.
+     * @return O símbolo do nome do atributo ou
+     * {@link Simbolos#NENHUM}, caso o nome não estivesse
+     * registrado na criação do esquema.
+     */
+    public int simbolo(int posicao) {
+        return simbolos[posicao];
+    }
+
+    /**
+     * Recupera o atributo na posição indicada.
+     *
+     * @param posicao A posição do atributo.
+     * @return O nome do atributo.
+     */
+    public String atributo(int posicao) {
+        return atributos[posicao];
+    }
+
+    /**
+     * Recupera a quantidade de atributos.
+     *
+     * @return Total de atributos (posições).
+     */
+    public int tamanho() {
+        return atributos.length;
+    }
+
+    /**
+     * Recupera os atributos, na ordem das posições.
+     *
+     * @return Conjunto (somente leitura) dos atributos.
+     */
+    public Set<String> getAtributos() {
+        return conjunto;
+    }
+
+    /**
+     * Esquemas são iguais se possuem os mesmos atributos.
+     * Em geral, há uma única instância para um conjunto de
+     * atributos, e a comparação se resume à identidade.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof Esquema)) {
+            return false;
+        }
+
+        Esquema outro = (Esquema) o;
+        return hash == outro.hash && Arrays.equals(atributos, outro.atributos);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
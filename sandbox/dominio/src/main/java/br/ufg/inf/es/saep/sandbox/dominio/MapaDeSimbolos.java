@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2016. Fábrica de Software - Instituto de Informática (UFG)
+ * Creative Commons Attribution 4.0 International License.
+ */
+
+package br.ufg.inf.es.saep.sandbox.dominio;
+
+/**
+ * Associação imutável de símbolos ({@link Simbolos}) às
+ * posições de um vetor, com endereçamento aberto.
+ *
+ * <p>O espaço ocupado depende apenas da quantidade de
+ * símbolos associados, não do valor deles, ou seja, do
+ * total de nomes registrados em {@link Simbolos}.
+ */
+final class MapaDeSimbolos {
+
+    /**
+     * Símbolos, nas entradas determinadas pelo espalhamento,
+     * ou {@link Simbolos#NENHUM}, para entrada livre.
+     */
+    private final int[] chaves;
+
+    /**
+     * Posição associada ao símbolo da mesma entrada.
+     */
+    private final int[] posicoes;
+
+    private final int mascara;
+
+    /**
+     * Associa cada símbolo fornecido à posição dele no vetor.
+     * Símbolos {@link Simbolos#NENHUM} são ignorados.
+     *
+     * @param simbolos Os símbolos, distintos entre si.
+     */
+    MapaDeSimbolos(int[] simbolos) {
+        // Potência de dois com pelo menos metade livre.
+        int capacidade = Integer.highestOneBit(Math.max(1, 2 * simbolos.length - 1)) << 1;
+
+        this.chaves = new int[capacidade];
+        this.posicoes = new int[capacidade];
+        this.mascara = capacidade - 1;
+
+        for (int i = 0; i < capacidade; i++) {
+            chaves[i] = Simbolos.NENHUM;
+        }
+
+        for (int i = 0; i < simbolos.length; i++) {
+            if (simbolos[i] == Simbolos.NENHUM) {
+                continue;
+            }
+
+            int entrada = entrada(simbolos[i]);
+            while (chaves[entrada] != Simbolos.NENHUM) {
+                entrada = (entrada + 1) & mascara;
+            }
+
+            chaves[entrada] = simbolos[i];
+            posicoes[entrada] = i;
+        }
+    }
+
+    /**
+     * Recupera a posição associada ao símbolo.
+     *
+     * @param simbolo O símbolo.
+     * @return A posição ou -1, se o símbolo não foi associado.
+     */
+    int posicao(int simbolo) {
+        if (simbolo < 0) {
+            return -1;
+        }
+
+        int entrada = entrada(simbolo);
+        int chave;
+        while ((chave = chaves[entrada]) != Simbolos.NENHUM) {
+            if (chave == simbolo) {
+                return posicoes[entrada];
+            }
+
+            entrada = (entrada + 1) & mascara;
+        }
+
+        return -1;
+    }
+
+    private int entrada(int simbolo) {
+        // Símbolos são sequenciais: espalha os bits.
+        int h = simbolo * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mascara;
+    }
+}
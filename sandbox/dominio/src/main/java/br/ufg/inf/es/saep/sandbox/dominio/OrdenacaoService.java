@@ -27,73 +27,250 @@ public class OrdenacaoService {
      * Ordena topologicamente um conjunto de regras a
      * serem avaliadas.
      *
+     * <p>A ordenação é iterativa (algoritmo de Kahn), o que
+     * permite longas cadeias de dependências. Regras sem
+     * dependência entre si são mantidas na ordem em que são
+     * fornecidas.
+     *
      * @param regras Regras a serem ordenadas.
      *
      * @return Sequência de itens a serem executadas
      * nessa ordem.
+     *
+     * @throws DependenciaCircular Caso uma regra dependa,
+     * direta ou indiretamente, de si mesma.
      */
     public static List<Regra> ordena(List<Regra> regras) {
         int size = regras.size();
-        List<Regra> ordenados = new ArrayList<>(size);
 
         // Uma regra dá origem a um resultado identificado
         // pelo nome da variável da regra. Precisamos
         // identificar, no sentido inverso, a regra cuja
         // variável é identificada por um dado nome.
-        Map<String, Regra> regraPorVariavel = new HashMap<>(size);
+        // Apenas uma regra por variável é considerada. A posição
+        // da regra é obtida pelo símbolo da variável.
+        Map<Integer, Integer> regraPorVariavel = new HashMap<>(size * 2);
+        List<Regra> unicas = new ArrayList<>(size);
 
         for(Regra regra : regras) {
-            regraPorVariavel.put(regra.getVariavel(), regra);
+            if (regraPorVariavel.putIfAbsent(regra.getSimboloVariavel(), unicas.size()) == null) {
+                unicas.add(regra);
+            }
         }
 
-        // Mantém aqueles já ordenados em estrutura que otmiza consulta
-        Set<String> inseridos = new HashSet<>(size);
+        int total = unicas.size();
 
-        // TODAS AS REGRAS SERÃO INSERIDAS
-        for (Regra regra : regras) {
-            insereRegrasAposComponentes(regra, regraPorVariavel, ordenados, inseridos);
+        // Para cada regra, a quantidade de regras das quais depende
+        // e ainda não ordenadas, e as regras que dependem dela.
+        int[] pendencias = new int[total];
+        List<List<Integer>> dependentes = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            dependentes.add(new ArrayList<>(2));
+        }
+
+        for (int i = 0; i < total; i++) {
+            for (int j : dependencias(unicas.get(i), regraPorVariavel)) {
+                pendencias[i]++;
+                dependentes.get(j).add(i);
+            }
+        }
+
+        // Regras cujas dependências já foram ordenadas.
+        Deque<Integer> prontas = new ArrayDeque<>();
+        for (int i = 0; i < total; i++) {
+            if (pendencias[i] == 0) {
+                prontas.add(i);
+            }
+        }
+
+        List<Regra> ordenados = new ArrayList<>(total);
+        while (!prontas.isEmpty()) {
+            int i = prontas.poll();
+            ordenados.add(unicas.get(i));
+
+            for (int dependente : dependentes.get(i)) {
+                if (--pendencias[dependente] == 0) {
+                    prontas.add(dependente);
+                }
+            }
+        }
+
+        // Regras não ordenadas dependem de um ciclo ou fazem parte dele.
+        if (ordenados.size() < total) {
+            throw new DependenciaCircular(ciclo(unicas, regraPorVariavel, pendencias));
         }
 
         return ordenados;
     }
 
-    private static void insereRegrasAposComponentes(Regra regra,
-                                                    Map<String, Regra> regraPorVariavel,
-                                                    List<Regra> ordenadas,
-                                                    Set<String> inseridas) {
+    /**
+     * Particiona as regras em níveis de dependência. As regras de
+     * um nível dependem apenas de regras de níveis anteriores e,
+     * portanto, podem ser avaliadas simultaneamente.
+     *
+     * @param regras Regras a serem particionadas.
+     *
+     * @return Níveis na ordem em que devem ser avaliados. Em cada
+     * nível, as regras seguem a ordem de {@link #ordena(List)}.
+     *
+     * @throws DependenciaCircular Caso uma regra dependa,
+     * direta ou indiretamente, de si mesma.
+     */
+    public static List<List<Regra>> niveis(List<Regra> regras) {
+        List<Regra> ordenadas = ordena(regras);
+
+        Map<Integer, Integer> nivelPorVariavel = new HashMap<>(ordenadas.size() * 2);
+        List<List<Regra>> niveis = new ArrayList<>();
+
+        for (Regra regra : ordenadas) {
+
+            // Um nível após o da dependência mais "profunda".
+            int nivel = 0;
+            int[] dependeDe = regra.getSimbolosDependeDe();
+            if (dependeDe != null) {
+                for (int variavel : dependeDe) {
+                    Integer dependencia = nivelPorVariavel.get(variavel);
+                    if (dependencia != null) {
+                        nivel = Math.max(nivel, dependencia + 1);
+                    }
+                }
+            }
+
+            nivelPorVariavel.put(regra.getSimboloVariavel(), nivel);
+
+            if (nivel == niveis.size()) {
+                niveis.add(new ArrayList<>());
+            }
+
+            niveis.get(nivel).add(regra);
+        }
+
+        return niveis;
+    }
+
+    /**
+     * Posições das regras (distintas) das quais a regra depende.
+     * Variáveis que não são produzidas por regras identificam
+     * atributos de relatos e são desconsideradas.
+     */
+    private static Set<Integer> dependencias(Regra regra, Map<Integer, Integer> regraPorVariavel) {
+        int[] dependeDe = regra.getSimbolosDependeDe();
+
+        // Regras do tipo PONTOS não dependem de variáveis.
+        if (dependeDe == null) {
+            return Collections.emptySet();
+        }
+
+        Set<Integer> dependencias = new LinkedHashSet<>(dependeDe.length * 2);
+        for (int variavel : dependeDe) {
+            Integer posicao = regraPorVariavel.get(variavel);
+            if (posicao != null) {
+                dependencias.add(posicao);
+            }
+        }
+
+        return dependencias;
+    }
+
+    /**
+     * Identifica um ciclo entre as regras não ordenadas. Toda regra
+     * não ordenada depende de outra também não ordenada, portanto
+     * seguir essas dependências necessariamente revisita uma regra.
+     */
+    private static List<String> ciclo(List<Regra> regras, Map<Integer, Integer> regraPorVariavel, int[] pendencias) {
+        int atual = 0;
+        while (pendencias[atual] == 0) {
+            atual++;
+        }
+
+        List<Integer> caminho = new ArrayList<>();
+        Map<Integer, Integer> posicaoNoCaminho = new HashMap<>();
 
-        // Regra já foi considerada.
-        if (inseridas.contains(regra.getVariavel())) {
-            return;
+        while (!posicaoNoCaminho.containsKey(atual)) {
+            posicaoNoCaminho.put(atual, caminho.size());
+            caminho.add(atual);
+
+            for (int dependencia : dependencias(regras.get(atual), regraPorVariavel)) {
+                if (pendencias[dependencia] > 0) {
+                    atual = dependencia;
+                    break;
+                }
+            }
         }
 
-        // Observe que antes de inserir o "item", os
-        // itens dos quais esse depende são inseridos
-        // primeiro. Ou seja, se "a depende de b", então
-        // "a" será inserido após o "b" ser inserido.
+        List<String> ciclo = new ArrayList<>();
+        for (int i = posicaoNoCaminho.get(atual); i < caminho.size(); i++) {
+            ciclo.add(regras.get(caminho.get(i)).getVariavel());
+        }
 
-        for(String variavel : regra.getDependeDe()) {
+        return ciclo;
+    }
 
-            // Se esse atributo já está ordenado,
-            // não há o que fazer, vá para o próximo.
-            if (inseridas.contains(variavel)) {
+    /**
+     * Identifica as regras necessárias para produzir as variáveis
+     * fornecidas, ou seja, as regras que produzem essas variáveis e,
+     * transitivamente, aquelas das quais essas dependem.
+     *
+     * @param regras Regras disponíveis.
+     *
+     * @param variaveis Variáveis cujos valores são desejados.
+     *
+     * @return Regras necessárias, na ordem em que ocorrem em
+     * {@code regras} (não necessariamente a ordem de avaliação).
+     *
+     * @throws IdentificadorDesconhecido Caso nenhuma regra produza
+     * uma das variáveis fornecidas.
+     */
+    public static List<Regra> requeridas(List<Regra> regras, Collection<String> variaveis) {
+        int size = regras.size();
+
+        // Posição da (última) regra que produz cada variável.
+        Map<Integer, Integer> regraPorVariavel = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            regraPorVariavel.put(regras.get(i).getSimboloVariavel(), i);
+        }
+
+        boolean[] alcancadas = new boolean[size];
+        Deque<Integer> pendentes = new ArrayDeque<>();
+
+        for (String variavel : variaveis) {
+            Integer posicao = regraPorVariavel.get(Simbolos.de(variavel));
+            if (posicao == null) {
+                throw new IdentificadorDesconhecido(variavel);
+            }
+
+            pendentes.push(posicao);
+        }
+
+        // Percorre as dependências no sentido inverso, a partir das
+        // variáveis desejadas. Nomes que não identificam regras são
+        // atributos de relatos.
+        while (!pendentes.isEmpty()) {
+            int posicao = pendentes.pop();
+            if (alcancadas[posicao]) {
                 continue;
             }
 
-            // Uma variável não necessariamente identifica um "resultado"
-            // de uma regra. O nome da variável pode ser o identificador
-            // de um atributo de um relato. O teste abaixo considera
-            // variáveis definidas por regras.
-            if (regraPorVariavel.containsKey(variavel)) {
-                Regra regraDaVariavel = regraPorVariavel.get(variavel);
-                insereRegrasAposComponentes(regraDaVariavel, regraPorVariavel, ordenadas, inseridas);
+            alcancadas[posicao] = true;
+
+            int[] dependeDe = regras.get(posicao).getSimbolosDependeDe();
+            if (dependeDe != null) {
+                for (int variavel : dependeDe) {
+                    Integer dependencia = regraPorVariavel.get(variavel);
+                    if (dependencia != null) {
+                        pendentes.push(dependencia);
+                    }
+                }
             }
         }
 
-        // Insere regra após aquelas das quais depende
-        ordenadas.add(regra);
+        List<Regra> requeridas = new ArrayList<>();
+        for (Regra regra : regras) {
+            if (alcancadas[regraPorVariavel.get(regra.getSimboloVariavel())]) {
+                requeridas.add(regra);
+            }
+        }
 
-        // Acrescenta variável àquelas já ordenadas
-        inseridas.add(regra.getVariavel());
+        return requeridas;
     }
 }
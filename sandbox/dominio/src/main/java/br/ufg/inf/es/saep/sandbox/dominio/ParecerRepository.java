@@ -5,6 +5,8 @@
 
 package br.ufg.inf.es.saep.sandbox.dominio;
 
+import java.util.List;
+
 /**
  * Oferece noção de coleções de pareceres em memória.
  *
@@ -34,6 +36,25 @@ public interface ParecerRepository {
      */
     void adicionaNota(String id, Nota nota);
 
+    /**
+     * Adiciona as notas ao parecer, na ordem fornecida, conforme
+     * {@link #adicionaNota(String, Nota)}. Caso mais de uma nota se
+     * refira ao mesmo item {@link Avaliavel}, prevalece a última.
+     *
+     * @throws IdentificadorDesconhecido Caso o identificador
+     * fornecido não identifique um parecer existente.
+     *
+     * @param id O identificador único do parecer.
+     *
+     * @param notas As alterações a serem acrescentadas ao
+     * parecer.
+     */
+    default void adicionaNotas(String id, List<Nota> notas) {
+        for (Nota nota : notas) {
+            adicionaNota(id, nota);
+        }
+    }
+
     /**
      * Remove a nota cujo item {@link Avaliavel} original é
      * fornedido.
@@ -6,6 +6,7 @@
 package br.ufg.inf.es.saep.sandbox.dominio;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -41,12 +42,20 @@ public class Radoc {
      */
     private List<Relato> relatos;
 
+    /**
+     * Relatos agrupados por tipo, montados na
+     * primeira requisição.
+     */
+    private transient volatile RelatosPorTipo relatosPorTipo;
+
     /**
      * Cria um relatório byId relatos.
      *
      * @param id O identificador único do RADOC.
      * @param anoBase O ano base do RADOC.
      * @param relatos Conjunto de relatos que fazem parte do RADOC.
+     *                A lista é copiada, ou seja, alterações
+     *                posteriores não afetam o RADOC.
      */
     public Radoc(String id, int anoBase, List<Relato> relatos) {
         if (id == null || id.isEmpty()) {
@@ -59,7 +68,7 @@ public class Radoc {
 
         this.id = id;
         this.anoBase = anoBase;
-        this.relatos = relatos;
+        this.relatos = new ArrayList<>(relatos);
     }
 
     /**
@@ -67,19 +76,30 @@ public class Radoc {
      * de um dado tipo.
      *
      * @param tipo O tipo de relato.
-     * @return Conjunto de relatos do tipo indicado.
+     * @return Conjunto (somente leitura) de relatos do
+     * tipo indicado.
      */
     public List<Relato> relatosPorTipo(String tipo) {
+        return getRelatosPorTipo().relatos(tipo);
+    }
 
-        List<Relato> procurados = new ArrayList<>();
-
-        for(Relato relato : relatos) {
-            if (relato.getTipo().equals(tipo)) {
-                procurados.add(relato);
-            }
+    /**
+     * Recupera os relatos do RADOC agrupados por tipo. O
+     * agrupamento é realizado apenas na primeira requisição
+     * e reutilizado nas seguintes (inclusive em avaliações),
+     * o que é possível porque os relatos do RADOC não são
+     * alterados.
+     *
+     * @return Os relatos do RADOC agrupados por tipo.
+     */
+    public RelatosPorTipo getRelatosPorTipo() {
+        RelatosPorTipo agrupados = relatosPorTipo;
+        if (agrupados == null) {
+            agrupados = new RelatosPorTipo(relatos);
+            relatosPorTipo = agrupados;
         }
 
-        return procurados;
+        return agrupados;
     }
 
     /**
@@ -103,9 +123,9 @@ public class Radoc {
     /**
      * Recupera os relatos que fazem parte do RADOC.
      *
-     * @return O conjunto de relatos do RADOC.
+     * @return O conjunto (somente leitura) de relatos do RADOC.
      */
     public List<Relato> getRelatos() {
-        return relatos;
+        return Collections.unmodifiableList(relatos);
     }
 }
@@ -154,6 +154,23 @@ public class Regra {
      */
     private List<String> dependeDe;
 
+    /**
+     * Símbolos ({@link Simbolos}) da variável e do tipo
+     * de relato ({@link Simbolos#NENHUM}, se ausente),
+     * obtidos na primeira requisição. A regra pode ser
+     * criada sem o construtor (reflexão ou serialização),
+     * caso em que campos transientes não são definidos.
+     */
+    private transient int simboloVariavel;
+    private transient int simboloTipoRelato;
+    private transient volatile boolean simbolosObtidos;
+
+    /**
+     * Símbolos de {@link #dependeDe}, obtidos na
+     * primeira requisição.
+     */
+    private transient volatile int[] simbolosDependeDe;
+
     /**
      * Recupera o tipo da regra.
      *
@@ -269,6 +286,61 @@ public class Regra {
         return dependeDe;
     }
 
+    /**
+     * Recupera o símbolo da variável que retém
+     * o resultado da avaliação da regra.
+     *
+     * @return O símbolo ({@link Simbolos}) de {@link #getVariavel()}.
+     */
+    public int getSimboloVariavel() {
+        if (!simbolosObtidos) {
+            obtemSimbolos();
+        }
+
+        return simboloVariavel;
+    }
+
+    /**
+     * Recupera o símbolo do tipo do relato associado
+     * à regra.
+     *
+     * @return O símbolo ({@link Simbolos}) de {@link #getTipoRelato()}
+     * ou {@link Simbolos#NENHUM}, se a regra não é do tipo
+     * {@link #PONTOS}.
+     */
+    public int getSimboloTipoRelato() {
+        if (!simbolosObtidos) {
+            obtemSimbolos();
+        }
+
+        return simboloTipoRelato;
+    }
+
+    private void obtemSimbolos() {
+        simboloVariavel = Simbolos.de(variavel);
+        simboloTipoRelato = Simbolos.de(tipoRelato);
+        simbolosObtidos = true;
+    }
+
+    /**
+     * Recupera os símbolos das variáveis empregadas
+     * pela expressão da regra. O vetor retornado é
+     * compartilhado e não deve ser alterado.
+     *
+     * @return Os símbolos ({@link Simbolos}) de {@link #getDependeDe()},
+     * na mesma ordem, ou {@code null}, se a regra é do tipo
+     * {@link #PONTOS}.
+     */
+    public int[] getSimbolosDependeDe() {
+        int[] simbolos = simbolosDependeDe;
+        if (simbolos == null && dependeDe != null) {
+            simbolos = Simbolos.de(dependeDe);
+            simbolosDependeDe = simbolos;
+        }
+
+        return simbolos;
+    }
+
     /**
      * Cria uma regra.
      *
@@ -5,6 +5,7 @@
 
 package br.ufg.inf.es.saep.sandbox.dominio;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Set;
 
@@ -17,13 +18,39 @@ import java.util.Set;
  * produto. Esse tipo é identificado por
  * {@link #tipo}.
  *
+ * <p>Os valores são mantidos em um vetor, na ordem
+ * definida pelo {@link Esquema} dos atributos, que
+ * é compartilhado por todos os relatos do tipo.
+ *
  * <p>Um relato é um "value object". Ou seja, dois
  * relatos são iguais se todos os seus atributos
- * forem iguais.
+ * forem iguais. Instâncias são imutáveis e o
+ * {@link #hashCode()}, calculado na criação, considera
+ * o tipo e todos os valores.
  */
 public class Relato implements Avaliavel {
-    private String tipo;
-    private Map<String, Valor> valores;
+    private final String tipo;
+
+    /**
+     * Símbolo de {@link #tipo}, obtido na primeira requisição
+     * em que o código do tipo está registrado ({@link Simbolos}).
+     */
+    private int simboloTipo = Simbolos.NENHUM;
+
+    /**
+     * Posição de cada atributo em {@link #valores}.
+     */
+    private final Esquema esquema;
+
+    /**
+     * Valores dos atributos, na ordem do esquema.
+     */
+    private final Valor[] valores;
+
+    /**
+     * Código hash do tipo, do esquema e dos valores.
+     */
+    private final int hash;
 
     /**
      * Cria um relato a partir do tipo e valores correspondentes
@@ -43,7 +70,49 @@ public class Relato implements Avaliavel {
         }
 
         this.tipo = tipo;
-        this.valores = valores;
+        this.esquema = Esquema.de(valores.keySet());
+        this.valores = new Valor[esquema.tamanho()];
+
+        for (Map.Entry<String, Valor> valor : valores.entrySet()) {
+            this.valores[esquema.posicao(valor.getKey())] = valor.getValue();
+        }
+
+        this.hash = hash(tipo, esquema, this.valores);
+    }
+
+    /**
+     * Cria um relato a partir do tipo, do esquema e dos
+     * valores na ordem do esquema.
+     *
+     * @param tipo    O código do tipo do relato.
+     * @param esquema O esquema dos atributos, em geral
+     *                {@link Tipo#getEsquema()}.
+     * @param valores Os valores, um para cada posição
+     *                do esquema.
+     */
+    public Relato(String tipo, Esquema esquema, Valor... valores) {
+        if (tipo == null || tipo.isEmpty()) {
+            throw new CampoExigidoNaoFornecido("tipo");
+        }
+
+        if (esquema == null) {
+            throw new CampoExigidoNaoFornecido("esquema");
+        }
+
+        if (valores == null || valores.length != esquema.tamanho()) {
+            throw new CampoExigidoNaoFornecido("valores");
+        }
+
+        this.tipo = tipo;
+        this.esquema = esquema;
+        this.valores = valores.clone();
+        this.hash = hash(tipo, esquema, this.valores);
+    }
+
+    private static int hash(String tipo, Esquema esquema, Valor[] valores) {
+        int hash = tipo.hashCode();
+        hash = 31 * hash + esquema.hashCode();
+        return 31 * hash + Arrays.hashCode(valores);
     }
 
     /**
@@ -54,8 +123,45 @@ public class Relato implements Avaliavel {
      * caso o atributo não faça parte do relato.
      */
     public Valor get(String atributo) {
+        int posicao = esquema.posicao(atributo);
+        return posicao < 0 ? null : valores[posicao];
+    }
+
+    /**
+     * Recupera o valor do atributo identificado pelo
+     * símbolo, sem consulta pelo nome.
+     *
+     * @param simbolo O símbolo do nome do atributo
+     *                (veja {@link Simbolos#de(String)}).
+     * @return O valor do atributo ou {@code null},
+     * caso o atributo não faça parte do relato.
+     */
+    @Override
+    public Valor getPeloSimbolo(int simbolo) {
+        int posicao = esquema.posicaoPeloSimbolo(simbolo);
+        return posicao < 0 ? null : valores[posicao];
+    }
+
+    /**
+     * Recupera o valor do atributo na posição
+     * fornecida.
+     *
+     * @param posicao A posição do atributo no esquema
+     *                (veja {@link Esquema#posicao(String)}).
+     * @return O valor do atributo.
+     */
+    public Valor get(int posicao) {
+        return valores[posicao];
+    }
 
-        return valores.get(atributo);
+    /**
+     * Recupera o esquema que define a posição
+     * de cada atributo do relato.
+     *
+     * @return O esquema do relato.
+     */
+    public Esquema getEsquema() {
+        return esquema;
     }
 
     /**
@@ -66,7 +172,7 @@ public class Relato implements Avaliavel {
      * relato.
      */
     public Set<String> getVariaveis() {
-        return valores.keySet();
+        return esquema.getAtributos();
     }
 
     /**
@@ -78,6 +184,23 @@ public class Relato implements Avaliavel {
         return tipo;
     }
 
+    /**
+     * Recupera o símbolo do tipo do relato.
+     *
+     * @return O símbolo ({@link Simbolos}) do código do tipo
+     * ou {@link Simbolos#NENHUM}, se nenhuma regra ou tipo
+     * registrou o código.
+     */
+    public int getSimboloTipo() {
+        int simbolo = simboloTipo;
+        if (simbolo == Simbolos.NENHUM) {
+            simbolo = Simbolos.existente(tipo);
+            simboloTipo = simbolo;
+        }
+
+        return simbolo;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -90,32 +213,27 @@ public class Relato implements Avaliavel {
 
         Relato outro = (Relato) o;
 
-        if (!tipo.equals(outro.tipo)) {
+        // Códigos distintos descartam a maioria dos
+        // relatos distintos sem comparar os valores.
+        if (hash != outro.hash) {
             return false;
         }
 
-        Set<String> keys = valores.keySet();
-        Set<String> otherKeys = outro.valores.keySet();
-
-        if (keys.size() != otherKeys.size()) {
+        if (!tipo.equals(outro.tipo)) {
             return false;
         }
 
-        for (String key : keys) {
-            Valor esseValor = valores.get(key);
-            Valor outroValor = outro.valores.get(key);
-
-            if (!esseValor.equals(outroValor)) {
-                return false;
-            }
+        // Em geral, mesmos atributos implicam a mesma
+        // instância do esquema.
+        if (esquema != outro.esquema && !esquema.equals(outro.esquema)) {
+            return false;
         }
 
-        return true;
-
+        return Arrays.equals(valores, outro.valores);
     }
 
     @Override
     public int hashCode() {
-        return tipo.hashCode();
+        return hash;
     }
 }
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2016. Fábrica de Software - Instituto de Informática (UFG)
+ * Creative Commons Attribution 4.0 International License.
+ */
+
+package br.ufg.inf.es.saep.sandbox.dominio;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Relatos agrupados pelo tipo, com os valores de cada
+ * atributo reunidos em colunas.
+ *
+ * <p>O agrupamento é realizado uma única vez, na criação.
+ * A quantidade de relatos de um tipo e os relatos
+ * correspondentes são obtidos diretamente, sem percorrer
+ * os demais relatos. A coluna de um atributo (os valores
+ * numéricos do atributo em cada relato do tipo, na ordem
+ * dos relatos) é montada na primeira requisição e retida,
+ * o que permite que somatórios sobre o atributo sejam
+ * realizados em laços simples sobre vetores.
+ *
+ * <p>Instâncias dessa classe podem ser compartilhadas
+ * por várias threads.
+ *
+ * @see Radoc#getRelatosPorTipo()
+ */
+public final class RelatosPorTipo {
+
+    /**
+     * Grupos, pelo código do tipo.
+     */
+    private final Map<String, Grupo> grupos;
+
+    /**
+     * Grupos, na ordem das posições de {@link #porSimbolo}.
+     */
+    private final Grupo[] ordenados;
+
+    /**
+     * Posição em {@link #ordenados}, pelo símbolo
+     * ({@link Simbolos}) do tipo.
+     */
+    private final MapaDeSimbolos porSimbolo;
+
+    /**
+     * Agrupa os relatos fornecidos pelo tipo.
+     *
+     * @param relatos Os relatos a serem agrupados.
+     */
+    public RelatosPorTipo(List<Relato> relatos) {
+        this(relatos, null);
+    }
+
+    /**
+     * Agrupa pelo tipo apenas os relatos dos tipos fornecidos.
+     * Relatos de outros tipos são ignorados, como se não
+     * tivessem sido fornecidos.
+     *
+     * @param relatos Os relatos a serem agrupados.
+     * @param tipos Os códigos dos tipos de interesse ou
+     *              {@code null}, para todos os tipos.
+     */
+    public RelatosPorTipo(List<Relato> relatos, Set<String> tipos) {
+        if (relatos == null) {
+            throw new CampoExigidoNaoFornecido("relatos");
+        }
+
+        Map<String, List<Relato>> porTipo = new HashMap<>();
+        for (Relato relato : relatos) {
+            String tipo = relato.getTipo();
+            if (tipos == null || tipos.contains(tipo)) {
+                porTipo.computeIfAbsent(tipo, t -> new ArrayList<>()).add(relato);
+            }
+        }
+
+        Map<String, Grupo> grupos = new HashMap<>(2 * porTipo.size());
+        Grupo[] ordenados = new Grupo[porTipo.size()];
+        int[] simbolos = new int[ordenados.length];
+        int i = 0;
+        for (Map.Entry<String, List<Relato>> tipo : porTipo.entrySet()) {
+            Grupo grupo = new Grupo(tipo.getValue());
+            grupos.put(tipo.getKey(), grupo);
+            ordenados[i] = grupo;
+            simbolos[i++] = tipo.getValue().get(0).getSimboloTipo();
+        }
+
+        this.grupos = grupos;
+        this.ordenados = ordenados;
+        this.porSimbolo = new MapaDeSimbolos(simbolos);
+    }
+
+    /**
+     * Recupera os tipos dos relatos.
+     *
+     * @return Conjunto (somente leitura) dos códigos dos tipos
+     * para os quais há pelo menos um relato.
+     */
+    public Set<String> getTipos() {
+        return Collections.unmodifiableSet(grupos.keySet());
+    }
+
+    /**
+     * Recupera a quantidade de relatos do tipo.
+     *
+     * @param tipo O código do tipo.
+     * @return Total de relatos do tipo.
+     */
+    public int quantidade(String tipo) {
+        Grupo grupo = grupos.get(tipo);
+        return grupo == null ? 0 : grupo.relatos.size();
+    }
+
+    /**
+     * Recupera os relatos do tipo.
+     *
+     * @param tipo O código do tipo.
+     * @return Lista (somente leitura) dos relatos do tipo, na
+     * ordem original, ou lista vazia, se não há relato do tipo.
+     */
+    public List<Relato> relatos(String tipo) {
+        Grupo grupo = grupos.get(tipo);
+        return grupo == null ? Collections.<Relato>emptyList() : grupo.relatos;
+    }
+
+    /**
+     * Recupera os relatos do tipo como objetos avaliáveis,
+     * conforme esperado por {@link AvaliaRegraService}.
+     *
+     * @param tipo O código do tipo.
+     * @return Lista (somente leitura) dos relatos do tipo ou
+     * {@code null}, se não há relato do tipo.
+     */
+    public List<Avaliavel> avaliaveis(String tipo) {
+        Grupo grupo = grupos.get(tipo);
+        return grupo == null ? null : grupo.avaliaveis;
+    }
+
+    /**
+     * Recupera os relatos do tipo identificado pelo símbolo
+     * como objetos avaliáveis, sem consulta pelo código.
+     *
+     * @param simboloTipo O símbolo ({@link Simbolos}) do
+     *                    código do tipo.
+     * @return Lista (somente leitura) dos relatos do tipo ou
+     * {@code null}, se não há relato do tipo.
+     */
+    public List<Avaliavel> avaliaveis(int simboloTipo) {
+        int posicao = porSimbolo.posicao(simboloTipo);
+        Grupo grupo = posicao < 0 ? null : ordenados[posicao];
+
+        // O código pode ter sido registrado após o agrupamento,
+        // portanto a ausência é confirmada pelo código.
+        return grupo != null ? grupo.avaliaveis : avaliaveis(Simbolos.nome(simboloTipo));
+    }
+
+    /**
+     * Recupera a coluna do atributo para os relatos do tipo:
+     * o valor numérico ({@link Valor#getFloat()}) do atributo
+     * em cada relato, na ordem de {@link #relatos(String)}.
+     *
+     * <p>O vetor retornado é compartilhado e não deve ser
+     * alterado.
+     *
+     * @param tipo O código do tipo.
+     * @param atributo O nome do atributo.
+     * @return A coluna do atributo ou {@code null}, caso não
+     * haja relato do tipo ou algum deles não possua o atributo.
+     */
+    public double[] coluna(String tipo, String atributo) {
+        Grupo grupo = grupos.get(tipo);
+        return grupo == null ? null : grupo.coluna(atributo);
+    }
+
+    /**
+     * Relatos de um tipo e colunas já montadas.
+     */
+    private static final class Grupo {
+        private final List<Relato> relatos;
+        private final List<Avaliavel> avaliaveis;
+
+        /**
+         * Colunas, pelo atributo. Atributo ausente em algum
+         * relato é associado a {@link #AUSENTE}.
+         */
+        private final ConcurrentMap<String, double[]> colunas = new ConcurrentHashMap<>();
+
+        private static final double[] AUSENTE = new double[0];
+
+        private Grupo(List<Relato> relatos) {
+            this.relatos = Collections.unmodifiableList(relatos);
+            this.avaliaveis = Collections.unmodifiableList(relatos);
+        }
+
+        private double[] coluna(String atributo) {
+            double[] coluna = colunas.get(atributo);
+            if (coluna == null) {
+                coluna = colunas.computeIfAbsent(atributo, this::monta);
+            }
+
+            return coluna == AUSENTE ? null : coluna;
+        }
+
+        private double[] monta(String atributo) {
+            double[] coluna = new double[relatos.size()];
+            for (int i = 0; i < coluna.length; i++) {
+                Valor valor = relatos.get(i).get(atributo);
+                if (valor == null) {
+                    return AUSENTE;
+                }
+
+                coluna[i] = valor.getFloat();
+            }
+
+            return coluna;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2016. Fábrica de Software - Instituto de Informática (UFG)
+ * Creative Commons Attribution 4.0 International License.
+ */
+
+package br.ufg.inf.es.saep.sandbox.dominio;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Tabela de símbolos que associa cada nome (código de tipo,
+ * nome de atributo ou variável de regra) a um número inteiro
+ * (símbolo), atribuídos em sequência a partir de zero.
+ *
+ * <p>Nomes são comparados e empregados como chaves a cada
+ * avaliação. O símbolo correspondente, obtido uma única vez,
+ * é comparado diretamente e pode ser empregado como posição
+ * em vetores, em vez de chave em dicionários. Os símbolos
+ * são válidos apenas durante a execução (não devem ser
+ * persistidos). A tabela é compartilhada por todas as
+ * resoluções e pode ser utilizada por várias threads.
+ *
+ * <p>Símbolos nunca são removidos. Portanto, apenas nomes
+ * definidos por regras e tipos, cuja quantidade é limitada
+ * pela configuração, são registrados ({@link #de(String)}).
+ * Nomes oriundos de dados, como os tipos e atributos de
+ * relatos, são apenas consultados ({@link #existente(String)}).
+ */
+public final class Simbolos {
+
+    /**
+     * Símbolo que indica a ausência de nome ({@code null}).
+     */
+    public static final int NENHUM = -1;
+
+    private static final ConcurrentMap<String, Integer> SIMBOLOS = new ConcurrentHashMap<>();
+
+    /**
+     * Nomes, pelo símbolo. Substituído (cópia ampliada) quando
+     * não há espaço para novo nome.
+     */
+    private static volatile String[] nomes = new String[256];
+
+    /**
+     * Quantidade de símbolos atribuídos.
+     */
+    private static volatile int total;
+
+    private Simbolos() {
+    }
+
+    /**
+     * Recupera o símbolo do nome, atribuído na primeira
+     * requisição.
+     *
+     * @param nome O nome.
+     * @return O símbolo do nome ou {@link #NENHUM},
+     * se o nome é {@code null}.
+     */
+    public static int de(String nome) {
+        if (nome == null) {
+            return NENHUM;
+        }
+
+        Integer simbolo = SIMBOLOS.get(nome);
+        if (simbolo == null) {
+            simbolo = SIMBOLOS.computeIfAbsent(nome, Simbolos::registra);
+        }
+
+        return simbolo;
+    }
+
+    /**
+     * Recupera o símbolo do nome, sem registrá-lo.
+     *
+     * @param nome O nome.
+     * @return O símbolo do nome ou {@link #NENHUM}, se o nome
+     * é {@code null} ou não foi registrado.
+     */
+    public static int existente(String nome) {
+        if (nome == null) {
+            return NENHUM;
+        }
+
+        Integer simbolo = SIMBOLOS.get(nome);
+        return simbolo == null ? NENHUM : simbolo;
+    }
+
+    /**
+     * Recupera os símbolos dos nomes.
+     *
+     * @param nomes Os nomes.
+     * @return Os símbolos, na ordem dos nomes, ou {@code null},
+     * se nenhuma lista é fornecida.
+     */
+    public static int[] de(Iterable<String> nomes) {
+        if (nomes == null) {
+            return null;
+        }
+
+        int[] simbolos = new int[8];
+        int n = 0;
+        for (String nome : nomes) {
+            if (n == simbolos.length) {
+                simbolos = Arrays.copyOf(simbolos, 2 * n);
+            }
+
+            simbolos[n++] = de(nome);
+        }
+
+        return Arrays.copyOf(simbolos, n);
+    }
+
+    /**
+     * Recupera o nome do símbolo.
+     *
+     * @param simbolo O símbolo.
+     * @return O nome correspondente ao símbolo ou {@code null},
+     * se o símbolo não foi atribuído.
+     */
+    public static String nome(int simbolo) {
+        if (simbolo < 0 || simbolo >= total) {
+            return null;
+        }
+
+        return nomes[simbolo];
+    }
+
+    /**
+     * Recupera a quantidade de símbolos atribuídos, ou seja,
+     * o maior símbolo mais um. Vetores com essa quantidade de
+     * posições comportam qualquer símbolo já atribuído.
+     *
+     * @return Total de símbolos.
+     */
+    public static int total() {
+        return total;
+    }
+
+    private static synchronized Integer registra(String nome) {
+        int simbolo = total;
+
+        String[] atuais = nomes;
+        if (simbolo == atuais.length) {
+            atuais = Arrays.copyOf(atuais, 2 * simbolo);
+        }
+
+        atuais[simbolo] = nome;
+        nomes = atuais;
+        total = simbolo + 1;
+
+        return simbolo;
+    }
+}
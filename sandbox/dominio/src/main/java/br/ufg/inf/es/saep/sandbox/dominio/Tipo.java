@@ -5,6 +5,8 @@
 
 package br.ufg.inf.es.saep.sandbox.dominio;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -62,6 +64,12 @@ public class Tipo {
      */
     private Set<Atributo> atributos;
 
+    /**
+     * Esquema dos relatos do tipo, obtido na primeira
+     * requisição.
+     */
+    private transient Esquema esquema;
+
     /**
      * Recupera o código único do tipo.
      *
@@ -127,6 +135,30 @@ public class Tipo {
         return atributos;
     }
 
+    /**
+     * Recupera o esquema (posição de cada atributo)
+     * compartilhado pelos relatos do tipo.
+     *
+     * @return O esquema dos relatos do tipo.
+     */
+    public Esquema getEsquema() {
+        Esquema e = esquema;
+        if (e == null) {
+            List<String> nomes = new ArrayList<>(atributos.size());
+            for (Atributo atributo : atributos) {
+                nomes.add(atributo.getNome());
+            }
+
+            // Tipos definem os nomes empregados pelas regras.
+            Simbolos.de(id);
+            Simbolos.de(nomes);
+            e = Esquema.de(nomes);
+            esquema = e;
+        }
+
+        return e;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -22,27 +22,77 @@ package br.ufg.inf.es.saep.sandbox.dominio;
  * do valor depende do uso do método <b>get</b>
  * correspondente ao tipo. Cabe a quem envia uma
  * mensagem para uma instância de valor fazer
- * uso do método correto.
+ * uso do método correto, conforme {@link #getTipo()}.
+ *
+ * <p>Instâncias são imutáveis e iguais se possuem o
+ * mesmo tipo e o mesmo valor. Os métodos {@code de}
+ * retornam instâncias compartilhadas para os valores
+ * lógicos e para os números inteiros mais comuns
+ * (de {@value #MENOR_INTEIRO} a {@value #MAIOR_INTEIRO}),
+ * o que evita a criação de uma instância por resultado
+ * de regra.
  */
-public class Valor {
+public final class Valor {
+
+    /**
+     * Menor número inteiro com instância compartilhada.
+     */
+    static final int MENOR_INTEIRO = -128;
+
+    /**
+     * Maior número inteiro com instância compartilhada.
+     */
+    static final int MAIOR_INTEIRO = 1024;
+
+    /**
+     * Valor lógico verdadeiro.
+     */
+    public static final Valor VERDADEIRO = new Valor(true);
+
+    /**
+     * Valor lógico falso.
+     */
+    public static final Valor FALSO = new Valor(false);
+
+    /**
+     * Instâncias compartilhadas dos números inteiros.
+     */
+    private static final Valor[] INTEIROS = new Valor[MAIOR_INTEIRO - MENOR_INTEIRO + 1];
+
+    static {
+        for (int i = 0; i < INTEIROS.length; i++) {
+            INTEIROS[i] = new Valor((float) (MENOR_INTEIRO + i));
+        }
+    }
+
+    /**
+     * O número zero.
+     */
+    public static final Valor ZERO = de(0f);
+
+    /**
+     * Tipo do valor: {@link Atributo#LOGICO},
+     * {@link Atributo#REAL} ou {@link Atributo#STRING}.
+     */
+    private final byte tipo;
 
     /**
      * Contêiner para o valor numérico
      * da instância.
      */
-    private float real;
+    private final float real;
 
     /**
      * Contêiner para o valor lógico
      * da instância.
      */
-    private boolean logico;
+    private final boolean logico;
 
     /**
      * Contêiner para a sequência de caracteres
      * mantida pela instância.
      */
-    private String string;
+    private final String string;
 
     /**
      * Cria uma instância cujo valor é
@@ -52,6 +102,9 @@ public class Valor {
      *              do valor.
      */
     public Valor(String valor) {
+        this.tipo = Atributo.STRING;
+        this.real = 0;
+        this.logico = false;
         this.string = valor;
     }
 
@@ -63,7 +116,10 @@ public class Valor {
      *              ao valor.
      */
     public Valor(float valor) {
-        real = valor;
+        this.tipo = Atributo.REAL;
+        this.real = valor;
+        this.logico = false;
+        this.string = null;
     }
 
     /**
@@ -74,7 +130,63 @@ public class Valor {
      *              retido pela instância.
      */
     public Valor(boolean valor) {
-        logico = valor;
+        this.tipo = Atributo.LOGICO;
+        this.real = 0;
+        this.logico = valor;
+        this.string = null;
+    }
+
+    /**
+     * Recupera instância cujo valor é o número real
+     * fornecido. Números inteiros entre
+     * {@value #MENOR_INTEIRO} e {@value #MAIOR_INTEIRO}
+     * são representados por instâncias compartilhadas.
+     *
+     * @param valor Número real correspondente
+     *              ao valor.
+     * @return Instância cujo valor é o número fornecido.
+     */
+    public static Valor de(float valor) {
+        int inteiro = (int) valor;
+        if (inteiro == valor && inteiro >= MENOR_INTEIRO && inteiro <= MAIOR_INTEIRO
+                && Float.floatToIntBits(valor) != Float.floatToIntBits(-0f)) {
+            return INTEIROS[inteiro - MENOR_INTEIRO];
+        }
+
+        return new Valor(valor);
+    }
+
+    /**
+     * Recupera a instância ({@link #VERDADEIRO} ou
+     * {@link #FALSO}) do valor lógico fornecido.
+     *
+     * @param valor Valor lógico.
+     * @return Instância compartilhada do valor lógico.
+     */
+    public static Valor de(boolean valor) {
+        return valor ? VERDADEIRO : FALSO;
+    }
+
+    /**
+     * Recupera instância cujo valor é a sequência
+     * de caracteres fornecida.
+     *
+     * @param valor Sequência de caracteres do valor.
+     * @return Instância cujo valor é a sequência fornecida.
+     */
+    public static Valor de(String valor) {
+        return new Valor(valor);
+    }
+
+    /**
+     * Recupera o tipo do valor, que define o
+     * método <b>get</b> a ser empregado.
+     *
+     * @return {@link Atributo#LOGICO}, {@link Atributo#REAL}
+     * ou {@link Atributo#STRING}.
+     */
+    public int getTipo() {
+        return tipo;
     }
 
     /**
@@ -110,4 +222,54 @@ public class Valor {
     public float getFloat() {
         return real;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        Valor outro = (Valor) o;
+
+        if (tipo != outro.tipo) {
+            return false;
+        }
+
+        switch (tipo) {
+            case Atributo.REAL:
+                return Float.floatToIntBits(real) == Float.floatToIntBits(outro.real);
+            case Atributo.LOGICO:
+                return logico == outro.logico;
+            default:
+                return string == null ? outro.string == null : string.equals(outro.string);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        switch (tipo) {
+            case Atributo.REAL:
+                return Float.floatToIntBits(real);
+            case Atributo.LOGICO:
+                return logico ? 1231 : 1237;
+            default:
+                return string == null ? 0 : string.hashCode();
+        }
+    }
+
+    @Override
+    public String toString() {
+        switch (tipo) {
+            case Atributo.REAL:
+                return Float.toString(real);
+            case Atributo.LOGICO:
+                return Boolean.toString(logico);
+            default:
+                return string == null ? "null" : '"' + string + '"';
+        }
+    }
 }
@@ -0,0 +1,163 @@
+package br.ufg.inf.es.saep.sandbox.infraestrutura;
+
+import br.ufg.inf.es.saep.sandbox.dominio.AvaliacaoRegraException;
+import br.ufg.inf.es.saep.sandbox.dominio.Radoc;
+import br.ufg.inf.es.saep.sandbox.dominio.Resolucao;
+import br.ufg.inf.es.saep.sandbox.dominio.Valor;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Avaliação de vários RADOCs conforme uma mesma resolução, por
+ * exemplo, todos os docentes de um departamento.
+ *
+ * <p>As regras da resolução são ordenadas e compiladas uma única
+ * vez ({@link PlanoDeAvaliacao}). Os RADOCs são consumidos à medida
+ * que são avaliados, por várias threads, e cada resultado é entregue
+ * a um destino fornecido pelo cliente, sem que os resultados sejam
+ * retidos em memória. A quantidade de RADOCs aguardando avaliação
+ * é limitada.
+ */
+public class AvaliacaoEmLote {
+
+    /**
+     * Quantidade de RADOCs, por thread, que podem aguardar avaliação.
+     */
+    private static final int PENDENTES_POR_THREAD = 4;
+
+    private final int threads;
+
+    /**
+     * Cria avaliação em lote que emprega uma thread
+     * por processador disponível.
+     */
+    public AvaliacaoEmLote() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Cria avaliação em lote que emprega a quantidade
+     * de threads indicada.
+     *
+     * @param threads Quantidade de threads.
+     */
+    public AvaliacaoEmLote(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads");
+        }
+
+        this.threads = threads;
+    }
+
+    /**
+     * Avalia os RADOCs fornecidos conforme a resolução.
+     *
+     * @param resolucao A resolução cujas regras serão avaliadas.
+     * @param radocs Os RADOCs a serem avaliados.
+     * @param destino Recebe cada RADOC e os resultados da avaliação
+     *                correspondente. É chamado simultaneamente por
+     *                várias threads, em qualquer ordem.
+     *
+     * @return Quantidade de RADOCs avaliados.
+     *
+     * @throws AvaliacaoRegraException Caso a avaliação de um RADOC
+     * falhe. RADOCs ainda não submetidos não são avaliados.
+     */
+    public long avalia(Resolucao resolucao, Stream<Radoc> radocs, BiConsumer<Radoc, Map<String, Valor>> destino) {
+        return avalia(resolucao, radocs.iterator(), destino);
+    }
+
+    /**
+     * Avalia os RADOCs fornecidos conforme a resolução.
+     *
+     * @param resolucao A resolução cujas regras serão avaliadas.
+     * @param radocs Os RADOCs a serem avaliados.
+     * @param destino Recebe cada RADOC e os resultados da avaliação
+     *                correspondente. É chamado simultaneamente por
+     *                várias threads, em qualquer ordem.
+     *
+     * @return Quantidade de RADOCs avaliados.
+     *
+     * @throws AvaliacaoRegraException Caso a avaliação de um RADOC
+     * falhe. RADOCs ainda não submetidos não são avaliados.
+     */
+    public long avalia(Resolucao resolucao, Iterator<Radoc> radocs, BiConsumer<Radoc, Map<String, Valor>> destino) {
+        PlanoDeAvaliacao plano = PlanoDeAvaliacao.compila(resolucao.getRegras());
+
+        // Cada thread reutiliza o seu espaço de avaliação.
+        ThreadLocal<EspacoDeAvaliacao> espacos = ThreadLocal.withInitial(plano::criaEspaco);
+
+        Semaphore vagas = new Semaphore(threads * PENDENTES_POR_THREAD);
+        AtomicLong avaliados = new AtomicLong();
+        AtomicReference<RuntimeException> falha = new AtomicReference<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            while (falha.get() == null && radocs.hasNext()) {
+                Radoc radoc = radocs.next();
+                vagas.acquireUninterruptibly();
+
+                executor.execute(() -> {
+                    try {
+                        if (falha.get() == null) {
+                            destino.accept(radoc, avalia(plano, espacos.get(), radoc));
+                            avaliados.incrementAndGet();
+                        }
+                    } catch (RuntimeException re) {
+                        falha.compareAndSet(null, re);
+                    } finally {
+                        vagas.release();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            aguarda(executor);
+        }
+
+        if (falha.get() != null) {
+            throw falha.get();
+        }
+
+        return avaliados.get();
+    }
+
+    private static Map<String, Valor> avalia(PlanoDeAvaliacao plano, EspacoDeAvaliacao espaco, Radoc radoc) {
+        double[] resultados = plano.avalia(radoc.getRelatos(), espaco);
+
+        Map<String, Valor> contexto = new HashMap<>(resultados.length * 2);
+        for (int i = 0; i < resultados.length; i++) {
+            contexto.put(plano.variavel(i), Valor.de((float) resultados[i]));
+        }
+
+        return contexto;
+    }
+
+    private static void aguarda(ExecutorService executor) {
+        boolean interrompida = false;
+
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    break;
+                }
+            } catch (InterruptedException ie) {
+                interrompida = true;
+            }
+        }
+
+        if (interrompida) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package br.ufg.inf.es.saep.sandbox.infraestrutura;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Avaliavel;
+
+import java.util.List;
+
+/**
+ * Interface implementada pelas classes produzidas em tempo de
+ * execução por {@link GeradorDeAvaliacao}. Cada classe avalia
+ * todas as regras de uma única resolução.
+ */
+public interface AvaliacaoGerada {
+
+    /**
+     * Avalia as regras da resolução.
+     *
+     * @param relatos Relatos agrupados por tipo, na ordem estabelecida
+     *                por {@link ResolucaoCompilada}. Uma posição
+     *                {@code null} indica que não há relato do tipo.
+     * @param resultados Vetor no qual o resultado de cada regra é
+     *                   depositado, na ordem estabelecida por
+     *                   {@link ResolucaoCompilada}.
+     */
+    void avalia(List<Avaliavel>[] relatos, double[] resultados);
+}
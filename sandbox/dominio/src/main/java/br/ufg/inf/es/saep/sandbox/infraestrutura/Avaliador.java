@@ -1,9 +1,7 @@
 package br.ufg.inf.es.saep.sandbox.infraestrutura;
 
 import br.ufg.inf.es.saep.sandbox.dominio.*;
-import com.udojava.evalex.Expression;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 
@@ -11,9 +9,45 @@ import java.util.Map;
  * Implementação do serviço de avaliação de regra usando a ferramenta
  * <a href="https://github.com/uklimaschewski/EvalEx">Java Expression
  * Evaluator</a>.
+ *
+ * <p>Expressões já processadas são mantidas em cache, ou seja, o
+ * processamento de uma expressão ocorre apenas na primeira
+ * avaliação (enquanto permanecer no cache).
  */
 public class Avaliador implements AvaliaRegraService {
 
+    /**
+     * Expressões processadas, identificadas pelo texto.
+     */
+    private final CacheDeExpressoes<ExpressaoPreparada> expressoes;
+
+    /**
+     * Cria avaliador com cache de expressões de capacidade
+     * {@link CacheDeExpressoes#CAPACIDADE_PADRAO}.
+     */
+    public Avaliador() {
+        this(CacheDeExpressoes.CAPACIDADE_PADRAO);
+    }
+
+    /**
+     * Cria avaliador com cache de expressões da capacidade indicada.
+     *
+     * @param capacidade Quantidade máxima de expressões no cache.
+     */
+    public Avaliador(int capacidade) {
+        this.expressoes = new CacheDeExpressoes<>(capacidade, ExpressaoPreparada::new);
+    }
+
+    /**
+     * Recupera o cache de expressões empregado pelo avaliador,
+     * útil para acompanhar acertos, falhas e remoções.
+     *
+     * @return O cache de expressões do avaliador.
+     */
+    public CacheDeExpressoes<ExpressaoPreparada> getExpressoes() {
+        return expressoes;
+    }
+
     @Override
     public Valor avaliaRegra(Regra regra, Map<String, Valor> contexto, List<Avaliavel> relatos) {
         switch (regra.getTipo()) {
@@ -22,13 +56,13 @@ public class Avaliador implements AvaliaRegraService {
                 float total = pontosPorRelato * relatos.size();
                 total = ajustaLimites(regra, total);
 
-                return new Valor(total);
+                return Valor.de(total);
 
             case Regra.EXPRESSAO:
                 float valor = avaliaExpressao(regra, contexto, regra.getExpressao());
                 valor = ajustaLimites(regra, valor);
 
-                return new Valor(valor);
+                return Valor.de(valor);
 
             case Regra.CONDICIONAL:
                 float condicao = avaliaExpressao(regra, contexto, regra.getExpressao());
@@ -41,14 +75,14 @@ public class Avaliador implements AvaliaRegraService {
 
                 entaoOuSenao = ajustaLimites(regra, entaoOuSenao);
 
-                return new Valor(entaoOuSenao);
+                return Valor.de(entaoOuSenao);
 
             case Regra.SOMATORIO:
                 float somatorio = somatorio(regra, relatos);
 
                 somatorio = ajustaLimites(regra, somatorio);
 
-                return new Valor(somatorio);
+                return Valor.de(somatorio);
 
             case Regra.MEDIA:
                 float parcial = somatorio(regra, relatos);
@@ -56,7 +90,7 @@ public class Avaliador implements AvaliaRegraService {
 
                 parcial = ajustaLimites(regra, parcial);
 
-                return new Valor(parcial);
+                return Valor.de(parcial);
 
             default:
                 throw new TipoDeRegraInvalido("avaliaRegra");
@@ -65,24 +99,11 @@ public class Avaliador implements AvaliaRegraService {
 
     private float somatorio(Regra regra, List<Avaliavel> relatos) {
         float somatorio = 0;
-        Expression exp = new Expression(regra.getExpressao());
+        ExpressaoPreparada exp = preparada(regra.getExpressao());
+        List<String> dependeDe = regra.getDependeDe();
 
         for (Avaliavel relato : relatos) {
-            for (String variavel : regra.getDependeDe()) {
-                Valor valor = relato.get(variavel);
-                if (valor == null) {
-                    continue;
-                }
-
-                float valor1 = valor.getFloat();
-                exp.setVariable(variavel, new BigDecimal(valor1));
-            }
-
-            try {
-                somatorio += exp.eval().floatValue();
-            } catch (RuntimeException rex) {
-                throw new AvaliacaoRegraException("Falha na avalição de regra: " + rex.getMessage());
-            }
+            somatorio += exp.avalia(relato, dependeDe).floatValue();
         }
 
         return somatorio;
@@ -101,34 +122,18 @@ public class Avaliador implements AvaliaRegraService {
     }
 
     private float avaliaExpressao(Regra regra, Map<String, Valor> contexto, String expressao) {
-        Expression exp = new Expression(expressao);
+        ExpressaoPreparada exp = preparada(expressao);
 
-        defineContexto(regra, contexto, exp);
+        // O contexto é consultado apenas para as variáveis
+        // efetivamente empregadas pela expressão.
+        return exp.avalia(variavel -> contexto.get(variavel), regra.getDependeDe()).floatValue();
+    }
 
+    private ExpressaoPreparada preparada(String expressao) {
         try {
-            BigDecimal valor = exp.eval();
-            return valor.floatValue();
+            return expressoes.obtem(expressao);
         } catch (RuntimeException re) {
             throw new AvaliacaoRegraException("Avaliação de expressão: " + re.getMessage());
         }
     }
-
-    private void defineContexto(Regra regra, Map<String, Valor> contexto, Expression exp) {
-        List<String> utilizadas = regra.getDependeDe();
-
-        // Recuperar o contexto
-        for (String dependeDe : utilizadas) {
-            Valor valor = contexto.get(dependeDe);
-
-            // Variável pode não estar disponível no contexto.
-            // Provavelmente acarretará erro de execução.
-            if (valor == null) {
-                continue;
-            }
-
-            float real = valor.getFloat();
-            BigDecimal bd = new BigDecimal(real);
-            exp.setVariable(dependeDe, bd);
-        }
-    }
 }
@@ -0,0 +1,180 @@
+package br.ufg.inf.es.saep.sandbox.infraestrutura;
+
+import br.ufg.inf.es.saep.sandbox.dominio.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementação do serviço de avaliação de regra que emprega
+ * expressões compiladas por {@link CompiladorDeExpressoes}.
+ *
+ * <p>Diferente de {@link Avaliador}, toda a aritmética é realizada
+ * com valores primitivos ({@code double}), sem a criação de
+ * instâncias de {@link java.math.BigDecimal}. Instâncias de
+ * {@link Valor} são criadas apenas para o resultado da regra.
+ * Expressões compiladas são mantidas em cache.
+ *
+ * <p>Regras SOMATORIO e MEDIA reúnem os atributos dos relatos em
+ * vetores, um por variável, e avaliam a expressão sobre todos os
+ * relatos em laços simples, em vez de avaliá-la relato a relato.
+ */
+public class AvaliadorNativo implements AvaliaRegraService {
+
+    /**
+     * Expressões compiladas, identificadas pelo texto.
+     */
+    private final CacheDeExpressoes<ExpressaoCompilada> expressoes;
+
+    /**
+     * Cria avaliador com cache de expressões de capacidade
+     * {@link CacheDeExpressoes#CAPACIDADE_PADRAO}.
+     */
+    public AvaliadorNativo() {
+        this(CacheDeExpressoes.CAPACIDADE_PADRAO);
+    }
+
+    /**
+     * Cria avaliador com cache de expressões da capacidade indicada.
+     *
+     * @param capacidade Quantidade máxima de expressões no cache.
+     */
+    public AvaliadorNativo(int capacidade) {
+        this.expressoes = new CacheDeExpressoes<>(capacidade, CompiladorDeExpressoes::compila);
+    }
+
+    /**
+     * Recupera o cache de expressões compiladas empregado
+     * pelo avaliador.
+     *
+     * @return O cache de expressões do avaliador.
+     */
+    public CacheDeExpressoes<ExpressaoCompilada> getExpressoes() {
+        return expressoes;
+    }
+
+    @Override
+    public Valor avaliaRegra(Regra regra, Map<String, Valor> contexto, List<Avaliavel> relatos) {
+        switch (regra.getTipo()) {
+            case Regra.PONTOS:
+                int total = relatos == null ? 0 : relatos.size();
+                return resultado(regra, regra.getPontosPorItem() * total);
+
+            case Regra.EXPRESSAO:
+                return resultado(regra, avaliaExpressao(regra, contexto, regra.getExpressao()));
+
+            case Regra.CONDICIONAL:
+                double condicao = avaliaExpressao(regra, contexto, regra.getExpressao());
+                String entaoOuSenao = condicao != 0d ? regra.getEntao() : regra.getSenao();
+
+                return resultado(regra, avaliaExpressao(regra, contexto, entaoOuSenao));
+
+            case Regra.SOMATORIO:
+                return resultado(regra, somatorio(regra, relatos));
+
+            case Regra.MEDIA:
+                int quantidade = relatos == null ? 0 : relatos.size();
+                return resultado(regra, somatorio(regra, relatos) / quantidade);
+
+            default:
+                throw new TipoDeRegraInvalido("avaliaRegra");
+        }
+    }
+
+    /**
+     * Somatório da expressão da regra sobre os relatos. Os atributos
+     * empregados são reunidos em colunas ({@code double[]}), uma por
+     * variável, e a expressão é avaliada sobre todas as linhas de uma
+     * única vez.
+     */
+    private double somatorio(Regra regra, List<Avaliavel> relatos) {
+        if (relatos == null) {
+            return 0d;
+        }
+
+        ExpressaoCompilada exp = compilada(regra.getExpressao());
+        return exp.somatorio(colunas(exp, relatos, regra.getSimbolosDependeDe()), relatos.size());
+    }
+
+    /**
+     * Reúne em colunas os valores das variáveis da expressão,
+     * obtidos de cada um dos relatos.
+     */
+    private static double[][] colunas(ExpressaoCompilada exp, List<Avaliavel> relatos, int[] permitidas) {
+        int n = relatos.size();
+        double[][] colunas = new double[exp.totalVariaveis()][];
+
+        for (int j = 0; j < colunas.length; j++) {
+            int variavel = exp.simbolo(j);
+            if (!contem(permitidas, variavel)) {
+                throw new AvaliacaoRegraException("Variável não definida: " + exp.variavel(j));
+            }
+
+            double[] coluna = new double[n];
+            for (int i = 0; i < n; i++) {
+                Valor valor = relatos.get(i).getPeloSimbolo(variavel);
+                if (valor == null) {
+                    throw new AvaliacaoRegraException("Variável não definida: " + exp.variavel(j));
+                }
+
+                coluna[i] = valor.getFloat();
+            }
+
+            colunas[exp.indice(j)] = coluna;
+        }
+
+        return colunas;
+    }
+
+    private double avaliaExpressao(Regra regra, Map<String, Valor> contexto, String expressao) {
+        ExpressaoCompilada exp = compilada(expressao);
+
+        double[] valores = new double[exp.totalVariaveis()];
+        if (valores.length > 0) {
+            if (contexto == null) {
+                throw new AvaliacaoRegraException("Variável não definida: " + exp.variavel(0));
+            }
+
+            carrega(exp, contexto, regra.getSimbolosDependeDe(), valores);
+        }
+
+        return exp.avalia(valores);
+    }
+
+    /**
+     * Deposita no vetor os valores das variáveis da expressão,
+     * obtidos do contexto.
+     */
+    private static void carrega(ExpressaoCompilada exp, Map<String, Valor> contexto, int[] permitidas, double[] valores) {
+        for (int i = 0; i < valores.length; i++) {
+            String variavel = exp.variavel(i);
+            Valor valor = contem(permitidas, exp.simbolo(i)) ? contexto.get(variavel) : null;
+            if (valor == null) {
+                throw new AvaliacaoRegraException("Variável não definida: " + variavel);
+            }
+
+            valores[i] = valor.getFloat();
+        }
+    }
+
+    /**
+     * Verifica se o símbolo faz parte dos símbolos fornecidos.
+     */
+    private static boolean contem(int[] simbolos, int simbolo) {
+        for (int s : simbolos) {
+            if (s == simbolo) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private ExpressaoCompilada compilada(String expressao) {
+        return expressoes.obtem(expressao);
+    }
+
+    private static Valor resultado(Regra regra, double valor) {
+        return Valor.de(Regras.limita(valor, regra.getValorMinimo(), regra.getValorMaximo()));
+    }
+}
@@ -0,0 +1,173 @@
+package br.ufg.inf.es.saep.sandbox.infraestrutura;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache limitado de expressões já processadas (compiladas),
+ * identificadas pelo texto da expressão.
+ *
+ * <p>O mesmo conjunto de expressões de uma resolução é avaliado
+ * para cada docente. O cache assegura que o processamento
+ * (parse) de uma expressão é realizado uma única vez, enquanto
+ * a expressão permanecer no cache. Quando a capacidade é atingida,
+ * a expressão usada há mais tempo é descartada (LRU).
+ *
+ * <p>Instâncias dessa classe podem ser compartilhadas por várias
+ * threads. Contadores de acertos, falhas e remoções permitem
+ * acompanhar a eficácia do cache.
+ *
+ * @param <T> O tipo da expressão processada.
+ */
+public class CacheDeExpressoes<T> {
+
+    /**
+     * Capacidade empregada quando nenhuma outra é indicada.
+     */
+    public static final int CAPACIDADE_PADRAO = 1024;
+
+    /**
+     * Quantidade máxima de expressões retidas.
+     */
+    private final int capacidade;
+
+    /**
+     * Função que produz a expressão processada a partir
+     * do texto correspondente.
+     */
+    private final Function<String, T> compilador;
+
+    /**
+     * Expressões processadas, na ordem de acesso.
+     */
+    private final Map<String, T> expressoes;
+
+    private final AtomicLong acertos = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+    private final AtomicLong remocoes = new AtomicLong();
+
+    /**
+     * Cria um cache de expressões.
+     *
+     * @param capacidade Quantidade máxima de expressões retidas.
+     * @param compilador Função que processa o texto de uma expressão.
+     *
+     * @throws IllegalArgumentException Caso a capacidade não seja
+     * positiva.
+     */
+    public CacheDeExpressoes(int capacidade, Function<String, T> compilador) {
+        if (capacidade < 1) {
+            throw new IllegalArgumentException("capacidade");
+        }
+
+        if (compilador == null) {
+            throw new IllegalArgumentException("compilador");
+        }
+
+        this.capacidade = capacidade;
+        this.compilador = compilador;
+        this.expressoes = new LinkedHashMap<String, T>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, T> maisAntiga) {
+                if (size() > CacheDeExpressoes.this.capacidade) {
+                    remocoes.incrementAndGet();
+                    return true;
+                }
+
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Recupera a expressão processada correspondente ao texto
+     * fornecido. Caso não esteja no cache, a expressão é
+     * processada e acrescentada ao cache.
+     *
+     * @param expressao O texto da expressão.
+     *
+     * @return A expressão processada.
+     */
+    public T obtem(String expressao) {
+        synchronized (expressoes) {
+            T existente = expressoes.get(expressao);
+            if (existente != null) {
+                acertos.incrementAndGet();
+                return existente;
+            }
+        }
+
+        falhas.incrementAndGet();
+
+        // O processamento ocorre fora da região crítica. Se outra
+        // thread processar a mesma expressão simultaneamente,
+        // prevalece a primeira a ser inserida.
+        T compilada = compilador.apply(expressao);
+
+        synchronized (expressoes) {
+            T existente = expressoes.putIfAbsent(expressao, compilada);
+            return existente != null ? existente : compilada;
+        }
+    }
+
+    /**
+     * Descarta todas as expressões do cache. Os contadores
+     * não são alterados.
+     */
+    public void limpa() {
+        synchronized (expressoes) {
+            expressoes.clear();
+        }
+    }
+
+    /**
+     * Recupera a quantidade de expressões no cache.
+     *
+     * @return Total de expressões retidas.
+     */
+    public int tamanho() {
+        synchronized (expressoes) {
+            return expressoes.size();
+        }
+    }
+
+    /**
+     * Recupera a capacidade do cache.
+     *
+     * @return Quantidade máxima de expressões retidas.
+     */
+    public int getCapacidade() {
+        return capacidade;
+    }
+
+    /**
+     * Recupera a quantidade de consultas atendidas pelo cache.
+     *
+     * @return Total de acertos.
+     */
+    public long getAcertos() {
+        return acertos.get();
+    }
+
+    /**
+     * Recupera a quantidade de consultas que exigiram o
+     * processamento da expressão.
+     *
+     * @return Total de falhas.
+     */
+    public long getFalhas() {
+        return falhas.get();
+    }
+
+    /**
+     * Recupera a quantidade de expressões descartadas em
+     * decorrência da capacidade do cache.
+     *
+     * @return Total de remoções.
+     */
+    public long getRemocoes() {
+        return remocoes.get();
+    }
+}
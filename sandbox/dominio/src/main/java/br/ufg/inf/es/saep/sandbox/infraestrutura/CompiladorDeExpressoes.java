@@ -0,0 +1,440 @@
+package br.ufg.inf.es.saep.sandbox.infraestrutura;
+
+import br.ufg.inf.es.saep.sandbox.dominio.AvaliacaoRegraException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Compila expressões de regras em árvores de operadores sobre
+ * valores primitivos ({@code double}), dispensando o uso de
+ * {@link java.math.BigDecimal} durante a avaliação.
+ *
+ * <p>A sintaxe aceita é aquela empregada com o
+ * <a href="https://github.com/uklimaschewski/EvalEx">Java Expression
+ * Evaluator</a>: os operadores {@code + - * / % ^}, os relacionais
+ * {@code > >= < <= = == != <>}, os lógicos {@code && ||}, as
+ * constantes {@code PI}, {@code e}, {@code TRUE} e {@code FALSE},
+ * e as funções {@code NOT}, {@code IF}, {@code MIN}, {@code MAX},
+ * {@code ABS}, {@code ROUND}, {@code FLOOR}, {@code CEILING},
+ * {@code SQRT}, {@code LOG}, {@code LOG10}, {@code RANDOM}, as
+ * trigonométricas (em graus) e {@code RAD}/{@code DEG}. As
+ * precedências e a associatividade também são aquelas do EvalEx:
+ * igualdade ({@code = == != <>}) tem precedência inferior à dos
+ * demais relacionais, e tanto estes quanto a potência são
+ * associativos à direita ({@code 3 > 2 > 1} equivale a
+ * {@code 3 > (2 > 1)}). Adicionalmente, o operador "menos" unário
+ * pode ser aplicado a qualquer operando.
+ */
+public final class CompiladorDeExpressoes {
+
+    private static final int PRECEDENCIA_OU = 2;
+    private static final int PRECEDENCIA_E = 4;
+    private static final int PRECEDENCIA_IGUALDADE = 7;
+    private static final int PRECEDENCIA_RELACIONAL = 10;
+    private static final int PRECEDENCIA_ADITIVA = 20;
+    private static final int PRECEDENCIA_MULTIPLICATIVA = 30;
+    private static final int PRECEDENCIA_POTENCIA = 40;
+
+    private final String texto;
+    private final ToIntFunction<String> indices;
+
+    /**
+     * Variáveis encontradas, na ordem em que aparecem,
+     * e as posições correspondentes.
+     */
+    private final Map<String, Integer> variaveis = new LinkedHashMap<>();
+
+    private int posicao;
+    private String token;
+    private boolean numero;
+
+    private CompiladorDeExpressoes(String texto, ToIntFunction<String> indices) {
+        this.texto = texto;
+        this.indices = indices;
+    }
+
+    /**
+     * Compila a expressão fornecida. As variáveis ocupam posições
+     * consecutivas do vetor de valores, a partir de zero, na ordem
+     * em que aparecem na expressão.
+     *
+     * @param expressao O texto da expressão.
+     *
+     * @return A expressão compilada.
+     *
+     * @throws AvaliacaoRegraException Caso a expressão não seja válida.
+     */
+    public static ExpressaoCompilada compila(String expressao) {
+        return compila(expressao, null);
+    }
+
+    /**
+     * Compila a expressão fornecida. A posição de cada variável no
+     * vetor de valores é definida pela função fornecida.
+     *
+     * @param expressao O texto da expressão.
+     * @param indices Função que define a posição do valor de uma
+     *                variável no vetor de valores.
+     *
+     * @return A expressão compilada.
+     *
+     * @throws AvaliacaoRegraException Caso a expressão não seja válida.
+     */
+    public static ExpressaoCompilada compila(String expressao, ToIntFunction<String> indices) {
+        if (expressao == null || expressao.trim().isEmpty()) {
+            throw new AvaliacaoRegraException("Expressão não fornecida");
+        }
+
+        CompiladorDeExpressoes compilador = new CompiladorDeExpressoes(expressao, indices);
+        compilador.avanca();
+        No raiz = compilador.expressao(0);
+        if (compilador.token != null) {
+            throw compilador.erro("símbolo inesperado '" + compilador.token + "'");
+        }
+
+        int total = compilador.variaveis.size();
+        String[] nomes = new String[total];
+        int[] posicoes = new int[total];
+        int i = 0;
+        for (Map.Entry<String, Integer> variavel : compilador.variaveis.entrySet()) {
+            nomes[i] = variavel.getKey();
+            posicoes[i] = variavel.getValue();
+            i++;
+        }
+
+        return new ExpressaoCompilada(expressao, raiz, nomes, posicoes);
+    }
+
+    /**
+     * Reconhece expressão cujos operadores binários possuem
+     * precedência igual ou superior àquela fornecida
+     * ("precedence climbing").
+     */
+    private No expressao(int precedenciaMinima) {
+        No esquerda = unario();
+
+        while (token != null && !numero) {
+            int precedencia = precedencia(token);
+            if (precedencia < 0 || precedencia < precedenciaMinima) {
+                break;
+            }
+
+            String operador = token;
+            avanca();
+
+            int proxima = associativaADireita(precedencia) ? precedencia : precedencia + 1;
+            No direita = expressao(proxima);
+            esquerda = binario(operador, esquerda, direita);
+        }
+
+        return esquerda;
+    }
+
+    private No unario() {
+        if ("-".equals(token) && !numero) {
+            avanca();
+            return new No.Negacao(expressao(PRECEDENCIA_POTENCIA));
+        }
+
+        return primario();
+    }
+
+    private No primario() {
+        if (token == null) {
+            throw erro("fim inesperado da expressão");
+        }
+
+        if (numero) {
+            double valor = Double.parseDouble(token);
+            avanca();
+            return new No.Constante(valor);
+        }
+
+        if ("(".equals(token)) {
+            avanca();
+            No interno = expressao(0);
+            espera(")");
+            return interno;
+        }
+
+        char inicio = token.charAt(0);
+        if (!Character.isLetter(inicio) && inicio != '_') {
+            throw erro("símbolo inesperado '" + token + "'");
+        }
+
+        String identificador = token;
+        avanca();
+
+        if ("(".equals(token)) {
+            avanca();
+            List<No> argumentos = new ArrayList<>();
+            if (!")".equals(token)) {
+                argumentos.add(expressao(0));
+                while (",".equals(token)) {
+                    avanca();
+                    argumentos.add(expressao(0));
+                }
+            }
+
+            espera(")");
+            return funcao(identificador, argumentos);
+        }
+
+        switch (identificador) {
+            case "PI": return new No.Constante(Math.PI);
+            case "e": return new No.Constante(Math.E);
+            case "TRUE": return new No.Constante(1d);
+            case "FALSE": return new No.Constante(0d);
+            default: return variavel(identificador);
+        }
+    }
+
+    private No variavel(String nome) {
+        Integer indice = variaveis.get(nome);
+        if (indice == null) {
+            indice = indices == null ? variaveis.size() : indices.applyAsInt(nome);
+            variaveis.put(nome, indice);
+        }
+
+        return new No.Variavel(nome, indice);
+    }
+
+    private No funcao(String nome, List<No> argumentos) {
+        String funcao = nome.toUpperCase();
+        int total = argumentos.size();
+
+        switch (funcao) {
+            case "IF":
+                exigeArgumentos(funcao, total, 3);
+                return new No.Se(argumentos.get(0), argumentos.get(1), argumentos.get(2));
+
+            case "MAX":
+                if (total < 1) {
+                    throw erro("MAX exige pelo menos um argumento");
+                }
+
+                return new No.Maximo(argumentos.toArray(new No[total]));
+
+            case "MIN":
+                if (total < 1) {
+                    throw erro("MIN exige pelo menos um argumento");
+                }
+
+                return new No.Minimo(argumentos.toArray(new No[total]));
+
+            case "ROUND":
+                exigeArgumentos(funcao, total, 2);
+                return new No.Arredonda(argumentos.get(0), argumentos.get(1));
+
+            case "RANDOM":
+                exigeArgumentos(funcao, total, 0);
+                return new No.Aleatorio();
+
+            default:
+                int codigo = codigoDeFuncao(funcao);
+                exigeArgumentos(funcao, total, 1);
+                return new No.Funcao(codigo, argumentos.get(0));
+        }
+    }
+
+    private int codigoDeFuncao(String funcao) {
+        switch (funcao) {
+            case "NOT": return No.Funcao.NOT;
+            case "ABS": return No.Funcao.ABS;
+            case "FLOOR": return No.Funcao.FLOOR;
+            case "CEILING": return No.Funcao.CEILING;
+            case "SQRT": return No.Funcao.SQRT;
+            case "LOG": return No.Funcao.LOG;
+            case "LOG10": return No.Funcao.LOG10;
+            case "SIN": return No.Funcao.SIN;
+            case "COS": return No.Funcao.COS;
+            case "TAN": return No.Funcao.TAN;
+            case "ASIN": return No.Funcao.ASIN;
+            case "ACOS": return No.Funcao.ACOS;
+            case "ATAN": return No.Funcao.ATAN;
+            case "SINH": return No.Funcao.SINH;
+            case "COSH": return No.Funcao.COSH;
+            case "TANH": return No.Funcao.TANH;
+            case "RAD": return No.Funcao.RAD;
+            case "DEG": return No.Funcao.DEG;
+            default: throw erro("função desconhecida '" + funcao + "'");
+        }
+    }
+
+    private void exigeArgumentos(String funcao, int fornecidos, int esperados) {
+        if (fornecidos != esperados) {
+            throw erro(funcao + " exige " + esperados + " argumento(s)");
+        }
+    }
+
+    private static int precedencia(String operador) {
+        switch (operador) {
+            case "||": return PRECEDENCIA_OU;
+            case "&&": return PRECEDENCIA_E;
+            case ">":
+            case ">=":
+            case "<":
+            case "<=": return PRECEDENCIA_RELACIONAL;
+            case "=":
+            case "==":
+            case "!=":
+            case "<>": return PRECEDENCIA_IGUALDADE;
+            case "+":
+            case "-": return PRECEDENCIA_ADITIVA;
+            case "*":
+            case "/":
+            case "%": return PRECEDENCIA_MULTIPLICATIVA;
+            case "^": return PRECEDENCIA_POTENCIA;
+            default: return -1;
+        }
+    }
+
+    /**
+     * No EvalEx, apenas os operadores aritméticos e lógicos são
+     * associativos à esquerda.
+     */
+    private static boolean associativaADireita(int precedencia) {
+        return precedencia == PRECEDENCIA_POTENCIA
+                || precedencia == PRECEDENCIA_RELACIONAL
+                || precedencia == PRECEDENCIA_IGUALDADE;
+    }
+
+    private static No binario(String operador, No esquerda, No direita) {
+        switch (operador) {
+            case "||": return new No.Ou(esquerda, direita);
+            case "&&": return new No.E(esquerda, direita);
+            case ">": return new No.Maior(esquerda, direita);
+            case ">=": return new No.MaiorIgual(esquerda, direita);
+            case "<": return new No.Menor(esquerda, direita);
+            case "<=": return new No.MenorIgual(esquerda, direita);
+            case "=":
+            case "==": return new No.Igual(esquerda, direita);
+            case "!=":
+            case "<>": return new No.Diferente(esquerda, direita);
+            case "+": return new No.Soma(esquerda, direita);
+            case "-": return new No.Subtracao(esquerda, direita);
+            case "*": return new No.Multiplicacao(esquerda, direita);
+            case "/": return new No.Divisao(esquerda, direita);
+            case "%": return new No.Resto(esquerda, direita);
+            default: return new No.Potencia(esquerda, direita);
+        }
+    }
+
+    private void espera(String esperado) {
+        if (!esperado.equals(token) || numero) {
+            throw erro("esperado '" + esperado + "'");
+        }
+
+        avanca();
+    }
+
+    /**
+     * Obtém o próximo símbolo (token) da expressão. O sinal "-"
+     * seguido de dígito é parte do número quando não pode ser
+     * operador binário, conforme o EvalEx.
+     */
+    private void avanca() {
+        boolean podeSerBinario = token != null && (numero || ")".equals(token) || ehIdentificador(token));
+
+        while (posicao < texto.length() && Character.isWhitespace(texto.charAt(posicao))) {
+            posicao++;
+        }
+
+        if (posicao >= texto.length()) {
+            token = null;
+            numero = false;
+            return;
+        }
+
+        int inicio = posicao;
+        char c = texto.charAt(posicao);
+
+        boolean negativo = c == '-' && !podeSerBinario
+                && posicao + 1 < texto.length() && ehDigito(texto.charAt(posicao + 1));
+
+        if (ehDigito(c) || negativo) {
+            posicao++;
+            while (posicao < texto.length()) {
+                char d = texto.charAt(posicao);
+                if (ehDigito(d)) {
+                    posicao++;
+                } else if ((d == 'e' || d == 'E') && posicao + 1 < texto.length()) {
+                    char s = texto.charAt(posicao + 1);
+                    if (Character.isDigit(s)) {
+                        posicao += 2;
+                    } else if ((s == '+' || s == '-') && posicao + 2 < texto.length()
+                            && Character.isDigit(texto.charAt(posicao + 2))) {
+                        posicao += 3;
+                    } else {
+                        break;
+                    }
+                } else {
+                    break;
+                }
+            }
+
+            token = texto.substring(inicio, posicao);
+            numero = true;
+            return;
+        }
+
+        numero = false;
+
+        if (Character.isLetter(c) || c == '_') {
+            posicao++;
+            while (posicao < texto.length()) {
+                char d = texto.charAt(posicao);
+                if (!Character.isLetterOrDigit(d) && d != '_') {
+                    break;
+                }
+
+                posicao++;
+            }
+
+            token = texto.substring(inicio, posicao);
+            return;
+        }
+
+        if (c == '(' || c == ')' || c == ',') {
+            posicao++;
+            token = String.valueOf(c);
+            return;
+        }
+
+        // Operadores de dois caracteres têm prioridade.
+        if (posicao + 1 < texto.length()) {
+            String dois = texto.substring(posicao, posicao + 2);
+            if (precedencia(dois) >= 0) {
+                posicao += 2;
+                token = dois;
+                return;
+            }
+        }
+
+        String um = String.valueOf(c);
+        if (precedencia(um) < 0) {
+            throw erro("símbolo desconhecido '" + um + "'");
+        }
+
+        posicao++;
+        token = um;
+    }
+
+    private static boolean ehDigito(char c) {
+        return Character.isDigit(c) || c == '.';
+    }
+
+    private static boolean ehIdentificador(String token) {
+        char inicio = token.charAt(0);
+        return Character.isLetter(inicio) || inicio == '_';
+    }
+
+    private AvaliacaoRegraException erro(String mensagem) {
+        return new AvaliacaoRegraException("Expressão inválida (" + mensagem + ", posição "
+                + posicao + "): " + texto);
+    }
+}
@@ -0,0 +1,131 @@
+package br.ufg.inf.es.saep.sandbox.infraestrutura;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Avaliavel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Memória de trabalho de um {@link PlanoDeAvaliacao}: o vetor de
+ * resultados, indexado pelas posições (slots) definidas pelo plano,
+ * e vetores auxiliares. Reutilizar um espaço em avaliações
+ * sucessivas evita a criação de objetos.
+ *
+ * <p>Instâncias não podem ser empregadas simultaneamente por
+ * várias threads. Em geral, cada thread mantém o seu espaço.
+ */
+public final class EspacoDeAvaliacao {
+
+    private final PlanoDeAvaliacao plano;
+    private final double[] resultados;
+
+    /**
+     * Colunas de atributos de relatos, ampliadas conforme
+     * a quantidade de relatos avaliados.
+     */
+    private final double[][] colunas;
+
+    /**
+     * Vetores que reúnem as colunas fornecidas à expressão de cada
+     * etapa (regra) SOMATORIO ou MEDIA, com a quantidade de
+     * variáveis da expressão.
+     */
+    private final double[][][] colunasPorEtapa;
+    private final MemoriaColunar memoria;
+    private final List<List<Avaliavel>> relatos;
+
+    /**
+     * @param larguras Quantidade de variáveis da expressão de cada
+     *                 etapa, ou {@code -1} para a etapa que não
+     *                 emprega colunas.
+     * @param niveis Maior quantidade de níveis das expressões
+     *               ({@link ExpressaoCompilada#niveis()}).
+     */
+    EspacoDeAvaliacao(PlanoDeAvaliacao plano, int[] larguras, int niveis) {
+        this.plano = plano;
+        this.resultados = new double[plano.totalVariaveis()];
+        this.colunasPorEtapa = new double[larguras.length][][];
+
+        int atributos = 0;
+        for (int i = 0; i < larguras.length; i++) {
+            if (larguras[i] >= 0) {
+                colunasPorEtapa[i] = new double[larguras[i]][];
+                atributos = Math.max(atributos, larguras[i]);
+            }
+        }
+
+        this.colunas = new double[atributos][0];
+        this.memoria = new MemoriaColunar(atributos, niveis);
+        this.relatos = new ArrayList<>(plano.totalTipos());
+
+        for (int i = 0; i < plano.totalTipos(); i++) {
+            relatos.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Recupera o plano para o qual o espaço foi criado.
+     *
+     * @return O plano de avaliação.
+     */
+    public PlanoDeAvaliacao getPlano() {
+        return plano;
+    }
+
+    /**
+     * Recupera os resultados da última avaliação, nas posições
+     * definidas por {@link PlanoDeAvaliacao#indiceDaVariavel(String)}.
+     * O vetor é reutilizado pela avaliação seguinte.
+     *
+     * @return Vetor de resultados.
+     */
+    public double[] getResultados() {
+        return resultados;
+    }
+
+    /**
+     * Recupera o resultado da última avaliação para a variável.
+     *
+     * @param variavel O nome da variável.
+     *
+     * @return O valor da variável.
+     *
+     * @throws IllegalArgumentException Caso nenhuma regra do plano
+     * produza a variável.
+     */
+    public double valor(String variavel) {
+        int indice = plano.indiceDaVariavel(variavel);
+        if (indice < 0) {
+            throw new IllegalArgumentException("variavel");
+        }
+
+        return resultados[indice];
+    }
+
+    /**
+     * Recupera a coluna da posição fornecida, com pelo menos
+     * {@code n} elementos.
+     */
+    double[] coluna(int posicao, int n) {
+        if (colunas[posicao].length < n) {
+            colunas[posicao] = new double[Math.max(n, 2 * colunas[posicao].length)];
+        }
+
+        return colunas[posicao];
+    }
+
+    /**
+     * Recupera o vetor que reúne as colunas da etapa fornecida.
+     */
+    double[][] colunasDaEtapa(int etapa) {
+        return colunasPorEtapa[etapa];
+    }
+
+    MemoriaColunar memoria() {
+        return memoria;
+    }
+
+    List<List<Avaliavel>> relatos() {
+        return relatos;
+    }
+}
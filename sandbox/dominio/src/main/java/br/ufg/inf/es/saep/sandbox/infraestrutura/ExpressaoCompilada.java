@@ -0,0 +1,195 @@
+package br.ufg.inf.es.saep.sandbox.infraestrutura;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Simbolos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Expressão convertida em árvore de operadores sobre valores
+ * primitivos ({@code double}), produzida por
+ * {@link CompiladorDeExpressoes}.
+ *
+ * <p>Os valores das variáveis são fornecidos em um vetor. A posição
+ * de cada variável no vetor é estabelecida na compilação. Instâncias
+ * são imutáveis e podem ser avaliadas simultaneamente por várias
+ * threads, desde que cada uma forneça o seu próprio vetor de valores.
+ */
+public final class ExpressaoCompilada {
+
+    private final String expressao;
+    private final No raiz;
+    private final String[] variaveis;
+    private final int[] indices;
+    private final int niveis;
+
+    /**
+     * Símbolos ({@link Simbolos}) das variáveis.
+     */
+    private final int[] simbolos;
+
+    ExpressaoCompilada(String expressao, No raiz, String[] variaveis, int[] indices) {
+        this.expressao = expressao;
+        this.raiz = raiz;
+        this.variaveis = variaveis;
+        this.indices = indices;
+        this.niveis = raiz.niveis();
+        this.simbolos = Simbolos.de(Arrays.asList(variaveis));
+    }
+
+    /**
+     * Avalia a expressão.
+     *
+     * @param valores Valores das variáveis, nas posições
+     *                definidas pela compilação.
+     *
+     * @return O valor da expressão.
+     */
+    public double avalia(double[] valores) {
+        return raiz.avalia(valores);
+    }
+
+    /**
+     * Avalia a expressão para cada uma das {@code n} linhas
+     * fornecidas em colunas.
+     *
+     * @param colunas Valores das variáveis, uma coluna por posição
+     *                definida pela compilação.
+     * @param n Quantidade de linhas.
+     * @param destino Vetor que recebe o valor da expressão para
+     *                cada linha.
+     */
+    public void avalia(double[][] colunas, int n, double[] destino) {
+        raiz.avalia(colunas, n, destino, criaMemoria(), 0);
+    }
+
+    /**
+     * Soma os valores da expressão para as {@code n} linhas
+     * fornecidas em colunas. As parcelas são acumuladas na ordem
+     * das linhas.
+     *
+     * @param colunas Valores das variáveis, uma coluna por posição
+     *                definida pela compilação.
+     * @param n Quantidade de linhas.
+     *
+     * @return O somatório dos valores da expressão.
+     */
+    public double somatorio(double[][] colunas, int n) {
+        return somatorio(colunas, n, criaMemoria());
+    }
+
+    /**
+     * Soma os valores da expressão para as {@code n} linhas
+     * fornecidas em colunas, empregando os vetores de trabalho
+     * fornecidos em vez de criá-los.
+     *
+     * @param memoria Vetores de trabalho com pelo menos
+     *                {@link #niveis()} níveis e
+     *                {@link #totalVariaveis()} variáveis.
+     */
+    double somatorio(double[][] colunas, int n, MemoriaColunar memoria) {
+        double[] parcelas = memoria.parcelas(n);
+        raiz.avalia(colunas, n, parcelas, memoria, 0);
+
+        double somatorio = 0d;
+        for (int i = 0; i < n; i++) {
+            somatorio += parcelas[i];
+        }
+
+        return somatorio;
+    }
+
+    /**
+     * Recupera a quantidade de níveis de vetores auxiliares
+     * empregados pela avaliação colunar.
+     */
+    int niveis() {
+        return niveis;
+    }
+
+    private MemoriaColunar criaMemoria() {
+        return new MemoriaColunar(variaveis.length, niveis);
+    }
+
+    /**
+     * Escreve expressão Java equivalente.
+     *
+     * @param java Destino do código produzido.
+     * @param variaveis Produz a expressão Java que fornece o valor
+     *                  de uma variável, dado o nome dela.
+     */
+    void escreve(StringBuilder java, Function<String, String> variaveis) {
+        raiz.escreve(java, variaveis);
+    }
+
+    /**
+     * Recupera o texto que deu origem à expressão.
+     *
+     * @return O texto da expressão.
+     */
+    public String getExpressao() {
+        return expressao;
+    }
+
+    /**
+     * Recupera a quantidade de variáveis distintas
+     * empregadas pela expressão.
+     *
+     * @return Total de variáveis da expressão.
+     */
+    public int totalVariaveis() {
+        return variaveis.length;
+    }
+
+    /**
+     * Recupera o nome da i-ésima variável da expressão,
+     * na ordem em que aparecem.
+     *
+     * @param i Ordem da variável, a partir de zero.
+     *
+     * @return O nome da variável.
+     */
+    public String variavel(int i) {
+        return variaveis[i];
+    }
+
+    /**
+     * Recupera o símbolo do nome da i-ésima variável
+     * da expressão.
+     *
+     * @param i Ordem da variável, a partir de zero.
+     *
+     * @return O símbolo ({@link Simbolos}) da variável.
+     */
+    public int simbolo(int i) {
+        return simbolos[i];
+    }
+
+    /**
+     * Recupera a posição, no vetor de valores, da i-ésima
+     * variável da expressão.
+     *
+     * @param i Ordem da variável, a partir de zero.
+     *
+     * @return A posição do valor da variável.
+     */
+    public int indice(int i) {
+        return indices[i];
+    }
+
+    /**
+     * Recupera as variáveis empregadas pela expressão.
+     *
+     * @return Os nomes das variáveis, na ordem em que aparecem.
+     */
+    public List<String> getVariaveis() {
+        List<String> lista = new ArrayList<>(variaveis.length);
+        for (String variavel : variaveis) {
+            lista.add(variavel);
+        }
+
+        return lista;
+    }
+}
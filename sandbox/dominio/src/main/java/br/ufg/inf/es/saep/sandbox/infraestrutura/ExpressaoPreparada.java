@@ -0,0 +1,178 @@
+package br.ufg.inf.es.saep.sandbox.infraestrutura;
+
+import br.ufg.inf.es.saep.sandbox.dominio.AvaliacaoRegraException;
+import br.ufg.inf.es.saep.sandbox.dominio.Avaliavel;
+import br.ufg.inf.es.saep.sandbox.dominio.Valor;
+import com.udojava.evalex.Expression;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Expressão do <a href="https://github.com/uklimaschewski/EvalEx">Java
+ * Expression Evaluator</a> cujo processamento (parse) já foi realizado
+ * e que pode ser avaliada repetidas vezes.
+ *
+ * <p>Uma instância de {@link Expression} guarda os valores das
+ * variáveis e, portanto, não pode ser avaliada simultaneamente por
+ * mais de uma thread. Cada thread obtém uma instância livre,
+ * que é devolvida após a avaliação. Novas instâncias são criadas
+ * apenas quando não há instância livre, o que limita o total de
+ * instâncias ao número de avaliações simultâneas da expressão.
+ */
+public final class ExpressaoPreparada {
+
+    /**
+     * Texto da expressão.
+     */
+    private final String expressao;
+
+    /**
+     * Variáveis empregadas pela expressão, na ordem
+     * em que aparecem.
+     */
+    private final String[] variaveis;
+
+    /**
+     * Instâncias processadas e disponíveis para avaliação.
+     */
+    private final ConcurrentLinkedQueue<Expression> livres = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Processa a expressão fornecida.
+     *
+     * @param expressao O texto da expressão.
+     *
+     * @throws com.udojava.evalex.Expression.ExpressionException Caso a
+     * expressão não seja válida.
+     */
+    public ExpressaoPreparada(String expressao) {
+        this.expressao = expressao;
+        this.variaveis = identificaVariaveis(expressao);
+        livres.offer(prepara());
+    }
+
+    /**
+     * Avalia a expressão. O valor de cada variável empregada
+     * pela expressão é obtido da fonte fornecida.
+     *
+     * @param fonte Fonte dos valores das variáveis.
+     * @param permitidas Variáveis cujos valores podem ser
+     *                   consultados, em geral, aquelas das quais
+     *                   a regra depende.
+     *
+     * @return O valor da expressão.
+     *
+     * @throws AvaliacaoRegraException Caso alguma variável não esteja
+     * disponível ou a avaliação falhe.
+     */
+    public BigDecimal avalia(Avaliavel fonte, List<String> permitidas) {
+        Expression exp = livres.poll();
+        if (exp == null) {
+            exp = prepara();
+        }
+
+        try {
+            for (String variavel : variaveis) {
+                Valor valor = permitidas.contains(variavel) ? fonte.get(variavel) : null;
+                if (valor == null) {
+                    throw new AvaliacaoRegraException("Variável não definida: " + variavel);
+                }
+
+                exp.setVariable(variavel, new BigDecimal(valor.getFloat()));
+            }
+
+            return exp.eval();
+        } catch (AvaliacaoRegraException are) {
+            throw are;
+        } catch (RuntimeException re) {
+            throw new AvaliacaoRegraException("Avaliação de expressão: " + re.getMessage());
+        } finally {
+            livres.offer(exp);
+        }
+    }
+
+    /**
+     * Recupera o texto da expressão.
+     *
+     * @return O texto da expressão.
+     */
+    public String getExpressao() {
+        return expressao;
+    }
+
+    /**
+     * Recupera as variáveis empregadas pela expressão.
+     *
+     * @return Os nomes das variáveis da expressão.
+     */
+    public List<String> getVariaveis() {
+        List<String> lista = new ArrayList<>(variaveis.length);
+        for (String variavel : variaveis) {
+            lista.add(variavel);
+        }
+
+        return lista;
+    }
+
+    /**
+     * Cria instância de {@link Expression} já processada.
+     * A conversão para a notação polonesa reversa (RPN), realizada
+     * uma única vez por instância, depende das variáveis conhecidas.
+     * Por isso, todas elas são definidas antes da conversão.
+     *
+     * @return Instância pronta para avaliação.
+     */
+    private Expression prepara() {
+        Expression exp = new Expression(expressao);
+        for (String variavel : variaveis) {
+            exp.setVariable(variavel, BigDecimal.ZERO);
+        }
+
+        exp.toRPN();
+
+        return exp;
+    }
+
+    /**
+     * Identifica as variáveis empregadas pela expressão, ou seja,
+     * identificadores que não são constantes (por exemplo,
+     * {@code PI}) nem funções (seguidos de parênteses).
+     */
+    private static String[] identificaVariaveis(String expressao) {
+        Expression exp = new Expression(expressao);
+        Set<String> constantes = exp.getDeclaredVariables();
+        Set<String> encontradas = new LinkedHashSet<>();
+
+        Iterator<String> tokens = exp.getExpressionTokenizer();
+        String anterior = null;
+        while (tokens.hasNext()) {
+            String token = tokens.next();
+            if (ehVariavel(anterior, constantes) && !"(".equals(token)) {
+                encontradas.add(anterior);
+            }
+
+            anterior = token;
+        }
+
+        if (ehVariavel(anterior, constantes)) {
+            encontradas.add(anterior);
+        }
+
+        return encontradas.toArray(new String[encontradas.size()]);
+    }
+
+    private static boolean ehVariavel(String token, Set<String> constantes) {
+        if (token == null || token.isEmpty()) {
+            return false;
+        }
+
+        char inicio = token.charAt(0);
+        return (Character.isLetter(inicio) || inicio == '_') && !constantes.contains(token);
+    }
+}
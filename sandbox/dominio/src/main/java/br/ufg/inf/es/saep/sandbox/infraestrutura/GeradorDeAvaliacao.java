@@ -0,0 +1,581 @@
+package br.ufg.inf.es.saep.sandbox.infraestrutura;
+
+import br.ufg.inf.es.saep.sandbox.dominio.*;
+
+import javax.tools.*;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Avaliação de resoluções por meio de código gerado em tempo de
+ * execução.
+ *
+ * <p>As regras de uma resolução são ordenadas por
+ * {@link OrdenacaoService} e convertidas em uma única classe Java,
+ * na qual o resultado de cada regra é mantido em variável local
+ * ({@code double}). Não há consulta a dicionário, criação de
+ * {@link Valor} nem chamada a {@link AvaliaRegraService} por regra,
+ * o que permite ao compilador JIT otimizar a avaliação como um todo.
+ * A classe gerada é compilada e carregada uma única vez para as
+ * regras de uma resolução. A quantidade de compilações retidas é
+ * limitada; atingido esse total, a compilação usada há mais tempo
+ * é descartada.
+ *
+ * <p>A compilação emprega o compilador Java disponível em tempo de
+ * execução ({@link ToolProvider#getSystemJavaCompiler()}). Na
+ * ausência dele (execução em JRE), as regras são avaliadas por
+ * {@link AvaliadorNativo}, com resultados equivalentes.
+ */
+public class GeradorDeAvaliacao {
+
+    /**
+     * Pacote das classes geradas.
+     */
+    private static final String PACOTE = "br.ufg.inf.es.saep.sandbox.infraestrutura.gerada";
+
+    /**
+     * Quantidade de regras por método gerado. Métodos muito
+     * extensos não são compilados pelo JIT.
+     */
+    private static final int REGRAS_POR_BLOCO = 48;
+
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    /**
+     * Quantidade de resoluções cujas compilações são retidas
+     * quando nenhuma outra é indicada.
+     */
+    public static final int RESOLUCOES_RETIDAS = 64;
+
+    /**
+     * Quantidade máxima de resoluções cujas compilações
+     * são retidas.
+     */
+    private final int capacidade;
+
+    /**
+     * Resoluções compiladas, pelo identificador, na ordem
+     * de acesso.
+     */
+    private final Map<String, Compilacao> compiladas;
+
+    /**
+     * Cria gerador que retém até {@link #RESOLUCOES_RETIDAS}
+     * compilações.
+     */
+    public GeradorDeAvaliacao() {
+        this(RESOLUCOES_RETIDAS);
+    }
+
+    /**
+     * Cria gerador que retém a quantidade de compilações indicada.
+     *
+     * @param capacidade Quantidade máxima de resoluções cujas
+     *                   compilações são retidas.
+     *
+     * @throws IllegalArgumentException Caso a capacidade não seja
+     * positiva.
+     */
+    public GeradorDeAvaliacao(int capacidade) {
+        if (capacidade < 1) {
+            throw new IllegalArgumentException("capacidade");
+        }
+
+        this.capacidade = capacidade;
+        this.compiladas = new LinkedHashMap<String, Compilacao>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Compilacao> maisAntiga) {
+                return size() > GeradorDeAvaliacao.this.capacidade;
+            }
+        };
+    }
+
+    /**
+     * Avalia as regras da resolução para os relatos fornecidos. A
+     * resolução é compilada apenas na primeira avaliação.
+     *
+     * @param resolucao A resolução cujas regras serão avaliadas.
+     * @param relatos Conjunto de relatos sobre os quais a avaliação
+     *                das regras será executada.
+     *
+     * @return Resultados produzidos pela avaliação.
+     */
+    public Map<String, Valor> avalia(Resolucao resolucao, List<Relato> relatos) {
+        return obtem(resolucao).avalia(relatos);
+    }
+
+    /**
+     * Recupera a compilação da resolução. A compilação retida para
+     * o identificador da resolução é empregada apenas se produzida
+     * a partir das mesmas regras; caso contrário, as regras são
+     * compiladas novamente.
+     *
+     * @param resolucao A resolução.
+     *
+     * @return A resolução compilada.
+     */
+    public ResolucaoCompilada obtem(Resolucao resolucao) {
+        List<Regra> regras = resolucao.getRegras();
+
+        Compilacao retida;
+        synchronized (compiladas) {
+            retida = compiladas.get(resolucao.getId());
+        }
+
+        if (retida != null && retida.valida(regras)) {
+            return retida.compilada;
+        }
+
+        // A compilação ocorre fora da região crítica.
+        Compilacao compilacao = new Compilacao(resolucao.getId(), regras);
+
+        synchronized (compiladas) {
+            compiladas.put(resolucao.getId(), compilacao);
+        }
+
+        return compilacao.compilada;
+    }
+
+    /**
+     * Descarta a compilação da resolução, se existir. Alterações
+     * nas regras da resolução são identificadas na avaliação
+     * seguinte, portanto o descarte apenas libera a memória
+     * correspondente.
+     *
+     * @param resolucao O identificador da resolução.
+     */
+    public void descarta(String resolucao) {
+        synchronized (compiladas) {
+            compiladas.remove(resolucao);
+        }
+    }
+
+    /**
+     * Compilação retida e as regras a partir das quais
+     * foi produzida.
+     */
+    private static final class Compilacao {
+        private final Regra[] regras;
+        private final ResolucaoCompilada compilada;
+
+        private Compilacao(String resolucao, List<Regra> regras) {
+            this.regras = regras.toArray(new Regra[regras.size()]);
+            this.compilada = compila(resolucao, Arrays.asList(this.regras));
+        }
+
+        /**
+         * Verifica se as regras fornecidas são as mesmas
+         * instâncias, na mesma sequência, daquelas a partir
+         * das quais a compilação foi produzida.
+         */
+        private boolean valida(List<Regra> atuais) {
+            if (atuais.size() != regras.length) {
+                return false;
+            }
+
+            int i = 0;
+            for (Regra regra : atuais) {
+                if (regra != regras[i++]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Compila a resolução, sem consultar nem alterar as compilações
+     * retidas.
+     *
+     * @param resolucao A resolução.
+     *
+     * @return A resolução compilada.
+     */
+    public static ResolucaoCompilada compila(Resolucao resolucao) {
+        return compila(resolucao.getId(), resolucao.getRegras());
+    }
+
+    /**
+     * Compila as regras fornecidas, identificadas pela resolução
+     * apenas no código produzido.
+     */
+    private static ResolucaoCompilada compila(String resolucao, List<Regra> regras) {
+        List<Regra> ordenadas = OrdenacaoService.ordena(regras);
+
+        int total = ordenadas.size();
+        String[] variaveis = new String[total];
+        Map<String, Integer> indices = new HashMap<>(total * 2);
+        Map<String, Integer> tipos = new LinkedHashMap<>();
+
+        for (int i = 0; i < total; i++) {
+            Regra regra = ordenadas.get(i);
+            variaveis[i] = regra.getVariavel();
+            indices.put(regra.getVariavel(), i);
+
+            if (Regras.usaRelatos(regra) && !tipos.containsKey(regra.getTipoRelato())) {
+                tipos.put(regra.getTipoRelato(), tipos.size());
+            }
+        }
+
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        if (javac == null) {
+            AvaliacaoGerada interpretada = new Interpretada(ordenadas, variaveis, tipos);
+            return new ResolucaoCompilada(resolucao, interpretada, variaveis, tipos, null);
+        }
+
+        String classe = "Resolucao" + SEQUENCIA.incrementAndGet();
+        String fonte = gera(classe, resolucao, ordenadas, indices, tipos);
+        AvaliacaoGerada gerada = carrega(javac, PACOTE + "." + classe, fonte);
+
+        return new ResolucaoCompilada(resolucao, gerada, variaveis, tipos, fonte);
+    }
+
+    /**
+     * Produz o código-fonte da classe que avalia as regras
+     * (já ordenadas).
+     */
+    private static String gera(String classe,
+                               String resolucao,
+                               List<Regra> ordenadas,
+                               Map<String, Integer> indices,
+                               Map<String, Integer> tipos) {
+        String suporte = SuporteAvaliacaoGerada.class.getName();
+        String avaliavel = Avaliavel.class.getName();
+
+        StringBuilder java = new StringBuilder(4096);
+        java.append("package ").append(PACOTE).append(";\n\n");
+        java.append("// Resolução: ").append(comentario(resolucao)).append("\n");
+        java.append("public final class ").append(classe)
+                .append(" implements ").append(AvaliacaoGerada.class.getName()).append(" {\n\n");
+
+        int blocos = (ordenadas.size() + REGRAS_POR_BLOCO - 1) / REGRAS_POR_BLOCO;
+
+        java.append("    public void avalia(java.util.List<").append(avaliavel)
+                .append(">[] relatos, double[] r) {\n");
+        for (int b = 0; b < blocos; b++) {
+            java.append("        bloco").append(b).append("(relatos, r);\n");
+        }
+        java.append("    }\n");
+
+        for (int b = 0; b < blocos; b++) {
+            int inicio = b * REGRAS_POR_BLOCO;
+            int fim = Math.min(inicio + REGRAS_POR_BLOCO, ordenadas.size());
+
+            java.append("\n    private static void bloco").append(b).append("(java.util.List<")
+                    .append(avaliavel).append(">[] relatos, double[] r) {\n");
+
+            for (int i = inicio; i < fim; i++) {
+                Regra regra = ordenadas.get(i);
+                java.append("        // ").append(comentario(regra.getVariavel())).append("\n");
+                java.append("        final double v").append(i).append(" = ").append(suporte).append(".limita(");
+                geraRegra(java, regra, i, inicio, indices, tipos);
+                java.append(", ").append(literal(regra.getValorMinimo()))
+                        .append(", ").append(literal(regra.getValorMaximo())).append(");\n");
+                java.append("        r[").append(i).append("] = v").append(i).append(";\n");
+            }
+
+            java.append("    }\n");
+        }
+
+        java.append("}\n");
+        return java.toString();
+    }
+
+    /**
+     * Produz expressão Java para o valor da regra (antes da
+     * aplicação dos limites). Relatos são percorridos por
+     * expressão "lambda" invocada imediatamente, o que
+     * mantém o resultado como expressão.
+     */
+    private static void geraRegra(StringBuilder java,
+                                  Regra regra,
+                                  int posicao,
+                                  int inicioDoBloco,
+                                  Map<String, Integer> indices,
+                                  Map<String, Integer> tipos) {
+        List<String> dependeDe = regra.getDependeDe();
+        String suporte = SuporteAvaliacaoGerada.class.getName();
+
+        // Variáveis do contexto: resultados de regras anteriores.
+        Function<String, String> contexto = variavel -> {
+            Integer indice = indices.get(variavel);
+            if (indice == null || indice >= posicao || !dependeDe.contains(variavel)) {
+                return suporte + ".indefinida(\"" + escapa(variavel) + "\")";
+            }
+
+            return indice >= inicioDoBloco ? "v" + indice : "r[" + indice + "]";
+        };
+
+        switch (regra.getTipo()) {
+            case Regra.PONTOS:
+                String lista = "relatos[" + tipos.get(regra.getTipoRelato()) + "]";
+                java.append('(').append(literal(regra.getPontosPorItem())).append(" * (")
+                        .append(lista).append(" == null ? 0 : ").append(lista).append(".size()))");
+                break;
+
+            case Regra.EXPRESSAO:
+                expressao(java, regra.getExpressao(), contexto);
+                break;
+
+            case Regra.CONDICIONAL:
+                java.append('(');
+                expressao(java, regra.getExpressao(), contexto);
+                java.append(" != 0d ? ");
+                expressao(java, regra.getEntao(), contexto);
+                java.append(" : ");
+                expressao(java, regra.getSenao(), contexto);
+                java.append(')');
+                break;
+
+            case Regra.SOMATORIO:
+            case Regra.MEDIA:
+                agregacao(java, regra, tipos.get(regra.getTipoRelato()));
+                break;
+
+            default:
+                throw new TipoDeRegraInvalido("avaliaRegra");
+        }
+    }
+
+    /**
+     * Somatório (ou média) da expressão da regra sobre os relatos
+     * do tipo. Cada atributo é lido uma única vez por relato.
+     */
+    private static void agregacao(StringBuilder java, Regra regra, int tipo) {
+        String suporte = SuporteAvaliacaoGerada.class.getName();
+        String avaliavel = Avaliavel.class.getName();
+        boolean media = regra.getTipo() == Regra.MEDIA;
+        List<String> dependeDe = regra.getDependeDe();
+
+        ExpressaoCompilada exp;
+        try {
+            exp = CompiladorDeExpressoes.compila(regra.getExpressao());
+        } catch (AvaliacaoRegraException are) {
+            java.append(suporte).append(".falha(\"").append(escapa(are.getMessage())).append("\")");
+            return;
+        }
+
+        Map<String, String> atributos = new HashMap<>();
+        StringBuilder leitura = new StringBuilder();
+        for (int i = 0; i < exp.totalVariaveis(); i++) {
+            String atributo = exp.variavel(i);
+            String local = "a" + i;
+            atributos.put(atributo, local);
+
+            leitura.append("                double ").append(local).append(" = ");
+            if (dependeDe.contains(atributo)) {
+                leitura.append(suporte).append(".atributo(x, \"").append(escapa(atributo)).append("\");\n");
+            } else {
+                leitura.append(suporte).append(".indefinida(\"").append(escapa(atributo)).append("\");\n");
+            }
+        }
+
+        java.append("((java.util.function.DoubleSupplier) () -> {\n");
+        java.append("            java.util.List<").append(avaliavel).append("> lista = relatos[")
+                .append(tipo).append("];\n");
+        java.append("            double soma = 0d;\n");
+        java.append("            int n = lista == null ? 0 : lista.size();\n");
+        java.append("            for (int i = 0; i < n; i++) {\n");
+        java.append("                ").append(avaliavel).append(" x = lista.get(i);\n");
+        java.append(leitura);
+        java.append("                soma += ");
+        exp.escreve(java, atributos::get);
+        java.append(";\n");
+        java.append("            }\n");
+        java.append(media ? "            return soma / n;\n" : "            return soma;\n");
+        java.append("        }).getAsDouble()");
+    }
+
+    private static void expressao(StringBuilder java, String expressao, Function<String, String> variaveis) {
+        try {
+            CompiladorDeExpressoes.compila(expressao).escreve(java, variaveis);
+        } catch (AvaliacaoRegraException are) {
+            // Assim como na avaliação interpretada, a falha ocorre
+            // apenas se a expressão for avaliada.
+            java.append(SuporteAvaliacaoGerada.class.getName())
+                    .append(".falha(\"").append(escapa(are.getMessage())).append("\")");
+        }
+    }
+
+    private static String literal(float valor) {
+        if (Float.isNaN(valor) || Float.isInfinite(valor)) {
+            return "Float.intBitsToFloat(" + Float.floatToRawIntBits(valor) + ")";
+        }
+
+        return Float.toString(valor) + "f";
+    }
+
+    /**
+     * Produz o conteúdo de literal Java ({@code String}) para
+     * o texto fornecido.
+     */
+    private static String escapa(String texto) {
+        if (texto == null) {
+            return "null";
+        }
+
+        StringBuilder sb = new StringBuilder(texto.length());
+        for (char c : texto.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c == '\n') {
+                // O escape unicode da quebra de linha seria
+                // convertido antes da análise do literal.
+                sb.append("\\n");
+            } else if (c == '\r') {
+                sb.append("\\r");
+            } else if (c < 0x20 || c > 0x7e) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Texto seguro para comentário de linha. Sequências "\\u" são
+     * convertidas pelo compilador mesmo em comentários, portanto
+     * barras invertidas, assim como caracteres de controle e não
+     * ASCII, são substituídas pelo código correspondente ("u+005c").
+     */
+    private static String comentario(String texto) {
+        if (texto == null) {
+            return "null";
+        }
+
+        StringBuilder sb = new StringBuilder(texto.length());
+        for (char c : texto.toCharArray()) {
+            if (c == '\\' || c < 0x20 || c > 0x7e) {
+                sb.append(String.format("u+%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Compila o código-fonte em memória e cria instância
+     * da classe produzida.
+     */
+    private static AvaliacaoGerada carrega(JavaCompiler javac, String nome, String fonte) {
+        Map<String, ByteArrayOutputStream> classes = new HashMap<>();
+        DiagnosticCollector<JavaFileObject> diagnosticos = new DiagnosticCollector<>();
+
+        StandardJavaFileManager padrao = javac.getStandardFileManager(diagnosticos, null, StandardCharsets.UTF_8);
+        JavaFileManager memoria = new ForwardingJavaFileManager<StandardJavaFileManager>(padrao) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location local, String classe,
+                                                       JavaFileObject.Kind tipo, FileObject origem) {
+                URI uri = URI.create("mem:///" + classe.replace('.', '/') + tipo.extension);
+                return new SimpleJavaFileObject(uri, tipo) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                        classes.put(classe, bytes);
+                        return bytes;
+                    }
+                };
+            }
+        };
+
+        URI uri = URI.create("string:///" + nome.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension);
+        JavaFileObject codigo = new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignorarErros) {
+                return fonte;
+            }
+        };
+
+        List<String> opcoes = Arrays.asList("-classpath", classpath(), "-proc:none", "-g:none", "-nowarn");
+        boolean sucesso = javac.getTask(null, memoria, diagnosticos, opcoes, null,
+                Collections.singletonList(codigo)).call();
+
+        if (!sucesso) {
+            throw new IllegalStateException("Falha ao compilar avaliação gerada: "
+                    + diagnosticos.getDiagnostics());
+        }
+
+        ClassLoader carregador = new ClassLoader(AvaliacaoGerada.class.getClassLoader()) {
+            @Override
+            protected Class<?> findClass(String classe) throws ClassNotFoundException {
+                ByteArrayOutputStream bytes = classes.get(classe);
+                if (bytes == null) {
+                    throw new ClassNotFoundException(classe);
+                }
+
+                byte[] definicao = bytes.toByteArray();
+                return defineClass(classe, definicao, 0, definicao.length);
+            }
+        };
+
+        try {
+            Class<?> classe = carregador.loadClass(nome);
+            return (AvaliacaoGerada) classe.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException roe) {
+            throw new IllegalStateException("Falha ao carregar avaliação gerada", roe);
+        }
+    }
+
+    /**
+     * Caminho das classes necessárias para compilar o código gerado,
+     * inclusive a origem das classes do SAEP, nem sempre presente na
+     * propriedade "java.class.path".
+     */
+    private static String classpath() {
+        String caminho = System.getProperty("java.class.path", "");
+
+        try {
+            File origem = new File(AvaliacaoGerada.class.getProtectionDomain()
+                    .getCodeSource().getLocation().toURI());
+            return origem.getPath() + File.pathSeparator + caminho;
+        } catch (Exception e) {
+            return caminho;
+        }
+    }
+
+    /**
+     * Avaliação empregada quando o compilador Java não está
+     * disponível.
+     */
+    private static final class Interpretada implements AvaliacaoGerada {
+        private final List<Regra> regras;
+        private final String[] variaveis;
+        private final int[] tipos;
+        private final AvaliadorNativo avaliador = new AvaliadorNativo();
+
+        Interpretada(List<Regra> regras, String[] variaveis, Map<String, Integer> tipos) {
+            this.regras = regras;
+            this.variaveis = variaveis;
+            this.tipos = new int[regras.size()];
+
+            for (int i = 0; i < regras.size(); i++) {
+                Integer tipo = tipos.get(regras.get(i).getTipoRelato());
+                this.tipos[i] = Regras.usaRelatos(regras.get(i)) && tipo != null ? tipo : -1;
+            }
+        }
+
+        @Override
+        public void avalia(List<Avaliavel>[] relatos, double[] resultados) {
+            Map<String, Valor> contexto = new HashMap<>(variaveis.length * 2);
+
+            for (int i = 0; i < variaveis.length; i++) {
+                List<Avaliavel> considerados = tipos[i] < 0 ? null : relatos[tipos[i]];
+                Valor valor = avaliador.avaliaRegra(regras.get(i), contexto, considerados);
+
+                contexto.put(variaveis[i], valor);
+                resultados[i] = valor.getFloat();
+            }
+        }
+    }
+}
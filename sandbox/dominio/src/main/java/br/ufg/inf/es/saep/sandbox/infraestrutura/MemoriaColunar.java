@@ -0,0 +1,78 @@
+package br.ufg.inf.es.saep.sandbox.infraestrutura;
+
+/**
+ * Vetores de trabalho da avaliação colunar de expressões
+ * ({@link ExpressaoCompilada#somatorio(double[][], int)}).
+ *
+ * <p>Cada operador aritmético avalia o operando da direita em um
+ * vetor auxiliar do nível (profundidade) em que se encontra, de modo
+ * que a quantidade de vetores é definida na compilação da expressão.
+ * Os vetores são ampliados conforme a quantidade de linhas e, após
+ * a primeira avaliação com a maior quantidade, a avaliação não cria
+ * objetos.
+ *
+ * <p>Instâncias não podem ser empregadas simultaneamente por
+ * várias threads.
+ */
+final class MemoriaColunar {
+
+    private static final double[] VAZIO = new double[0];
+
+    /**
+     * Valores de uma linha, para a avaliação linha a linha.
+     */
+    private double[] linha;
+    private final double[][] auxiliares;
+    private double[] parcelas = VAZIO;
+
+    /**
+     * @param variaveis Maior quantidade de variáveis (colunas)
+     *                  das expressões avaliadas.
+     * @param niveis Maior quantidade de níveis ({@link No#niveis()})
+     *               das expressões avaliadas.
+     */
+    MemoriaColunar(int variaveis, int niveis) {
+        this.linha = new double[variaveis];
+        this.auxiliares = new double[niveis][];
+
+        for (int i = 0; i < niveis; i++) {
+            auxiliares[i] = VAZIO;
+        }
+    }
+
+    /**
+     * Recupera o vetor de valores de uma linha, com pelo menos
+     * {@code variaveis} elementos.
+     */
+    double[] linha(int variaveis) {
+        if (linha.length < variaveis) {
+            linha = new double[variaveis];
+        }
+
+        return linha;
+    }
+
+    /**
+     * Recupera o vetor auxiliar do nível fornecido, com pelo
+     * menos {@code n} elementos.
+     */
+    double[] auxiliar(int nivel, int n) {
+        if (auxiliares[nivel].length < n) {
+            auxiliares[nivel] = new double[Math.max(n, 2 * auxiliares[nivel].length)];
+        }
+
+        return auxiliares[nivel];
+    }
+
+    /**
+     * Recupera o vetor que recebe as parcelas de um somatório,
+     * com pelo menos {@code n} elementos.
+     */
+    double[] parcelas(int n) {
+        if (parcelas.length < n) {
+            parcelas = new double[Math.max(n, 2 * parcelas.length)];
+        }
+
+        return parcelas;
+    }
+}
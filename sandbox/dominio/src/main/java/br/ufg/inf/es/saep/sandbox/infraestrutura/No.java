@@ -0,0 +1,741 @@
+package br.ufg.inf.es.saep.sandbox.infraestrutura;
+
+import br.ufg.inf.es.saep.sandbox.dominio.AvaliacaoRegraException;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Nó da árvore de operadores produzida por
+ * {@link CompiladorDeExpressoes}. A avaliação é realizada
+ * exclusivamente com valores primitivos ({@code double}).
+ *
+ * <p>Valores lógicos seguem a convenção do EvalEx: zero é
+ * falso, qualquer outro valor é verdadeiro, e operadores
+ * lógicos e relacionais produzem {@code 1} ou {@code 0}.
+ *
+ * <p>Um nó também pode ser escrito como expressão Java equivalente,
+ * empregada pela geração de código de {@link GeradorDeAvaliacao}.
+ */
+abstract class No {
+
+    /**
+     * Avalia o nó.
+     *
+     * @param valores Valores das variáveis, indexados conforme
+     *                definido durante a compilação.
+     *
+     * @return O valor do nó.
+     */
+    abstract double avalia(double[] valores);
+
+    /**
+     * Avalia o nó para cada uma das {@code n} linhas fornecidas
+     * em colunas, ou seja, o valor da variável de índice {@code j}
+     * na linha {@code i} é {@code colunas[j][i]}.
+     *
+     * <p>A implementação padrão avalia linha a linha. Operadores
+     * aritméticos avaliam os operandos sobre todas as linhas e os
+     * combinam em laços simples sobre vetores, passíveis de
+     * vetorização pelo compilador JIT. Operadores cujos operandos
+     * nem sempre são avaliados (por exemplo, IF) mantêm a avaliação
+     * linha a linha, o que preserva as exceções produzidas.
+     *
+     * @param colunas Valores das variáveis, uma coluna por variável.
+     * @param n Quantidade de linhas.
+     * @param destino Vetor que recebe o valor do nó para cada linha.
+     * @param memoria Vetores de trabalho da avaliação.
+     * @param nivel Nível do nó, ou seja, o primeiro vetor auxiliar
+     *              de {@code memoria} disponível para o nó.
+     */
+    void avalia(double[][] colunas, int n, double[] destino, MemoriaColunar memoria, int nivel) {
+        double[] linha = memoria.linha(colunas.length);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < colunas.length; j++) {
+                linha[j] = colunas[j][i];
+            }
+
+            destino[i] = avalia(linha);
+        }
+    }
+
+    /**
+     * Recupera a quantidade de vetores auxiliares empregados pela
+     * avaliação colunar do nó e dos operandos dele.
+     *
+     * @return Total de níveis de vetores auxiliares.
+     */
+    int niveis() {
+        return 0;
+    }
+
+    /**
+     * Escreve expressão Java, do tipo {@code double}, equivalente
+     * ao nó.
+     *
+     * @param java Destino do código produzido.
+     * @param variaveis Produz a expressão Java que fornece o valor
+     *                  de uma variável, dado o nome dela.
+     */
+    abstract void escreve(StringBuilder java, Function<String, String> variaveis);
+
+    static double logico(boolean valor) {
+        return valor ? 1d : 0d;
+    }
+
+    /**
+     * Literal Java correspondente ao valor fornecido.
+     */
+    static String literal(double valor) {
+        if (Double.isNaN(valor) || Double.isInfinite(valor)) {
+            return "Double.longBitsToDouble(" + Double.doubleToRawLongBits(valor) + "L)";
+        }
+
+        return Double.toString(valor) + "d";
+    }
+
+    /**
+     * Escreve "metodo(a, metodo(b, c))" para os argumentos fornecidos.
+     */
+    static void encadeia(StringBuilder java, Function<String, String> variaveis, String metodo, No[] argumentos) {
+        for (int i = 0; i < argumentos.length - 1; i++) {
+            java.append(metodo).append('(');
+            argumentos[i].escreve(java, variaveis);
+            java.append(", ");
+        }
+
+        argumentos[argumentos.length - 1].escreve(java, variaveis);
+        for (int i = 0; i < argumentos.length - 1; i++) {
+            java.append(')');
+        }
+    }
+
+    static final class Constante extends No {
+        private final double valor;
+
+        Constante(double valor) {
+            this.valor = valor;
+        }
+
+        @Override
+        double avalia(double[] valores) {
+            return valor;
+        }
+
+        @Override
+        void avalia(double[][] colunas, int n, double[] destino, MemoriaColunar memoria, int nivel) {
+            Arrays.fill(destino, 0, n, valor);
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            java.append('(').append(literal(valor)).append(')');
+        }
+    }
+
+    static final class Variavel extends No {
+        private final String nome;
+        private final int indice;
+
+        Variavel(String nome, int indice) {
+            this.nome = nome;
+            this.indice = indice;
+        }
+
+        @Override
+        double avalia(double[] valores) {
+            return valores[indice];
+        }
+
+        @Override
+        void avalia(double[][] colunas, int n, double[] destino, MemoriaColunar memoria, int nivel) {
+            System.arraycopy(colunas[indice], 0, destino, 0, n);
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            java.append(variaveis.apply(nome));
+        }
+    }
+
+    static final class Negacao extends No {
+        private final No operando;
+
+        Negacao(No operando) {
+            this.operando = operando;
+        }
+
+        @Override
+        double avalia(double[] valores) {
+            return -operando.avalia(valores);
+        }
+
+        @Override
+        void avalia(double[][] colunas, int n, double[] destino, MemoriaColunar memoria, int nivel) {
+            operando.avalia(colunas, n, destino, memoria, nivel);
+            for (int i = 0; i < n; i++) {
+                destino[i] = -destino[i];
+            }
+        }
+
+        @Override
+        int niveis() {
+            return operando.niveis();
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            java.append("(-");
+            operando.escreve(java, variaveis);
+            java.append(')');
+        }
+    }
+
+    /**
+     * Operador binário. Cada operador é uma classe
+     * distinta, o que favorece a compilação JIT.
+     */
+    abstract static class Binario extends No {
+        final No esquerda;
+        final No direita;
+
+        Binario(No esquerda, No direita) {
+            this.esquerda = esquerda;
+            this.direita = direita;
+        }
+
+        @Override
+        int niveis() {
+            return 1 + Math.max(esquerda.niveis(), direita.niveis());
+        }
+
+        /**
+         * Avalia o operando da direita sobre todas as linhas, no
+         * vetor auxiliar do nível do nó, e o da esquerda sobre o
+         * destino. Os operandos empregam os níveis seguintes.
+         *
+         * @return Os valores do operando da direita.
+         */
+        double[] operandos(double[][] colunas, int n, double[] destino, MemoriaColunar memoria, int nivel) {
+            double[] direitos = memoria.auxiliar(nivel, n);
+            direita.avalia(colunas, n, direitos, memoria, nivel + 1);
+            esquerda.avalia(colunas, n, destino, memoria, nivel + 1);
+            return direitos;
+        }
+
+        /**
+         * Escreve "(esquerda operador direita)".
+         */
+        void infixo(StringBuilder java, Function<String, String> variaveis, String operador) {
+            java.append('(');
+            esquerda.escreve(java, variaveis);
+            java.append(' ').append(operador).append(' ');
+            direita.escreve(java, variaveis);
+            java.append(')');
+        }
+
+        /**
+         * Escreve "metodo(esquerda, direita)".
+         */
+        void chamada(StringBuilder java, Function<String, String> variaveis, String metodo) {
+            java.append(metodo).append('(');
+            esquerda.escreve(java, variaveis);
+            java.append(", ");
+            direita.escreve(java, variaveis);
+            java.append(')');
+        }
+
+        /**
+         * Escreve "(esquerda operador direita ? 1d : 0d)".
+         */
+        void relacional(StringBuilder java, Function<String, String> variaveis, String operador) {
+            java.append('(');
+            infixo(java, variaveis, operador);
+            java.append(" ? 1d : 0d)");
+        }
+    }
+
+    static final class Soma extends Binario {
+        Soma(No esquerda, No direita) {
+            super(esquerda, direita);
+        }
+
+        @Override
+        double avalia(double[] valores) {
+            return esquerda.avalia(valores) + direita.avalia(valores);
+        }
+
+        @Override
+        void avalia(double[][] colunas, int n, double[] destino, MemoriaColunar memoria, int nivel) {
+            double[] direitos = operandos(colunas, n, destino, memoria, nivel);
+            for (int i = 0; i < n; i++) {
+                destino[i] += direitos[i];
+            }
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            infixo(java, variaveis, "+");
+        }
+    }
+
+    static final class Subtracao extends Binario {
+        Subtracao(No esquerda, No direita) {
+            super(esquerda, direita);
+        }
+
+        @Override
+        double avalia(double[] valores) {
+            return esquerda.avalia(valores) - direita.avalia(valores);
+        }
+
+        @Override
+        void avalia(double[][] colunas, int n, double[] destino, MemoriaColunar memoria, int nivel) {
+            double[] direitos = operandos(colunas, n, destino, memoria, nivel);
+            for (int i = 0; i < n; i++) {
+                destino[i] -= direitos[i];
+            }
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            infixo(java, variaveis, "-");
+        }
+    }
+
+    static final class Multiplicacao extends Binario {
+        Multiplicacao(No esquerda, No direita) {
+            super(esquerda, direita);
+        }
+
+        @Override
+        double avalia(double[] valores) {
+            return esquerda.avalia(valores) * direita.avalia(valores);
+        }
+
+        @Override
+        void avalia(double[][] colunas, int n, double[] destino, MemoriaColunar memoria, int nivel) {
+            double[] direitos = operandos(colunas, n, destino, memoria, nivel);
+            for (int i = 0; i < n; i++) {
+                destino[i] *= direitos[i];
+            }
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            infixo(java, variaveis, "*");
+        }
+    }
+
+    static final class Divisao extends Binario {
+        Divisao(No esquerda, No direita) {
+            super(esquerda, direita);
+        }
+
+        @Override
+        double avalia(double[] valores) {
+            double divisor = direita.avalia(valores);
+            if (divisor == 0d) {
+                throw new AvaliacaoRegraException("Divisão por zero");
+            }
+
+            return esquerda.avalia(valores) / divisor;
+        }
+
+        @Override
+        void avalia(double[][] colunas, int n, double[] destino, MemoriaColunar memoria, int nivel) {
+            double[] divisores = operandos(colunas, n, destino, memoria, nivel);
+            for (int i = 0; i < n; i++) {
+                if (divisores[i] == 0d) {
+                    throw new AvaliacaoRegraException("Divisão por zero");
+                }
+            }
+
+            for (int i = 0; i < n; i++) {
+                destino[i] /= divisores[i];
+            }
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            chamada(java, variaveis, SuporteAvaliacaoGerada.class.getName() + ".divide");
+        }
+    }
+
+    static final class Resto extends Binario {
+        Resto(No esquerda, No direita) {
+            super(esquerda, direita);
+        }
+
+        @Override
+        double avalia(double[] valores) {
+            double divisor = direita.avalia(valores);
+            if (divisor == 0d) {
+                throw new AvaliacaoRegraException("Divisão por zero");
+            }
+
+            return esquerda.avalia(valores) % divisor;
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            chamada(java, variaveis, SuporteAvaliacaoGerada.class.getName() + ".resto");
+        }
+    }
+
+    static final class Potencia extends Binario {
+        Potencia(No esquerda, No direita) {
+            super(esquerda, direita);
+        }
+
+        @Override
+        double avalia(double[] valores) {
+            return Math.pow(esquerda.avalia(valores), direita.avalia(valores));
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            chamada(java, variaveis, "Math.pow");
+        }
+    }
+
+    static final class E extends Binario {
+        E(No esquerda, No direita) {
+            super(esquerda, direita);
+        }
+
+        @Override
+        double avalia(double[] valores) {
+            // Assim como no EvalEx, os dois operandos são avaliados.
+            boolean a = esquerda.avalia(valores) != 0d;
+            boolean b = direita.avalia(valores) != 0d;
+            return logico(a && b);
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            chamada(java, variaveis, SuporteAvaliacaoGerada.class.getName() + ".e");
+        }
+    }
+
+    static final class Ou extends Binario {
+        Ou(No esquerda, No direita) {
+            super(esquerda, direita);
+        }
+
+        @Override
+        double avalia(double[] valores) {
+            boolean a = esquerda.avalia(valores) != 0d;
+            boolean b = direita.avalia(valores) != 0d;
+            return logico(a || b);
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            chamada(java, variaveis, SuporteAvaliacaoGerada.class.getName() + ".ou");
+        }
+    }
+
+    static final class Maior extends Binario {
+        Maior(No esquerda, No direita) {
+            super(esquerda, direita);
+        }
+
+        @Override
+        double avalia(double[] valores) {
+            return logico(esquerda.avalia(valores) > direita.avalia(valores));
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            relacional(java, variaveis, ">");
+        }
+    }
+
+    static final class MaiorIgual extends Binario {
+        MaiorIgual(No esquerda, No direita) {
+            super(esquerda, direita);
+        }
+
+        @Override
+        double avalia(double[] valores) {
+            return logico(esquerda.avalia(valores) >= direita.avalia(valores));
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            relacional(java, variaveis, ">=");
+        }
+    }
+
+    static final class Menor extends Binario {
+        Menor(No esquerda, No direita) {
+            super(esquerda, direita);
+        }
+
+        @Override
+        double avalia(double[] valores) {
+            return logico(esquerda.avalia(valores) < direita.avalia(valores));
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            relacional(java, variaveis, "<");
+        }
+    }
+
+    static final class MenorIgual extends Binario {
+        MenorIgual(No esquerda, No direita) {
+            super(esquerda, direita);
+        }
+
+        @Override
+        double avalia(double[] valores) {
+            return logico(esquerda.avalia(valores) <= direita.avalia(valores));
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            relacional(java, variaveis, "<=");
+        }
+    }
+
+    static final class Igual extends Binario {
+        Igual(No esquerda, No direita) {
+            super(esquerda, direita);
+        }
+
+        @Override
+        double avalia(double[] valores) {
+            return logico(esquerda.avalia(valores) == direita.avalia(valores));
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            relacional(java, variaveis, "==");
+        }
+    }
+
+    static final class Diferente extends Binario {
+        Diferente(No esquerda, No direita) {
+            super(esquerda, direita);
+        }
+
+        @Override
+        double avalia(double[] valores) {
+            return logico(esquerda.avalia(valores) != direita.avalia(valores));
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            relacional(java, variaveis, "!=");
+        }
+    }
+
+    /**
+     * Função IF(condição, então, senão). Apenas o
+     * argumento selecionado é avaliado.
+     */
+    static final class Se extends No {
+        private final No condicao;
+        private final No entao;
+        private final No senao;
+
+        Se(No condicao, No entao, No senao) {
+            this.condicao = condicao;
+            this.entao = entao;
+            this.senao = senao;
+        }
+
+        @Override
+        double avalia(double[] valores) {
+            return condicao.avalia(valores) != 0d ? entao.avalia(valores) : senao.avalia(valores);
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            java.append('(');
+            condicao.escreve(java, variaveis);
+            java.append(" != 0d ? ");
+            entao.escreve(java, variaveis);
+            java.append(" : ");
+            senao.escreve(java, variaveis);
+            java.append(')');
+        }
+    }
+
+    static final class Maximo extends No {
+        private final No[] argumentos;
+
+        Maximo(No[] argumentos) {
+            this.argumentos = argumentos;
+        }
+
+        @Override
+        double avalia(double[] valores) {
+            double maximo = argumentos[0].avalia(valores);
+            for (int i = 1; i < argumentos.length; i++) {
+                maximo = Math.max(maximo, argumentos[i].avalia(valores));
+            }
+
+            return maximo;
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            encadeia(java, variaveis, "Math.max", argumentos);
+        }
+    }
+
+    static final class Minimo extends No {
+        private final No[] argumentos;
+
+        Minimo(No[] argumentos) {
+            this.argumentos = argumentos;
+        }
+
+        @Override
+        double avalia(double[] valores) {
+            double minimo = argumentos[0].avalia(valores);
+            for (int i = 1; i < argumentos.length; i++) {
+                minimo = Math.min(minimo, argumentos[i].avalia(valores));
+            }
+
+            return minimo;
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            encadeia(java, variaveis, "Math.min", argumentos);
+        }
+    }
+
+    /**
+     * Arredonda para a quantidade de casas decimais indicada,
+     * empregando o arredondamento "half even" do EvalEx.
+     */
+    static final class Arredonda extends No {
+        private final No valor;
+        private final No casas;
+
+        Arredonda(No valor, No casas) {
+            this.valor = valor;
+            this.casas = casas;
+        }
+
+        @Override
+        double avalia(double[] valores) {
+            double fator = Math.pow(10, (int) casas.avalia(valores));
+            return Math.rint(valor.avalia(valores) * fator) / fator;
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            java.append(SuporteAvaliacaoGerada.class.getName()).append(".arredonda(");
+            valor.escreve(java, variaveis);
+            java.append(", ");
+            casas.escreve(java, variaveis);
+            java.append(')');
+        }
+    }
+
+    /**
+     * Funções de um único argumento.
+     */
+    static final class Funcao extends No {
+        static final int NOT = 0;
+        static final int ABS = 1;
+        static final int FLOOR = 2;
+        static final int CEILING = 3;
+        static final int SQRT = 4;
+        static final int LOG = 5;
+        static final int LOG10 = 6;
+        static final int SIN = 7;
+        static final int COS = 8;
+        static final int TAN = 9;
+        static final int ASIN = 10;
+        static final int ACOS = 11;
+        static final int ATAN = 12;
+        static final int SINH = 13;
+        static final int COSH = 14;
+        static final int TANH = 15;
+        static final int RAD = 16;
+        static final int DEG = 17;
+
+        private final int funcao;
+        private final No argumento;
+
+        Funcao(int funcao, No argumento) {
+            this.funcao = funcao;
+            this.argumento = argumento;
+        }
+
+        @Override
+        double avalia(double[] valores) {
+            double x = argumento.avalia(valores);
+
+            // Funções trigonométricas em graus, como no EvalEx.
+            switch (funcao) {
+                case NOT: return logico(x == 0d);
+                case ABS: return Math.abs(x);
+                case FLOOR: return Math.floor(x);
+                case CEILING: return Math.ceil(x);
+                case SQRT: return Math.sqrt(x);
+                case LOG: return Math.log(x);
+                case LOG10: return Math.log10(x);
+                case SIN: return Math.sin(Math.toRadians(x));
+                case COS: return Math.cos(Math.toRadians(x));
+                case TAN: return Math.tan(Math.toRadians(x));
+                case ASIN: return Math.toDegrees(Math.asin(x));
+                case ACOS: return Math.toDegrees(Math.acos(x));
+                case ATAN: return Math.toDegrees(Math.atan(x));
+                case SINH: return Math.sinh(x);
+                case COSH: return Math.cosh(x);
+                case TANH: return Math.tanh(x);
+                case RAD: return Math.toRadians(x);
+                case DEG: return Math.toDegrees(x);
+                default: throw new AvaliacaoRegraException("Função desconhecida");
+            }
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            StringBuilder x = new StringBuilder();
+            argumento.escreve(x, variaveis);
+
+            switch (funcao) {
+                case NOT: java.append('(').append(x).append(" == 0d ? 1d : 0d)"); break;
+                case ABS: java.append("Math.abs(").append(x).append(')'); break;
+                case FLOOR: java.append("Math.floor(").append(x).append(')'); break;
+                case CEILING: java.append("Math.ceil(").append(x).append(')'); break;
+                case SQRT: java.append("Math.sqrt(").append(x).append(')'); break;
+                case LOG: java.append("Math.log(").append(x).append(')'); break;
+                case LOG10: java.append("Math.log10(").append(x).append(')'); break;
+                case SIN: java.append("Math.sin(Math.toRadians(").append(x).append("))"); break;
+                case COS: java.append("Math.cos(Math.toRadians(").append(x).append("))"); break;
+                case TAN: java.append("Math.tan(Math.toRadians(").append(x).append("))"); break;
+                case ASIN: java.append("Math.toDegrees(Math.asin(").append(x).append("))"); break;
+                case ACOS: java.append("Math.toDegrees(Math.acos(").append(x).append("))"); break;
+                case ATAN: java.append("Math.toDegrees(Math.atan(").append(x).append("))"); break;
+                case SINH: java.append("Math.sinh(").append(x).append(')'); break;
+                case COSH: java.append("Math.cosh(").append(x).append(')'); break;
+                case TANH: java.append("Math.tanh(").append(x).append(')'); break;
+                case RAD: java.append("Math.toRadians(").append(x).append(')'); break;
+                case DEG: java.append("Math.toDegrees(").append(x).append(')'); break;
+                default: throw new AvaliacaoRegraException("Função desconhecida");
+            }
+        }
+    }
+
+    static final class Aleatorio extends No {
+        @Override
+        double avalia(double[] valores) {
+            return Math.random();
+        }
+
+        @Override
+        void escreve(StringBuilder java, Function<String, String> variaveis) {
+            java.append("Math.random()");
+        }
+    }
+}
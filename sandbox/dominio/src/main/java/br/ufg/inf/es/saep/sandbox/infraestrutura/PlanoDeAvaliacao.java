@@ -0,0 +1,482 @@
+package br.ufg.inf.es.saep.sandbox.infraestrutura;
+
+import br.ufg.inf.es.saep.sandbox.dominio.*;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plano de avaliação de um conjunto de regras (em geral, as regras
+ * de uma resolução), compilado uma única vez.
+ *
+ * <p>Cada variável (resultado de regra) recebe uma posição (slot)
+ * em um vetor de valores primitivos ({@code double}). As expressões
+ * são compiladas com variáveis já associadas a essas posições, de
+ * modo que a avaliação não consulta dicionários nem compara nomes.
+ * Instâncias de {@link Valor} são criadas apenas por
+ * {@link #avalia(List)}.
+ *
+ * <p>Regras SOMATORIO e MEDIA reúnem os atributos dos relatos em
+ * colunas, uma por variável da expressão, e empregam a avaliação
+ * colunar de {@link ExpressaoCompilada#somatorio(double[][], int)}.
+ * Relatos já agrupados ({@link RelatosPorTipo}, por exemplo, os de
+ * {@link Radoc#getRelatosPorTipo()}) fornecem as colunas retidas
+ * pelo agrupamento, sem cópia.
+ *
+ * <p>A avaliação sobre um {@link EspacoDeAvaliacao} reutilizado não
+ * cria objetos, exceto exceção na ocorrência de erro: os vetores da
+ * avaliação colunar, dimensionados na compilação do plano, são
+ * mantidos pelo espaço e ampliados apenas quando a quantidade de
+ * relatos supera a das avaliações anteriores. O plano é imutável e pode ser
+ * empregado simultaneamente por várias threads, desde que cada uma
+ * empregue o seu próprio espaço.
+ */
+public final class PlanoDeAvaliacao {
+
+    private final Etapa[] etapas;
+    private final Map<String, Integer> indices;
+    private final Map<String, Integer> tipos;
+    private final int[] larguras;
+    private final int niveis;
+
+    private PlanoDeAvaliacao(Etapa[] etapas, Map<String, Integer> indices, Map<String, Integer> tipos) {
+        this.etapas = etapas;
+        this.indices = indices;
+        this.tipos = tipos;
+        this.larguras = new int[etapas.length];
+
+        int maximo = 0;
+        for (int i = 0; i < etapas.length; i++) {
+            Etapa etapa = etapas[i];
+            larguras[i] = etapa.atributos == null ? -1 : etapa.atributos.length;
+            if (etapa.atributos != null && etapa.expressao.compilada != null) {
+                maximo = Math.max(maximo, etapa.expressao.compilada.niveis());
+            }
+        }
+
+        this.niveis = maximo;
+    }
+
+    /**
+     * Compila o plano de avaliação das regras fornecidas.
+     *
+     * @param regras As regras a serem avaliadas, em qualquer ordem.
+     *
+     * @return O plano de avaliação das regras.
+     */
+    public static PlanoDeAvaliacao compila(List<Regra> regras) {
+        List<Regra> ordenadas = OrdenacaoService.ordena(regras);
+
+        Map<String, Integer> indices = new HashMap<>(ordenadas.size() * 2);
+        Map<String, Integer> tipos = new LinkedHashMap<>();
+        Etapa[] etapas = new Etapa[ordenadas.size()];
+
+        for (int i = 0; i < etapas.length; i++) {
+            Regra regra = ordenadas.get(i);
+
+            int tipo = -1;
+            if (Regras.usaRelatos(regra)) {
+                Integer existente = tipos.get(regra.getTipoRelato());
+                tipo = existente != null ? existente : tipos.size();
+                tipos.put(regra.getTipoRelato(), tipo);
+            }
+
+            // Apenas variáveis já produzidas (regras anteriores)
+            // estão disponíveis para a regra.
+            etapas[i] = new Etapa(regra, i, tipo, indices);
+            indices.put(regra.getVariavel(), i);
+        }
+
+        return new PlanoDeAvaliacao(etapas, indices, tipos);
+    }
+
+    /**
+     * Cria memória de trabalho para avaliações do plano.
+     *
+     * @return Espaço de avaliação para uso exclusivo de uma thread.
+     */
+    public EspacoDeAvaliacao criaEspaco() {
+        return new EspacoDeAvaliacao(this, larguras, niveis);
+    }
+
+    /**
+     * Avalia as regras do plano para os relatos fornecidos.
+     *
+     * @param relatos Conjunto de relatos sobre os quais a avaliação
+     *                das regras será executada.
+     *
+     * @return Resultados produzidos pela avaliação.
+     */
+    public Map<String, Valor> avalia(List<Relato> relatos) {
+        return contexto(avalia(relatos, criaEspaco()));
+    }
+
+    /**
+     * Avalia as regras do plano para os relatos fornecidos, sobre
+     * o espaço de avaliação fornecido.
+     *
+     * @param relatos Conjunto de relatos sobre os quais a avaliação
+     *                das regras será executada.
+     * @param espaco Espaço de avaliação criado por este plano.
+     *
+     * @return O vetor de resultados do espaço, nas posições definidas
+     * por {@link #indiceDaVariavel(String)}.
+     */
+    public double[] avalia(List<Relato> relatos, EspacoDeAvaliacao espaco) {
+        if (espaco.getPlano() != this) {
+            throw new IllegalArgumentException("espaco");
+        }
+
+        List<List<Avaliavel>> porTipo = espaco.relatos();
+        for (List<Avaliavel> lista : porTipo) {
+            lista.clear();
+        }
+
+        // Relatos de tipos não empregados são irrelevantes.
+        for (int i = 0; i < relatos.size(); i++) {
+            Relato relato = relatos.get(i);
+            Integer tipo = tipos.get(relato.getTipo());
+            if (tipo != null) {
+                porTipo.get(tipo).add(relato);
+            }
+        }
+
+        double[] resultados = espaco.getResultados();
+        for (Etapa etapa : etapas) {
+            List<Avaliavel> considerados = etapa.tipo < 0 ? null : porTipo.get(etapa.tipo);
+            int quantidade = considerados == null ? 0 : considerados.size();
+            double[][] colunas = etapa.atributos == null || quantidade == 0
+                    ? null
+                    : etapa.colunas(considerados, espaco);
+            resultados[etapa.indice] = etapa.avalia(resultados, quantidade, colunas, espaco.memoria());
+        }
+
+        // Não retém relatos além da avaliação.
+        for (List<Avaliavel> lista : porTipo) {
+            lista.clear();
+        }
+
+        return resultados;
+    }
+
+    /**
+     * Avalia as regras do plano para os relatos já agrupados
+     * pelo tipo.
+     *
+     * @param relatos Relatos agrupados pelo tipo.
+     *
+     * @return Resultados produzidos pela avaliação.
+     */
+    public Map<String, Valor> avalia(RelatosPorTipo relatos) {
+        return contexto(avalia(relatos, criaEspaco()));
+    }
+
+    /**
+     * Avalia as regras do plano para os relatos já agrupados pelo
+     * tipo, sobre o espaço de avaliação fornecido. As colunas de
+     * atributos empregadas por SOMATORIO e MEDIA são aquelas
+     * retidas pelo agrupamento ({@link RelatosPorTipo#coluna(String, String)}).
+     *
+     * @param relatos Relatos agrupados pelo tipo.
+     * @param espaco Espaço de avaliação criado por este plano.
+     *
+     * @return O vetor de resultados do espaço, nas posições definidas
+     * por {@link #indiceDaVariavel(String)}.
+     */
+    public double[] avalia(RelatosPorTipo relatos, EspacoDeAvaliacao espaco) {
+        if (espaco.getPlano() != this) {
+            throw new IllegalArgumentException("espaco");
+        }
+
+        double[] resultados = espaco.getResultados();
+        for (Etapa etapa : etapas) {
+            int quantidade = etapa.tipo < 0 ? 0 : relatos.quantidade(etapa.tipoRelato);
+            double[][] colunas = etapa.atributos == null || quantidade == 0
+                    ? null
+                    : etapa.colunas(relatos, espaco);
+            resultados[etapa.indice] = etapa.avalia(resultados, quantidade, colunas, espaco.memoria());
+        }
+
+        return resultados;
+    }
+
+    private Map<String, Valor> contexto(double[] resultados) {
+        Map<String, Valor> contexto = new HashMap<>(etapas.length * 2);
+        for (int i = 0; i < etapas.length; i++) {
+            contexto.put(etapas[i].variavel, Valor.de((float) resultados[i]));
+        }
+
+        return contexto;
+    }
+
+    /**
+     * Recupera a posição, no vetor de resultados, da variável
+     * fornecida.
+     *
+     * @param variavel O nome da variável.
+     *
+     * @return A posição do resultado ou {@code -1}, caso nenhuma
+     * regra produza a variável.
+     */
+    public int indiceDaVariavel(String variavel) {
+        Integer indice = indices.get(variavel);
+        return indice == null ? -1 : indice;
+    }
+
+    /**
+     * Recupera o nome da variável produzida na posição fornecida.
+     *
+     * @param indice A posição no vetor de resultados.
+     *
+     * @return O nome da variável.
+     */
+    public String variavel(int indice) {
+        return etapas[indice].variavel;
+    }
+
+    /**
+     * Recupera a quantidade de variáveis (regras) do plano.
+     *
+     * @return Total de variáveis.
+     */
+    public int totalVariaveis() {
+        return etapas.length;
+    }
+
+    /**
+     * Recupera a quantidade de tipos de relatos empregados
+     * pelas regras do plano.
+     *
+     * @return Total de tipos.
+     */
+    public int totalTipos() {
+        return tipos.size();
+    }
+
+    /**
+     * Avaliação de uma regra do plano.
+     */
+    private static final class Etapa {
+        private final String variavel;
+        private final int indice;
+        private final int regra;
+        private final int tipo;
+        private final String tipoRelato;
+        private final float minimo;
+        private final float maximo;
+        private final float pontosPorItem;
+
+        private final Operando expressao;
+        private final Operando entao;
+        private final Operando senao;
+
+        /**
+         * Atributos de relato empregados por SOMATORIO e MEDIA,
+         * na ordem das posições da expressão. Um atributo fora de
+         * "dependeDe" é {@code null}.
+         */
+        private final String[] atributos;
+
+        Etapa(Regra regra, int indice, int tipo, Map<String, Integer> disponiveis) {
+            this.variavel = regra.getVariavel();
+            this.indice = indice;
+            this.regra = regra.getTipo();
+            this.tipo = tipo;
+            this.tipoRelato = regra.getTipoRelato();
+            this.minimo = regra.getValorMinimo();
+            this.maximo = regra.getValorMaximo();
+            this.pontosPorItem = regra.getPontosPorItem();
+
+            switch (this.regra) {
+                case Regra.PONTOS:
+                    expressao = null;
+                    entao = null;
+                    senao = null;
+                    atributos = null;
+                    break;
+
+                case Regra.EXPRESSAO:
+                case Regra.CONDICIONAL:
+                    List<String> dependeDe = regra.getDependeDe();
+                    expressao = new Operando(regra.getExpressao(), dependeDe, disponiveis);
+                    entao = this.regra == Regra.CONDICIONAL ? new Operando(regra.getEntao(), dependeDe, disponiveis) : null;
+                    senao = this.regra == Regra.CONDICIONAL ? new Operando(regra.getSenao(), dependeDe, disponiveis) : null;
+                    atributos = null;
+                    break;
+
+                case Regra.SOMATORIO:
+                case Regra.MEDIA:
+                    expressao = new Operando(regra.getExpressao(), null, null);
+                    entao = null;
+                    senao = null;
+                    atributos = expressao.compilada == null
+                            ? new String[0]
+                            : atributos(expressao.compilada, regra.getDependeDe());
+                    break;
+
+                default:
+                    throw new TipoDeRegraInvalido("avaliaRegra");
+            }
+        }
+
+        private static String[] atributos(ExpressaoCompilada exp, List<String> dependeDe) {
+            String[] atributos = new String[exp.totalVariaveis()];
+            for (int i = 0; i < atributos.length; i++) {
+                String atributo = exp.variavel(i);
+                atributos[exp.indice(i)] = dependeDe.contains(atributo) ? atributo : null;
+            }
+
+            return atributos;
+        }
+
+        /**
+         * Avalia a regra.
+         *
+         * @param quantidade Quantidade de relatos do tipo da regra.
+         * @param colunas Colunas dos atributos, nas posições da
+         *                expressão, para SOMATORIO e MEDIA com pelo
+         *                menos um relato.
+         * @param memoria Vetores de trabalho da avaliação colunar.
+         */
+        float avalia(double[] resultados, int quantidade, double[][] colunas, MemoriaColunar memoria) {
+            switch (regra) {
+                case Regra.PONTOS:
+                    return Regras.limita(pontosPorItem * quantidade, minimo, maximo);
+
+                case Regra.EXPRESSAO:
+                    return Regras.limita(expressao.avalia(resultados), minimo, maximo);
+
+                case Regra.CONDICIONAL:
+                    Operando entaoOuSenao = expressao.avalia(resultados) != 0d ? entao : senao;
+                    return Regras.limita(entaoOuSenao.avalia(resultados), minimo, maximo);
+
+                case Regra.SOMATORIO:
+                    return Regras.limita(somatorio(quantidade, colunas, memoria), minimo, maximo);
+
+                default:
+                    return Regras.limita(somatorio(quantidade, colunas, memoria) / quantidade, minimo, maximo);
+            }
+        }
+
+        private double somatorio(int quantidade, double[][] colunas, MemoriaColunar memoria) {
+            if (quantidade == 0) {
+                return 0d;
+            }
+
+            return expressao.compilada().somatorio(colunas, quantidade, memoria);
+        }
+
+        /**
+         * Reúne os atributos dos relatos em colunas, cujos vetores
+         * são mantidos pelo espaço e reutilizados.
+         */
+        double[][] colunas(List<Avaliavel> relatos, EspacoDeAvaliacao espaco) {
+            ExpressaoCompilada exp = expressao.compilada();
+            int n = relatos.size();
+            double[][] colunas = espaco.colunasDaEtapa(indice);
+
+            for (int j = 0; j < atributos.length; j++) {
+                String atributo = atributos[j];
+                if (atributo == null) {
+                    throw new AvaliacaoRegraException("Variável não definida: " + exp.variavel(j));
+                }
+
+                double[] coluna = espaco.coluna(j, n);
+                colunas[j] = coluna;
+                for (int i = 0; i < n; i++) {
+                    Valor valor = relatos.get(i).get(atributo);
+                    if (valor == null) {
+                        throw new AvaliacaoRegraException("Variável não definida: " + atributo);
+                    }
+
+                    coluna[i] = valor.getFloat();
+                }
+            }
+
+            return colunas;
+        }
+
+        /**
+         * Recupera as colunas dos atributos retidas pelo agrupamento,
+         * reunidas em vetor mantido pelo espaço.
+         */
+        double[][] colunas(RelatosPorTipo relatos, EspacoDeAvaliacao espaco) {
+            ExpressaoCompilada exp = expressao.compilada();
+            double[][] colunas = espaco.colunasDaEtapa(indice);
+
+            for (int j = 0; j < atributos.length; j++) {
+                double[] coluna = atributos[j] == null ? null : relatos.coluna(tipoRelato, atributos[j]);
+                if (coluna == null) {
+                    throw new AvaliacaoRegraException("Variável não definida: " + exp.variavel(j));
+                }
+
+                colunas[j] = coluna;
+            }
+
+            return colunas;
+        }
+    }
+
+    /**
+     * Expressão compilada para as posições do plano. Falhas de
+     * compilação, assim como variáveis indisponíveis, produzem
+     * exceção apenas se a expressão for avaliada.
+     */
+    private static final class Operando {
+        private final ExpressaoCompilada compilada;
+        private final String erro;
+
+        /**
+         * @param disponiveis Posições das variáveis disponíveis ou
+         *                    {@code null}, para posições locais à
+         *                    expressão (atributos de relatos).
+         */
+        Operando(String texto, List<String> dependeDe, Map<String, Integer> disponiveis) {
+            ExpressaoCompilada exp = null;
+            String falha = null;
+
+            try {
+                if (disponiveis == null) {
+                    exp = CompiladorDeExpressoes.compila(texto);
+                } else {
+                    String indisponivel = indisponivel(CompiladorDeExpressoes.compila(texto), dependeDe, disponiveis);
+                    if (indisponivel != null) {
+                        falha = "Variável não definida: " + indisponivel;
+                    } else {
+                        exp = CompiladorDeExpressoes.compila(texto, disponiveis::get);
+                    }
+                }
+            } catch (AvaliacaoRegraException are) {
+                falha = are.getMessage();
+            }
+
+            this.compilada = exp;
+            this.erro = falha;
+        }
+
+        private static String indisponivel(ExpressaoCompilada exp, List<String> dependeDe, Map<String, Integer> disponiveis) {
+            for (int i = 0; i < exp.totalVariaveis(); i++) {
+                String variavel = exp.variavel(i);
+                if (!dependeDe.contains(variavel) || !disponiveis.containsKey(variavel)) {
+                    return variavel;
+                }
+            }
+
+            return null;
+        }
+
+        ExpressaoCompilada compilada() {
+            if (compilada == null) {
+                throw new AvaliacaoRegraException(erro);
+            }
+
+            return compilada;
+        }
+
+        double avalia(double[] valores) {
+            return compilada().avalia(valores);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package br.ufg.inf.es.saep.sandbox.infraestrutura;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Regra;
+import br.ufg.inf.es.saep.sandbox.dominio.Valor;
+
+/**
+ * Operações sobre regras comuns aos avaliadores deste pacote.
+ */
+final class Regras {
+
+    private Regras() {
+        // Apenas métodos estáticos.
+    }
+
+    /**
+     * Verifica se a avaliação da regra emprega os relatos
+     * do tipo de relato da regra.
+     *
+     * @param regra A regra.
+     *
+     * @return {@code true} se a regra é do tipo
+     * {@link Regra#PONTOS}, {@link Regra#SOMATORIO} ou
+     * {@link Regra#MEDIA}.
+     */
+    static boolean usaRelatos(Regra regra) {
+        int tipo = regra.getTipo();
+        return tipo == Regra.PONTOS || tipo == Regra.SOMATORIO || tipo == Regra.MEDIA;
+    }
+
+    /**
+     * Converte o resultado de uma regra para {@code float}, a precisão
+     * de {@link Valor}, e aplica os limites da regra.
+     *
+     * @param valor O resultado da regra.
+     * @param minimo O valor mínimo da regra.
+     * @param maximo O valor máximo da regra.
+     *
+     * @return O resultado limitado.
+     */
+    static float limita(double valor, float minimo, float maximo) {
+        float real = (float) valor;
+
+        if (real < minimo) {
+            return minimo;
+        }
+
+        if (real > maximo) {
+            return maximo;
+        }
+
+        return real;
+    }
+}
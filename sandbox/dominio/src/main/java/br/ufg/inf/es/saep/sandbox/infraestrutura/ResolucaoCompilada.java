@@ -0,0 +1,169 @@
+package br.ufg.inf.es.saep.sandbox.infraestrutura;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Avaliavel;
+import br.ufg.inf.es.saep.sandbox.dominio.Relato;
+import br.ufg.inf.es.saep.sandbox.dominio.Valor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Avaliação de todas as regras de uma resolução, produzida por
+ * {@link GeradorDeAvaliacao}.
+ *
+ * <p>Estabelece a ordem dos tipos de relato e das variáveis
+ * (resultados das regras) esperada pela {@link AvaliacaoGerada}
+ * correspondente. Instâncias são imutáveis e podem ser empregadas
+ * simultaneamente por várias threads.
+ */
+public final class ResolucaoCompilada {
+
+    private final String resolucao;
+    private final AvaliacaoGerada avaliacao;
+    private final String[] variaveis;
+    private final Map<String, Integer> tipos;
+    private final String fonte;
+
+    ResolucaoCompilada(String resolucao,
+                       AvaliacaoGerada avaliacao,
+                       String[] variaveis,
+                       Map<String, Integer> tipos,
+                       String fonte) {
+        this.resolucao = resolucao;
+        this.avaliacao = avaliacao;
+        this.variaveis = variaveis;
+        this.tipos = tipos;
+        this.fonte = fonte;
+    }
+
+    /**
+     * Avalia as regras da resolução para os relatos fornecidos.
+     *
+     * @param relatos Conjunto de relatos sobre os quais a avaliação
+     *                das regras será executada.
+     *
+     * @return Resultados produzidos pela avaliação.
+     */
+    public Map<String, Valor> avalia(List<Relato> relatos) {
+        double[] resultados = new double[variaveis.length];
+        avaliacao.avalia(agrupa(relatos), resultados);
+
+        Map<String, Valor> contexto = new HashMap<>(variaveis.length * 2);
+        for (int i = 0; i < variaveis.length; i++) {
+            contexto.put(variaveis[i], Valor.de((float) resultados[i]));
+        }
+
+        return contexto;
+    }
+
+    /**
+     * Avalia as regras da resolução sobre relatos já agrupados
+     * conforme {@link #indiceDoTipo(String)}, sem produzir
+     * instâncias de {@link Valor}.
+     *
+     * @param relatos Relatos agrupados por tipo.
+     * @param resultados Vetor que recebe os resultados, na ordem
+     *                   de {@link #indiceDaVariavel(String)}.
+     */
+    public void avalia(List<Avaliavel>[] relatos, double[] resultados) {
+        avaliacao.avalia(relatos, resultados);
+    }
+
+    /**
+     * Recupera a posição, no vetor de resultados, da variável
+     * fornecida.
+     *
+     * @param variavel O nome da variável.
+     *
+     * @return A posição do resultado ou {@code -1}, caso nenhuma
+     * regra produza a variável.
+     */
+    public int indiceDaVariavel(String variavel) {
+        for (int i = 0; i < variaveis.length; i++) {
+            if (variaveis[i].equals(variavel)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Recupera a posição, no vetor de relatos agrupados, do tipo
+     * fornecido.
+     *
+     * @param tipo O código do tipo de relato.
+     *
+     * @return A posição do tipo ou {@code -1}, caso nenhuma regra
+     * empregue relatos do tipo.
+     */
+    public int indiceDoTipo(String tipo) {
+        Integer indice = tipos.get(tipo);
+        return indice == null ? -1 : indice;
+    }
+
+    /**
+     * Recupera a quantidade de variáveis (regras) da resolução.
+     *
+     * @return Total de variáveis.
+     */
+    public int totalVariaveis() {
+        return variaveis.length;
+    }
+
+    /**
+     * Recupera a quantidade de tipos de relatos empregados
+     * pelas regras da resolução.
+     *
+     * @return Total de tipos.
+     */
+    public int totalTipos() {
+        return tipos.size();
+    }
+
+    /**
+     * Recupera o identificador da resolução compilada.
+     *
+     * @return O identificador da resolução.
+     */
+    public String getResolucao() {
+        return resolucao;
+    }
+
+    /**
+     * Recupera o código Java gerado para a resolução.
+     *
+     * @return O código-fonte gerado ou {@code null}, caso a
+     * avaliação não tenha sido gerada (compilador Java
+     * indisponível).
+     */
+    public String getFonte() {
+        return fonte;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<Avaliavel>[] agrupa(List<Relato> relatos) {
+        List<Avaliavel>[] porTipo = new List[tipos.size()];
+
+        for (Relato relato : relatos) {
+            Integer indice = tipos.get(relato.getTipo());
+
+            // Relatos de tipos não empregados são irrelevantes.
+            if (indice == null) {
+                continue;
+            }
+
+            List<Avaliavel> lista = porTipo[indice];
+            if (lista == null) {
+                lista = new ArrayList<>();
+                porTipo[indice] = lista;
+            }
+
+            lista.add(relato);
+        }
+
+        return porTipo;
+    }
+}
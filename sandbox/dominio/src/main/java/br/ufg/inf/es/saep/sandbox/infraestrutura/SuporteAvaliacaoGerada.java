@@ -0,0 +1,83 @@
+package br.ufg.inf.es.saep.sandbox.infraestrutura;
+
+import br.ufg.inf.es.saep.sandbox.dominio.AvaliacaoRegraException;
+import br.ufg.inf.es.saep.sandbox.dominio.Avaliavel;
+import br.ufg.inf.es.saep.sandbox.dominio.Valor;
+
+/**
+ * Operações empregadas pelo código produzido por
+ * {@link GeradorDeAvaliacao}. Não se destinam a outro uso.
+ *
+ * <p>Os métodos são públicos porque as classes geradas são
+ * carregadas por outro {@link ClassLoader}.
+ */
+public final class SuporteAvaliacaoGerada {
+
+    private SuporteAvaliacaoGerada() {
+        // Apenas métodos estáticos.
+    }
+
+    public static double divide(double dividendo, double divisor) {
+        if (divisor == 0d) {
+            throw new AvaliacaoRegraException("Divisão por zero");
+        }
+
+        return dividendo / divisor;
+    }
+
+    public static double resto(double dividendo, double divisor) {
+        if (divisor == 0d) {
+            throw new AvaliacaoRegraException("Divisão por zero");
+        }
+
+        return dividendo % divisor;
+    }
+
+    public static double e(double a, double b) {
+        return a != 0d && b != 0d ? 1d : 0d;
+    }
+
+    public static double ou(double a, double b) {
+        return a != 0d || b != 0d ? 1d : 0d;
+    }
+
+    public static double arredonda(double valor, double casas) {
+        double fator = Math.pow(10, (int) casas);
+        return Math.rint(valor * fator) / fator;
+    }
+
+    /**
+     * Converte o resultado de uma regra para {@code float}, a precisão
+     * de {@link Valor}, e aplica os limites da regra.
+     */
+    public static double limita(double valor, float minimo, float maximo) {
+        return Regras.limita(valor, minimo, maximo);
+    }
+
+    /**
+     * Recupera o valor numérico de um atributo de um relato.
+     */
+    public static double atributo(Avaliavel relato, String atributo) {
+        Valor valor = relato.get(atributo);
+        if (valor == null) {
+            throw new AvaliacaoRegraException("Variável não definida: " + atributo);
+        }
+
+        return valor.getFloat();
+    }
+
+    /**
+     * Empregado para variável que não está disponível.
+     */
+    public static double indefinida(String variavel) {
+        throw new AvaliacaoRegraException("Variável não definida: " + variavel);
+    }
+
+    /**
+     * Empregado para expressão que não pode ser compilada, cuja
+     * falha deve ocorrer apenas se a expressão for avaliada.
+     */
+    public static double falha(String mensagem) {
+        throw new AvaliacaoRegraException(mensagem);
+    }
+}
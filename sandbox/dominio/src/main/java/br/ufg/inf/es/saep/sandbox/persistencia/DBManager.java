@@ -1,16 +1,53 @@
 package br.ufg.inf.es.saep.sandbox.persistencia;
 
 
+import br.ufg.inf.es.saep.sandbox.persistencia.codecs.Codecs;
+import com.mongodb.ErrorCategory;
 import com.mongodb.MongoClient;
+import com.mongodb.MongoClientOptions;
+import com.mongodb.MongoWriteException;
 import com.mongodb.ServerAddress;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Encapsula a conexão com o servidor de banco de dados.
  * Retorna uma Collection que vai ser trabalhada nos repositórios.
+ *
+ * <p>Cada instância mantém um único {@link MongoClient}, criado na
+ * primeira requisição e compartilhado por todas as collections
+ * obtidas. O cliente mantém um pool de conexões, cujo tamanho e
+ * tempos de espera são definidos por {@link MongoClientOptions}.
+ * O cliente é liberado por {@link #close()}.
+ *
+ * <p>Repositórios do mesmo servidor e base de dados devem empregar
+ * a mesma instância, por exemplo, aquela obtida por
+ * {@link #compartilhado(String, String, int)}. Como a instância
+ * compartilhada é empregada por repositórios que não a fecham,
+ * {@link #close()} não tem efeito sobre ela; os clientes das
+ * instâncias compartilhadas são liberados apenas por
+ * {@link #fechaCompartilhados()}.
  */
-public class DBManager {
+public class DBManager implements AutoCloseable {
+
+    /**
+     * Quantidade máxima padrão de conexões com o servidor.
+     */
+    public static final int CONEXOES_PADRAO = 50;
+
+    /**
+     * Tempo padrão (ms) para estabelecer conexão, selecionar servidor
+     * ou aguardar conexão disponível no pool.
+     */
+    public static final int ESPERA_PADRAO = 10000;
+
+    /**
+     * Instâncias compartilhadas, por servidor, porta e base de dados.
+     */
+    private static final ConcurrentMap<String, DBManager> COMPARTILHADOS = new ConcurrentHashMap<>();
 
     /**
      * Informações do servidor.
@@ -23,6 +60,21 @@ public class DBManager {
      */
     private String database;
 
+    /**
+     * Configuração do cliente (pool de conexões e tempos de espera).
+     */
+    private final MongoClientOptions opcoes;
+
+    /**
+     * Cliente criado na primeira requisição de collection.
+     */
+    private volatile MongoClient mongoClient;
+
+    /**
+     * Chave em {@link #COMPARTILHADOS}, se compartilhada.
+     */
+    private String chave;
+
     /**
      * Retorna uma nova instância de DBManager.
      * @param database O nome da base de dados.
@@ -30,19 +82,150 @@ public class DBManager {
      * @param porta A porta de conexão com o servidor.
      */
     public DBManager(String database, String servidor, int porta) {
+        this(database, servidor, porta, opcoesPadrao().build());
+    }
+
+    /**
+     * Retorna uma nova instância de DBManager cujo cliente é
+     * configurado pelas opções fornecidas.
+     * @param database O nome da base de dados.
+     * @param servidor O endereço do servidor.
+     * @param porta A porta de conexão com o servidor.
+     * @param opcoes Configuração do cliente (pool e tempos de espera).
+     */
+    public DBManager(String database, String servidor, int porta, MongoClientOptions opcoes) {
         this.database = database;
         this.servidor = servidor;
         this.porta = porta;
+        this.opcoes = opcoes;
     }
 
     /**
-     * Abre uma conexão com o servidor de banco de dados e retorna a Collection desejada.
+     * Recupera a instância compartilhada para o servidor e base de
+     * dados fornecidos, criada na primeira requisição com as opções
+     * padrão. Após {@link #fechaCompartilhados()}, uma nova
+     * instância é criada na requisição seguinte.
+     * @param database O nome da base de dados.
+     * @param servidor O endereço do servidor.
+     * @param porta A porta de conexão com o servidor.
+     * @return A instância compartilhada.
+     */
+    public static DBManager compartilhado(String database, String servidor, int porta) {
+        String chave = servidor + ":" + porta + "/" + database;
+
+        return COMPARTILHADOS.computeIfAbsent(chave, c -> {
+            DBManager manager = new DBManager(database, servidor, porta);
+            manager.chave = c;
+            return manager;
+        });
+    }
+
+    /**
+     * Opções padrão do cliente, que podem ser ajustadas antes de
+     * criar uma instância.
+     * @return Builder com as opções padrão.
+     */
+    public static MongoClientOptions.Builder opcoesPadrao() {
+        return MongoClientOptions.builder()
+                .connectionsPerHost(CONEXOES_PADRAO)
+                .connectTimeout(ESPERA_PADRAO)
+                .serverSelectionTimeout(ESPERA_PADRAO)
+                .maxWaitTime(ESPERA_PADRAO);
+    }
+
+    /**
+     * Retorna a Collection desejada. A conexão com o servidor é
+     * estabelecida apenas na primeira requisição.
      * @return A collection identificada pela nome informado no construtor.
      */
     public MongoCollection abrirConexao (String collection) {
-        MongoClient mongoClient = new MongoClient(new ServerAddress(servidor, porta));
-        MongoDatabase db = mongoClient.getDatabase(database);
+        MongoDatabase db = cliente().getDatabase(database);
 
         return db.getCollection(collection);
     }
+
+    /**
+     * Retorna a Collection desejada, cujos documentos são convertidos
+     * de e para objetos da classe indicada pelos codecs do domínio
+     * ({@link Codecs}), sem representação intermediária em JSON.
+     * @param collection O nome da collection.
+     * @param classe A classe dos objetos mantidos na collection.
+     * @param <T> O tipo dos objetos mantidos na collection.
+     * @return A collection identificada pelo nome fornecido.
+     */
+    public <T> MongoCollection<T> colecao(String collection, Class<T> classe) {
+        MongoDatabase db = cliente().getDatabase(database);
+
+        return db.getCollection(collection, classe).withCodecRegistry(Codecs.registro());
+    }
+
+    /**
+     * Verifica se a escrita falhou por violar a unicidade de
+     * "_id" ou de índice único.
+     * @param excecao A falha produzida pela escrita.
+     * @return {@code true} se a falha é de chave duplicada.
+     */
+    static boolean chaveDuplicada(MongoWriteException excecao) {
+        return excecao.getError().getCategory() == ErrorCategory.DUPLICATE_KEY;
+    }
+
+    /**
+     * Recupera o cliente, criado na primeira requisição.
+     * @return O cliente do servidor.
+     */
+    public MongoClient cliente() {
+        MongoClient cliente = mongoClient;
+        if (cliente != null) {
+            return cliente;
+        }
+
+        synchronized (this) {
+            if (mongoClient == null) {
+                mongoClient = new MongoClient(new ServerAddress(servidor, porta), opcoes);
+            }
+
+            return mongoClient;
+        }
+    }
+
+    /**
+     * Libera os clientes e as conexões de todas as instâncias
+     * compartilhadas, por exemplo, no encerramento da aplicação.
+     * Repositórios que empregam essas instâncias não devem ser
+     * usados posteriormente.
+     */
+    public static void fechaCompartilhados() {
+        for (DBManager manager : COMPARTILHADOS.values()) {
+            if (COMPARTILHADOS.remove(manager.chave, manager)) {
+                manager.libera();
+            }
+        }
+    }
+
+    /**
+     * Libera o cliente e as conexões do pool. Uma requisição
+     * posterior cria um novo cliente.
+     * <p>Não tem efeito sobre instância compartilhada, cujo cliente
+     * pode estar em uso por outros repositórios.</p>
+     */
+    @Override
+    public void close() {
+        if (chave != null) {
+            return;
+        }
+
+        libera();
+    }
+
+    private void libera() {
+        MongoClient cliente;
+        synchronized (this) {
+            cliente = mongoClient;
+            mongoClient = null;
+        }
+
+        if (cliente != null) {
+            cliente.close();
+        }
+    }
 }
@@ -0,0 +1,106 @@
+package br.ufg.inf.es.saep.sandbox.persistencia;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Inclusão de vários itens em uma collection, em lotes.
+ *
+ * <p>Cada lote é enviado ao servidor em uma única requisição
+ * não ordenada: a falha de um item (por exemplo, identificador
+ * duplicado) não impede a inclusão dos demais itens do lote
+ * nem dos lotes seguintes.
+ */
+final class InclusaoEmLote {
+
+    /**
+     * Quantidade padrão de itens por requisição.
+     */
+    static final int TAMANHO_PADRAO = 1000;
+
+    private InclusaoEmLote() {
+    }
+
+    /**
+     * Inclui os itens na collection.
+     * @param collection A collection na qual os itens são incluídos.
+     * @param itens Os itens a serem incluídos.
+     * @param tamanhoDoLote Quantidade de itens por requisição.
+     * @param <T> O tipo dos itens.
+     * @return O resultado da inclusão de cada item, na ordem
+     * em que os itens são fornecidos.
+     */
+    static <T> List<ResultadoDeInclusao> inclui(MongoCollection<T> collection, Iterable<T> itens, int tamanhoDoLote) {
+        return inclui(collection, itens, tamanhoDoLote, (item, resultado) -> { });
+    }
+
+    /**
+     * Inclui os itens na collection e informa o resultado da inclusão
+     * de cada item assim que o lote correspondente é enviado. Os itens
+     * são percorridos uma única vez.
+     * @param collection A collection na qual os itens são incluídos.
+     * @param itens Os itens a serem incluídos.
+     * @param tamanhoDoLote Quantidade de itens por requisição.
+     * @param resultadoDoItem Recebe cada item e o resultado da inclusão
+     *                        correspondente, na ordem dos itens.
+     * @param <T> O tipo dos itens.
+     * @return O resultado da inclusão de cada item, na ordem
+     * em que os itens são fornecidos.
+     */
+    static <T> List<ResultadoDeInclusao> inclui(MongoCollection<T> collection,
+                                                Iterable<T> itens,
+                                                int tamanhoDoLote,
+                                                BiConsumer<? super T, ResultadoDeInclusao> resultadoDoItem) {
+        if (tamanhoDoLote < 1) {
+            throw new IllegalArgumentException("tamanhoDoLote");
+        }
+
+        List<ResultadoDeInclusao> resultados = new ArrayList<>();
+        List<T> lote = new ArrayList<>(tamanhoDoLote);
+
+        for (T item : itens) {
+            lote.add(item);
+
+            if (lote.size() == tamanhoDoLote) {
+                resultados.addAll(incluiLote(collection, lote, resultadoDoItem));
+                lote.clear();
+            }
+        }
+
+        if (!lote.isEmpty()) {
+            resultados.addAll(incluiLote(collection, lote, resultadoDoItem));
+        }
+
+        return resultados;
+    }
+
+    private static <T> List<ResultadoDeInclusao> incluiLote(MongoCollection<T> collection,
+                                                           List<T> lote,
+                                                           BiConsumer<? super T, ResultadoDeInclusao> resultadoDoItem) {
+        List<ResultadoDeInclusao> resultados = new ArrayList<>(
+                Collections.nCopies(lote.size(), ResultadoDeInclusao.INCLUIDO));
+
+        try {
+            collection.insertMany(lote, new InsertManyOptions().ordered(false));
+        } catch (MongoBulkWriteException mbwe) {
+            for (BulkWriteError erro : mbwe.getWriteErrors()) {
+                boolean duplicado = ErrorCategory.fromErrorCode(erro.getCode()) == ErrorCategory.DUPLICATE_KEY;
+                resultados.set(erro.getIndex(), duplicado ? ResultadoDeInclusao.DUPLICADO : ResultadoDeInclusao.FALHOU);
+            }
+        }
+
+        for (int i = 0; i < lote.size(); i++) {
+            resultadoDoItem.accept(lote.get(i), resultados.get(i));
+        }
+
+        return resultados;
+    }
+}
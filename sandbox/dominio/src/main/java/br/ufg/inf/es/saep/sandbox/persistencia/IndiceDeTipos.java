@@ -0,0 +1,249 @@
+package br.ufg.inf.es.saep.sandbox.persistencia;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Tipo;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice em memória dos Tipos pelo nome, que atende consultas por
+ * trecho (substring) e por prefixo do nome.
+ *
+ * <p>Nomes e consultas são comparados sem distinção entre maiúsculas
+ * e minúsculas e sem acentos ("Graduação" é encontrado por "gradu",
+ * "GRADUACAO" ou "ação"). Cada sequência de até {@value #N} caracteres
+ * do nome normalizado identifica os Tipos cujo nome a contém. Uma
+ * consulta com até {@value #N} caracteres é atendida diretamente por
+ * essa associação. Uma consulta mais longa examina apenas os Tipos que
+ * contêm todas as suas sequências de {@value #N} caracteres.
+ *
+ * <p>Instâncias dessa classe podem ser compartilhadas por várias threads.
+ */
+public class IndiceDeTipos {
+
+    /**
+     * Comprimento máximo das sequências indexadas.
+     */
+    static final int N = 3;
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+
+    private final Map<String, Tipo> tipos = new HashMap<>();
+
+    /**
+     * Nome normalizado, pelo código do Tipo.
+     */
+    private final Map<String, String> nomes = new HashMap<>();
+
+    /**
+     * Códigos dos Tipos cujo nome normalizado contém a sequência.
+     */
+    private final Map<String, Set<String>> sequencias = new HashMap<>();
+
+    /**
+     * Ordem dos resultados: nome normalizado e código.
+     */
+    private final Comparator<String> ordem = Comparator
+            .comparing((String codigo) -> nomes.get(codigo))
+            .thenComparing(codigo -> codigo);
+
+    private final ReadWriteLock trava = new ReentrantReadWriteLock();
+
+    /**
+     * Acrescenta o Tipo ao índice ou, se há Tipo indexado com o
+     * mesmo código, substitui-o.
+     * @param tipo O Tipo a ser indexado.
+     */
+    public void inclui(Tipo tipo) {
+        trava.writeLock().lock();
+        try {
+            removeIndexado(tipo.getId());
+
+            String nome = normaliza(tipo.getNome());
+            tipos.put(tipo.getId(), tipo);
+            nomes.put(tipo.getId(), nome);
+
+            for (String sequencia : sequenciasDe(nome)) {
+                sequencias.computeIfAbsent(sequencia, s -> new HashSet<>()).add(tipo.getId());
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Acrescenta os Tipos ao índice.
+     * @param tipos Os Tipos a serem indexados.
+     */
+    public void inclui(Iterable<Tipo> tipos) {
+        for (Tipo tipo : tipos) {
+            inclui(tipo);
+        }
+    }
+
+    /**
+     * Remove do índice o Tipo com o código fornecido, se existe.
+     * @param codigo O código do Tipo.
+     */
+    public void remove(String codigo) {
+        trava.writeLock().lock();
+        try {
+            removeIndexado(codigo);
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove todos os Tipos do índice.
+     */
+    public void limpa() {
+        trava.writeLock().lock();
+        try {
+            tipos.clear();
+            nomes.clear();
+            sequencias.clear();
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recupera a quantidade de Tipos indexados.
+     * @return Total de Tipos indexados.
+     */
+    public int tamanho() {
+        trava.readLock().lock();
+        try {
+            return tipos.size();
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recupera os Tipos cujo nome contém o trecho fornecido.
+     * @param trecho O trecho procurado no nome.
+     * @return Os Tipos encontrados, na ordem do nome.
+     */
+    public List<Tipo> contendo(String trecho) {
+        return consulta(trecho, false);
+    }
+
+    /**
+     * Recupera os Tipos cujo nome inicia pelo prefixo fornecido.
+     * @param prefixo O início do nome.
+     * @return Os Tipos encontrados, na ordem do nome.
+     */
+    public List<Tipo> comPrefixo(String prefixo) {
+        return consulta(prefixo, true);
+    }
+
+    private List<Tipo> consulta(String texto, boolean prefixo) {
+        String procurado = normaliza(texto);
+
+        trava.readLock().lock();
+        try {
+            List<String> codigos = new ArrayList<>();
+            for (String codigo : candidatos(procurado)) {
+                String nome = nomes.get(codigo);
+                if (prefixo ? nome.startsWith(procurado) : nome.contains(procurado)) {
+                    codigos.add(codigo);
+                }
+            }
+
+            codigos.sort(ordem);
+
+            List<Tipo> encontrados = new ArrayList<>(codigos.size());
+            for (String codigo : codigos) {
+                encontrados.add(tipos.get(codigo));
+            }
+
+            return encontrados;
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Códigos dos Tipos que podem conter o texto: todos que
+     * contêm cada uma das sequências de {@value #N} caracteres
+     * do texto, iniciando pela menos frequente.
+     */
+    private Collection<String> candidatos(String texto) {
+        if (texto.isEmpty()) {
+            return tipos.keySet();
+        }
+
+        if (texto.length() <= N) {
+            return sequencias.getOrDefault(texto, Collections.emptySet());
+        }
+
+        List<Set<String>> conjuntos = new ArrayList<>();
+        for (int i = 0; i + N <= texto.length(); i++) {
+            Set<String> codigos = sequencias.get(texto.substring(i, i + N));
+            if (codigos == null) {
+                return Collections.emptySet();
+            }
+
+            conjuntos.add(codigos);
+        }
+
+        conjuntos.sort(Comparator.comparingInt(Set::size));
+
+        Set<String> candidatos = new HashSet<>(conjuntos.get(0));
+        for (int i = 1; i < conjuntos.size() && !candidatos.isEmpty(); i++) {
+            candidatos.retainAll(conjuntos.get(i));
+        }
+
+        return candidatos;
+    }
+
+    private void removeIndexado(String codigo) {
+        String nome = nomes.remove(codigo);
+        if (nome == null) {
+            return;
+        }
+
+        tipos.remove(codigo);
+        for (String sequencia : sequenciasDe(nome)) {
+            Set<String> codigos = sequencias.get(sequencia);
+            codigos.remove(codigo);
+            if (codigos.isEmpty()) {
+                sequencias.remove(sequencia);
+            }
+        }
+    }
+
+    /**
+     * Todas as sequências distintas de 1 a {@value #N}
+     * caracteres do nome.
+     */
+    private static Set<String> sequenciasDe(String nome) {
+        Set<String> resultado = new HashSet<>();
+        for (int i = 0; i < nome.length(); i++) {
+            for (int n = 1; n <= N && i + n <= nome.length(); n++) {
+                resultado.add(nome.substring(i, i + n));
+            }
+        }
+
+        return resultado;
+    }
+
+    /**
+     * Remove acentos e converte para minúsculas.
+     * @param texto O texto a ser normalizado.
+     * @return O texto normalizado ou vazio, se {@code null}.
+     */
+    static String normaliza(String texto) {
+        if (texto == null) {
+            return "";
+        }
+
+        String decomposto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        return ACENTOS.matcher(decomposto).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
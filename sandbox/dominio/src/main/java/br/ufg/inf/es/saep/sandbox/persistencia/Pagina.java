@@ -0,0 +1,147 @@
+package br.ufg.inf.es.saep.sandbox.persistencia;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import static com.mongodb.client.model.Filters.gt;
+import static com.mongodb.client.model.Indexes.ascending;
+import static com.mongodb.client.model.Projections.include;
+
+/**
+ * Página de uma listagem, ordenada pelo identificador.
+ *
+ * <p>A página seguinte é requisitada com o valor de {@link #getProxima()},
+ * o identificador do último item desta página. A consulta correspondente
+ * inicia logo após esse identificador (empregando o índice), em vez de
+ * descartar os itens das páginas anteriores, e não é afetada por inclusões
+ * ou remoções realizadas entre as requisições.
+ *
+ * @param <T> O tipo dos itens listados.
+ */
+public class Pagina<T> {
+
+    /**
+     * Itens da página, na ordem do identificador.
+     */
+    private final List<T> itens;
+
+    /**
+     * Identificador a partir do qual a página seguinte é
+     * recuperada ou {@code null}, se esta é a última.
+     */
+    private final String proxima;
+
+    /**
+     * Cria uma página.
+     * @param itens Os itens da página.
+     * @param proxima O identificador do último item, caso existam
+     *                itens posteriores, ou {@code null}.
+     */
+    public Pagina(List<T> itens, String proxima) {
+        this.itens = Collections.unmodifiableList(itens);
+        this.proxima = proxima;
+    }
+
+    /**
+     * Recupera os itens da página.
+     * @return Os itens da página (somente leitura).
+     */
+    public List<T> getItens() {
+        return itens;
+    }
+
+    /**
+     * Recupera o valor a ser fornecido para obter a página seguinte.
+     * @return O identificador do último item da página ou {@code null},
+     * caso esta seja a última página.
+     */
+    public String getProxima() {
+        return proxima;
+    }
+
+    /**
+     * Verifica se há página seguinte.
+     * @return {@code true} se existem itens após os desta página.
+     */
+    public boolean temProxima() {
+        return proxima != null;
+    }
+
+    /**
+     * Recupera, em uma única requisição ao servidor, os itens da collection
+     * cujo campo fornecido é posterior a {@code depoisDe}, em ordem crescente
+     * desse campo. Um item além do tamanho da página é requisitado para
+     * determinar se existe página seguinte.
+     * @param collection A collection consultada.
+     * @param campo O campo (único e indexado) que ordena os itens.
+     * @param depoisDe Valor retornado por {@link #getProxima()} da página
+     *                 anterior ou {@code null}, para a primeira página.
+     * @param tamanho Quantidade máxima de itens da página.
+     * @param projecao Campos recuperados ou {@code null}, para todos.
+     * @param chave Obtém, de um item, o valor do campo que ordena os itens.
+     * @param <T> O tipo dos itens da collection.
+     * @return A página de itens.
+     */
+    static <T> Pagina<T> consulta(MongoCollection<T> collection,
+                                  String campo,
+                                  String depoisDe,
+                                  int tamanho,
+                                  Bson projecao,
+                                  Function<T, String> chave) {
+        if (tamanho < 1) {
+            throw new IllegalArgumentException("tamanho");
+        }
+
+        Bson filtro = depoisDe == null ? new Document() : gt(campo, depoisDe);
+
+        FindIterable<T> consulta = collection.find(filtro)
+                .sort(ascending(campo))
+                .limit(tamanho + 1)
+                .batchSize(tamanho + 1);
+
+        if (projecao != null) {
+            consulta.projection(projecao);
+        }
+
+        List<T> itens = consulta.into(new ArrayList<>(tamanho + 1));
+        if (itens.size() <= tamanho) {
+            return new Pagina<>(itens, null);
+        }
+
+        itens.remove(tamanho);
+        return new Pagina<>(itens, chave.apply(itens.get(tamanho - 1)));
+    }
+
+    /**
+     * Recupera uma página de identificadores ("_id") dos documentos da
+     * collection. Apenas o identificador é transferido pelo servidor.
+     * @param collection A collection consultada.
+     * @param depoisDe Valor retornado por {@link #getProxima()} da página
+     *                 anterior ou {@code null}, para a primeira página.
+     * @param tamanho Quantidade máxima de identificadores da página.
+     * @return A página de identificadores.
+     */
+    static Pagina<String> identificadores(MongoCollection<?> collection, String depoisDe, int tamanho) {
+        Pagina<Document> documentos = consulta(
+                collection.withDocumentClass(Document.class),
+                "_id",
+                depoisDe,
+                tamanho,
+                include("_id"),
+                d -> d.get("_id").toString());
+
+        List<String> identificadores = new ArrayList<>(documentos.getItens().size());
+        for (Document documento : documentos.getItens()) {
+            identificadores.add(documento.get("_id").toString());
+        }
+
+        return new Pagina<>(identificadores, documentos.getProxima());
+    }
+}
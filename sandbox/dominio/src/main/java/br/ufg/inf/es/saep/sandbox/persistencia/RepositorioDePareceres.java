@@ -1,17 +1,33 @@
 package br.ufg.inf.es.saep.sandbox.persistencia;
 
 import br.ufg.inf.es.saep.sandbox.dominio.*;
-import br.ufg.inf.es.saep.sandbox.persistencia.adapters.InterfaceAvaliavelAdapter;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import br.ufg.inf.es.saep.sandbox.persistencia.codecs.NotaCodec;
+import com.mongodb.MongoWriteException;
 import com.mongodb.client.MongoCollection;
-import com.mongodb.client.MongoCursor;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.CountOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.UpdateResult;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.elemMatch;
 import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.exists;
+import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Filters.not;
+import static com.mongodb.client.model.Filters.or;
+import static com.mongodb.client.model.Indexes.ascending;
+import static com.mongodb.client.model.Updates.pull;
+import static com.mongodb.client.model.Updates.push;
+import static com.mongodb.client.model.Updates.set;
 
 /**
  * Classe que representa o repositório de Pareceres.
@@ -19,30 +35,40 @@ import static com.mongodb.client.model.Filters.eq;
 public class RepositorioDePareceres implements ParecerRepository {
 
     /**
-     * Representação da base de dados.
+     * Representação da collection Pareceres advinda do banco de dados.
      */
-    private DBManager database;
+    private MongoCollection<Parecer> pareceresCollection;
 
     /**
-     * Objeto para serialização e parse de documentos JSON.
+     * Representação da collection Radocs advinda do banco de dados.
      */
-    private Gson gson;
+    private MongoCollection<Radoc> radocsCollection;
 
     /**
-     * Cria um novo repositório de Pareceres e Radocs, já inicializando o
-     * serializador/parser Gson. A conexão com o banco de dados será aberta
+     * Cria um novo repositório de Pareceres e Radocs. A conexão com o
+     * banco de dados, compartilhada
+     * com os demais repositórios do mesmo servidor e banco, será aberta
      * em um momento posterior.
      * @param banco O nome do banco de dados.
      * @param servidor O nome do servidor.
      * @param porta A porta de conexão com o banco de dados.
      */
     public RepositorioDePareceres(String banco, String servidor, int porta) {
-        this.gson = new GsonBuilder()
-                .registerTypeAdapter(Avaliavel.class, new InterfaceAvaliavelAdapter())
-                .serializeNulls()
-                .setPrettyPrinting()
-                .create();
-        this.database = new DBManager(banco, servidor, porta);
+        this(DBManager.compartilhado(banco, servidor, porta));
+    }
+
+    /**
+     * Cria um novo repositório de Pareceres e Radocs que emprega a conexão
+     * mantida pelo {@link DBManager} fornecido. Pareceres e Radocs são
+     * convertidos diretamente de e para BSON pelos codecs do domínio.
+     * @param database Representação da base de dados.
+     */
+    public RepositorioDePareceres(DBManager database) {
+        this.pareceresCollection = database.colecao("pareceres", Parecer.class);
+        this.radocsCollection = database.colecao("radocs", Radoc.class);
+
+        // Consultado antes da remoção de um Radoc.
+        this.pareceresCollection.createIndex(ascending("radocs"));
     }
 
     /**
@@ -50,42 +76,123 @@ public class RepositorioDePareceres implements ParecerRepository {
      */
     @Override
     public void adicionaNota(String id, Nota nota) {
-        MongoCollection pareceresCollection = database.abrirConexao("pareceres");
+        adicionaNotas(id, Collections.singletonList(nota));
+    }
 
-        if (byId(id) == null) {
-            throw new IdentificadorDesconhecido("id desconhecido");
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Todas as notas são enviadas ao servidor em uma única
+     * requisição (escrita em lote ordenada). Para cada nota, a nota
+     * existente para o mesmo item original é substituída no lugar
+     * ou, se não há tal nota, a nova é acrescentada. Cada uma dessas
+     * operações é atômica e apenas uma delas tem efeito.</p>
+     *
+     * <p>A nota existente é localizada pelo item original
+     * ({@link #notaDoItem(Avaliavel)}), inclusive se escrita por
+     * versões anteriores. Nesse caso, a nota substituta é escrita
+     * na representação atual.</p>
+     */
+    @Override
+    public void adicionaNotas(String id, List<Nota> notas) {
+        if (notas.isEmpty()) {
+            return;
         }
 
-        Document itemAvaliavelOriginalDocument = Document.parse(gson.toJson(nota.getItemOriginal()));
-        MongoCursor cursor = pareceresCollection.find(and(eq("_id", id), eq("notas.original", itemAvaliavelOriginalDocument))).iterator();
-        if (cursor.hasNext()) {
-            removeNota(id, nota.getItemOriginal());
+        List<WriteModel<Parecer>> operacoes = new ArrayList<>(notas.size() * 2);
+        for (Nota nota : notas) {
+            Bson existente = elemMatch("notas", notaDoItem(nota.getItemOriginal()));
+
+            operacoes.add(new UpdateOneModel<>(
+                    and(eq("_id", id), existente),
+                    set("notas.$", nota)));
+
+            operacoes.add(new UpdateOneModel<>(
+                    and(eq("_id", id), not(existente)),
+                    push("notas", nota)));
         }
 
-        Document notaDocument = Document.parse(gson.toJson(nota));
-        pareceresCollection.updateOne(
-                new Document("_id", id),
-                new Document("$push", new Document("notas", notaDocument))
-        );
+        BulkWriteResult resultado = pareceresCollection.bulkWrite(operacoes, new BulkWriteOptions().ordered(true));
+
+        if (resultado.getMatchedCount() == 0) {
+            throw new IdentificadorDesconhecido("id desconhecido");
+        }
     }
 
     /**
      * {@inheritDoc}
+     *
+     * <p>Assim como em {@link #adicionaNotas(String, List)}, a nota é
+     * localizada pelo item original ({@link #notaDoItem(Avaliavel)}).</p>
      */
     @Override
     public void removeNota(String id, Avaliavel original) {
-        MongoCollection pareceresCollection = database.abrirConexao("pareceres");
+        UpdateResult resultado = pareceresCollection.updateOne(
+                eq("_id", id),
+                pull("notas", notaDoItem(original)));
 
-        if (byId(id) == null) {
+        if (resultado.getMatchedCount() == 0) {
             throw new IdentificadorDesconhecido("id desconhecido");
         }
+    }
+
+    /**
+     * Condição satisfeita pela nota (elemento de "notas") cujo item
+     * original é o item fornecido.
+     * <p>Notas atuais possuem a chave do item original
+     * ({@link NotaCodec#chave(Avaliavel)}). Notas escritas por versões
+     * anteriores, sem a chave, são comparadas campo a campo, o que
+     * independe da ordem dos valores e da presença do tipo de cada
+     * valor. Dessa forma, nenhuma migração dos dados é necessária.
+     * Os atributos de um relato anterior não são conferidos um a um,
+     * apenas os do item fornecido, o que é suficiente porque relatos
+     * de um mesmo tipo possuem os mesmos atributos.</p>
+     * @param original O item original da nota.
+     * @return A condição sobre a nota.
+     */
+    private static Bson notaDoItem(Avaliavel original) {
+        Bson atual = eq("chave", NotaCodec.chave(original));
+
+        List<Bson> anterior = new ArrayList<>();
+        anterior.add(exists("chave", false));
 
-        Document avaliavelOriginalDocument = Document.parse(gson.toJson(original));
+        if (original instanceof Relato) {
+            Relato relato = (Relato) original;
+            anterior.add(eq("original.tipo", relato.getTipo()));
 
-        pareceresCollection.updateOne(
-                new Document("_id", id),
-                new Document("$pull", new Document("notas", new Document("original", avaliavelOriginalDocument)))
-        );
+            Esquema esquema = relato.getEsquema();
+            for (int i = 0; i < esquema.tamanho(); i++) {
+                String atributo = esquema.atributo(i);
+
+                // Nomes que não podem ser campos não ocorrem em
+                // documentos anteriores.
+                if (atributo.contains(".") || atributo.startsWith("$")) {
+                    return atual;
+                }
+
+                valorAnterior(anterior, "original.valores." + atributo, relato.get(i));
+            }
+        } else {
+            Pontuacao pontuacao = (Pontuacao) original;
+            anterior.add(eq("original.atributo", pontuacao.getAtributo()));
+            valorAnterior(anterior, "original.valor", pontuacao.getValor());
+        }
+
+        return or(atual, and(anterior));
+    }
+
+    /**
+     * Acrescenta as condições sobre os campos de um {@link Valor}
+     * escrito por versões anteriores.
+     */
+    private static void valorAnterior(List<Bson> condicoes, String campo, Valor valor) {
+        float real = valor.getFloat();
+
+        // O Gson escrevia o real pela representação textual do float,
+        // e os codecs, pela conversão para double.
+        condicoes.add(in(campo + ".real", (double) real, Double.parseDouble(Float.toString(real))));
+        condicoes.add(eq(campo + ".logico", valor.getBoolean()));
+        condicoes.add(eq(campo + ".string", valor.getString()));
     }
 
     /**
@@ -93,17 +200,16 @@ public class RepositorioDePareceres implements ParecerRepository {
      */
     @Override
     public void persisteParecer(Parecer parecer) {
-        MongoCollection pareceresCollection = database.abrirConexao("pareceres");
+        // A unicidade é garantida pelo servidor (_id).
+        try {
+            pareceresCollection.insertOne(parecer);
+        } catch (MongoWriteException mwe) {
+            if (DBManager.chaveDuplicada(mwe)) {
+                throw new IdentificadorExistente("já persistido");
+            }
 
-        if (byId(parecer.getId()) != null) {
-            throw new IdentificadorExistente("já persistido");
+            throw mwe;
         }
-
-        Document parecerDocument = Document.parse(gson.toJson(parecer));
-        parecerDocument.put("_id", parecerDocument.get("id"));
-        parecerDocument.remove("id");
-
-        pareceresCollection.insertOne(parecerDocument);
     }
 
     /**
@@ -111,16 +217,13 @@ public class RepositorioDePareceres implements ParecerRepository {
      */
     @Override
     public void atualizaFundamentacao(String parecer, String fundamentacao) {
-        MongoCollection pareceresCollection = database.abrirConexao("pareceres");
+        UpdateResult resultado = pareceresCollection.updateOne(
+                eq("_id", parecer),
+                set("fundamentacao", fundamentacao));
 
-        if (byId(parecer) == null) {
+        if (resultado.getMatchedCount() == 0) {
             throw new IdentificadorDesconhecido("id desconhecido");
         }
-
-        pareceresCollection.updateOne(
-                new Document("_id", parecer),
-                new Document("$set", new Document("fundamentacao", fundamentacao))
-        );
     }
 
     /**
@@ -128,21 +231,7 @@ public class RepositorioDePareceres implements ParecerRepository {
      */
     @Override
     public Parecer byId(String id) {
-        MongoCollection pareceresCollection = database.abrirConexao("pareceres");
-        Document document = null;
-
-        MongoCursor cursor = pareceresCollection.find(eq("_id", id)).iterator();
-        if (!cursor.hasNext()) {
-            return null;
-        }
-
-        while (cursor.hasNext()) {
-            document = (Document) cursor.next();
-            document.put("id", document.get("_id").toString());
-            document.remove("_id");
-        }
-
-        return gson.fromJson(document.toJson(), Parecer.class);
+        return pareceresCollection.find(eq("_id", id)).first();
     }
 
     /**
@@ -150,8 +239,7 @@ public class RepositorioDePareceres implements ParecerRepository {
      */
     @Override
     public void removeParecer(String id) {
-        MongoCollection pareceresCollection = database.abrirConexao("pareceres");
-        pareceresCollection.deleteOne(new Document("_id", id));
+        pareceresCollection.deleteOne(eq("_id", id));
     }
 
     /**
@@ -159,22 +247,7 @@ public class RepositorioDePareceres implements ParecerRepository {
      */
     @Override
     public Radoc radocById(String identificador) {
-        MongoCollection radocsCollection = database.abrirConexao("radocs");
-
-        Document document = null;
-
-        MongoCursor cursor = radocsCollection.find(eq("_id", identificador)).iterator();
-        if (!cursor.hasNext()) {
-            return null;
-        }
-
-        while (cursor.hasNext()) {
-            document = (Document) cursor.next();
-            document.put("id", document.get("_id").toString());
-            document.remove("_id");
-        }
-
-        return gson.fromJson(document.toJson(), Radoc.class);
+        return radocsCollection.find(eq("_id", identificador)).first();
     }
 
     /**
@@ -182,57 +255,114 @@ public class RepositorioDePareceres implements ParecerRepository {
      */
     @Override
     public String persisteRadoc(Radoc radoc) {
-        MongoCollection radocsCollection = database.abrirConexao("radocs");
+        // A unicidade é garantida pelo servidor (_id).
+        try {
+            radocsCollection.insertOne(radoc);
+        } catch (MongoWriteException mwe) {
+            if (DBManager.chaveDuplicada(mwe)) {
+                throw new IdentificadorExistente("já persistido");
+            }
 
-        if (byId(radoc.getId()) != null) {
-            throw new IdentificadorExistente("já persistido");
+            throw mwe;
         }
 
-        Document radocDocument = Document.parse(gson.toJson(radoc));
-        radocDocument.put("_id", radocDocument.get("id"));
-        radocDocument.remove("id");
-
-        radocsCollection.insertOne(radocDocument);
         return radoc.getId();
     }
 
+    /**
+     * Acrescenta os Radocs ao repositório, em lotes de
+     * {@value InclusaoEmLote#TAMANHO_PADRAO} Radocs por requisição.
+     * @param radocs Os Radocs a serem persistidos.
+     * @return O resultado da inclusão de cada Radoc, na ordem fornecida.
+     * @see #persisteRadocs(Iterable, int)
+     */
+    public List<ResultadoDeInclusao> persisteRadocs(Iterable<Radoc> radocs) {
+        return persisteRadocs(radocs, InclusaoEmLote.TAMANHO_PADRAO);
+    }
+
+    /**
+     * Acrescenta os Radocs ao repositório. Cada lote é enviado em uma única
+     * requisição, e um Radoc que não pode ser incluído (por exemplo, cujo
+     * identificador já é empregado) não impede a inclusão dos demais.
+     * @param radocs Os Radocs a serem persistidos.
+     * @param tamanhoDoLote Quantidade de Radocs por requisição.
+     * @return O resultado da inclusão de cada Radoc, na ordem fornecida.
+     */
+    public List<ResultadoDeInclusao> persisteRadocs(Iterable<Radoc> radocs, int tamanhoDoLote) {
+        return InclusaoEmLote.inclui(radocsCollection, radocs, tamanhoDoLote);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void removeRadoc(String identificador) {
-        MongoCollection radocsCollection = database.abrirConexao("radocs");
-
         verificaSeRadocReferenciadoPorParecer(identificador); // Se for referenciado, a exception já é lançada
-        radocsCollection.deleteOne(new Document("_id", identificador));
+        radocsCollection.deleteOne(eq("_id", identificador));
+    }
+
+    /**
+     * Recupera uma página dos identificadores dos Pareceres, em
+     * ordem crescente. Apenas os identificadores são transferidos.
+     * @param depoisDe O valor de {@link Pagina#getProxima()} da página
+     *                 anterior ou {@code null}, para a primeira página.
+     * @param tamanho Quantidade máxima de identificadores da página.
+     * @return A página de identificadores.
+     */
+    public Pagina<String> pareceres(String depoisDe, int tamanho) {
+        return Pagina.identificadores(pareceresCollection, depoisDe, tamanho);
+    }
+
+    /**
+     * Recupera uma página de Pareceres, em ordem crescente
+     * de identificador.
+     * @param depoisDe O valor de {@link Pagina#getProxima()} da página
+     *                 anterior ou {@code null}, para a primeira página.
+     * @param tamanho Quantidade máxima de Pareceres da página.
+     * @return A página de Pareceres.
+     */
+    public Pagina<Parecer> paginaDePareceres(String depoisDe, int tamanho) {
+        return Pagina.consulta(pareceresCollection, "_id", depoisDe, tamanho, null, Parecer::getId);
+    }
+
+    /**
+     * Recupera uma página dos identificadores dos Radocs, em
+     * ordem crescente. Apenas os identificadores são transferidos.
+     * @param depoisDe O valor de {@link Pagina#getProxima()} da página
+     *                 anterior ou {@code null}, para a primeira página.
+     * @param tamanho Quantidade máxima de identificadores da página.
+     * @return A página de identificadores.
+     */
+    public Pagina<String> radocs(String depoisDe, int tamanho) {
+        return Pagina.identificadores(radocsCollection, depoisDe, tamanho);
     }
 
     /**
-     * Recupera a lista de Pareceres e verifica para cada um deles se a
-     * lista de radocs contém o identificador do Radoc que se deseja remover.
+     * Recupera uma página de Radocs, em ordem crescente
+     * de identificador.
+     * @param depoisDe O valor de {@link Pagina#getProxima()} da página
+     *                 anterior ou {@code null}, para a primeira página.
+     * @param tamanho Quantidade máxima de Radocs da página.
+     * @return A página de Radocs.
+     */
+    public Pagina<Radoc> paginaDeRadocs(String depoisDe, int tamanho) {
+        return Pagina.consulta(radocsCollection, "_id", depoisDe, tamanho, null, Radoc::getId);
+    }
+
+    /**
+     * Verifica, no servidor, se algum Parecer possui em sua lista de radocs
+     * o identificador do Radoc que se deseja remover. A consulta emprega o
+     * índice sobre "radocs" e é interrompida no primeiro Parecer encontrado.
      * <p>Caso algum {@link Parecer} possua em sua lista de radocs referenciados,
      * o identificado do Radoc que se deseja Remover, então uma exception
      * {@link ExisteParecerReferenciandoRadoc} é lançada.</p>
      * @param identificador O identificador único do Radoc.
      */
     private void verificaSeRadocReferenciadoPorParecer(String identificador) {
-        MongoCollection pareceresCollection = database.abrirConexao("pareceres");
-        Document document;
-        Parecer parecer;
-
-        MongoCursor cursor = pareceresCollection.find().iterator();
-        while (cursor.hasNext()) {
-            document = (Document) cursor.next();
-            document.put("id", document.get("_id").toString());
-            document.remove("_id");
-            parecer = gson.fromJson(document.toJson(), Parecer.class);
-
-            List<String> listaDeRadocsReferenciados = parecer.getRadocs();
-            for (String idRadoc : listaDeRadocsReferenciados) {
-                if (identificador.equals(idRadoc)) {
-                    throw new ExisteParecerReferenciandoRadoc("Existe Parecer referenciando o Radoc.");
-                }
-            }
+        long referencias = pareceresCollection.count(eq("radocs", identificador), new CountOptions().limit(1));
+
+        if (referencias > 0) {
+            throw new ExisteParecerReferenciandoRadoc("Existe Parecer referenciando o Radoc.");
         }
     }
 
@@ -240,10 +370,12 @@ public class RepositorioDePareceres implements ParecerRepository {
      * Método chamado no tearDown dos testes para limpar a base de dados.
      */
     public static void clearDB() {
-        MongoCollection pareceresCollection = new DBManager("saep-sandbox", "server.thiagodurante.com.br",27017).abrirConexao("pareceres");
+        DBManager database = DBManager.compartilhado("saep-sandbox", "server.thiagodurante.com.br", 27017);
+
+        MongoCollection pareceresCollection = database.abrirConexao("pareceres");
         pareceresCollection.deleteMany(new Document());
 
-        MongoCollection radocsCollection = new DBManager("saep-sandbox", "server.thiagodurante.com.br", 27017).abrirConexao("radocs");
+        MongoCollection radocsCollection = database.abrirConexao("radocs");
         radocsCollection.deleteMany(new Document());
     }
 }
@@ -1,18 +1,19 @@
 package br.ufg.inf.es.saep.sandbox.persistencia;
 
 import br.ufg.inf.es.saep.sandbox.dominio.*;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.mongodb.MongoWriteException;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.result.DeleteResult;
 import org.bson.Document;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Pattern;
 
 import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Indexes.ascending;
+import static com.mongodb.client.model.Projections.include;
 
 /**
  * Classe que representa o repositório de Resoluções.
@@ -22,50 +23,60 @@ public class RepositorioDeResolucoes implements ResolucaoRepository {
     /**
      * Representação da collection Resolucoes advinda do banco de dados.
      */
-    private MongoCollection resolucoesCollection;
+    private MongoCollection<Resolucao> resolucoesCollection;
 
     /**
      * Representação da collection Tipos advinda do banco de dados.
      */
-    private MongoCollection tiposCollection;
+    private MongoCollection<Tipo> tiposCollection;
 
     /**
-     * Objeto para serialização e parse de documentos JSON.
+     * Índice dos Tipos pelo nome, carregado na primeira consulta pelo
+     * nome ({@code null} até então) e mantido pelas inclusões e
+     * remoções desta instância.
+     * <p>Inclusões e remoções de Tipos, no banco e no índice, e a carga
+     * do índice ocorrem sob o monitor desta instância. Dessa forma, um
+     * Tipo incluído ou removido durante a carga não é perdido. A carga
+     * monta um novo índice, que substitui o anterior apenas quando
+     * completo; consultas não aguardam a carga.</p>
      */
-    private Gson gson;
+    private volatile IndiceDeTipos indiceDeTipos;
 
     /**
      * Cria um novo repositório de Resoluções e Tipos, já abrindo a conexão com o
-     * banco de dados e inicializando o serializador/parser Gson.
+     * banco de dados. A conexão é compartilhada com os demais repositórios do
+     * mesmo servidor e banco.
      * @param banco O nome do banco de dados.
      * @param servidor O nome do servidor.
      * @param porta A porta de conexão com o banco de dados.
      */
     public RepositorioDeResolucoes(String banco, String servidor, int porta) {
-        this.resolucoesCollection = new DBManager(banco, servidor, porta).abrirConexao("resolucoes");
-        this.tiposCollection = new DBManager(banco, servidor, porta).abrirConexao("tipos");
-        this.gson = new GsonBuilder().serializeNulls().setPrettyPrinting().create();
+        this(DBManager.compartilhado(banco, servidor, porta));
     }
 
     /**
-     * {@inheritDoc}
+     * Cria um novo repositório de Resoluções e Tipos que emprega a conexão
+     * mantida pelo {@link DBManager} fornecido. Resoluções e Tipos são
+     * convertidos diretamente de e para BSON pelos codecs do domínio.
+     * @param database Representação da base de dados.
      */
-    @Override
-    public Resolucao byId(String id) {
-        Document document = null;
+    public RepositorioDeResolucoes(DBManager database) {
+        this.resolucoesCollection = database.colecao("resolucoes", Resolucao.class);
+        this.tiposCollection = database.colecao("tipos", Tipo.class);
 
-        MongoCursor cursor = resolucoesCollection.find(eq("_id", id)).iterator();
-        if (!cursor.hasNext()) {
-            return null;
-        }
+        // O código do tipo é mantido em "id", e não em "_id".
+        this.tiposCollection.createIndex(ascending("id"), new IndexOptions().unique(true));
 
-        while (cursor.hasNext()) {
-            document = (Document) cursor.next();
-            document.put("id", document.get("_id").toString());
-            document.remove("_id");
-        }
+        // Consultado antes da remoção de um Tipo.
+        this.resolucoesCollection.createIndex(ascending("regras.tipoRelato"));
+    }
 
-        return gson.fromJson(document.toJson(), Resolucao.class);
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Resolucao byId(String id) {
+        return resolucoesCollection.find(eq("_id", id)).first();
     }
 
     /**
@@ -89,18 +100,18 @@ public class RepositorioDeResolucoes implements ResolucaoRepository {
             throw new CampoExigidoNaoFornecido("regras");
         }
 
-        if (byId(resolucao.getId()) != null) {
-            throw new IdentificadorExistente("id");
-        }
-
-        Document resolucaoDocument = Document.parse(gson.toJson(resolucao));
-
-        resolucaoDocument.put("_id", resolucaoDocument.get("id"));
-        resolucaoDocument.remove("id");
+        // A unicidade é garantida pelo servidor (_id).
+        try {
+            resolucoesCollection.insertOne(resolucao);
+        } catch (MongoWriteException mwe) {
+            if (DBManager.chaveDuplicada(mwe)) {
+                throw new IdentificadorExistente("id");
+            }
 
-        resolucoesCollection.insertOne(resolucaoDocument);
+            throw mwe;
+        }
 
-        return resolucaoDocument.get("_id").toString();
+        return resolucao.getId();
     }
 
     /**
@@ -124,26 +135,101 @@ public class RepositorioDeResolucoes implements ResolucaoRepository {
         List<String> identificadoresDasResolucoes = new ArrayList<>();
         Document document;
 
-        MongoCursor cursor = resolucoesCollection.find().iterator();
+        // Apenas o identificador é transferido e convertido.
+        MongoCursor<Document> cursor = resolucoesCollection
+                .find(Document.class)
+                .projection(include("_id"))
+                .iterator();
         while (cursor.hasNext()) {
-            document = (Document) cursor.next();
+            document = cursor.next();
             identificadoresDasResolucoes.add(document.get("_id").toString());
         }
 
         return identificadoresDasResolucoes;
     }
 
+    /**
+     * Recupera uma página dos identificadores das Resoluções, em
+     * ordem crescente. Apenas os identificadores são transferidos.
+     * @param depoisDe O valor de {@link Pagina#getProxima()} da página
+     *                 anterior ou {@code null}, para a primeira página.
+     * @param tamanho Quantidade máxima de identificadores da página.
+     * @return A página de identificadores.
+     */
+    public Pagina<String> resolucoes(String depoisDe, int tamanho) {
+        return Pagina.identificadores(resolucoesCollection, depoisDe, tamanho);
+    }
+
+    /**
+     * Recupera uma página de Resoluções, em ordem crescente
+     * de identificador.
+     * @param depoisDe O valor de {@link Pagina#getProxima()} da página
+     *                 anterior ou {@code null}, para a primeira página.
+     * @param tamanho Quantidade máxima de Resoluções da página.
+     * @return A página de Resoluções.
+     */
+    public Pagina<Resolucao> paginaDeResolucoes(String depoisDe, int tamanho) {
+        return Pagina.consulta(resolucoesCollection, "_id", depoisDe, tamanho, null, Resolucao::getId);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
-    public void persisteTipo(Tipo tipo) {
-        if (tipoPeloCodigo(tipo.getId()) != null) {
-            throw new IdentificadorExistente("id");
+    public synchronized void persisteTipo(Tipo tipo) {
+        // A unicidade é garantida pelo índice único em "id".
+        try {
+            tiposCollection.insertOne(tipo);
+        } catch (MongoWriteException mwe) {
+            if (DBManager.chaveDuplicada(mwe)) {
+                throw new IdentificadorExistente("id");
+            }
+
+            throw mwe;
         }
 
-        Document tipoDocument = Document.parse(gson.toJson(tipo));
-        tiposCollection.insertOne(tipoDocument);
+        indexa(tipo);
+    }
+
+    /**
+     * Acrescenta os Tipos ao repositório, em lotes de
+     * {@value InclusaoEmLote#TAMANHO_PADRAO} Tipos por requisição.
+     * @param tipos Os Tipos a serem persistidos.
+     * @return O resultado da inclusão de cada Tipo, na ordem fornecida.
+     * @see #persisteTipos(Iterable, int)
+     */
+    public List<ResultadoDeInclusao> persisteTipos(Iterable<Tipo> tipos) {
+        return persisteTipos(tipos, InclusaoEmLote.TAMANHO_PADRAO);
+    }
+
+    /**
+     * Acrescenta os Tipos ao repositório. Cada lote é enviado em uma única
+     * requisição, e um Tipo que não pode ser incluído (por exemplo, cujo
+     * código já é empregado) não impede a inclusão dos demais.
+     * @param tipos Os Tipos a serem persistidos.
+     * @param tamanhoDoLote Quantidade de Tipos por requisição.
+     * @return O resultado da inclusão de cada Tipo, na ordem fornecida.
+     */
+    public synchronized List<ResultadoDeInclusao> persisteTipos(Iterable<Tipo> tipos, int tamanhoDoLote) {
+        // Os Tipos incluídos são acrescentados ao índice à medida que
+        // cada lote é enviado, portanto os Tipos são percorridos uma
+        // única vez (podem ser, por exemplo, produzidos sob demanda).
+        return InclusaoEmLote.inclui(tiposCollection, tipos, tamanhoDoLote, (tipo, resultado) -> {
+            if (resultado == ResultadoDeInclusao.INCLUIDO) {
+                indexa(tipo);
+            }
+        });
+    }
+
+    /**
+     * Acrescenta o Tipo ao índice, se já carregado. Caso contrário,
+     * o Tipo é obtido do banco na carga do índice.
+     */
+    private void indexa(Tipo tipo) {
+        IndiceDeTipos indice = indiceDeTipos;
+        if (indice != null) {
+            indice.inclui(tipo);
+        }
     }
 
     /**
@@ -152,7 +238,15 @@ public class RepositorioDeResolucoes implements ResolucaoRepository {
     @Override
     public void removeTipo(String codigo) {
         verificaSeTipoUsadoPorAlgumaResolucao(codigo); // Se for usado, a exception já é lançada
-        tiposCollection.deleteOne(eq("id", codigo));
+
+        synchronized (this) {
+            tiposCollection.deleteOne(eq("id", codigo));
+
+            IndiceDeTipos indice = indiceDeTipos;
+            if (indice != null) {
+                indice.remove(codigo);
+            }
+        }
     }
 
     /**
@@ -160,80 +254,101 @@ public class RepositorioDeResolucoes implements ResolucaoRepository {
      */
     @Override
     public Tipo tipoPeloCodigo(String codigo) {
-        Tipo tipo;
-        Document document = null;
-
-        MongoCursor cursor = tiposCollection.find(eq("id", codigo)).iterator();
-        if (!cursor.hasNext()) {
-            return null;
-        }
-
-        while (cursor.hasNext()) {
-            document = (Document) cursor.next();
-            document.remove("_id");
-        }
-
-        tipo = gson.fromJson(document.toJson(), Tipo.class);
-        return tipo;
+        return tiposCollection.find(eq("id", codigo)).first();
     }
 
     /**
      * {@inheritDoc}
+     *
+     * <p>Recupera os Tipos cujo nome contém o trecho fornecido, sem
+     * distinção de maiúsculas e minúsculas ou de acentos. A consulta é
+     * atendida pelo {@link IndiceDeTipos}, carregado com todos os Tipos
+     * na primeira consulta. Tipos incluídos ou removidos por outras
+     * instâncias não são percebidos até {@link #recarregaIndiceDeTipos()}.</p>
      */
     @Override
     public List<Tipo> tiposPeloNome(String nome) {
-        List<Tipo> tiposRecuperados = new ArrayList<>();
-        Tipo tipo;
-        Document document;
+        return indice().contendo(nome);
+    }
+
+    /**
+     * Recupera os Tipos cujo nome inicia pelo prefixo fornecido, sem
+     * distinção de maiúsculas e minúsculas ou de acentos.
+     * @param prefixo O início do nome.
+     * @return Os Tipos encontrados, na ordem do nome.
+     * @see #tiposPeloNome(String)
+     */
+    public List<Tipo> tiposPeloPrefixo(String prefixo) {
+        return indice().comPrefixo(prefixo);
+    }
 
-        Pattern regex = Pattern.compile(nome);
+    /**
+     * Carrega novamente, do banco de dados, o índice dos Tipos
+     * pelo nome. Até a conclusão, as consultas empregam o índice
+     * anterior.
+     */
+    public synchronized void recarregaIndiceDeTipos() {
+        IndiceDeTipos indice = new IndiceDeTipos();
+        indice.inclui(tiposCollection.find().into(new ArrayList<>()));
 
-        MongoCursor cursor = tiposCollection.find(eq("nome", regex)).iterator();
-        while (cursor.hasNext()) {
-            document = (Document) cursor.next();
-            document.remove("_id");
-            tipo = gson.fromJson(document.toJson(), Tipo.class);
+        indiceDeTipos = indice;
+    }
+
+    private IndiceDeTipos indice() {
+        IndiceDeTipos indice = indiceDeTipos;
+        if (indice == null) {
+            synchronized (this) {
+                if (indiceDeTipos == null) {
+                    recarregaIndiceDeTipos();
+                }
 
-            tiposRecuperados.add(tipo);
+                indice = indiceDeTipos;
+            }
         }
 
-        return tiposRecuperados;
+        return indice;
+    }
+
+    /**
+     * Recupera uma página de Tipos, em ordem crescente de código.
+     * O código (campo "id", com índice único) ordena os Tipos, pois
+     * o "_id" é produzido pelo servidor.
+     * @param depoisDe O valor de {@link Pagina#getProxima()} da página
+     *                 anterior ou {@code null}, para a primeira página.
+     * @param tamanho Quantidade máxima de Tipos da página.
+     * @return A página de Tipos.
+     */
+    public Pagina<Tipo> paginaDeTipos(String depoisDe, int tamanho) {
+        return Pagina.consulta(tiposCollection, "id", depoisDe, tamanho, null, Tipo::getId);
     }
 
     /**
      * Método chamado no tearDown dos testes para limpar a base de dados.
      */
-    public void clearDB() {
+    public synchronized void clearDB() {
         resolucoesCollection.deleteMany(new Document());
         tiposCollection.deleteMany(new Document());
+        indiceDeTipos = null;
     }
 
     /**
-     * Recupera a lista de todas as Resoluções e verifica para cada uma delas se
-     * alguma de suas regras possui o atributo tipoRelato igual ao codigo (ou id) do
-     * Tipo que se deseja deletar.
+     * Verifica, no servidor, se alguma Resolução possui regra cujo atributo
+     * tipoRelato é igual ao codigo (ou id) do Tipo que se deseja deletar. A
+     * consulta emprega o índice sobre "regras.tipoRelato" e recupera apenas
+     * o identificador da primeira Resolução encontrada.
      * <p>Caso alguma {@link Regra} de alguma {@link Resolucao}, possua o atributo
      * tipoRelato == codigo do {@link Tipo}, então uma exception {@link ResolucaoUsaTipoException}
      * é lançada.</p>
      * @param codigo O código ou id do {@link Tipo} que se deseja remover.
      */
     private void verificaSeTipoUsadoPorAlgumaResolucao(String codigo) {
-        Document document;
-        Resolucao resolucao;
+        Document resolucao = resolucoesCollection
+                .find(eq("regras.tipoRelato", codigo), Document.class)
+                .projection(include("_id"))
+                .first();
 
-        MongoCursor cursor = resolucoesCollection.find().iterator();
-        while (cursor.hasNext()) {
-            document = (Document) cursor.next();
-            document.put("id", document.get("_id").toString());
-            document.remove("_id");
-            resolucao = gson.fromJson(document.toJson(), Resolucao.class);
-
-            List<Regra> regras = resolucao.getRegras();
-            for (Regra r : regras) {
-                if (codigo.equals(r.getTipoRelato())) {
-                    throw new ResolucaoUsaTipoException("A Resolução [ID: " +resolucao.getId() + "] usa o Tipo.");
-                }
-            }
+        if (resolucao != null) {
+            throw new ResolucaoUsaTipoException("A Resolução [ID: " + resolucao.get("_id") + "] usa o Tipo.");
         }
     }
 }
@@ -0,0 +1,358 @@
+package br.ufg.inf.es.saep.sandbox.persistencia;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Resolucao;
+import br.ufg.inf.es.saep.sandbox.dominio.ResolucaoRepository;
+import br.ufg.inf.es.saep.sandbox.dominio.Tipo;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Repositório de Resoluções e Tipos que mantém em memória as
+ * Resoluções e os Tipos recuperados de outro repositório.
+ *
+ * <p>Resoluções e Tipos são alterados raramente, mas recuperados a
+ * cada avaliação. Uma consulta por identificador é atendida pela
+ * memória, caso a Resolução (ou o Tipo) já tenha sido recuperada,
+ * e pelo repositório decorado, caso contrário. As alterações
+ * realizadas por meio desta instância ({@link #persiste(Resolucao)},
+ * {@link #remove(String)}, {@link #persisteTipo(Tipo)} e
+ * {@link #removeTipo(String)}) descartam o item correspondente.
+ * Alterações realizadas por outros meios são percebidas após a
+ * validade dos itens, se definida.
+ *
+ * <p>A quantidade de itens retidos é limitada: atingida a capacidade,
+ * o item usado há mais tempo é descartado (LRU). Instâncias dessa
+ * classe podem ser compartilhadas por várias threads. Contadores de
+ * acertos, falhas, remoções e expirações permitem acompanhar a
+ * eficácia do cache.
+ */
+public class RepositorioDeResolucoesEmCache implements ResolucaoRepository {
+
+    /**
+     * Capacidade empregada quando nenhuma outra é indicada.
+     */
+    public static final int CAPACIDADE_PADRAO = 256;
+
+    /**
+     * Repositório que mantém as Resoluções e os Tipos.
+     */
+    private final ResolucaoRepository repositorio;
+
+    /**
+     * Validade (ns) de um item ou zero, se não expira.
+     */
+    private final long validade;
+
+    /**
+     * Fornece o instante corrente (ns).
+     */
+    private final LongSupplier relogio;
+
+    private final Itens<Resolucao> resolucoes;
+    private final Itens<Tipo> tipos;
+
+    /**
+     * Incrementado a cada descarte por alteração. Um item recuperado
+     * do repositório não é retido se houve alteração durante a
+     * consulta, pois pode estar desatualizado.
+     */
+    private final AtomicLong geracao = new AtomicLong();
+
+    private final AtomicLong acertos = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+    private final AtomicLong remocoes = new AtomicLong();
+    private final AtomicLong expiracoes = new AtomicLong();
+
+    /**
+     * Cria cache com a capacidade padrão cujos itens não expiram.
+     *
+     * @param repositorio O repositório decorado.
+     */
+    public RepositorioDeResolucoesEmCache(ResolucaoRepository repositorio) {
+        this(repositorio, CAPACIDADE_PADRAO, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cria cache de Resoluções e Tipos.
+     *
+     * @param repositorio O repositório decorado.
+     * @param capacidade Quantidade máxima de Resoluções e, separadamente,
+     *                   de Tipos retidos.
+     * @param validade Tempo durante o qual um item é mantido após ser
+     *                 recuperado do repositório, ou zero, se não expira.
+     * @param unidade Unidade da validade.
+     *
+     * @throws IllegalArgumentException Caso a capacidade não seja
+     * positiva ou a validade seja negativa.
+     */
+    public RepositorioDeResolucoesEmCache(ResolucaoRepository repositorio, int capacidade,
+                                          long validade, TimeUnit unidade) {
+        this(repositorio, capacidade, unidade.toNanos(validade), System::nanoTime);
+    }
+
+    RepositorioDeResolucoesEmCache(ResolucaoRepository repositorio, int capacidade,
+                                   long validade, LongSupplier relogio) {
+        if (repositorio == null) {
+            throw new IllegalArgumentException("repositorio");
+        }
+
+        if (capacidade < 1) {
+            throw new IllegalArgumentException("capacidade");
+        }
+
+        if (validade < 0) {
+            throw new IllegalArgumentException("validade");
+        }
+
+        this.repositorio = repositorio;
+        this.validade = validade;
+        this.relogio = relogio;
+        this.resolucoes = new Itens<>(capacidade);
+        this.tipos = new Itens<>(capacidade);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Resolucao byId(String id) {
+        return obtem(resolucoes, id, repositorio::byId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String persiste(Resolucao resolucao) {
+        try {
+            return repositorio.persiste(resolucao);
+        } finally {
+            descarta(resolucoes, resolucao.getId());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean remove(String identificador) {
+        try {
+            return repositorio.remove(identificador);
+        } finally {
+            descarta(resolucoes, identificador);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Não é atendida pelo cache.</p>
+     */
+    @Override
+    public List<String> resolucoes() {
+        return repositorio.resolucoes();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void persisteTipo(Tipo tipo) {
+        try {
+            repositorio.persisteTipo(tipo);
+        } finally {
+            descarta(tipos, tipo.getId());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeTipo(String codigo) {
+        try {
+            repositorio.removeTipo(codigo);
+        } finally {
+            descarta(tipos, codigo);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Tipo tipoPeloCodigo(String codigo) {
+        return obtem(tipos, codigo, repositorio::tipoPeloCodigo);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Não é atendida pelo cache.</p>
+     */
+    @Override
+    public List<Tipo> tiposPeloNome(String nome) {
+        return repositorio.tiposPeloNome(nome);
+    }
+
+    /**
+     * Descarta todos os itens do cache. Os contadores
+     * não são alterados.
+     */
+    public void limpa() {
+        geracao.incrementAndGet();
+        resolucoes.limpa();
+        tipos.limpa();
+    }
+
+    /**
+     * Recupera a quantidade de consultas atendidas pelo cache.
+     *
+     * @return Total de acertos.
+     */
+    public long getAcertos() {
+        return acertos.get();
+    }
+
+    /**
+     * Recupera a quantidade de consultas encaminhadas ao
+     * repositório decorado.
+     *
+     * @return Total de falhas.
+     */
+    public long getFalhas() {
+        return falhas.get();
+    }
+
+    /**
+     * Recupera a quantidade de itens descartados em
+     * decorrência da capacidade do cache.
+     *
+     * @return Total de remoções.
+     */
+    public long getRemocoes() {
+        return remocoes.get();
+    }
+
+    /**
+     * Recupera a quantidade de itens descartados por
+     * terem excedido a validade.
+     *
+     * @return Total de expirações.
+     */
+    public long getExpiracoes() {
+        return expiracoes.get();
+    }
+
+    /**
+     * Recupera a fração das consultas atendidas pelo cache.
+     *
+     * @return Valor entre 0 e 1, ou 0, se não houve consulta.
+     */
+    public double getTaxaDeAcertos() {
+        long a = acertos.get();
+        long total = a + falhas.get();
+        return total == 0 ? 0 : (double) a / total;
+    }
+
+    private <V> V obtem(Itens<V> itens, String chave, Function<String, V> consulta) {
+        long agora = relogio.getAsLong();
+
+        Item<V> item = itens.obtem(chave);
+        if (item != null) {
+            if (validade == 0 || agora - item.instante < validade) {
+                acertos.incrementAndGet();
+                return item.valor;
+            }
+
+            if (itens.remove(chave, item)) {
+                expiracoes.incrementAndGet();
+            }
+        }
+
+        falhas.incrementAndGet();
+
+        // A consulta ao repositório ocorre fora da região crítica.
+        // Ausência (null) não é retida.
+        long inicial = geracao.get();
+        V valor = consulta.apply(chave);
+        if (valor != null) {
+            itens.inclui(chave, new Item<>(valor, agora), () -> geracao.get() == inicial);
+        }
+
+        return valor;
+    }
+
+    private <V> void descarta(Itens<V> itens, String chave) {
+        geracao.incrementAndGet();
+        itens.remove(chave);
+    }
+
+    /**
+     * Item retido e instante em que foi recuperado.
+     */
+    private static final class Item<V> {
+        private final V valor;
+        private final long instante;
+
+        private Item(V valor, long instante) {
+            this.valor = valor;
+            this.instante = instante;
+        }
+    }
+
+    /**
+     * Itens retidos, na ordem de acesso.
+     */
+    private final class Itens<V> {
+
+        private final Map<String, Item<V>> mapa;
+
+        private Itens(int capacidade) {
+            this.mapa = new LinkedHashMap<String, Item<V>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Item<V>> maisAntigo) {
+                    if (size() > capacidade) {
+                        remocoes.incrementAndGet();
+                        return true;
+                    }
+
+                    return false;
+                }
+            };
+        }
+
+        synchronized Item<V> obtem(String chave) {
+            return mapa.get(chave);
+        }
+
+        /**
+         * Inclui o item, caso a condição (avaliada na região
+         * crítica) seja satisfeita.
+         */
+        synchronized void inclui(String chave, Item<V> item, BooleanSupplier condicao) {
+            if (condicao.getAsBoolean()) {
+                mapa.put(chave, item);
+            }
+        }
+
+        synchronized void remove(String chave) {
+            mapa.remove(chave);
+        }
+
+        synchronized boolean remove(String chave, Item<V> item) {
+            return mapa.remove(chave, item);
+        }
+
+        synchronized void limpa() {
+            mapa.clear();
+        }
+    }
+}
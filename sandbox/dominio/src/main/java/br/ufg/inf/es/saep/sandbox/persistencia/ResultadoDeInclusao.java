@@ -0,0 +1,24 @@
+package br.ufg.inf.es.saep.sandbox.persistencia;
+
+/**
+ * Resultado da inclusão de um item em uma inclusão em lote.
+ */
+public enum ResultadoDeInclusao {
+
+    /**
+     * Item persistido.
+     */
+    INCLUIDO,
+
+    /**
+     * Item não persistido, pois o identificador já é
+     * empregado por item existente.
+     */
+    DUPLICADO,
+
+    /**
+     * Item não persistido por outra falha informada
+     * pelo servidor.
+     */
+    FALHOU
+}
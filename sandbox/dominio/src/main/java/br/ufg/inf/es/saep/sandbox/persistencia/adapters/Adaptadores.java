@@ -0,0 +1,56 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.adapters;
+
+import br.ufg.inf.es.saep.sandbox.dominio.*;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Registro dos adapters das classes do domínio, que convertem objetos
+ * de e para JSON diretamente (streaming), sem reflexão e sem montar a
+ * árvore do documento.
+ * <p>O formato produzido é compacto: sem espaços nem quebras de linha,
+ * sem campos cujo valor é {@code null} e com cada {@link Valor}
+ * representado pelo próprio texto, lógico ou número.</p>
+ */
+public final class Adaptadores {
+
+    private static final Gson GSON = registra(new GsonBuilder()).create();
+
+    private Adaptadores() {
+    }
+
+    /**
+     * Recupera instância de {@link Gson} configurada com os adapters
+     * do domínio. A instância pode ser compartilhada por várias threads.
+     * @return Instância configurada.
+     */
+    public static Gson gson() {
+        return GSON;
+    }
+
+    /**
+     * Registra os adapters do domínio no builder fornecido.
+     * @param builder O builder a ser configurado.
+     * @return O próprio builder.
+     */
+    public static GsonBuilder registra(GsonBuilder builder) {
+        ValorAdapter valor = new ValorAdapter();
+        RelatoAdapter relato = new RelatoAdapter(valor);
+        PontuacaoAdapter pontuacao = new PontuacaoAdapter(valor);
+        AvaliavelAdapter avaliavel = new AvaliavelAdapter(relato, pontuacao);
+        NotaAdapter nota = new NotaAdapter(avaliavel);
+        RegraAdapter regra = new RegraAdapter();
+
+        return builder
+                .registerTypeAdapter(Valor.class, valor)
+                .registerTypeAdapter(Relato.class, relato)
+                .registerTypeAdapter(Pontuacao.class, pontuacao)
+                .registerTypeAdapter(Avaliavel.class, avaliavel)
+                .registerTypeAdapter(Nota.class, nota)
+                .registerTypeAdapter(Parecer.class, new ParecerAdapter(pontuacao, nota))
+                .registerTypeAdapter(Radoc.class, new RadocAdapter(relato))
+                .registerTypeAdapter(Regra.class, regra)
+                .registerTypeAdapter(Resolucao.class, new ResolucaoAdapter(regra))
+                .registerTypeAdapter(Tipo.class, new TipoAdapter());
+    }
+}
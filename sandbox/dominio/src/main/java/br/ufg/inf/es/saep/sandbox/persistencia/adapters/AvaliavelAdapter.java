@@ -0,0 +1,87 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.adapters;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Avaliavel;
+import br.ufg.inf.es.saep.sandbox.dominio.Pontuacao;
+import br.ufg.inf.es.saep.sandbox.dominio.Relato;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Adapter (streaming) para a interface Avaliavel a ser utilizado pelo Gson,
+ * registrado por {@link Adaptadores}.
+ * <p>A classe é identificada pelo campo "classe" ({@value #RELATO} ou
+ * {@value #PONTUACAO}), sempre o primeiro do objeto, o que permite ler
+ * os demais campos diretamente, sem montar a árvore do objeto.
+ * Objetos sem esse campo, produzidos por {@link InterfaceAvaliavelAdapter},
+ * são rejeitados.</p>
+ */
+public class AvaliavelAdapter extends TypeAdapter<Avaliavel> {
+
+    /**
+     * Nome do campo que identifica a classe.
+     */
+    public static final String CLASSE = "classe";
+
+    public static final String RELATO = "relato";
+    public static final String PONTUACAO = "pontuacao";
+
+    private final RelatoAdapter relatoAdapter;
+    private final PontuacaoAdapter pontuacaoAdapter;
+
+    public AvaliavelAdapter(RelatoAdapter relatoAdapter, PontuacaoAdapter pontuacaoAdapter) {
+        this.relatoAdapter = relatoAdapter;
+        this.pontuacaoAdapter = pontuacaoAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, Avaliavel avaliavel) throws IOException {
+        if (avaliavel == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        if (avaliavel instanceof Relato) {
+            out.name(CLASSE).value(RELATO);
+            relatoAdapter.escreveCampos(out, (Relato) avaliavel);
+        } else if (avaliavel instanceof Pontuacao) {
+            out.name(CLASSE).value(PONTUACAO);
+            pontuacaoAdapter.escreveCampos(out, (Pontuacao) avaliavel);
+        } else {
+            throw new JsonParseException("Avaliavel desconhecido: " + avaliavel.getClass());
+        }
+        out.endObject();
+    }
+
+    @Override
+    public Avaliavel read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        in.beginObject();
+        if (!in.hasNext() || !CLASSE.equals(in.nextName())) {
+            throw new JsonParseException("Avaliavel sem o campo \"" + CLASSE + "\"");
+        }
+
+        String classe = in.nextString();
+
+        Avaliavel avaliavel;
+        if (RELATO.equals(classe)) {
+            avaliavel = relatoAdapter.leCampos(in);
+        } else if (PONTUACAO.equals(classe)) {
+            avaliavel = pontuacaoAdapter.leCampos(in);
+        } else {
+            throw new JsonParseException("Avaliavel desconhecido: " + classe);
+        }
+
+        in.endObject();
+        return avaliavel;
+    }
+}
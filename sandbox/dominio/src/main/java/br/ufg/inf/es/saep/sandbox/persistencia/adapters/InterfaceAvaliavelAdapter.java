@@ -12,7 +12,12 @@ import java.lang.reflect.Type;
  * <p>O Adapter é necessário pois existem duas classes que implementam a
  * interface {@link br.ufg.inf.es.saep.sandbox.dominio.Avaliavel} e o Gson
  * precisa saber exatamente qual classe serializar/desserializar.</p>
+ * <p>Mantido para configurações do Gson baseadas em reflexão, cujo
+ * formato não inclui o campo "classe".</p>
+ * @deprecated Substituído por {@link AvaliavelAdapter}, registrado por
+ * {@link Adaptadores#registra(com.google.gson.GsonBuilder)}.
  */
+@Deprecated
 public class InterfaceAvaliavelAdapter implements JsonSerializer<Avaliavel>, JsonDeserializer<Avaliavel> {
 
     @Override
@@ -0,0 +1,109 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Operações de leitura e escrita comuns aos adapters.
+ * <p>Valores ausentes ({@code null}) são omitidos, exceto se o
+ * {@link JsonWriter} é configurado para escrevê-los, e campos
+ * ausentes são lidos como {@code null}.</p>
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    static void escreveTexto(JsonWriter out, String nome, String valor) throws IOException {
+        out.name(nome);
+        if (valor == null) {
+            out.nullValue();
+        } else {
+            out.value(valor);
+        }
+    }
+
+    /**
+     * Escreve o número na representação mais curta do {@code float}
+     * (por exemplo, "1.1", e não "1.100000023841858").
+     */
+    static void escreveReal(JsonWriter out, String nome, float valor) throws IOException {
+        out.name(nome).value(Float.valueOf(valor));
+    }
+
+    static void escreveTextos(JsonWriter out, String nome, List<String> valores) throws IOException {
+        out.name(nome);
+        if (valores == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginArray();
+        for (String valor : valores) {
+            out.value(valor);
+        }
+        out.endArray();
+    }
+
+    static <T> void escreveLista(JsonWriter out, String nome, List<T> valores,
+                                 TypeAdapter<T> adapter) throws IOException {
+        out.name(nome);
+        if (valores == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginArray();
+        for (T valor : valores) {
+            adapter.write(out, valor);
+        }
+        out.endArray();
+    }
+
+    static String leTexto(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        return in.nextString();
+    }
+
+    static List<String> leTextos(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        List<String> valores = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            valores.add(leTexto(in));
+        }
+        in.endArray();
+
+        return valores;
+    }
+
+    static <T> List<T> leLista(JsonReader in, TypeAdapter<T> adapter) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        List<T> valores = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            valores.add(adapter.read(in));
+        }
+        in.endArray();
+
+        return valores;
+    }
+}
@@ -0,0 +1,70 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.adapters;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Avaliavel;
+import br.ufg.inf.es.saep.sandbox.dominio.Nota;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Adapter de {@link Nota}.
+ */
+public class NotaAdapter extends TypeAdapter<Nota> {
+
+    private final TypeAdapter<Avaliavel> avaliavelAdapter;
+
+    public NotaAdapter(TypeAdapter<Avaliavel> avaliavelAdapter) {
+        this.avaliavelAdapter = avaliavelAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, Nota nota) throws IOException {
+        if (nota == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("original");
+        avaliavelAdapter.write(out, nota.getItemOriginal());
+        out.name("novo");
+        avaliavelAdapter.write(out, nota.getItemNovo());
+        Json.escreveTexto(out, "justificativa", nota.getJustificativa());
+        out.endObject();
+    }
+
+    @Override
+    public Nota read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        Avaliavel original = null;
+        Avaliavel novo = null;
+        String justificativa = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "original":
+                    original = avaliavelAdapter.read(in);
+                    break;
+                case "novo":
+                    novo = avaliavelAdapter.read(in);
+                    break;
+                case "justificativa":
+                    justificativa = Json.leTexto(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        return new Nota(original, novo, justificativa);
+    }
+}
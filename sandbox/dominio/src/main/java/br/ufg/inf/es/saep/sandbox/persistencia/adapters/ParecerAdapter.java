@@ -0,0 +1,87 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.adapters;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Nota;
+import br.ufg.inf.es.saep.sandbox.dominio.Parecer;
+import br.ufg.inf.es.saep.sandbox.dominio.Pontuacao;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Adapter de {@link Parecer}.
+ */
+public class ParecerAdapter extends TypeAdapter<Parecer> {
+
+    private final TypeAdapter<Pontuacao> pontuacaoAdapter;
+    private final TypeAdapter<Nota> notaAdapter;
+
+    public ParecerAdapter(TypeAdapter<Pontuacao> pontuacaoAdapter, TypeAdapter<Nota> notaAdapter) {
+        this.pontuacaoAdapter = pontuacaoAdapter;
+        this.notaAdapter = notaAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, Parecer parecer) throws IOException {
+        if (parecer == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        Json.escreveTexto(out, "id", parecer.getId());
+        Json.escreveTexto(out, "resolucao", parecer.getResolucao());
+        Json.escreveTextos(out, "radocs", parecer.getRadocs());
+        Json.escreveLista(out, "pontuacoes", parecer.getPontuacoes(), pontuacaoAdapter);
+        Json.escreveTexto(out, "fundamentacao", parecer.getFundamentacao());
+        Json.escreveLista(out, "notas", parecer.getNotas(), notaAdapter);
+        out.endObject();
+    }
+
+    @Override
+    public Parecer read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String id = null;
+        String resolucao = null;
+        List<String> radocs = null;
+        List<Pontuacao> pontuacoes = null;
+        String fundamentacao = null;
+        List<Nota> notas = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    id = Json.leTexto(in);
+                    break;
+                case "resolucao":
+                    resolucao = Json.leTexto(in);
+                    break;
+                case "radocs":
+                    radocs = Json.leTextos(in);
+                    break;
+                case "pontuacoes":
+                    pontuacoes = Json.leLista(in, pontuacaoAdapter);
+                    break;
+                case "fundamentacao":
+                    fundamentacao = Json.leTexto(in);
+                    break;
+                case "notas":
+                    notas = Json.leLista(in, notaAdapter);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        return new Parecer(id, resolucao, radocs, pontuacoes, fundamentacao, notas);
+    }
+}
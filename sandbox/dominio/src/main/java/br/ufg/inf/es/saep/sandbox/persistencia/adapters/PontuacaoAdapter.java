@@ -0,0 +1,77 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.adapters;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Pontuacao;
+import br.ufg.inf.es.saep.sandbox.dominio.Valor;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Adapter de {@link Pontuacao}.
+ */
+public class PontuacaoAdapter extends TypeAdapter<Pontuacao> {
+
+    private final TypeAdapter<Valor> valorAdapter;
+
+    public PontuacaoAdapter(TypeAdapter<Valor> valorAdapter) {
+        this.valorAdapter = valorAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, Pontuacao pontuacao) throws IOException {
+        if (pontuacao == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        escreveCampos(out, pontuacao);
+        out.endObject();
+    }
+
+    @Override
+    public Pontuacao read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        in.beginObject();
+        Pontuacao pontuacao = leCampos(in);
+        in.endObject();
+
+        return pontuacao;
+    }
+
+    void escreveCampos(JsonWriter out, Pontuacao pontuacao) throws IOException {
+        Json.escreveTexto(out, "atributo", pontuacao.getAtributo());
+        out.name("valor");
+        valorAdapter.write(out, pontuacao.getValor());
+    }
+
+    /**
+     * Lê os campos restantes do objeto corrente.
+     */
+    Pontuacao leCampos(JsonReader in) throws IOException {
+        String atributo = null;
+        Valor valor = null;
+
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "atributo":
+                    atributo = Json.leTexto(in);
+                    break;
+                case "valor":
+                    valor = valorAdapter.read(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+
+        return new Pontuacao(atributo, valor);
+    }
+}
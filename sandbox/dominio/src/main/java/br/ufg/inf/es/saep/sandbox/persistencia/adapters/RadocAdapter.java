@@ -0,0 +1,69 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.adapters;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Radoc;
+import br.ufg.inf.es.saep.sandbox.dominio.Relato;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Adapter de {@link Radoc}.
+ */
+public class RadocAdapter extends TypeAdapter<Radoc> {
+
+    private final TypeAdapter<Relato> relatoAdapter;
+
+    public RadocAdapter(TypeAdapter<Relato> relatoAdapter) {
+        this.relatoAdapter = relatoAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, Radoc radoc) throws IOException {
+        if (radoc == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        Json.escreveTexto(out, "id", radoc.getId());
+        out.name("anoBase").value(radoc.getAnoBase());
+        Json.escreveLista(out, "relatos", radoc.getRelatos(), relatoAdapter);
+        out.endObject();
+    }
+
+    @Override
+    public Radoc read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String id = null;
+        int anoBase = 0;
+        List<Relato> relatos = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    id = Json.leTexto(in);
+                    break;
+                case "anoBase":
+                    anoBase = in.nextInt();
+                    break;
+                case "relatos":
+                    relatos = Json.leLista(in, relatoAdapter);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        return new Radoc(id, anoBase, relatos);
+    }
+}
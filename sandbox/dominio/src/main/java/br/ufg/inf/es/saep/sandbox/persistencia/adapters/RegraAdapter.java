@@ -0,0 +1,103 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.adapters;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Regra;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Adapter de {@link Regra}.
+ */
+public class RegraAdapter extends TypeAdapter<Regra> {
+
+    @Override
+    public void write(JsonWriter out, Regra regra) throws IOException {
+        if (regra == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("tipo").value(regra.getTipo());
+        Json.escreveTexto(out, "descricao", regra.getDescricao());
+        Json.escreveReal(out, "valorMaximo", regra.getValorMaximo());
+        Json.escreveReal(out, "valorMinimo", regra.getValorMinimo());
+        Json.escreveTexto(out, "variavel", regra.getVariavel());
+        Json.escreveTexto(out, "expressao", regra.getExpressao());
+        Json.escreveTexto(out, "entao", regra.getEntao());
+        Json.escreveTexto(out, "senao", regra.getSenao());
+        Json.escreveTexto(out, "tipoRelato", regra.getTipoRelato());
+        Json.escreveReal(out, "pontosPorItem", regra.getPontosPorItem());
+        Json.escreveTextos(out, "dependeDe", regra.getDependeDe());
+        out.endObject();
+    }
+
+    @Override
+    public Regra read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        int tipo = 0;
+        String descricao = null;
+        float valorMaximo = 0;
+        float valorMinimo = 0;
+        String variavel = null;
+        String expressao = null;
+        String entao = null;
+        String senao = null;
+        String tipoRelato = null;
+        float pontosPorItem = 0;
+        List<String> dependeDe = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "tipo":
+                    tipo = in.nextInt();
+                    break;
+                case "descricao":
+                    descricao = Json.leTexto(in);
+                    break;
+                case "valorMaximo":
+                    valorMaximo = (float) in.nextDouble();
+                    break;
+                case "valorMinimo":
+                    valorMinimo = (float) in.nextDouble();
+                    break;
+                case "variavel":
+                    variavel = Json.leTexto(in);
+                    break;
+                case "expressao":
+                    expressao = Json.leTexto(in);
+                    break;
+                case "entao":
+                    entao = Json.leTexto(in);
+                    break;
+                case "senao":
+                    senao = Json.leTexto(in);
+                    break;
+                case "tipoRelato":
+                    tipoRelato = Json.leTexto(in);
+                    break;
+                case "pontosPorItem":
+                    pontosPorItem = (float) in.nextDouble();
+                    break;
+                case "dependeDe":
+                    dependeDe = Json.leTextos(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        return new Regra(variavel, tipo, descricao, valorMaximo, valorMinimo,
+                expressao, entao, senao, tipoRelato, pontosPorItem, dependeDe);
+    }
+}
@@ -0,0 +1,105 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.adapters;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Esquema;
+import br.ufg.inf.es.saep.sandbox.dominio.Relato;
+import br.ufg.inf.es.saep.sandbox.dominio.Valor;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Adapter de {@link Relato}.
+ * <p>Os valores são escritos na ordem alfabética das variáveis.</p>
+ */
+public class RelatoAdapter extends TypeAdapter<Relato> {
+
+    private final TypeAdapter<Valor> valorAdapter;
+
+    public RelatoAdapter(TypeAdapter<Valor> valorAdapter) {
+        this.valorAdapter = valorAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, Relato relato) throws IOException {
+        if (relato == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        escreveCampos(out, relato);
+        out.endObject();
+    }
+
+    @Override
+    public Relato read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        in.beginObject();
+        Relato relato = leCampos(in);
+        in.endObject();
+
+        return relato;
+    }
+
+    void escreveCampos(JsonWriter out, Relato relato) throws IOException {
+        Json.escreveTexto(out, "tipo", relato.getTipo());
+
+        out.name("valores").beginObject();
+        // O esquema posiciona os atributos em ordem alfabética.
+        Esquema esquema = relato.getEsquema();
+        for (int i = 0; i < esquema.tamanho(); i++) {
+            out.name(esquema.atributo(i));
+            valorAdapter.write(out, relato.get(i));
+        }
+        out.endObject();
+    }
+
+    /**
+     * Lê os campos restantes do objeto corrente.
+     */
+    Relato leCampos(JsonReader in) throws IOException {
+        String tipo = null;
+        Map<String, Valor> valores = null;
+
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "tipo":
+                    tipo = Json.leTexto(in);
+                    break;
+                case "valores":
+                    valores = leValores(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+
+        return new Relato(tipo, valores);
+    }
+
+    private Map<String, Valor> leValores(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        Map<String, Valor> valores = new HashMap<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            String variavel = in.nextName();
+            valores.put(variavel, valorAdapter.read(in));
+        }
+        in.endObject();
+
+        return valores;
+    }
+}
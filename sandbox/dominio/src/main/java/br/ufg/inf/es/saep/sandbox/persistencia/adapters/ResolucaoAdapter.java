@@ -0,0 +1,94 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.adapters;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Regra;
+import br.ufg.inf.es.saep.sandbox.dominio.Resolucao;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Adapter de {@link Resolucao}.
+ * <p>A data de aprovação é representada pela quantidade de
+ * milissegundos desde 01/01/1970 (UTC), independente de idioma
+ * e de fuso horário.</p>
+ */
+public class ResolucaoAdapter extends TypeAdapter<Resolucao> {
+
+    private final TypeAdapter<Regra> regraAdapter;
+
+    public ResolucaoAdapter(TypeAdapter<Regra> regraAdapter) {
+        this.regraAdapter = regraAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, Resolucao resolucao) throws IOException {
+        if (resolucao == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        Json.escreveTexto(out, "id", resolucao.getId());
+
+        out.name("dataAprovacao");
+        if (resolucao.getDataAprovacao() == null) {
+            out.nullValue();
+        } else {
+            out.value(resolucao.getDataAprovacao().getTime());
+        }
+
+        Json.escreveTexto(out, "nome", resolucao.getNome());
+        Json.escreveTexto(out, "descricao", resolucao.getDescricao());
+        Json.escreveLista(out, "regras", resolucao.getRegras(), regraAdapter);
+        out.endObject();
+    }
+
+    @Override
+    public Resolucao read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String id = null;
+        Date dataAprovacao = null;
+        String nome = null;
+        String descricao = null;
+        List<Regra> regras = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    id = Json.leTexto(in);
+                    break;
+                case "dataAprovacao":
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                    } else {
+                        dataAprovacao = new Date(in.nextLong());
+                    }
+                    break;
+                case "nome":
+                    nome = Json.leTexto(in);
+                    break;
+                case "descricao":
+                    descricao = Json.leTexto(in);
+                    break;
+                case "regras":
+                    regras = Json.leLista(in, regraAdapter);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        return new Resolucao(id, nome, descricao, dataAprovacao, regras);
+    }
+}
@@ -0,0 +1,126 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.adapters;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Atributo;
+import br.ufg.inf.es.saep.sandbox.dominio.Tipo;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Adapter de {@link Tipo} e dos atributos correspondentes.
+ */
+public class TipoAdapter extends TypeAdapter<Tipo> {
+
+    @Override
+    public void write(JsonWriter out, Tipo tipo) throws IOException {
+        if (tipo == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        Json.escreveTexto(out, "id", tipo.getId());
+        Json.escreveTexto(out, "nome", tipo.getNome());
+        Json.escreveTexto(out, "descricao", tipo.getDescricao());
+
+        out.name("atributos");
+        if (tipo.getAtributos() == null) {
+            out.nullValue();
+        } else {
+            out.beginArray();
+            for (Atributo atributo : tipo.getAtributos()) {
+                out.beginObject();
+                Json.escreveTexto(out, "nome", atributo.getNome());
+                out.name("tipo").value(atributo.getTipo());
+                Json.escreveTexto(out, "descricao", atributo.getDescricao());
+                out.endObject();
+            }
+            out.endArray();
+        }
+
+        out.endObject();
+    }
+
+    @Override
+    public Tipo read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String id = null;
+        String nome = null;
+        String descricao = null;
+        Set<Atributo> atributos = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    id = Json.leTexto(in);
+                    break;
+                case "nome":
+                    nome = Json.leTexto(in);
+                    break;
+                case "descricao":
+                    descricao = Json.leTexto(in);
+                    break;
+                case "atributos":
+                    atributos = leAtributos(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        return new Tipo(id, nome, descricao, atributos);
+    }
+
+    private static Set<Atributo> leAtributos(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        Set<Atributo> atributos = new LinkedHashSet<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            atributos.add(leAtributo(in));
+        }
+        in.endArray();
+
+        return atributos;
+    }
+
+    private static Atributo leAtributo(JsonReader in) throws IOException {
+        String nome = null;
+        int tipo = 0;
+        String descricao = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "nome":
+                    nome = Json.leTexto(in);
+                    break;
+                case "tipo":
+                    tipo = in.nextInt();
+                    break;
+                case "descricao":
+                    descricao = Json.leTexto(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        return new Atributo(nome, descricao, tipo);
+    }
+}
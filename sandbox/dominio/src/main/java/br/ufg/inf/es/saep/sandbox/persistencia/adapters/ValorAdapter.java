@@ -0,0 +1,55 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.adapters;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Atributo;
+import br.ufg.inf.es.saep.sandbox.dominio.Valor;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Adapter de {@link Valor}.
+ * <p>O valor é representado pelo próprio texto, lógico ou número,
+ * sem objeto que o envolva: {@code "ufg"}, {@code true} ou
+ * {@code 1.5}.</p>
+ */
+public class ValorAdapter extends TypeAdapter<Valor> {
+
+    @Override
+    public void write(JsonWriter out, Valor valor) throws IOException {
+        if (valor == null) {
+            out.nullValue();
+            return;
+        }
+
+        switch (valor.getTipo()) {
+            case Atributo.LOGICO:
+                out.value(valor.getBoolean());
+                break;
+            case Atributo.REAL:
+                out.value(Float.valueOf(valor.getFloat()));
+                break;
+            default:
+                out.value(valor.getString());
+        }
+    }
+
+    @Override
+    public Valor read(JsonReader in) throws IOException {
+        switch (in.peek()) {
+            case STRING:
+                return Valor.de(in.nextString());
+            case BOOLEAN:
+                return Valor.de(in.nextBoolean());
+            case NUMBER:
+                return Valor.de((float) in.nextDouble());
+            case NULL:
+                in.nextNull();
+                return null;
+            default:
+                throw new JsonParseException("Valor inválido: " + in.peek());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.codecs;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Avaliavel;
+import br.ufg.inf.es.saep.sandbox.dominio.Pontuacao;
+import br.ufg.inf.es.saep.sandbox.dominio.Relato;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecConfigurationException;
+
+/**
+ * Codec da interface {@link Avaliavel}.
+ * <p>Identifica a classe a partir do documento: relatos possuem
+ * o campo "tipo", pontuações não.</p>
+ */
+public class AvaliavelCodec implements Codec<Avaliavel> {
+
+    private final Codec<Relato> relatoCodec;
+    private final Codec<Pontuacao> pontuacaoCodec;
+    private final BsonDocumentCodec documentoCodec = new BsonDocumentCodec();
+
+    public AvaliavelCodec(Codec<Relato> relatoCodec, Codec<Pontuacao> pontuacaoCodec) {
+        this.relatoCodec = relatoCodec;
+        this.pontuacaoCodec = pontuacaoCodec;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Avaliavel avaliavel, EncoderContext contexto) {
+        if (avaliavel instanceof Relato) {
+            contexto.encodeWithChildContext(relatoCodec, writer, (Relato) avaliavel);
+        } else if (avaliavel instanceof Pontuacao) {
+            contexto.encodeWithChildContext(pontuacaoCodec, writer, (Pontuacao) avaliavel);
+        } else {
+            throw new CodecConfigurationException("Avaliavel desconhecido: " + avaliavel.getClass());
+        }
+    }
+
+    @Override
+    public Avaliavel decode(BsonReader reader, DecoderContext contexto) {
+
+        // O campo que identifica a classe não é necessariamente o primeiro.
+        BsonDocument documento = documentoCodec.decode(reader, contexto);
+        BsonDocumentReader leitor = new BsonDocumentReader(documento);
+
+        if (documento.containsKey("tipo")) {
+            return relatoCodec.decode(leitor, contexto);
+        }
+
+        return pontuacaoCodec.decode(leitor, contexto);
+    }
+
+    @Override
+    public Class<Avaliavel> getEncoderClass() {
+        return Avaliavel.class;
+    }
+}
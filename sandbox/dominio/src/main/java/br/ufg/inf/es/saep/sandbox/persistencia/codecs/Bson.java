@@ -0,0 +1,130 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.codecs;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Operações de leitura e escrita comuns aos codecs.
+ * <p>Valores ausentes ({@code null}) são escritos explicitamente, assim
+ * como fazia a serialização anterior (Gson com "serializeNulls"), e
+ * números são aceitos em qualquer representação numérica BSON.</p>
+ */
+final class Bson {
+
+    private Bson() {
+    }
+
+    static void escreveTexto(BsonWriter writer, String nome, String valor) {
+        if (valor == null) {
+            writer.writeNull(nome);
+        } else {
+            writer.writeString(nome, valor);
+        }
+    }
+
+    static void escreveTextos(BsonWriter writer, String nome, List<String> valores) {
+        if (valores == null) {
+            writer.writeNull(nome);
+            return;
+        }
+
+        writer.writeStartArray(nome);
+        for (String valor : valores) {
+            if (valor == null) {
+                writer.writeNull();
+            } else {
+                writer.writeString(valor);
+            }
+        }
+        writer.writeEndArray();
+    }
+
+    static <T> void escreveLista(BsonWriter writer, String nome, List<T> valores,
+                                 Codec<T> codec, EncoderContext contexto) {
+        if (valores == null) {
+            writer.writeNull(nome);
+            return;
+        }
+
+        writer.writeStartArray(nome);
+        for (T valor : valores) {
+            contexto.encodeWithChildContext(codec, writer, valor);
+        }
+        writer.writeEndArray();
+    }
+
+    static String leTexto(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return null;
+        }
+
+        if (reader.getCurrentBsonType() == BsonType.OBJECT_ID) {
+            return reader.readObjectId().toHexString();
+        }
+
+        return reader.readString();
+    }
+
+    static double leNumero(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT32:
+                return reader.readInt32();
+            case INT64:
+                return reader.readInt64();
+            case NULL:
+                reader.readNull();
+                return 0;
+            default:
+                return reader.readDouble();
+        }
+    }
+
+    static boolean leLogico(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return false;
+        }
+
+        return reader.readBoolean();
+    }
+
+    static List<String> leTextos(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return null;
+        }
+
+        List<String> valores = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            valores.add(leTexto(reader));
+        }
+        reader.readEndArray();
+
+        return valores;
+    }
+
+    static <T> List<T> leLista(BsonReader reader, Codec<T> codec, DecoderContext contexto) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return null;
+        }
+
+        List<T> valores = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            valores.add(codec.decode(reader, contexto));
+        }
+        reader.readEndArray();
+
+        return valores;
+    }
+}
@@ -0,0 +1,59 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.codecs;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Avaliavel;
+import br.ufg.inf.es.saep.sandbox.dominio.Nota;
+import br.ufg.inf.es.saep.sandbox.dominio.Pontuacao;
+import br.ufg.inf.es.saep.sandbox.dominio.Regra;
+import br.ufg.inf.es.saep.sandbox.dominio.Relato;
+import br.ufg.inf.es.saep.sandbox.dominio.Valor;
+import com.mongodb.MongoClient;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+
+/**
+ * Registro dos codecs das classes do domínio, que convertem objetos
+ * diretamente de e para BSON, sem representação intermediária em JSON.
+ * <p>Os documentos produzidos mantêm os nomes de campos empregados
+ * pela serialização anterior (Gson), exceto pelo identificador, mantido
+ * em "_id" para pareceres, RADOCs e resoluções.</p>
+ */
+public final class Codecs {
+
+    private static final CodecRegistry REGISTRO = criaRegistro();
+
+    private Codecs() {
+    }
+
+    /**
+     * Recupera o registro que reúne os codecs do domínio e
+     * os codecs padrão do driver.
+     * @return O registro de codecs.
+     */
+    public static CodecRegistry registro() {
+        return REGISTRO;
+    }
+
+    private static CodecRegistry criaRegistro() {
+        Codec<Valor> valor = new ValorCodec();
+        Codec<Relato> relato = new RelatoCodec(valor);
+        Codec<Pontuacao> pontuacao = new PontuacaoCodec(valor);
+        Codec<Avaliavel> avaliavel = new AvaliavelCodec(relato, pontuacao);
+        Codec<Nota> nota = new NotaCodec(avaliavel);
+        Codec<Regra> regra = new RegraCodec();
+
+        CodecRegistry dominio = CodecRegistries.fromCodecs(
+                valor,
+                relato,
+                pontuacao,
+                avaliavel,
+                nota,
+                new ParecerCodec(pontuacao, nota),
+                new RadocCodec(relato),
+                regra,
+                new ResolucaoCodec(regra),
+                new TipoCodec());
+
+        return CodecRegistries.fromRegistries(dominio, MongoClient.getDefaultCodecRegistry());
+    }
+}
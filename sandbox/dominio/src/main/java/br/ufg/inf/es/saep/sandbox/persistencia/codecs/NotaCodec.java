@@ -0,0 +1,127 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.codecs;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Avaliavel;
+import br.ufg.inf.es.saep.sandbox.dominio.Esquema;
+import br.ufg.inf.es.saep.sandbox.dominio.Nota;
+import br.ufg.inf.es.saep.sandbox.dominio.Pontuacao;
+import br.ufg.inf.es.saep.sandbox.dominio.Relato;
+import br.ufg.inf.es.saep.sandbox.dominio.Valor;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/**
+ * Codec de {@link Nota}.
+ * <p>Além dos campos da nota, é escrito o campo "chave", que identifica
+ * o item original ({@link #chave(Avaliavel)}) e permite localizar a
+ * nota em consultas por igualdade, independente da ordem dos valores
+ * e da forma dos documentos de {@link Valor}. O campo é ignorado na
+ * leitura. Notas anteriores, sem o campo, são lidas normalmente e
+ * recebem a chave quando reescritas.</p>
+ */
+public class NotaCodec implements Codec<Nota> {
+
+    private final Codec<Avaliavel> avaliavelCodec;
+
+    public NotaCodec(Codec<Avaliavel> avaliavelCodec) {
+        this.avaliavelCodec = avaliavelCodec;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Nota nota, EncoderContext contexto) {
+        writer.writeStartDocument();
+        writer.writeName("original");
+        contexto.encodeWithChildContext(avaliavelCodec, writer, nota.getItemOriginal());
+        writer.writeName("novo");
+        contexto.encodeWithChildContext(avaliavelCodec, writer, nota.getItemNovo());
+        Bson.escreveTexto(writer, "justificativa", nota.getJustificativa());
+        writer.writeString("chave", chave(nota.getItemOriginal()));
+        writer.writeEndDocument();
+    }
+
+    /**
+     * Produz a chave do item avaliável, empregada para localizar a
+     * nota cujo item original é o item fornecido. Itens iguais
+     * produzem a mesma chave. Apenas o conteúdo persistido de cada
+     * {@link Valor} (real, lógico e string) é considerado, e os
+     * valores de um relato são considerados na ordem alfabética
+     * dos atributos.
+     * @param avaliavel O item avaliável.
+     * @return A chave do item.
+     */
+    public static String chave(Avaliavel avaliavel) {
+        StringBuilder chave = new StringBuilder();
+
+        if (avaliavel instanceof Relato) {
+            Relato relato = (Relato) avaliavel;
+            chave.append('R');
+            texto(chave, relato.getTipo());
+
+            // O esquema posiciona os atributos em ordem alfabética.
+            Esquema esquema = relato.getEsquema();
+            for (int i = 0; i < esquema.tamanho(); i++) {
+                texto(chave, esquema.atributo(i));
+                valor(chave, relato.get(i));
+            }
+        } else {
+            Pontuacao pontuacao = (Pontuacao) avaliavel;
+            chave.append('P');
+            texto(chave, pontuacao.getAtributo());
+            valor(chave, pontuacao.getValor());
+        }
+
+        return chave.toString();
+    }
+
+    private static void valor(StringBuilder chave, Valor valor) {
+        chave.append(valor.getFloat()).append(valor.getBoolean() ? 'V' : 'F');
+        texto(chave, valor.getString());
+    }
+
+    /**
+     * Texto precedido do comprimento, o que impede que textos
+     * distintos produzam a mesma sequência.
+     */
+    private static void texto(StringBuilder chave, String texto) {
+        if (texto == null) {
+            chave.append('-');
+        } else {
+            chave.append(texto.length()).append(':').append(texto);
+        }
+    }
+
+    @Override
+    public Nota decode(BsonReader reader, DecoderContext contexto) {
+        Avaliavel original = null;
+        Avaliavel novo = null;
+        String justificativa = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "original":
+                    original = avaliavelCodec.decode(reader, contexto);
+                    break;
+                case "novo":
+                    novo = avaliavelCodec.decode(reader, contexto);
+                    break;
+                case "justificativa":
+                    justificativa = Bson.leTexto(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new Nota(original, novo, justificativa);
+    }
+
+    @Override
+    public Class<Nota> getEncoderClass() {
+        return Nota.class;
+    }
+}
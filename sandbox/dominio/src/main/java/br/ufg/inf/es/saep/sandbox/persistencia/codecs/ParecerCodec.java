@@ -0,0 +1,85 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.codecs;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Nota;
+import br.ufg.inf.es.saep.sandbox.dominio.Parecer;
+import br.ufg.inf.es.saep.sandbox.dominio.Pontuacao;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.List;
+
+/**
+ * Codec de {@link Parecer}. O identificador do parecer é
+ * mantido no campo "_id".
+ */
+public class ParecerCodec implements Codec<Parecer> {
+
+    private final Codec<Pontuacao> pontuacaoCodec;
+    private final Codec<Nota> notaCodec;
+
+    public ParecerCodec(Codec<Pontuacao> pontuacaoCodec, Codec<Nota> notaCodec) {
+        this.pontuacaoCodec = pontuacaoCodec;
+        this.notaCodec = notaCodec;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Parecer parecer, EncoderContext contexto) {
+        writer.writeStartDocument();
+        Bson.escreveTexto(writer, "_id", parecer.getId());
+        Bson.escreveTexto(writer, "resolucao", parecer.getResolucao());
+        Bson.escreveTextos(writer, "radocs", parecer.getRadocs());
+        Bson.escreveLista(writer, "pontuacoes", parecer.getPontuacoes(), pontuacaoCodec, contexto);
+        Bson.escreveTexto(writer, "fundamentacao", parecer.getFundamentacao());
+        Bson.escreveLista(writer, "notas", parecer.getNotas(), notaCodec, contexto);
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Parecer decode(BsonReader reader, DecoderContext contexto) {
+        String id = null;
+        String resolucao = null;
+        List<String> radocs = null;
+        List<Pontuacao> pontuacoes = null;
+        String fundamentacao = null;
+        List<Nota> notas = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id":
+                case "id":
+                    id = Bson.leTexto(reader);
+                    break;
+                case "resolucao":
+                    resolucao = Bson.leTexto(reader);
+                    break;
+                case "radocs":
+                    radocs = Bson.leTextos(reader);
+                    break;
+                case "pontuacoes":
+                    pontuacoes = Bson.leLista(reader, pontuacaoCodec, contexto);
+                    break;
+                case "fundamentacao":
+                    fundamentacao = Bson.leTexto(reader);
+                    break;
+                case "notas":
+                    notas = Bson.leLista(reader, notaCodec, contexto);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new Parecer(id, resolucao, radocs, pontuacoes, fundamentacao, notas);
+    }
+
+    @Override
+    public Class<Parecer> getEncoderClass() {
+        return Parecer.class;
+    }
+}
@@ -0,0 +1,59 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.codecs;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Pontuacao;
+import br.ufg.inf.es.saep.sandbox.dominio.Valor;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/**
+ * Codec de {@link Pontuacao}.
+ */
+public class PontuacaoCodec implements Codec<Pontuacao> {
+
+    private final Codec<Valor> valorCodec;
+
+    public PontuacaoCodec(Codec<Valor> valorCodec) {
+        this.valorCodec = valorCodec;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Pontuacao pontuacao, EncoderContext contexto) {
+        writer.writeStartDocument();
+        writer.writeString("atributo", pontuacao.getAtributo());
+        writer.writeName("valor");
+        contexto.encodeWithChildContext(valorCodec, writer, pontuacao.getValor());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Pontuacao decode(BsonReader reader, DecoderContext contexto) {
+        String atributo = null;
+        Valor valor = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "atributo":
+                    atributo = Bson.leTexto(reader);
+                    break;
+                case "valor":
+                    valor = valorCodec.decode(reader, contexto);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new Pontuacao(atributo, valor);
+    }
+
+    @Override
+    public Class<Pontuacao> getEncoderClass() {
+        return Pontuacao.class;
+    }
+}
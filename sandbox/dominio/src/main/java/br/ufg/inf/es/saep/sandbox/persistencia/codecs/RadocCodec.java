@@ -0,0 +1,67 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.codecs;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Radoc;
+import br.ufg.inf.es.saep.sandbox.dominio.Relato;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.List;
+
+/**
+ * Codec de {@link Radoc}. O identificador do RADOC é
+ * mantido no campo "_id".
+ */
+public class RadocCodec implements Codec<Radoc> {
+
+    private final Codec<Relato> relatoCodec;
+
+    public RadocCodec(Codec<Relato> relatoCodec) {
+        this.relatoCodec = relatoCodec;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Radoc radoc, EncoderContext contexto) {
+        writer.writeStartDocument();
+        Bson.escreveTexto(writer, "_id", radoc.getId());
+        writer.writeInt32("anoBase", radoc.getAnoBase());
+        Bson.escreveLista(writer, "relatos", radoc.getRelatos(), relatoCodec, contexto);
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Radoc decode(BsonReader reader, DecoderContext contexto) {
+        String id = null;
+        int anoBase = 0;
+        List<Relato> relatos = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id":
+                case "id":
+                    id = Bson.leTexto(reader);
+                    break;
+                case "anoBase":
+                    anoBase = (int) Bson.leNumero(reader);
+                    break;
+                case "relatos":
+                    relatos = Bson.leLista(reader, relatoCodec, contexto);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new Radoc(id, anoBase, relatos);
+    }
+
+    @Override
+    public Class<Radoc> getEncoderClass() {
+        return Radoc.class;
+    }
+}
@@ -0,0 +1,99 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.codecs;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Regra;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.List;
+
+/**
+ * Codec de {@link Regra}.
+ */
+public class RegraCodec implements Codec<Regra> {
+
+    @Override
+    public void encode(BsonWriter writer, Regra regra, EncoderContext contexto) {
+        writer.writeStartDocument();
+        writer.writeInt32("tipo", regra.getTipo());
+        Bson.escreveTexto(writer, "descricao", regra.getDescricao());
+        writer.writeDouble("valorMaximo", regra.getValorMaximo());
+        writer.writeDouble("valorMinimo", regra.getValorMinimo());
+        Bson.escreveTexto(writer, "variavel", regra.getVariavel());
+        Bson.escreveTexto(writer, "expressao", regra.getExpressao());
+        Bson.escreveTexto(writer, "entao", regra.getEntao());
+        Bson.escreveTexto(writer, "senao", regra.getSenao());
+        Bson.escreveTexto(writer, "tipoRelato", regra.getTipoRelato());
+        writer.writeDouble("pontosPorItem", regra.getPontosPorItem());
+        Bson.escreveTextos(writer, "dependeDe", regra.getDependeDe());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Regra decode(BsonReader reader, DecoderContext contexto) {
+        int tipo = 0;
+        String descricao = null;
+        float valorMaximo = 0;
+        float valorMinimo = 0;
+        String variavel = null;
+        String expressao = null;
+        String entao = null;
+        String senao = null;
+        String tipoRelato = null;
+        float pontosPorItem = 0;
+        List<String> dependeDe = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "tipo":
+                    tipo = (int) Bson.leNumero(reader);
+                    break;
+                case "descricao":
+                    descricao = Bson.leTexto(reader);
+                    break;
+                case "valorMaximo":
+                    valorMaximo = (float) Bson.leNumero(reader);
+                    break;
+                case "valorMinimo":
+                    valorMinimo = (float) Bson.leNumero(reader);
+                    break;
+                case "variavel":
+                    variavel = Bson.leTexto(reader);
+                    break;
+                case "expressao":
+                    expressao = Bson.leTexto(reader);
+                    break;
+                case "entao":
+                    entao = Bson.leTexto(reader);
+                    break;
+                case "senao":
+                    senao = Bson.leTexto(reader);
+                    break;
+                case "tipoRelato":
+                    tipoRelato = Bson.leTexto(reader);
+                    break;
+                case "pontosPorItem":
+                    pontosPorItem = (float) Bson.leNumero(reader);
+                    break;
+                case "dependeDe":
+                    dependeDe = Bson.leTextos(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new Regra(variavel, tipo, descricao, valorMaximo, valorMinimo,
+                expressao, entao, senao, tipoRelato, pontosPorItem, dependeDe);
+    }
+
+    @Override
+    public Class<Regra> getEncoderClass() {
+        return Regra.class;
+    }
+}
@@ -0,0 +1,94 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.codecs;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Esquema;
+import br.ufg.inf.es.saep.sandbox.dominio.Relato;
+import br.ufg.inf.es.saep.sandbox.dominio.Valor;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Codec de {@link Relato}.
+ * <p>Os valores são escritos na ordem alfabética das variáveis, o que
+ * torna idêntica a representação de relatos iguais. Documentos escritos
+ * anteriormente podem ter outra ordem e são lidos normalmente; por esse
+ * motivo, notas não são localizadas pela igualdade do documento do
+ * relato, mas pela chave escrita por {@link NotaCodec} ou, em notas
+ * anteriores, campo a campo.</p>
+ */
+public class RelatoCodec implements Codec<Relato> {
+
+    private final Codec<Valor> valorCodec;
+
+    public RelatoCodec(Codec<Valor> valorCodec) {
+        this.valorCodec = valorCodec;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Relato relato, EncoderContext contexto) {
+        writer.writeStartDocument();
+        writer.writeString("tipo", relato.getTipo());
+
+        writer.writeStartDocument("valores");
+        // O esquema posiciona os atributos em ordem alfabética.
+        Esquema esquema = relato.getEsquema();
+        for (int i = 0; i < esquema.tamanho(); i++) {
+            writer.writeName(esquema.atributo(i));
+            contexto.encodeWithChildContext(valorCodec, writer, relato.get(i));
+        }
+        writer.writeEndDocument();
+
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Relato decode(BsonReader reader, DecoderContext contexto) {
+        String tipo = null;
+        Map<String, Valor> valores = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "tipo":
+                    tipo = Bson.leTexto(reader);
+                    break;
+                case "valores":
+                    valores = leValores(reader, contexto);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new Relato(tipo, valores);
+    }
+
+    private Map<String, Valor> leValores(BsonReader reader, DecoderContext contexto) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return null;
+        }
+
+        Map<String, Valor> valores = new HashMap<>();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String variavel = reader.readName();
+            valores.put(variavel, valorCodec.decode(reader, contexto));
+        }
+        reader.readEndDocument();
+
+        return valores;
+    }
+
+    @Override
+    public Class<Relato> getEncoderClass() {
+        return Relato.class;
+    }
+}
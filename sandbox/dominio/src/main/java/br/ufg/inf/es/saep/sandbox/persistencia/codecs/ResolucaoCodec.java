@@ -0,0 +1,124 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.codecs;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Regra;
+import br.ufg.inf.es.saep.sandbox.dominio.Resolucao;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecConfigurationException;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Codec de {@link Resolucao}. O identificador da resolução é
+ * mantido no campo "_id".
+ * <p>A data de aprovação é escrita como data BSON. Documentos escritos
+ * anteriormente, pelo Gson, mantêm a data como texto, o que também é
+ * aceito na leitura.</p>
+ */
+public class ResolucaoCodec implements Codec<Resolucao> {
+
+    private final Codec<Regra> regraCodec;
+
+    public ResolucaoCodec(Codec<Regra> regraCodec) {
+        this.regraCodec = regraCodec;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Resolucao resolucao, EncoderContext contexto) {
+        writer.writeStartDocument();
+        Bson.escreveTexto(writer, "_id", resolucao.getId());
+
+        if (resolucao.getDataAprovacao() == null) {
+            writer.writeNull("dataAprovacao");
+        } else {
+            writer.writeDateTime("dataAprovacao", resolucao.getDataAprovacao().getTime());
+        }
+
+        Bson.escreveTexto(writer, "nome", resolucao.getNome());
+        Bson.escreveTexto(writer, "descricao", resolucao.getDescricao());
+        Bson.escreveLista(writer, "regras", resolucao.getRegras(), regraCodec, contexto);
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Resolucao decode(BsonReader reader, DecoderContext contexto) {
+        String id = null;
+        Date dataAprovacao = null;
+        String nome = null;
+        String descricao = null;
+        List<Regra> regras = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id":
+                case "id":
+                    id = Bson.leTexto(reader);
+                    break;
+                case "dataAprovacao":
+                    dataAprovacao = leData(reader);
+                    break;
+                case "nome":
+                    nome = Bson.leTexto(reader);
+                    break;
+                case "descricao":
+                    descricao = Bson.leTexto(reader);
+                    break;
+                case "regras":
+                    regras = Bson.leLista(reader, regraCodec, contexto);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new Resolucao(id, nome, descricao, dataAprovacao, regras);
+    }
+
+    private static Date leData(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case DATE_TIME:
+                return new Date(reader.readDateTime());
+            case NULL:
+                reader.readNull();
+                return null;
+            default:
+                return converteTexto(reader.readString());
+        }
+    }
+
+    /**
+     * Converte data no formato padrão do Gson (empregado para
+     * persistir resoluções antes dos codecs).
+     */
+    private static Date converteTexto(String data) {
+        DateFormat[] formatos = {
+                DateFormat.getDateTimeInstance(DateFormat.DEFAULT, DateFormat.DEFAULT, Locale.US),
+                DateFormat.getDateTimeInstance(DateFormat.DEFAULT, DateFormat.DEFAULT)
+        };
+
+        for (DateFormat formato : formatos) {
+            try {
+                return formato.parse(data);
+            } catch (ParseException pe) {
+                // Tenta o formato seguinte.
+            }
+        }
+
+        throw new CodecConfigurationException("Data inválida: " + data);
+    }
+
+    @Override
+    public Class<Resolucao> getEncoderClass() {
+        return Resolucao.class;
+    }
+}
@@ -0,0 +1,123 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.codecs;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Atributo;
+import br.ufg.inf.es.saep.sandbox.dominio.Tipo;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.Codec;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Codec de {@link Tipo} e dos atributos correspondentes.
+ * <p>O código do tipo é mantido no campo "id". O campo "_id" é
+ * produzido pelo servidor e desconsiderado na leitura.</p>
+ */
+public class TipoCodec implements Codec<Tipo> {
+
+    @Override
+    public void encode(BsonWriter writer, Tipo tipo, EncoderContext contexto) {
+        writer.writeStartDocument();
+        Bson.escreveTexto(writer, "id", tipo.getId());
+        Bson.escreveTexto(writer, "nome", tipo.getNome());
+        Bson.escreveTexto(writer, "descricao", tipo.getDescricao());
+
+        if (tipo.getAtributos() == null) {
+            writer.writeNull("atributos");
+        } else {
+            writer.writeStartArray("atributos");
+            for (Atributo atributo : tipo.getAtributos()) {
+                writer.writeStartDocument();
+                Bson.escreveTexto(writer, "nome", atributo.getNome());
+                writer.writeInt32("tipo", atributo.getTipo());
+                Bson.escreveTexto(writer, "descricao", atributo.getDescricao());
+                writer.writeEndDocument();
+            }
+            writer.writeEndArray();
+        }
+
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Tipo decode(BsonReader reader, DecoderContext contexto) {
+        String id = null;
+        String nome = null;
+        String descricao = null;
+        Set<Atributo> atributos = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "id":
+                    id = Bson.leTexto(reader);
+                    break;
+                case "nome":
+                    nome = Bson.leTexto(reader);
+                    break;
+                case "descricao":
+                    descricao = Bson.leTexto(reader);
+                    break;
+                case "atributos":
+                    atributos = leAtributos(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new Tipo(id, nome, descricao, atributos);
+    }
+
+    private static Set<Atributo> leAtributos(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return null;
+        }
+
+        Set<Atributo> atributos = new LinkedHashSet<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            atributos.add(leAtributo(reader));
+        }
+        reader.readEndArray();
+
+        return atributos;
+    }
+
+    private static Atributo leAtributo(BsonReader reader) {
+        String nome = null;
+        int tipo = 0;
+        String descricao = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "nome":
+                    nome = Bson.leTexto(reader);
+                    break;
+                case "tipo":
+                    tipo = (int) Bson.leNumero(reader);
+                    break;
+                case "descricao":
+                    descricao = Bson.leTexto(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new Atributo(nome, descricao, tipo);
+    }
+
+    @Override
+    public Class<Tipo> getEncoderClass() {
+        return Tipo.class;
+    }
+}
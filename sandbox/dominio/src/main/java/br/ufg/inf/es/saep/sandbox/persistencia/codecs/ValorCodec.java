@@ -0,0 +1,79 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.codecs;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Atributo;
+import br.ufg.inf.es.saep.sandbox.dominio.Valor;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/**
+ * Codec de {@link Valor}.
+ * <p>Os três campos são sempre escritos, na ordem em que são
+ * declarados, seguidos do tipo do valor, o que mantém documentos
+ * equivalentes comparáveis em consultas por igualdade. Documentos
+ * sem o tipo (anteriores) têm o tipo deduzido dos demais campos.</p>
+ */
+public class ValorCodec implements Codec<Valor> {
+
+    @Override
+    public void encode(BsonWriter writer, Valor valor, EncoderContext contexto) {
+        writer.writeStartDocument();
+        writer.writeDouble("real", valor.getFloat());
+        writer.writeBoolean("logico", valor.getBoolean());
+        Bson.escreveTexto(writer, "string", valor.getString());
+        writer.writeInt32("tipo", valor.getTipo());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Valor decode(BsonReader reader, DecoderContext contexto) {
+        float real = 0;
+        boolean logico = false;
+        String string = null;
+        int tipo = -1;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "real":
+                    real = (float) Bson.leNumero(reader);
+                    break;
+                case "logico":
+                    logico = Bson.leLogico(reader);
+                    break;
+                case "string":
+                    string = Bson.leTexto(reader);
+                    break;
+                case "tipo":
+                    tipo = (int) Bson.leNumero(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        switch (tipo) {
+            case Atributo.LOGICO:
+                return Valor.de(logico);
+            case Atributo.REAL:
+                return Valor.de(real);
+            case Atributo.STRING:
+                return Valor.de(string);
+            default:
+                if (string != null) {
+                    return Valor.de(string);
+                }
+
+                return logico ? Valor.VERDADEIRO : Valor.de(real);
+        }
+    }
+
+    @Override
+    public Class<Valor> getEncoderClass() {
+        return Valor.class;
+    }
+}
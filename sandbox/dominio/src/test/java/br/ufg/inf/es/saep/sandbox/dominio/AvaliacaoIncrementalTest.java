@@ -0,0 +1,116 @@
+package br.ufg.inf.es.saep.sandbox.dominio;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class AvaliacaoIncrementalTest {
+
+    private List<String> avaliadas;
+    private AvaliaRegraService service;
+
+    @Before
+    public void setUp() {
+        avaliadas = new ArrayList<>();
+
+        // PONTOS: quantidade de relatos. Demais: soma das
+        // dependências mais um.
+        service = (regra, contexto, relatos) -> {
+            avaliadas.add(regra.getVariavel());
+
+            if (regra.getTipo() == Regra.PONTOS) {
+                return new Valor(relatos == null ? 0 : relatos.size());
+            }
+
+            float soma = 1;
+            for (String variavel : regra.getDependeDe()) {
+                Valor valor = contexto.get(variavel);
+                soma += valor == null ? 0 : valor.getFloat();
+            }
+
+            return new Valor(soma);
+        };
+    }
+
+    private static Regra regra(String variavel, String... dependeDe) {
+        return new Regra(variavel, Regra.EXPRESSAO, "d", 100, 0, "1", null, null, null, 0, Arrays.asList(dependeDe));
+    }
+
+    private static Regra pontos(String variavel, String tipo) {
+        return new Regra(variavel, Regra.PONTOS, "d", 100, 0, null, null, null, tipo, 1, null);
+    }
+
+    private static Relato relato(String tipo) {
+        Map<String, Valor> valores = new HashMap<>(1);
+        valores.put("a", new Valor(1));
+        return new Relato(tipo, valores);
+    }
+
+    private static List<Regra> regras() {
+        List<Regra> regras = new ArrayList<>();
+        regras.add(regra("final", "ensino", "pesquisa"));
+        regras.add(regra("ensino", "aulas"));
+        regras.add(pontos("aulas", "aula"));
+        regras.add(regra("pesquisa", "artigos"));
+        regras.add(pontos("artigos", "artigo"));
+        regras.add(regra("extensao", "ajuste"));
+        return regras;
+    }
+
+    @Test
+    public void substituicaoDeRelatoReavaliaApenasDependentes() {
+        Relato artigo = relato("artigo");
+        List<Relato> relatos = new ArrayList<>();
+        relatos.add(relato("aula"));
+        relatos.add(artigo);
+
+        AvaliacaoIncremental avaliacao = new AvaliacaoIncremental(service, regras(), relatos);
+        assertEquals(6, avaliadas.size());
+        assertEquals(5f, avaliacao.getContexto().get("final").getFloat(), 0f);
+
+        avaliadas.clear();
+        Set<String> reavaliadas = avaliacao.aplica(new Nota(artigo, relato("aula"), "j"));
+
+        assertEquals(new HashSet<>(Arrays.asList("aulas", "artigos", "ensino", "pesquisa", "final")), reavaliadas);
+        assertFalse(avaliadas.contains("extensao"));
+        assertEquals(0f, avaliacao.getContexto().get("artigos").getFloat(), 0f);
+        assertEquals(2f, avaliacao.getContexto().get("aulas").getFloat(), 0f);
+        assertEquals(5f, avaliacao.getContexto().get("final").getFloat(), 0f);
+    }
+
+    @Test
+    public void pontuacaoPrevaleceSobreRegra() {
+        AvaliacaoIncremental avaliacao = new AvaliacaoIncremental(service, regras(), new ArrayList<>());
+        assertEquals(1f, avaliacao.getContexto().get("pesquisa").getFloat(), 0f);
+
+        Pontuacao original = new Pontuacao("pesquisa", new Valor(1));
+        Pontuacao nova = new Pontuacao("pesquisa", new Valor(10));
+
+        avaliadas.clear();
+        Set<String> reavaliadas = avaliacao.aplica(new Nota(original, nova, "j"));
+
+        assertEquals(new HashSet<>(Arrays.asList("pesquisa", "final")), reavaliadas);
+        assertEquals(Collections.singletonList("final"), avaliadas);
+        assertEquals(10f, avaliacao.getContexto().get("pesquisa").getFloat(), 0f);
+        assertEquals(12f, avaliacao.getContexto().get("final").getFloat(), 0f);
+
+        // Desfaz a substituição: a regra volta a ser avaliada.
+        avaliacao.aplica(new Nota(nova, relato("outro"), "j"));
+        assertEquals(1f, avaliacao.getContexto().get("pesquisa").getFloat(), 0f);
+        assertEquals(3f, avaliacao.getContexto().get("final").getFloat(), 0f);
+    }
+
+    @Test
+    public void pontuacaoDeVariavelSemRegra() {
+        AvaliacaoIncremental avaliacao = new AvaliacaoIncremental(service, regras(), new ArrayList<>());
+        assertEquals(1f, avaliacao.getContexto().get("extensao").getFloat(), 0f);
+
+        Set<String> reavaliadas = avaliacao.aplica(new Nota(relato("outro"), new Pontuacao("ajuste", new Valor(4)), "j"));
+
+        assertEquals(Collections.singleton("extensao"), reavaliadas);
+        assertEquals(5f, avaliacao.getContexto().get("extensao").getFloat(), 0f);
+    }
+}
@@ -0,0 +1,176 @@
+package br.ufg.inf.es.saep.sandbox.dominio;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class AvaliadorServiceTest {
+
+    private List<String> avaliadas;
+    private Map<String, Integer> relatosPorRegra;
+    private AvaliadorService avaliador;
+
+    @Before
+    public void setUp() {
+        avaliadas = new ArrayList<>();
+        relatosPorRegra = new HashMap<>();
+
+        // Registra as regras avaliadas e produz a soma das
+        // dependências (resultados) mais um.
+        avaliador = new AvaliadorService((regra, contexto, relatos) -> {
+            avaliadas.add(regra.getVariavel());
+            relatosPorRegra.put(regra.getVariavel(), relatos == null ? 0 : relatos.size());
+
+            float soma = 1;
+            if (regra.getDependeDe() != null) {
+                for (String variavel : regra.getDependeDe()) {
+                    soma += contexto.get(variavel).getFloat();
+                }
+            }
+
+            return new Valor(soma);
+        });
+    }
+
+    private static Regra regra(String variavel, String... dependeDe) {
+        return new Regra(variavel, Regra.EXPRESSAO, "d", 100, 0, "1", null, null, null, 0, Arrays.asList(dependeDe));
+    }
+
+    private static List<Regra> regras() {
+        List<Regra> regras = new ArrayList<>();
+        regras.add(regra("final", "ensino", "pesquisa"));
+        regras.add(regra("ensino", "graduacao"));
+        regras.add(regra("graduacao"));
+        regras.add(regra("pesquisa", "artigos"));
+        regras.add(new Regra("artigos", Regra.PONTOS, "d", 100, 0, null, null, null, "artigo", 1, null));
+        regras.add(regra("extensao"));
+        regras.add(new Regra("cursos", Regra.PONTOS, "d", 100, 0, null, null, null, "curso", 1, null));
+        return regras;
+    }
+
+    private static List<Relato> relatos() {
+        Map<String, Valor> valores = new HashMap<>(1);
+        valores.put("a", new Valor(1));
+
+        List<Relato> relatos = new ArrayList<>();
+        relatos.add(new Relato("artigo", valores));
+        relatos.add(new Relato("curso", valores));
+        return relatos;
+    }
+
+    @Test
+    public void avaliaTodasAsRegras() {
+        Map<String, Valor> resultado = avaliador.avalia(regras(), relatos());
+
+        assertEquals(7, resultado.size());
+        assertEquals(7, avaliadas.size());
+        assertEquals(1, (int) relatosPorRegra.get("cursos"));
+    }
+
+    @Test
+    public void avaliaApenasRegrasNecessarias() {
+        Map<String, Valor> resultado = avaliador.avalia(regras(), relatos(), Collections.singleton("ensino"));
+
+        assertEquals(2, resultado.size());
+        assertEquals(2f, resultado.get("ensino").getFloat(), 0f);
+        assertEquals(Arrays.asList("graduacao", "ensino"), avaliadas);
+    }
+
+    @Test
+    public void avaliaDependenciasTransitivas() {
+        Map<String, Valor> resultado = avaliador.avalia(regras(), relatos(), Collections.singleton("final"));
+
+        assertEquals(5, resultado.size());
+        assertFalse(resultado.containsKey("extensao"));
+        assertFalse(resultado.containsKey("cursos"));
+        assertEquals(1, (int) relatosPorRegra.get("artigos"));
+
+        // final = 1 + ensino (2) + pesquisa (1 + artigos (1))
+        assertEquals(5f, resultado.get("final").getFloat(), 0f);
+    }
+
+    @Test(expected = IdentificadorDesconhecido.class)
+    public void variavelDesconhecidaGeraExcecao() {
+        avaliador.avalia(regras(), relatos(), Collections.singleton("inexistente"));
+    }
+
+    @Test
+    public void avaliaRadocComRelatosAgrupados() {
+        Resolucao resolucao = new Resolucao("r", "n", "d", new Date(), regras());
+        Radoc radoc = new Radoc("radoc", 2016, relatos());
+
+        Map<String, Valor> esperado = avaliador.avalia(regras(), relatos());
+        Map<String, Valor> resultado = avaliador.avalia(resolucao, radoc);
+
+        assertEquals(esperado.keySet(), resultado.keySet());
+        for (String variavel : esperado.keySet()) {
+            assertEquals(esperado.get(variavel).getFloat(), resultado.get(variavel).getFloat(), 0.0001f);
+        }
+
+        assertSame(radoc.getRelatosPorTipo(), radoc.getRelatosPorTipo());
+        assertEquals(Integer.valueOf(1), relatosPorRegra.get("artigos"));
+        assertEquals(Integer.valueOf(0), relatosPorRegra.get("extensao"));
+    }
+
+    @Test
+    public void ordemRetidaPorResolucao() {
+        List<Regra> regras = new ArrayList<>(regras());
+        Resolucao resolucao = new Resolucao("r", "n", "d", new Date(), regras);
+
+        assertEquals(7, avaliador.avalia(resolucao, relatos()).size());
+
+        // Regras alteradas invalidam a ordem calculada anteriormente.
+        regras.add(regra("nova"));
+        assertEquals(8, avaliador.avalia(resolucao, relatos()).size());
+
+        // Outra resolução com o mesmo identificador.
+        Resolucao outra = new Resolucao("r", "n", "d", new Date(), Collections.singletonList(regra("graduacao")));
+        assertEquals(1, avaliador.avalia(outra, relatos()).size());
+
+        avaliador.descartaOrdem("r");
+        assertEquals(8, avaliador.avalia(resolucao, relatos()).size());
+    }
+
+    @Test
+    public void avaliacaoEmParaleloIdenticaASequencial() {
+        List<Regra> regras = new ArrayList<>();
+        List<String> categorias = new ArrayList<>();
+        for (int i = 0; i < 2 * AvaliadorService.REGRAS_PARA_PARALELISMO; i++) {
+            regras.add(regra("c" + i));
+            regras.add(regra("s" + i, "c" + i));
+            categorias.add("s" + i);
+        }
+
+        regras.add(regra("total", categorias.toArray(new String[0])));
+
+        AvaliaRegraService soma = (regra, contexto, relatos) -> {
+            float valor = 1;
+            for (String variavel : regra.getDependeDe()) {
+                valor += contexto.get(variavel).getFloat();
+            }
+
+            return new Valor(valor);
+        };
+
+        AvaliadorService paralelo = new AvaliadorService(soma, new ForkJoinPool(4));
+        Map<String, Valor> esperado = new AvaliadorService(soma).avalia(regras, relatos());
+        Map<String, Valor> obtido = paralelo.avaliaEmParalelo(regras, relatos());
+
+        assertEquals(esperado.size(), obtido.size());
+        assertEquals(esperado.get("total").getFloat(), obtido.get("total").getFloat(), 0f);
+        assertEquals(257f, obtido.get("total").getFloat(), 0f);
+    }
+
+    @Test
+    public void niveisDeDependencia() {
+        List<List<Regra>> niveis = OrdenacaoService.niveis(regras());
+
+        assertEquals(3, niveis.size());
+        assertEquals(4, niveis.get(0).size());
+        assertEquals("final", niveis.get(2).get(0).getVariavel());
+    }
+}
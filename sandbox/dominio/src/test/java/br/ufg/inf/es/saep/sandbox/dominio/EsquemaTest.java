@@ -0,0 +1,57 @@
+package br.ufg.inf.es.saep.sandbox.dominio;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class EsquemaTest {
+
+    @Test(expected = CampoExigidoNaoFornecido.class)
+    public void atributosNaoPodemSerVazios() {
+        Esquema.de(Collections.emptyList());
+    }
+
+    @Test
+    public void atributosEmOrdemAlfabetica() {
+        Esquema esquema = Esquema.de(Arrays.asList("c", "a", "b"));
+
+        assertEquals(3, esquema.tamanho());
+        assertEquals("a", esquema.atributo(0));
+        assertEquals(2, esquema.posicao("c"));
+        assertEquals(-1, esquema.posicao("d"));
+        assertEquals(Arrays.asList("a", "b", "c"), new ArrayList<>(esquema.getAtributos()));
+    }
+
+    @Test
+    public void mesmoEsquemaParaMesmosAtributos() {
+        assertSame(Esquema.de(Arrays.asList("x", "y")), Esquema.de(new HashSet<>(Arrays.asList("y", "x"))));
+    }
+
+    @Test
+    public void atributosDistintosComMesmaChave() {
+        // "Aa" e "BB" possuem o mesmo código hash.
+        Esquema aa = Esquema.de(Collections.singletonList("Aa"));
+        Esquema bb = Esquema.de(Collections.singletonList("BB"));
+
+        assertEquals("Aa", aa.atributo(0));
+        assertEquals("BB", bb.atributo(0));
+        assertNotEquals(aa, bb);
+        assertEquals(bb, Esquema.de(Collections.singletonList("BB")));
+
+        // Relatos com instâncias distintas de esquemas iguais.
+        assertEquals(new Relato("t", bb, Valor.de(1f)),
+                new Relato("t", Esquema.de(Collections.singletonList("BB")), Valor.de(1f)));
+    }
+
+    @Test
+    public void esquemaDoTipo() {
+        Set<Atributo> atributos = new HashSet<>();
+        atributos.add(new Atributo("titulo", "d", Atributo.STRING));
+        atributos.add(new Atributo("cha", "d", Atributo.REAL));
+        Tipo tipo = new Tipo("aula", "Aula", "d", atributos);
+
+        assertSame(Esquema.de(Arrays.asList("titulo", "cha")), tipo.getEsquema());
+    }
+}
@@ -0,0 +1,46 @@
+package br.ufg.inf.es.saep.sandbox.dominio;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MapaDeSimbolosTest {
+
+    @Test
+    public void posicaoDeCadaSimbolo() {
+        int[] simbolos = {7, 1 << 20, Simbolos.NENHUM, 0, 8, 3_000_000};
+        MapaDeSimbolos mapa = new MapaDeSimbolos(simbolos);
+
+        for (int i = 0; i < simbolos.length; i++) {
+            if (simbolos[i] != Simbolos.NENHUM) {
+                assertEquals(i, mapa.posicao(simbolos[i]));
+            }
+        }
+
+        assertEquals(-1, mapa.posicao(Simbolos.NENHUM));
+        assertEquals(-1, mapa.posicao(9));
+        assertEquals(-1, mapa.posicao(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void semSimbolos() {
+        assertEquals(-1, new MapaDeSimbolos(new int[0]).posicao(0));
+        assertEquals(-1, new MapaDeSimbolos(new int[] {Simbolos.NENHUM}).posicao(0));
+    }
+
+    @Test
+    public void muitosSimbolosSequenciais() {
+        int[] simbolos = new int[1000];
+        for (int i = 0; i < simbolos.length; i++) {
+            simbolos[i] = 500 + i;
+        }
+
+        MapaDeSimbolos mapa = new MapaDeSimbolos(simbolos);
+        for (int i = 0; i < simbolos.length; i++) {
+            assertEquals(i, mapa.posicao(500 + i));
+        }
+
+        assertEquals(-1, mapa.posicao(499));
+        assertEquals(-1, mapa.posicao(1500));
+    }
+}
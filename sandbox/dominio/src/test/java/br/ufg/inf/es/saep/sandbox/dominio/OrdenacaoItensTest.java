@@ -1,11 +1,13 @@
 package br.ufg.inf.es.saep.sandbox.dominio;
 
+import com.google.gson.Gson;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class OrdenacaoItensTest {
 
@@ -115,4 +117,79 @@ public class OrdenacaoItensTest {
         List<Regra> ordenados = oi.ordena(itens);
         assertEquals(3, ordenados.size());
     }
+
+    @Test
+    public void longaCadeiaDeDependencias() {
+        List<Regra> itens = new ArrayList<>();
+        for (int i = 1; i < 100000; i++) {
+            List<String> dd = new ArrayList<>(1);
+            dd.add("v" + (i - 1));
+            itens.add(new Regra("v" + i, 1, "d", 0, 0, "1", null, null, null, 0, dd));
+        }
+
+        itens.add(new Regra("v0", 1, "d", 0, 0, "1", null, null, null, 0, new ArrayList<>(0)));
+
+        List<Regra> ordenados = OrdenacaoService.ordena(itens);
+        assertEquals(100000, ordenados.size());
+        assertEquals("v0", ordenados.get(0).getVariavel());
+        assertEquals("v99999", ordenados.get(99999).getVariavel());
+    }
+
+    @Test
+    public void dependenciaCircularIdentificaVariaveis() {
+        List<String> da = new ArrayList<>();
+        da.add("c");
+        List<String> db = new ArrayList<>();
+        db.add("a");
+        List<String> dc = new ArrayList<>();
+        dc.add("b");
+        List<String> dd = new ArrayList<>();
+        dd.add("a");
+
+        List<Regra> itens = new ArrayList<>();
+        itens.add(new Regra("d", 1, "d", 0, 0, "a", null, null, null, 0, dd));
+        itens.add(new Regra("a", 1, "a", 0, 0, "c", null, null, null, 0, da));
+        itens.add(new Regra("b", 1, "b", 0, 0, "a", null, null, null, 0, db));
+        itens.add(new Regra("c", 1, "c", 0, 0, "b", null, null, null, 0, dc));
+
+        try {
+            OrdenacaoService.ordena(itens);
+            fail();
+        } catch (DependenciaCircular dc1) {
+            List<String> ciclo = dc1.getVariaveis();
+            assertEquals(3, ciclo.size());
+            assertTrue(ciclo.containsAll(Arrays.asList("a", "b", "c")));
+        }
+    }
+
+    @Test(expected = DependenciaCircular.class)
+    public void regraDependenteDeSiMesma() {
+        List<String> dd = new ArrayList<>();
+        dd.add("a");
+
+        List<Regra> itens = new ArrayList<>();
+        itens.add(new Regra("a", 1, "a", 0, 0, "a + 1", null, null, null, 0, dd));
+        OrdenacaoService.ordena(itens);
+    }
+
+    @Test
+    public void regrasCriadasSemConstrutorSaoOrdenadas() {
+        List<String> dy = new ArrayList<>();
+        dy.add("x");
+
+        // Gson cria instâncias sem executar o construtor.
+        Gson gson = new Gson();
+        Regra x = new Regra("x", 1, "x", 0, 0, "1", null, null, null, 0, new ArrayList<>(0));
+        Regra y = new Regra("y", 1, "y", 0, 0, "x + 1", null, null, null, 0, dy);
+        Regra xLida = gson.fromJson(gson.toJson(x), Regra.class);
+        Regra yLida = gson.fromJson(gson.toJson(y), Regra.class);
+
+        assertEquals(x.getSimboloVariavel(), xLida.getSimboloVariavel());
+        assertEquals(Simbolos.NENHUM, xLida.getSimboloTipoRelato());
+
+        List<Regra> ordenados = OrdenacaoService.ordena(Arrays.asList(yLida, xLida));
+        assertEquals(2, ordenados.size());
+        assertEquals("x", ordenados.get(0).getVariavel());
+        assertEquals("y", ordenados.get(1).getVariavel());
+    }
 }
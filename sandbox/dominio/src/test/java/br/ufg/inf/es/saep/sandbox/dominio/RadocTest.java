@@ -57,6 +57,21 @@ public class RadocTest {
         assertEquals(1, r.relatosPorTipo("b").size());
     }
 
+    @Test
+    public void alteracaoDaListaFornecidaNaoAfetaRadoc() {
+        Radoc r = new Radoc("id", 0, relatos);
+        assertEquals(2, r.relatosPorTipo("a").size());
+
+        relatos.add(relatos.get(0));
+        assertEquals(3, r.getRelatos().size());
+        assertEquals(2, r.relatosPorTipo("a").size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void relatosSomenteLeitura() {
+        new Radoc("id", 0, relatos).getRelatos().add(relatos.get(0));
+    }
+
     @Test
     public void recuperaCorretamente() {
         Radoc r = new Radoc("x", 1234, new ArrayList<>(0));
@@ -3,11 +3,13 @@ package br.ufg.inf.es.saep.sandbox.dominio;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.*;
 
 public class RelatoTest {
 
@@ -109,5 +111,72 @@ public class RelatoTest {
         assertEquals(r1, r2);
         assertEquals(r1.hashCode(), r2.hashCode());
     }
-}
 
+    @Test
+    public void valoresPelaPosicaoNoEsquema() {
+        Esquema esquema = Esquema.de(Arrays.asList("titulo", "cha"));
+        Relato r = new Relato("aula", esquema, new Valor(32f), new Valor("IA"));
+
+        assertEquals(32f, r.get(esquema.posicao("cha")).getFloat(), 0.0001f);
+        assertEquals("IA", r.get("titulo").getString());
+        assertNull(r.get("inexistente"));
+    }
+
+    @Test
+    public void relatosDoMesmoTipoCompartilhamEsquema() {
+        Map<String, Valor> outros = new HashMap<>(1);
+        outros.put("nome", new Valor(1f));
+
+        assertSame(new Relato("t", valores).getEsquema(), new Relato("t", outros).getEsquema());
+    }
+
+    @Test(expected = CampoExigidoNaoFornecido.class)
+    public void quantidadeDeValoresDefinidaPeloEsquema() {
+        new Relato("aula", Esquema.de(Arrays.asList("a", "b")), new Valor(1f));
+    }
+
+    @Test
+    public void relatosIguaisCriadosPorMapaOuEsquema() {
+        Relato r1 = new Relato("h", valores);
+        Relato r2 = new Relato("h", r1.getEsquema(), r1.get(0));
+
+        assertEquals(r1, r2);
+    }
+
+    @Test
+    public void relatosIguaisPorConteudo() {
+        Map<String, Valor> outros = new HashMap<>(1);
+        outros.put("nome", new Valor(99f));
+
+        assertEquals(new Relato("t", valores), new Relato("t", outros));
+    }
+
+    @Test
+    public void hashCodeConsideraValores() {
+        Esquema esquema = Esquema.de(Arrays.asList("ano", "titulo"));
+
+        Set<Relato> relatos = new HashSet<>();
+        Set<Integer> codigos = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            Relato relato = new Relato("artigo", esquema, Valor.de((float) i), Valor.de("Artigo " + i));
+            relatos.add(relato);
+            codigos.add(relato.hashCode());
+        }
+
+        assertEquals(100, relatos.size());
+        assertEquals(100, codigos.size());
+        assertTrue(relatos.contains(new Relato("artigo", esquema, Valor.de(7f), Valor.de("Artigo 7"))));
+    }
+
+    @Test
+    public void relatoNaoAlteradoPeloMapaFornecido() {
+        Map<String, Valor> mapa = new HashMap<>(valores);
+        Relato r = new Relato("t", mapa);
+        int hash = r.hashCode();
+
+        mapa.put("nome", new Valor(1f));
+
+        assertEquals(99f, r.get("nome").getFloat(), 0.0001f);
+        assertEquals(hash, r.hashCode());
+    }
+}
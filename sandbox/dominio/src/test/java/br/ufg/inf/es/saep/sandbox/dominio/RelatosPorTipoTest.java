@@ -0,0 +1,83 @@
+package br.ufg.inf.es.saep.sandbox.dominio;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class RelatosPorTipoTest {
+
+    private static Relato relato(String tipo, String atributo, float valor) {
+        Map<String, Valor> valores = new HashMap<>(1);
+        valores.put(atributo, new Valor(valor));
+        return new Relato(tipo, valores);
+    }
+
+    private static RelatosPorTipo agrupados() {
+        return new RelatosPorTipo(Arrays.asList(
+                relato("a", "x", 1),
+                relato("b", "x", 10),
+                relato("a", "x", 2),
+                relato("a", "x", 3)));
+    }
+
+    @Test(expected = CampoExigidoNaoFornecido.class)
+    public void relatosNaoPodemSerNull() {
+        new RelatosPorTipo(null);
+    }
+
+    @Test
+    public void quantidadeERelatosPorTipo() {
+        RelatosPorTipo agrupados = agrupados();
+
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), agrupados.getTipos());
+        assertEquals(3, agrupados.quantidade("a"));
+        assertEquals(1, agrupados.quantidade("b"));
+        assertEquals(0, agrupados.quantidade("c"));
+        assertEquals(2f, agrupados.relatos("a").get(1).get("x").getFloat(), 0.0001f);
+        assertTrue(agrupados.relatos("c").isEmpty());
+        assertNull(agrupados.avaliaveis("c"));
+    }
+
+    @Test
+    public void colunaNaOrdemDosRelatos() {
+        RelatosPorTipo agrupados = agrupados();
+
+        double[] coluna = agrupados.coluna("a", "x");
+        assertArrayEquals(new double[]{1, 2, 3}, coluna, 0.0001);
+
+        // Montada uma única vez.
+        assertSame(coluna, agrupados.coluna("a", "x"));
+    }
+
+    @Test
+    public void colunaInexistente() {
+        RelatosPorTipo agrupados = new RelatosPorTipo(Arrays.asList(
+                relato("a", "x", 1),
+                relato("a", "y", 2)));
+
+        assertNull(agrupados.coluna("a", "x"));
+        assertNull(agrupados.coluna("b", "x"));
+    }
+
+    @Test
+    public void apenasTiposDeInteresse() {
+        List<Relato> relatos = Arrays.asList(
+                relato("a", "x", 1),
+                relato("b", "x", 10),
+                relato("a", "x", 2));
+        RelatosPorTipo agrupados = new RelatosPorTipo(relatos, Collections.singleton("a"));
+
+        assertEquals(Collections.singleton("a"), agrupados.getTipos());
+        assertEquals(2, agrupados.quantidade("a"));
+        assertEquals(0, agrupados.quantidade("b"));
+        assertNull(agrupados.avaliaveis("b"));
+        assertNull(agrupados.coluna("b", "x"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void relatosSomenteLeitura() {
+        agrupados().relatos("a").clear();
+    }
+}
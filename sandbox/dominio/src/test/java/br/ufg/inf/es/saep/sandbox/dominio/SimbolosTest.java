@@ -0,0 +1,84 @@
+package br.ufg.inf.es.saep.sandbox.dominio;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SimbolosTest {
+
+    @Test
+    public void mesmoSimboloParaMesmoNome() {
+        int simbolo = Simbolos.de("simbolos-teste-a");
+
+        assertEquals(simbolo, Simbolos.de(new String("simbolos-teste-a")));
+        assertNotEquals(simbolo, Simbolos.de("simbolos-teste-b"));
+        assertEquals("simbolos-teste-a", Simbolos.nome(simbolo));
+        assertTrue(simbolo < Simbolos.total());
+    }
+
+    @Test
+    public void nomeAusente() {
+        assertEquals(Simbolos.NENHUM, Simbolos.de((String) null));
+        assertNull(Simbolos.nome(Simbolos.NENHUM));
+        assertNull(Simbolos.nome(Simbolos.total()));
+        assertNull(Simbolos.de((Iterable<String>) null));
+    }
+
+    @Test
+    public void simbolosDeVariosNomes() {
+        String[] nomes = new String[300];
+        for (int i = 0; i < nomes.length; i++) {
+            nomes[i] = "simbolos-teste-" + i;
+        }
+
+        int[] simbolos = Simbolos.de(Arrays.asList(nomes));
+
+        assertEquals(nomes.length, simbolos.length);
+        for (int i = 0; i < nomes.length; i++) {
+            assertEquals(nomes[i], Simbolos.nome(simbolos[i]));
+        }
+    }
+
+    @Test
+    public void acessoPeloSimbolo() {
+        Relato relato = new Relato("artigo", Esquema.de(Arrays.asList("ano", "titulo")), Valor.de(2016f), Valor.de("t"));
+
+        assertEquals(Simbolos.de("artigo"), relato.getSimboloTipo());
+        assertEquals("t", relato.getPeloSimbolo(Simbolos.de("titulo")).getString());
+        assertNull(relato.getPeloSimbolo(Simbolos.de("simbolos-teste-ausente")));
+        assertNull(relato.getPeloSimbolo(Simbolos.NENHUM));
+
+        Regra regra = new Regra("v", Regra.EXPRESSAO, "d", 10, 0, "ano + 1", null, null, null, 0,
+                Arrays.asList("ano"));
+        assertEquals(Simbolos.de("v"), regra.getSimboloVariavel());
+        assertEquals(Simbolos.NENHUM, regra.getSimboloTipoRelato());
+        assertArrayEquals(new int[]{Simbolos.de("ano")}, regra.getSimbolosDependeDe());
+
+        Regra pontos = new Regra("p", Regra.PONTOS, "d", 10, 0, null, null, null, "artigo", 1, null);
+        assertEquals(relato.getSimboloTipo(), pontos.getSimboloTipoRelato());
+        assertNull(pontos.getSimbolosDependeDe());
+    }
+
+    @Test
+    public void relatosNaoRegistramNomes() {
+        Relato relato = new Relato("simbolos-teste-tipo",
+                Esquema.de(Arrays.asList("simbolos-teste-atributo")), Valor.de(1f));
+        RelatosPorTipo agrupados = new RelatosPorTipo(Arrays.asList(relato));
+
+        assertEquals(Simbolos.NENHUM, Simbolos.existente("simbolos-teste-tipo"));
+        assertEquals(Simbolos.NENHUM, Simbolos.existente("simbolos-teste-atributo"));
+        assertEquals(Simbolos.NENHUM, relato.getSimboloTipo());
+
+        // Nomes registrados depois (por exemplo, por uma regra)
+        // também são encontrados pelo símbolo.
+        int atributo = Simbolos.de("simbolos-teste-atributo");
+        int tipo = Simbolos.de("simbolos-teste-tipo");
+
+        assertEquals(1f, relato.getPeloSimbolo(atributo).getFloat(), 0f);
+        assertEquals(tipo, relato.getSimboloTipo());
+        assertEquals(1, agrupados.avaliaveis(tipo).size());
+        assertNull(agrupados.avaliaveis(Simbolos.de("simbolos-teste-outro-tipo")));
+    }
+}
@@ -36,5 +36,39 @@ public class ValorTest {
         Valor verdadeiro = new Valor(23);
         assertFalse(verdadeiro.getBoolean());
     }
-}
 
+    @Test
+    public void valoresIguaisPorTipoEConteudo() {
+        assertEquals(new Valor(2.5f), new Valor(2.5f));
+        assertEquals(new Valor(2.5f).hashCode(), new Valor(2.5f).hashCode());
+        assertEquals(new Valor("a"), Valor.de("a"));
+        assertEquals(new Valor(false), Valor.FALSO);
+
+        assertNotEquals(new Valor(0f), new Valor(false));
+        assertNotEquals(new Valor(1f), new Valor(true));
+        assertNotEquals(new Valor((String) null), new Valor(0f));
+        assertNotEquals(new Valor(0f), new Valor(-0f));
+    }
+
+    @Test
+    public void tipoDoValor() {
+        assertEquals(Atributo.LOGICO, new Valor(true).getTipo());
+        assertEquals(Atributo.REAL, new Valor(1f).getTipo());
+        assertEquals(Atributo.STRING, new Valor("x").getTipo());
+    }
+
+    @Test
+    public void instanciasCompartilhadas() {
+        assertSame(Valor.VERDADEIRO, Valor.de(true));
+        assertSame(Valor.FALSO, Valor.de(false));
+        assertSame(Valor.ZERO, Valor.de(0f));
+        assertSame(Valor.de(10f), Valor.de(10f));
+        assertSame(Valor.de(Valor.MENOR_INTEIRO), Valor.de(Valor.MENOR_INTEIRO));
+        assertSame(Valor.de(Valor.MAIOR_INTEIRO), Valor.de(Valor.MAIOR_INTEIRO));
+
+        assertNotSame(Valor.de(0.5f), Valor.de(0.5f));
+        assertNotSame(Valor.de(Valor.MAIOR_INTEIRO + 1), Valor.de(Valor.MAIOR_INTEIRO + 1));
+        assertEquals(-0f, Valor.de(-0f).getFloat(), 0f);
+        assertNotEquals(Valor.ZERO, Valor.de(-0f));
+    }
+}
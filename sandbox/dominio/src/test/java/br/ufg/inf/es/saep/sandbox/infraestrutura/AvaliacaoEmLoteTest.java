@@ -0,0 +1,67 @@
+package br.ufg.inf.es.saep.sandbox.infraestrutura;
+
+import br.ufg.inf.es.saep.sandbox.dominio.*;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes da avaliação de vários RADOCs conforme uma resolução.
+ */
+public class AvaliacaoEmLoteTest {
+
+    private static Resolucao resolucao() {
+        List<String> deps = new ArrayList<>(1);
+        deps.add("livros");
+
+        List<Regra> regras = new ArrayList<>();
+        regras.add(new Regra("total", Regra.EXPRESSAO, "d", 1000, 0, "livros * 2", null, null, null, 0, deps));
+        regras.add(new Regra("livros", Regra.PONTOS, "d", 1000, 0, null, null, null, "livro", 1, null));
+        return new Resolucao("r", "n", "d", new Date(), regras);
+    }
+
+    private static Radoc radoc(int livros) {
+        Map<String, Valor> valores = new HashMap<>(1);
+        valores.put("a", new Valor(1));
+
+        List<Relato> relatos = new ArrayList<>();
+        for (int i = 0; i < livros; i++) {
+            relatos.add(new Relato("livro", valores));
+        }
+
+        return new Radoc("radoc" + livros, 2016, relatos);
+    }
+
+    @Test
+    public void todosOsRadocsEntreguesAoDestino() {
+        Map<String, Float> totais = new ConcurrentHashMap<>();
+        Stream<Radoc> radocs = IntStream.range(0, 500).mapToObj(AvaliacaoEmLoteTest::radoc);
+
+        long avaliados = new AvaliacaoEmLote(4).avalia(resolucao(), radocs,
+                (radoc, resultado) -> totais.put(radoc.getId(), resultado.get("total").getFloat()));
+
+        assertEquals(500, avaliados);
+        assertEquals(500, totais.size());
+        assertEquals(0f, totais.get("radoc0"), 0f);
+        assertEquals(998f, totais.get("radoc499"), 0f);
+    }
+
+    @Test(expected = AvaliacaoRegraException.class)
+    public void falhaInterrompeLote() {
+        Iterator<Radoc> radocs = IntStream.range(0, 100).mapToObj(AvaliacaoEmLoteTest::radoc).iterator();
+
+        new AvaliacaoEmLote(2).avalia(resolucao(), radocs, (radoc, resultado) -> {
+            throw new AvaliacaoRegraException("destino");
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void quantidadeDeThreadsInvalida() {
+        new AvaliacaoEmLote(0);
+    }
+}
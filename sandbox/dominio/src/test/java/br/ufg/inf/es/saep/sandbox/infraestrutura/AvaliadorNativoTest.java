@@ -0,0 +1,111 @@
+package br.ufg.inf.es.saep.sandbox.infraestrutura;
+
+import br.ufg.inf.es.saep.sandbox.dominio.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Testes do avaliador de regras baseado em expressões compiladas.
+ */
+public class AvaliadorNativoTest {
+    private AvaliadorNativo avaliador;
+
+    @Before
+    public void setUp() {
+        avaliador = new AvaliadorNativo();
+    }
+
+    private static Relato relato(String tipo, float a, float b) {
+        Map<String, Valor> dados = new HashMap<>(2);
+        dados.put("a", new Valor(a));
+        dados.put("b", new Valor(b));
+        return new Relato(tipo, dados);
+    }
+
+    @Test(expected = AvaliacaoRegraException.class)
+    public void avaliaExpressaoSemVariavelDefinidaGeraExcecao() {
+        List<String> deps = new ArrayList<>(1);
+        deps.add("a");
+        Regra r = new Regra("v", Regra.EXPRESSAO, "d", 100, 0, "1 + a", null, null, null, 0, deps);
+
+        avaliador.avaliaRegra(r, new HashMap<>(0), null);
+    }
+
+    @Test(expected = AvaliacaoRegraException.class)
+    public void variavelForaDeDependeDeGeraExcecao() {
+        Regra r = new Regra("v", Regra.EXPRESSAO, "d", 100, 0, "1 + a", null, null, null, 0, new ArrayList<>());
+
+        Map<String, Valor> ctx = new HashMap<>(1);
+        ctx.put("a", new Valor(1));
+        avaliador.avaliaRegra(r, ctx, null);
+    }
+
+    @Test
+    public void somatorioMedia() {
+        List<String> deps = new ArrayList<>(2);
+        deps.add("a");
+        deps.add("b");
+
+        List<Avaliavel> relatos = new ArrayList<>(2);
+        relatos.add(relato("livro", 2, 2));
+        relatos.add(relato("livro", 3, 4));
+
+        Regra soma = new Regra("s", Regra.SOMATORIO, "d", 100, 0, "a * b", null, null, null, 0, deps);
+        assertEquals(16f, avaliador.avaliaRegra(soma, null, relatos).getFloat(), 0.0001f);
+
+        Regra media = new Regra("m", Regra.MEDIA, "d", 100, 0, "a", null, null, null, 0, deps);
+        assertEquals(2.5f, avaliador.avaliaRegra(media, null, relatos).getFloat(), 0.0001f);
+    }
+
+    @Test
+    public void pontosLimitadosPeloMaximo() {
+        Regra regra = new Regra("v", Regra.PONTOS, "d", 10, 0, null, null, null, "r", 11, null);
+
+        List<Avaliavel> relatos = new ArrayList<>(1);
+        relatos.add(null);
+
+        assertEquals(10f, avaliador.avaliaRegra(regra, null, relatos).getFloat(), 0.0001f);
+        assertEquals(0f, avaliador.avaliaRegra(regra, null, null).getFloat(), 0.0001f);
+    }
+
+    @Test
+    public void expressaoCondicional() {
+        List<String> dd = new ArrayList<>(3);
+        dd.add("condicao");
+        dd.add("oito");
+        dd.add("nove");
+
+        Regra regra = new Regra("c", Regra.CONDICIONAL, "d", 10, 0, "condicao", "oito", "nove", null, 0, dd);
+
+        Map<String, Valor> contexto = new HashMap<>(3);
+        contexto.put("condicao", new Valor(0));
+        contexto.put("oito", new Valor(8));
+        contexto.put("nove", new Valor(9));
+        assertEquals(9f, avaliador.avaliaRegra(regra, contexto, null).getFloat(), 0.0001f);
+
+        contexto.put("condicao", new Valor(1));
+        assertEquals(8f, avaliador.avaliaRegra(regra, contexto, null).getFloat(), 0.0001f);
+    }
+
+    @Test
+    public void mesmoResultadoQueAvaliadorComAvaliadorService() {
+        List<Regra> regras = new ArrayList<>();
+        regras.add(new Regra("dez", Regra.EXPRESSAO, "d", 100, 0, "10", null, null, null, 0, new ArrayList<>()));
+
+        List<String> dd = new ArrayList<>(1);
+        dd.add("dez");
+        regras.add(new Regra("v", Regra.EXPRESSAO, "d", 1000, 0, "23.1 * dez - 31", null, null, null, 0, dd));
+
+        Map<String, Valor> nativo = new AvaliadorService(avaliador).avalia(regras, new ArrayList<>());
+        Map<String, Valor> evalex = new AvaliadorService(new Avaliador()).avalia(regras, new ArrayList<>());
+
+        assertEquals(evalex.get("v").getFloat(), nativo.get("v").getFloat(), 0.0001f);
+    }
+}
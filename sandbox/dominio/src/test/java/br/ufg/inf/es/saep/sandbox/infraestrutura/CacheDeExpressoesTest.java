@@ -0,0 +1,99 @@
+package br.ufg.inf.es.saep.sandbox.infraestrutura;
+
+import br.ufg.inf.es.saep.sandbox.dominio.AvaliacaoRegraException;
+import br.ufg.inf.es.saep.sandbox.dominio.Regra;
+import br.ufg.inf.es.saep.sandbox.dominio.Valor;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Testes do cache de expressões processadas.
+ */
+public class CacheDeExpressoesTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacidadeInvalidaGeraExcecao() {
+        new CacheDeExpressoes<>(0, ExpressaoPreparada::new);
+    }
+
+    @Test
+    public void expressaoProcessadaUmaUnicaVez() {
+        CacheDeExpressoes<ExpressaoPreparada> cache = new CacheDeExpressoes<>(2, ExpressaoPreparada::new);
+
+        ExpressaoPreparada primeira = cache.obtem("a + 1");
+        ExpressaoPreparada segunda = cache.obtem("a + 1");
+
+        assertSame(primeira, segunda);
+        assertEquals(1, cache.getFalhas());
+        assertEquals(1, cache.getAcertos());
+        assertEquals(0, cache.getRemocoes());
+    }
+
+    @Test
+    public void capacidadeAtingidaRemoveMenosRecente() {
+        CacheDeExpressoes<ExpressaoPreparada> cache = new CacheDeExpressoes<>(2, ExpressaoPreparada::new);
+
+        cache.obtem("1");
+        cache.obtem("2");
+        cache.obtem("1");
+        cache.obtem("3");
+
+        assertEquals(2, cache.tamanho());
+        assertEquals(1, cache.getRemocoes());
+
+        // "2" foi removida, "1" permanece.
+        cache.obtem("1");
+        assertEquals(1 + 1, cache.getAcertos());
+        cache.obtem("2");
+        assertEquals(4, cache.getFalhas());
+    }
+
+    @Test
+    public void identificaVariaveisDaExpressao() {
+        ExpressaoPreparada exp = new ExpressaoPreparada("MAX(a, b) * PI + c");
+
+        assertEquals(3, exp.getVariaveis().size());
+        assertEquals("a", exp.getVariaveis().get(0));
+        assertEquals("c", exp.getVariaveis().get(2));
+    }
+
+    @Test
+    public void avaliadorReusaExpressao() {
+        Avaliador avaliador = new Avaliador();
+        List<String> dd = new ArrayList<>(1);
+        dd.add("x");
+        Regra regra = new Regra("v", Regra.EXPRESSAO, "d", 100, 0, "2 * x", null, null, null, 0, dd);
+
+        Map<String, Valor> ctx = new HashMap<>(1);
+        ctx.put("x", new Valor(3));
+        assertEquals(6f, avaliador.avaliaRegra(regra, ctx, null).getFloat(), 0.0001f);
+
+        ctx.put("x", new Valor(4));
+        assertEquals(8f, avaliador.avaliaRegra(regra, ctx, null).getFloat(), 0.0001f);
+
+        assertEquals(1, avaliador.getExpressoes().getFalhas());
+        assertEquals(1, avaliador.getExpressoes().getAcertos());
+    }
+
+    @Test(expected = AvaliacaoRegraException.class)
+    public void variavelAusenteAposReusoGeraExcecao() {
+        Avaliador avaliador = new Avaliador();
+        List<String> dd = new ArrayList<>(1);
+        dd.add("x");
+        Regra regra = new Regra("v", Regra.EXPRESSAO, "d", 100, 0, "2 * x", null, null, null, 0, dd);
+
+        Map<String, Valor> ctx = new HashMap<>(1);
+        ctx.put("x", new Valor(3));
+        avaliador.avaliaRegra(regra, ctx, null);
+
+        // Valor anterior de "x" não pode ser empregado.
+        avaliador.avaliaRegra(regra, new HashMap<>(0), null);
+    }
+}
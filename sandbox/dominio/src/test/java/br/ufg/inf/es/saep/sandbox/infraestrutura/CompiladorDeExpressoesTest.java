@@ -0,0 +1,161 @@
+package br.ufg.inf.es.saep.sandbox.infraestrutura;
+
+import br.ufg.inf.es.saep.sandbox.dominio.AvaliacaoRegraException;
+import com.udojava.evalex.Expression;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Confronta expressões compiladas com a avaliação
+ * correspondente do EvalEx.
+ */
+public class CompiladorDeExpressoesTest {
+
+    private static void confere(String expressao, double a, double b) {
+        Expression exp = new Expression(expressao)
+                .with("a", new BigDecimal(a))
+                .and("b", new BigDecimal(b));
+        double esperado = exp.eval().doubleValue();
+
+        ExpressaoCompilada compilada = CompiladorDeExpressoes.compila(expressao);
+        double[] valores = new double[compilada.totalVariaveis()];
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = "a".equals(compilada.variavel(i)) ? a : b;
+        }
+
+        assertEquals(expressao, esperado, compilada.avalia(valores), 0.0001d);
+    }
+
+    @Test
+    public void aritmetica() {
+        confere("10 * (a + b)", 4, 1);
+        confere("5 - 2 - 1", 0, 0);
+        confere("10 / 4 * 2", 0, 0);
+        confere("2 * 3 ^ 2", 0, 0);
+        confere("2 ^ 3 ^ 2", 0, 0);
+        confere("-2 ^ 2", 0, 0);
+        confere("a % b", 7, 3);
+        confere("12.3 - 0.9 / 3", 0, 0);
+        confere("1.5E-1 * 2", 0, 0);
+        confere("2 ^ -1", 0, 0);
+    }
+
+    @Test
+    public void relacionaisLogicos() {
+        confere("a > b", 2, 1);
+        confere("a >= b", 1, 1);
+        confere("a < b", 2, 1);
+        confere("a <= b", 2, 1);
+        confere("a = b", 2, 2);
+        confere("a == b", 2, 1);
+        confere("a != b", 2, 1);
+        confere("a <> b", 2, 2);
+        confere("1 + 2 > 2 && a", 0, 0);
+        confere("a > 2 || b", 0, 1);
+        confere("TRUE && FALSE", 0, 0);
+    }
+
+    @Test
+    public void precedenciaEAssociatividadeComoEvalEx() {
+        String[] expressoes = {
+                "2 == 1 < 2",
+                "1 < 2 == 1",
+                "3 > 2 > 1",
+                "1 < 2 < 3",
+                "3 >= 3 <= 2",
+                "1 == 2 != 3",
+                "2 <> 2 = 0",
+                "1 = 1 == 1",
+                "1 + 1 == 2 > 1",
+                "2 > 1 && 1 == 0 || 1 < 0",
+                "1 || 0 && 0",
+                "0 && 1 == 1",
+                "2 * 3 > 5 == 1 + 0",
+                "4 - 2 - 1 < 2 ^ 2 ^ 0",
+                "IF(3 > 2 > 1, 10, 20) + 1",
+                "NOT(1 == 1 < 0)"
+        };
+
+        for (String expressao : expressoes) {
+            confere(expressao, 0, 0);
+        }
+    }
+
+    @Test
+    public void funcoes() {
+        confere("NOT(a)", 0, 0);
+        confere("IF(a > b, a, b)", 3, 5);
+        confere("MAX(a, b, 3)", 1, 2);
+        confere("MIN(a, b)", 1, 2);
+        confere("ABS(a - b)", 1, 2);
+        confere("ROUND(a, 2)", 2.125, 0);
+        confere("FLOOR(a) + CEILING(b)", 1.5, 1.5);
+        confere("SQRT(a) + LOG(b) + LOG10(100)", 2, 3);
+        confere("SIN(90) + COS(a)", 60, 0);
+        confere("PI * e", 0, 0);
+    }
+
+    @Test
+    public void menosUnarioEmVariavel() {
+        ExpressaoCompilada exp = CompiladorDeExpressoes.compila("2 * -a");
+        assertEquals(-6d, exp.avalia(new double[] { 3 }), 0.0001d);
+    }
+
+    @Test
+    public void indicesDefinidosExternamente() {
+        ExpressaoCompilada exp = CompiladorDeExpressoes.compila("b - a", v -> "a".equals(v) ? 3 : 7);
+
+        double[] valores = new double[8];
+        valores[3] = 1;
+        valores[7] = 10;
+
+        assertEquals(9d, exp.avalia(valores), 0.0001d);
+        assertEquals("b", exp.variavel(0));
+        assertEquals(7, exp.indice(0));
+    }
+
+    @Test(expected = AvaliacaoRegraException.class)
+    public void parentesesNaoFechadosGeraExcecao() {
+        CompiladorDeExpressoes.compila("(a + 1");
+    }
+
+    @Test(expected = AvaliacaoRegraException.class)
+    public void funcaoDesconhecidaGeraExcecao() {
+        CompiladorDeExpressoes.compila("FOO(1)");
+    }
+
+    @Test(expected = AvaliacaoRegraException.class)
+    public void divisaoPorZeroGeraExcecao() {
+        CompiladorDeExpressoes.compila("1 / a").avalia(new double[] { 0 });
+    }
+
+    @Test
+    public void avaliacaoEmColunasIdenticaAAvaliacaoPorLinha() {
+        String[] expressoes = { "a * b + 2", "-(a - b) / 4", "IF(a > b, a, 1 / b)", "MAX(a, b, 3) % 2", "SQRT(a) * b" };
+        double[][] colunas = { { 1, 4, 9, 16 }, { 2, 3, 5, 7 } };
+
+        for (String expressao : expressoes) {
+            ExpressaoCompilada compilada = CompiladorDeExpressoes.compila(expressao);
+            double[] destino = new double[4];
+            compilada.avalia(colunas, 4, destino);
+
+            double somatorio = 0d;
+            for (int i = 0; i < 4; i++) {
+                double esperado = compilada.avalia(new double[] { colunas[0][i], colunas[1][i] });
+                assertEquals(expressao, esperado, destino[i], 0d);
+                somatorio += esperado;
+            }
+
+            assertEquals(expressao, somatorio, compilada.somatorio(colunas, 4), 0d);
+        }
+    }
+
+    @Test(expected = AvaliacaoRegraException.class)
+    public void divisaoPorZeroEmColunasGeraExcecao() {
+        double[][] colunas = { { 1, 0 } };
+        CompiladorDeExpressoes.compila("2 / a").somatorio(colunas, 2);
+    }
+}
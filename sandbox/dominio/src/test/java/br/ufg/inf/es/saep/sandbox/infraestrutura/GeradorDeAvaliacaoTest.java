@@ -0,0 +1,166 @@
+package br.ufg.inf.es.saep.sandbox.infraestrutura;
+
+import br.ufg.inf.es.saep.sandbox.dominio.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes da avaliação de resoluções por código gerado.
+ */
+public class GeradorDeAvaliacaoTest {
+    private GeradorDeAvaliacao gerador;
+    private AvaliadorService referencia;
+
+    @Before
+    public void setUp() {
+        gerador = new GeradorDeAvaliacao();
+        referencia = new AvaliadorService(new AvaliadorNativo());
+    }
+
+    private static List<String> deps(String... variaveis) {
+        List<String> lista = new ArrayList<>(variaveis.length);
+        for (String variavel : variaveis) {
+            lista.add(variavel);
+        }
+
+        return lista;
+    }
+
+    private static Relato relato(String tipo) {
+        Map<String, Valor> dados = new HashMap<>(1);
+        dados.put("a", new Valor(1));
+        return new Relato(tipo, dados);
+    }
+
+    private static List<Regra> regras() {
+        List<Regra> regras = new ArrayList<>();
+        regras.add(new Regra("total", Regra.EXPRESSAO, "d", 100, 0, "livros + artigos", null, null, null, 0, deps("livros", "artigos")));
+        regras.add(new Regra("livros", Regra.PONTOS, "d", 30, 0, null, null, null, "livro", 12, null));
+        regras.add(new Regra("artigos", Regra.PONTOS, "d", 100, 0, null, null, null, "artigo", 2.5f, null));
+        regras.add(new Regra("bonus", Regra.CONDICIONAL, "d", 100, 0, "total > 25", "total / 4", "-1", null, 0, deps("total")));
+        regras.add(new Regra("erro", Regra.CONDICIONAL, "d", 100, -100, "1", "2 ^ 3 - bonus", "1 +", null, 0, deps("bonus")));
+        return regras;
+    }
+
+    private static List<Relato> relatos() {
+        List<Relato> relatos = new ArrayList<>();
+        relatos.add(relato("livro"));
+        relatos.add(relato("livro"));
+        relatos.add(relato("livro"));
+        relatos.add(relato("artigo"));
+        relatos.add(relato("outro"));
+        return relatos;
+    }
+
+    @Test
+    public void resultadosIdenticosAosDaAvaliacaoInterpretada() {
+        Resolucao resolucao = new Resolucao("r", "n", "d", new Date(), regras());
+
+        Map<String, Valor> esperado = referencia.avalia(regras(), relatos());
+        Map<String, Valor> obtido = gerador.avalia(resolucao, relatos());
+
+        assertEquals(esperado.size(), obtido.size());
+        for (Map.Entry<String, Valor> e : esperado.entrySet()) {
+            assertEquals(e.getKey(), e.getValue().getFloat(), obtido.get(e.getKey()).getFloat(), 0f);
+        }
+
+        assertEquals(32.5f, obtido.get("total").getFloat(), 0f);
+    }
+
+    @Test
+    public void muitasRegrasDistribuidasEmBlocos() {
+        List<Regra> regras = new ArrayList<>();
+        regras.add(new Regra("v0", Regra.PONTOS, "d", 1000, 0, null, null, null, "livro", 1, null));
+        for (int i = 1; i < 200; i++) {
+            String anterior = "v" + (i - 1);
+            regras.add(new Regra("v" + i, Regra.EXPRESSAO, "d", 1000, 0, anterior + " + 1", null, null, null, 0, deps(anterior)));
+        }
+
+        Resolucao resolucao = new Resolucao("muitas", "n", "d", new Date(), regras);
+        Map<String, Valor> obtido = gerador.avalia(resolucao, relatos());
+
+        assertEquals(202f, obtido.get("v199").getFloat(), 0f);
+    }
+
+    @Test(expected = AvaliacaoRegraException.class)
+    public void variavelForaDeDependeDeGeraExcecao() {
+        List<Regra> regras = new ArrayList<>();
+        regras.add(new Regra("a", Regra.EXPRESSAO, "d", 100, 0, "1", null, null, null, 0, deps()));
+        regras.add(new Regra("b", Regra.EXPRESSAO, "d", 100, 0, "a + 1", null, null, null, 0, deps()));
+
+        gerador.avalia(new Resolucao("r", "n", "d", new Date(), regras), relatos());
+    }
+
+    @Test
+    public void textosComBarrasEQuebrasDeLinhaNoCodigoGerado() {
+        List<Regra> regras = regras();
+        regras.add(new Regra("falha", Regra.CONDICIONAL, "d", 100, 0, "1", "1", "\"\\u0022\n+", null, 0, deps()));
+        Resolucao resolucao = new Resolucao("r\\u+\\\\u0041\n\u00e9", "n", "d", new Date(), regras);
+
+        ResolucaoCompilada compilada = gerador.obtem(resolucao);
+        if (compilada.getFonte() != null) {
+            assertFalse(compilada.getFonte().contains("// r\\u"));
+        }
+
+        assertEquals(32.5f, compilada.avalia(relatos()).get("total").getFloat(), 0f);
+    }
+
+    @Test
+    public void compilacaoRetidaPorResolucao() {
+        Resolucao resolucao = new Resolucao("r", "n", "d", new Date(), regras());
+
+        ResolucaoCompilada primeira = gerador.obtem(resolucao);
+        assertSame(primeira, gerador.obtem(resolucao));
+
+        gerador.descarta("r");
+        assertNotSame(primeira, gerador.obtem(resolucao));
+    }
+
+    @Test
+    public void regrasAlteradasInvalidamCompilacaoRetida() {
+        List<Regra> regras = regras();
+        Resolucao resolucao = new Resolucao("r", "n", "d", new Date(), regras);
+
+        ResolucaoCompilada primeira = gerador.obtem(resolucao);
+        assertEquals(5, gerador.avalia(resolucao, relatos()).size());
+
+        regras.add(new Regra("nova", Regra.EXPRESSAO, "d", 100, 0, "total * 2", null, null, null, 0, deps("total")));
+        ResolucaoCompilada segunda = gerador.obtem(resolucao);
+        assertNotSame(primeira, segunda);
+        assertEquals(6, gerador.avalia(resolucao, relatos()).size());
+
+        // Outra resolução com o mesmo identificador.
+        Resolucao outra = new Resolucao("r", "n", "d", new Date(), regras());
+        assertNotSame(segunda, gerador.obtem(outra));
+    }
+
+    @Test
+    public void compilacaoUsadaHaMaisTempoDescartada() {
+        GeradorDeAvaliacao gerador = new GeradorDeAvaliacao(2);
+        List<Regra> regras = regras();
+        Resolucao primeira = new Resolucao("r0", "n", "d", new Date(), regras);
+        Resolucao segunda = new Resolucao("r1", "n", "d", new Date(), regras);
+        ResolucaoCompilada compilada = gerador.obtem(primeira);
+        ResolucaoCompilada descartada = gerador.obtem(segunda);
+
+        // Acesso recente preserva a primeira compilação.
+        assertSame(compilada, gerador.obtem(primeira));
+
+        gerador.obtem(new Resolucao("r2", "n", "d", new Date(), regras));
+        assertSame(compilada, gerador.obtem(primeira));
+        assertNotSame(descartada, gerador.obtem(segunda));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacidadeInvalida() {
+        new GeradorDeAvaliacao(0);
+    }
+}
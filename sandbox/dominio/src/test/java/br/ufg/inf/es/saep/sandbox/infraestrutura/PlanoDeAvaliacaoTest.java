@@ -0,0 +1,199 @@
+package br.ufg.inf.es.saep.sandbox.infraestrutura;
+
+import br.ufg.inf.es.saep.sandbox.dominio.*;
+import com.google.gson.Gson;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes do plano de avaliação baseado em posições (slots).
+ */
+public class PlanoDeAvaliacaoTest {
+
+    private static List<String> deps(String... variaveis) {
+        List<String> lista = new ArrayList<>(variaveis.length);
+        for (String variavel : variaveis) {
+            lista.add(variavel);
+        }
+
+        return lista;
+    }
+
+    private static Relato relato(String tipo) {
+        Map<String, Valor> dados = new HashMap<>(1);
+        dados.put("a", new Valor(1));
+        return new Relato(tipo, dados);
+    }
+
+    private static List<Regra> regras() {
+        List<Regra> regras = new ArrayList<>();
+        regras.add(new Regra("total", Regra.EXPRESSAO, "d", 100, 0, "livros + artigos", null, null, null, 0, deps("livros", "artigos")));
+        regras.add(new Regra("livros", Regra.PONTOS, "d", 30, 0, null, null, null, "livro", 12, null));
+        regras.add(new Regra("artigos", Regra.PONTOS, "d", 100, 0, null, null, null, "artigo", 2.5f, null));
+        regras.add(new Regra("bonus", Regra.CONDICIONAL, "d", 100, 0, "total > 25", "total / 4", "-1", null, 0, deps("total")));
+        return regras;
+    }
+
+    private static List<Relato> relatos(int livros) {
+        List<Relato> relatos = new ArrayList<>();
+        for (int i = 0; i < livros; i++) {
+            relatos.add(relato("livro"));
+        }
+
+        relatos.add(relato("artigo"));
+        relatos.add(relato("outro"));
+        return relatos;
+    }
+
+    @Test
+    public void resultadosIdenticosAosDoAvaliadorService() {
+        AvaliadorService referencia = new AvaliadorService(new AvaliadorNativo());
+        Map<String, Valor> esperado = referencia.avalia(regras(), relatos(3));
+        Map<String, Valor> obtido = PlanoDeAvaliacao.compila(regras()).avalia(relatos(3));
+
+        assertEquals(esperado.size(), obtido.size());
+        for (Map.Entry<String, Valor> e : esperado.entrySet()) {
+            assertEquals(e.getKey(), e.getValue().getFloat(), obtido.get(e.getKey()).getFloat(), 0f);
+        }
+    }
+
+    @Test
+    public void espacoReutilizadoEntreAvaliacoes() {
+        PlanoDeAvaliacao plano = PlanoDeAvaliacao.compila(regras());
+        EspacoDeAvaliacao espaco = plano.criaEspaco();
+
+        plano.avalia(relatos(3), espaco);
+        assertEquals(32.5d, espaco.valor("total"), 0d);
+        assertEquals(8.125d, espaco.valor("bonus"), 0d);
+
+        double[] resultados = plano.avalia(relatos(1), espaco);
+        assertSame(espaco.getResultados(), resultados);
+        assertEquals(14.5d, espaco.valor("total"), 0d);
+        assertEquals(0d, espaco.valor("bonus"), 0d);
+        assertEquals(14.5d, resultados[plano.indiceDaVariavel("total")], 0d);
+    }
+
+    @Test
+    public void somatorioMedia() {
+        List<Regra> regras = new ArrayList<>();
+        regras.add(new Regra("s", Regra.SOMATORIO, "d", 100, 0, "a * 2", null, null, null, 0, deps("a")));
+        regras.add(new Regra("m", Regra.MEDIA, "d", 100, 0, "a", null, null, null, 0, deps("a")));
+
+        // Assim como em AvaliadorService, relatos de SOMATORIO e
+        // MEDIA correspondem ao tipo da regra (ausente).
+        Map<String, Valor> obtido = PlanoDeAvaliacao.compila(regras).avalia(relatos(2));
+        assertEquals(0f, obtido.get("s").getFloat(), 0f);
+        assertTrue(Float.isNaN(obtido.get("m").getFloat()));
+    }
+
+    /**
+     * Regra SOMATORIO ou MEDIA cujo tipo de relato é definido, o que
+     * o construtor não permite (apenas reflexão, como na leitura de
+     * JSON).
+     */
+    private static Regra agregacao(String variavel, int tipo, String expressao, String tipoRelato) {
+        String json = "{\"variavel\":\"" + variavel + "\",\"tipo\":" + tipo
+                + ",\"descricao\":\"d\",\"valorMaximo\":100,\"valorMinimo\":0"
+                + ",\"expressao\":\"" + expressao + "\",\"tipoRelato\":\"" + tipoRelato + "\""
+                + ",\"dependeDe\":[\"a\"]}";
+        return new Gson().fromJson(json, Regra.class);
+    }
+
+    @Test
+    public void somatorioMediaColunaresSobreRelatosDoTipo() {
+        List<Regra> regras = new ArrayList<>();
+        regras.add(agregacao("s", Regra.SOMATORIO, "a * 2 + 1", "livro"));
+        regras.add(agregacao("m", Regra.MEDIA, "a + 1", "livro"));
+        regras.add(agregacao("z", Regra.SOMATORIO, "a", "ausente"));
+
+        AvaliadorService referencia = new AvaliadorService(new AvaliadorNativo());
+        Map<String, Valor> esperado = referencia.avalia(regras, relatos(3));
+
+        PlanoDeAvaliacao plano = PlanoDeAvaliacao.compila(regras);
+        EspacoDeAvaliacao espaco = plano.criaEspaco();
+        plano.avalia(relatos(5), espaco);
+        plano.avalia(relatos(3), espaco);
+
+        assertEquals(9d, espaco.valor("s"), 0d);
+        assertEquals(2d, espaco.valor("m"), 0d);
+        assertEquals(0d, espaco.valor("z"), 0d);
+        for (Map.Entry<String, Valor> e : esperado.entrySet()) {
+            assertEquals(e.getKey(), e.getValue().getFloat(), espaco.valor(e.getKey()), 0d);
+        }
+    }
+
+    @Test
+    public void vetoresDoEspacoReutilizadosPelaAvaliacaoColunar() {
+        List<Regra> regras = new ArrayList<>();
+        regras.add(agregacao("s", Regra.SOMATORIO, "a * (a + 1) - (a + 2) / (a * 4) + max(a, 2)", "livro"));
+        regras.add(agregacao("m", Regra.MEDIA, "-(a - 3) * (a + a * a)", "livro"));
+
+        PlanoDeAvaliacao plano = PlanoDeAvaliacao.compila(regras);
+        EspacoDeAvaliacao espaco = plano.criaEspaco();
+        AvaliadorService referencia = new AvaliadorService(new AvaliadorNativo());
+
+        plano.avalia(relatos(6), espaco);
+        double[][] colunas = espaco.colunasDaEtapa(plano.indiceDaVariavel("s"));
+        double[] coluna = colunas[0];
+
+        for (int livros : new int[] {6, 2, 5, 1}) {
+            Map<String, Valor> esperado = referencia.avalia(regras, relatos(livros));
+            plano.avalia(relatos(livros), espaco);
+
+            assertSame(colunas, espaco.colunasDaEtapa(plano.indiceDaVariavel("s")));
+            assertSame(coluna, colunas[0]);
+            for (Map.Entry<String, Valor> e : esperado.entrySet()) {
+                assertEquals(e.getKey(), e.getValue().getFloat(), espaco.valor(e.getKey()), 1e-5d);
+            }
+        }
+    }
+
+    @Test
+    public void colunasDosRelatosAgrupados() {
+        List<Regra> regras = new ArrayList<>(regras());
+        regras.add(agregacao("s", Regra.SOMATORIO, "a * 2 + 1", "livro"));
+        regras.add(agregacao("m", Regra.MEDIA, "a + 1", "livro"));
+
+        PlanoDeAvaliacao plano = PlanoDeAvaliacao.compila(regras);
+        Map<String, Valor> esperado = plano.avalia(relatos(4));
+
+        Radoc radoc = new Radoc("r", 2016, relatos(4));
+        Map<String, Valor> obtido = plano.avalia(radoc.getRelatosPorTipo());
+
+        assertEquals(esperado.size(), obtido.size());
+        for (Map.Entry<String, Valor> e : esperado.entrySet()) {
+            assertEquals(e.getKey(), e.getValue().getFloat(), obtido.get(e.getKey()).getFloat(), 0f);
+        }
+
+        assertEquals(12f, obtido.get("s").getFloat(), 0f);
+    }
+
+    @Test(expected = AvaliacaoRegraException.class)
+    public void atributoAusenteEmSomatorioGeraExcecao() {
+        List<Regra> regras = new ArrayList<>();
+        regras.add(agregacao("s", Regra.SOMATORIO, "b", "livro"));
+
+        PlanoDeAvaliacao.compila(regras).avalia(relatos(1));
+    }
+
+    @Test(expected = AvaliacaoRegraException.class)
+    public void variavelForaDeDependeDeGeraExcecao() {
+        List<Regra> regras = new ArrayList<>();
+        regras.add(new Regra("a", Regra.EXPRESSAO, "d", 100, 0, "1", null, null, null, 0, deps()));
+        regras.add(new Regra("b", Regra.EXPRESSAO, "d", 100, 0, "a + 1", null, null, null, 0, deps()));
+
+        PlanoDeAvaliacao.compila(regras).avalia(relatos(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void espacoDeOutroPlanoGeraExcecao() {
+        PlanoDeAvaliacao plano = PlanoDeAvaliacao.compila(regras());
+        plano.avalia(relatos(0), PlanoDeAvaliacao.compila(regras()).criaEspaco());
+    }
+}
@@ -9,7 +9,12 @@ import com.mongodb.client.MongoDatabase;
 import org.bson.Document;
 import org.junit.Before;
 import org.junit.Test;
+
+import java.util.UUID;
+
 import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertSame;
 
 public class DBManagerTest {
 
@@ -56,4 +61,32 @@ public class DBManagerTest {
         assertNotNull(mongoClient);
     }
 
+    @Test
+    public void instanciaCompartilhadaPorServidorEBanco() {
+        DBManager manager = DBManager.compartilhado("saep-sandbox", "server.thiagodurante.com.br", 27017);
+        assertSame(manager, DBManager.compartilhado("saep-sandbox", "server.thiagodurante.com.br", 27017));
+        assertSame(manager.cliente(), manager.cliente());
+
+        // Fechar a instância compartilhada não afeta os demais usuários.
+        MongoClient cliente = manager.cliente();
+        manager.close();
+        assertSame(manager, DBManager.compartilhado("saep-sandbox", "server.thiagodurante.com.br", 27017));
+        assertSame(cliente, manager.cliente());
+    }
+
+    @Test
+    public void repositorioUsadoAposOutroFecharInstanciaCompartilhada() {
+        DBManager manager = DBManager.compartilhado("saep-sandbox", "server.thiagodurante.com.br", 27017);
+        RepositorioDeResolucoes resolucoes = new RepositorioDeResolucoes(manager);
+        RepositorioDePareceres pareceres = new RepositorioDePareceres("saep-sandbox", "server.thiagodurante.com.br", 27017);
+
+        // Um dos usuários da instância compartilhada a fecha.
+        try (DBManager mesmo = DBManager.compartilhado("saep-sandbox", "server.thiagodurante.com.br", 27017)) {
+            assertSame(manager, mesmo);
+        }
+
+        assertNull(resolucoes.byId(UUID.randomUUID().toString()));
+        assertNull(pareceres.byId(UUID.randomUUID().toString()));
+    }
+
 }
@@ -0,0 +1,78 @@
+package br.ufg.inf.es.saep.sandbox.persistencia;
+
+import br.ufg.inf.es.saep.sandbox.dominio.Atributo;
+import br.ufg.inf.es.saep.sandbox.dominio.Tipo;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class IndiceDeTiposTest {
+
+    private IndiceDeTipos indice;
+
+    private static Tipo tipo(String id, String nome) {
+        Set<Atributo> atributos = new HashSet<>();
+        atributos.add(new Atributo("cha", "carga horária anual", Atributo.REAL));
+        return new Tipo(id, nome, "descricao", atributos);
+    }
+
+    private static List<String> codigos(List<Tipo> tipos) {
+        List<String> codigos = new ArrayList<>();
+        for (Tipo tipo : tipos) {
+            codigos.add(tipo.getId());
+        }
+
+        return codigos;
+    }
+
+    @Before
+    public void setUp() {
+        indice = new IndiceDeTipos();
+        indice.inclui(tipo("APG", "Aula presencial na graduação"));
+        indice.inclui(tipo("AEADG", "Aula do ensino à distância na graduação"));
+        indice.inclui(tipo("OPG", "Orientação de pós-graduação"));
+    }
+
+    @Test
+    public void trechoSemDistincaoDeAcentosOuMaiusculas() {
+        assertEquals(Arrays.asList("AEADG", "APG", "OPG"), codigos(indice.contendo("GRADUACAO")));
+        assertEquals(Arrays.asList("AEADG"), codigos(indice.contendo("a distância")));
+        assertEquals(Arrays.asList("OPG"), codigos(indice.contendo("pos")));
+        assertEquals(Arrays.asList("AEADG", "APG", "OPG"), codigos(indice.contendo("ção")));
+        assertTrue(indice.contendo("abobrinha").isEmpty());
+    }
+
+    @Test
+    public void trechoCurtoOuVazio() {
+        assertEquals(Arrays.asList("AEADG", "APG"), codigos(indice.contendo("ul")));
+        assertEquals(3, indice.contendo("").size());
+        assertTrue(indice.contendo("x").isEmpty());
+    }
+
+    @Test
+    public void sequenciasPresentesMasTrechoAusente() {
+        // Todas as sequências de 3 caracteres existem, mas não contíguas.
+        assertTrue(indice.contendo("aula pos").isEmpty());
+    }
+
+    @Test
+    public void prefixo() {
+        assertEquals(Arrays.asList("AEADG", "APG"), codigos(indice.comPrefixo("aula")));
+        assertEquals(Arrays.asList("OPG"), codigos(indice.comPrefixo("orientacao")));
+        assertTrue(indice.comPrefixo("graduação").isEmpty());
+    }
+
+    @Test
+    public void remocaoESubstituicao() {
+        indice.remove("APG");
+        assertEquals(Arrays.asList("AEADG"), codigos(indice.contendo("aula")));
+
+        indice.inclui(tipo("AEADG", "Estágio"));
+        assertTrue(indice.contendo("aula").isEmpty());
+        assertEquals(Arrays.asList("AEADG"), codigos(indice.contendo("estagio")));
+        assertEquals(2, indice.tamanho());
+    }
+}
@@ -1,6 +1,8 @@
 package br.ufg.inf.es.saep.sandbox.persistencia;
 
 import br.ufg.inf.es.saep.sandbox.dominio.*;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
 import org.junit.*;
 import org.junit.rules.ExpectedException;
 import uk.co.jemos.podam.api.PodamFactory;
@@ -359,6 +361,49 @@ public class RepositorioDePareceresTest {
         assertEquals("a justificativa depois da adição da nova nota deve coincidir", "Alterado o nome do curso para SI porque o digitador era burro e errou de novo.", parecer.getNotas().get(1).getJustificativa());
     }
 
+    @Test
+    public void adicionaNotasSubstituiExistenteEAcrescentaNova() {
+        String parecerId = UUID.randomUUID().toString();
+        repositorioDePareceres.persisteParecer(getParecerValido(parecerId));
+
+        Nota substituta = new Nota(
+                new Pontuacao("aprovadoProm", new Valor(false)),
+                new Pontuacao("aprovadoProm", new Valor(false)),
+                "nota substituída no lote");
+        repositorioDePareceres.adicionaNotas(parecerId, Arrays.asList(substituta, getSampleNota()));
+
+        Parecer parecer = repositorioDePareceres.byId(parecerId);
+        assertEquals("a nota existente deve ser substituída e a nova acrescentada", 2, parecer.getNotas().size());
+        assertEquals("a nota existente deve ser substituída no lugar", "nota substituída no lote", parecer.getNotas().get(0).getJustificativa());
+        assertEquals(false, parecer.getNotas().get(0).getItemNovo().get("aprovadoProm").getBoolean());
+        assertEquals("a nova nota deve ser acrescentada ao final", "justificativa alteração", parecer.getNotas().get(1).getJustificativa());
+    }
+
+    @Test
+    public void adicionaNotasComMesmoOriginalNoLote() {
+        String parecerId = UUID.randomUUID().toString();
+        repositorioDePareceres.persisteParecer(getParecerValido(parecerId));
+
+        Pontuacao original = new Pontuacao("nomeAtributo", new Valor("valor"));
+        repositorioDePareceres.adicionaNotas(parecerId, Arrays.asList(
+                new Nota(original, new Pontuacao("nomeAtributo", new Valor("primeiro")), "primeira"),
+                new Nota(original, new Pontuacao("nomeAtributo", new Valor("segundo")), "segunda")));
+
+        Parecer parecer = repositorioDePareceres.byId(parecerId);
+        assertEquals("deve ser acrescentada uma única nota para o item original", 2, parecer.getNotas().size());
+        assertEquals("prevalece a última nota do lote", "segunda", parecer.getNotas().get(1).getJustificativa());
+        assertEquals("segundo", parecer.getNotas().get(1).getItemNovo().get("nomeAtributo").getString());
+    }
+
+    @Test
+    public void adicionaNotasEmParecerInexistente() {
+        thrown.expect(IdentificadorDesconhecido.class);
+        thrown.expectMessage("id desconhecido");
+
+        repositorioDePareceres.adicionaNotas(UUID.randomUUID().toString(),
+                Arrays.asList(getSampleNota(), getListaDeNotasDoParecer().get(0)));
+    }
+
     @Test
     public void removeNotaEmParecerInexistente() {
         thrown.expect(IdentificadorDesconhecido.class);
@@ -395,6 +440,91 @@ public class RepositorioDePareceresTest {
         assertEquals("a justificativa da Nota[0] depois da remoção deve coincidir", "justificativa alteração", parecer.getNotas().get(0).getJustificativa());
     }
 
+    /**
+     * Insere Parecer com notas na representação anterior aos codecs,
+     * produzida pelo Gson: valores do relato fora de ordem alfabética,
+     * valores sem o campo "tipo" e o real na representação textual
+     * do float.
+     * @param id Identificador do Parecer.
+     */
+    private void persisteParecerLegado(String id) {
+        Document original = Document.parse("{\"tipo\": \"COD\", \"valores\": {"
+                + "\"Turma\": {\"real\": 0.0, \"logico\": false, \"string\": \"A\"},"
+                + "\"Curso\": {\"real\": 0.0, \"logico\": false, \"string\": \"Engenharia de Software\"}}}");
+        Document novo = Document.parse("{\"tipo\": \"COD\", \"valores\": {"
+                + "\"Turma\": {\"real\": 0.0, \"logico\": false, \"string\": \"B\"},"
+                + "\"Curso\": {\"real\": 0.0, \"logico\": false, \"string\": \"Engenharia de Software\"}}}");
+
+        Document parecer = new Document("_id", id)
+                .append("resolucao", "CONSUNI No 32/2013")
+                .append("radocs", Collections.singletonList(UUID.randomUUID().toString()))
+                .append("pontuacoes", new ArrayList<>())
+                .append("fundamentacao", "Fundamentação do parecer")
+                .append("notas", Arrays.asList(
+                        new Document("original", original)
+                                .append("novo", novo)
+                                .append("justificativa", "legado"),
+                        Document.parse("{\"original\": {\"atributo\": \"fator\","
+                                + " \"valor\": {\"real\": 0.1, \"logico\": false, \"string\": null}},"
+                                + " \"novo\": {\"atributo\": \"fator\","
+                                + " \"valor\": {\"real\": 0.2, \"logico\": false, \"string\": null}},"
+                                + " \"justificativa\": \"pontuação legada\"}")));
+
+        MongoCollection<Document> colecao = DBManager
+                .compartilhado("saep-sandbox", "server.thiagodurante.com.br", 27017)
+                .abrirConexao("pareceres");
+        colecao.insertOne(parecer);
+    }
+
+    private static Relato relatoLegado(String turma) {
+        Map<String, Valor> valores = new HashMap<>();
+        valores.put("Turma", new Valor(turma));
+        valores.put("Curso", new Valor("Engenharia de Software"));
+        return new Relato("COD", valores);
+    }
+
+    @Test
+    public void notaLegadaSubstituida() {
+        String parecerId = UUID.randomUUID().toString();
+        persisteParecerLegado(parecerId);
+
+        repositorioDePareceres.adicionaNota(parecerId,
+                new Nota(relatoLegado("A"), relatoLegado("C"), "substitui a nota legada"));
+
+        Parecer parecer = repositorioDePareceres.byId(parecerId);
+        assertEquals("a nota legada deve ser substituída", 2, parecer.getNotas().size());
+        assertEquals("C", parecer.getNotas().get(0).getItemNovo().get("Turma").getString());
+        assertEquals("substitui a nota legada", parecer.getNotas().get(0).getJustificativa());
+    }
+
+    @Test
+    public void notaLegadaDePontuacaoSubstituida() {
+        String parecerId = UUID.randomUUID().toString();
+        persisteParecerLegado(parecerId);
+
+        repositorioDePareceres.adicionaNota(parecerId, new Nota(
+                new Pontuacao("fator", new Valor(0.1f)),
+                new Pontuacao("fator", new Valor(0.3f)),
+                "substitui a pontuação legada"));
+
+        Parecer parecer = repositorioDePareceres.byId(parecerId);
+        assertEquals("a nota legada deve ser substituída", 2, parecer.getNotas().size());
+        assertEquals("substitui a pontuação legada", parecer.getNotas().get(1).getJustificativa());
+        assertEquals(0.3f, parecer.getNotas().get(1).getItemNovo().get("fator").getFloat(), 0.0001f);
+    }
+
+    @Test
+    public void notaLegadaRemovida() {
+        String parecerId = UUID.randomUUID().toString();
+        persisteParecerLegado(parecerId);
+
+        repositorioDePareceres.removeNota(parecerId, relatoLegado("A"));
+
+        List<Nota> notas = repositorioDePareceres.byId(parecerId).getNotas();
+        assertEquals("a nota legada deve ser removida", 1, notas.size());
+        assertEquals("pontuação legada", notas.get(0).getJustificativa());
+    }
+
     @Test
     public void atualizaFundamentacaoEmParecerInvalido() {
         thrown.expect(IdentificadorDesconhecido.class);
@@ -474,6 +604,28 @@ public class RepositorioDePareceresTest {
         assertNotNull("radoc recuperado não deve ser null", radocRecuperado);
     }
 
+    @Test
+    public void persisteRadocComIdDuplicado() {
+        String radocId = UUID.randomUUID().toString();
+        repositorioDePareceres.persisteRadoc(getRadocValido(radocId));
+
+        try {
+            repositorioDePareceres.persisteRadoc(new Radoc(radocId, 2017, new ArrayList<>()));
+            fail("radoc com id já persistido deve ser rejeitado");
+        } catch (IdentificadorExistente e) {
+            assertEquals("o radoc persistido não deve ser alterado", 2016, repositorioDePareceres.radocById(radocId).getAnoBase());
+        }
+    }
+
+    @Test
+    public void persisteRadocComIdDeParecer() {
+        String id = UUID.randomUUID().toString();
+        repositorioDePareceres.persisteParecer(getParecerValido(id));
+
+        assertEquals("radoc e parecer possuem identificadores independentes",
+                id, repositorioDePareceres.persisteRadoc(getRadocValido(id)));
+    }
+
     @Test
     public void recuperaRadocById() {
         String radocId = UUID.randomUUID().toString();
@@ -540,4 +692,17 @@ public class RepositorioDePareceresTest {
 
         repositorioDePareceres.removeRadoc(returnedId);
     }
+
+    @Test
+    public void removeRadocAposRemocaoDoParecerQueOReferencia() {
+        String radocId = repositorioDePareceres.persisteRadoc(getRadocValido(UUID.randomUUID().toString()));
+        String parecerId = UUID.randomUUID().toString();
+        repositorioDePareceres.persisteParecer(
+                getParecerQueReferenciaUmRadocEspecífico(parecerId, Collections.singletonList(radocId)));
+
+        repositorioDePareceres.removeParecer(parecerId);
+        repositorioDePareceres.removeRadoc(radocId);
+
+        assertNull("o radoc sem referência deve ser removido", repositorioDePareceres.radocById(radocId));
+    }
 }
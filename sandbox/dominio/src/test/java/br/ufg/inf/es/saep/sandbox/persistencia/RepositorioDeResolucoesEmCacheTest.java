@@ -0,0 +1,160 @@
+package br.ufg.inf.es.saep.sandbox.persistencia;
+
+import br.ufg.inf.es.saep.sandbox.dominio.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class RepositorioDeResolucoesEmCacheTest {
+
+    /**
+     * Repositório em memória que conta as consultas por identificador.
+     */
+    private static class RepositorioEmMemoria implements ResolucaoRepository {
+
+        final Map<String, Resolucao> resolucoes = new HashMap<>();
+        final Map<String, Tipo> tipos = new HashMap<>();
+        int consultas;
+
+        @Override
+        public Resolucao byId(String id) {
+            consultas++;
+            return resolucoes.get(id);
+        }
+
+        @Override
+        public String persiste(Resolucao resolucao) {
+            resolucoes.put(resolucao.getId(), resolucao);
+            return resolucao.getId();
+        }
+
+        @Override
+        public boolean remove(String identificador) {
+            return resolucoes.remove(identificador) != null;
+        }
+
+        @Override
+        public List<String> resolucoes() {
+            return new ArrayList<>(resolucoes.keySet());
+        }
+
+        @Override
+        public void persisteTipo(Tipo tipo) {
+            tipos.put(tipo.getId(), tipo);
+        }
+
+        @Override
+        public void removeTipo(String codigo) {
+            tipos.remove(codigo);
+        }
+
+        @Override
+        public Tipo tipoPeloCodigo(String codigo) {
+            consultas++;
+            return tipos.get(codigo);
+        }
+
+        @Override
+        public List<Tipo> tiposPeloNome(String nome) {
+            return new ArrayList<>(tipos.values());
+        }
+    }
+
+    private RepositorioEmMemoria repositorio;
+    private AtomicLong relogio;
+    private RepositorioDeResolucoesEmCache cache;
+
+    private static Resolucao resolucao(String id, String nome) {
+        Regra regra = new Regra("a", Regra.EXPRESSAO, "d", 10, 0, "1", null, null, null, 0, new ArrayList<>());
+        return new Resolucao(id, nome, "descricao", new Date(), Collections.singletonList(regra));
+    }
+
+    private static Tipo tipo(String id, String nome) {
+        Set<Atributo> atributos = new HashSet<>();
+        atributos.add(new Atributo("cha", "carga horária anual", Atributo.REAL));
+        return new Tipo(id, nome, "descricao", atributos);
+    }
+
+    @Before
+    public void setUp() {
+        repositorio = new RepositorioEmMemoria();
+        relogio = new AtomicLong();
+        cache = new RepositorioDeResolucoesEmCache(repositorio, 2, 100, relogio::get);
+    }
+
+    @Test
+    public void consultaRepetidaAtendidaPeloCache() {
+        repositorio.persiste(resolucao("r", "nome"));
+
+        Resolucao primeira = cache.byId("r");
+        assertSame(primeira, cache.byId("r"));
+        assertSame(primeira, cache.byId("r"));
+
+        assertEquals(1, repositorio.consultas);
+        assertEquals(2, cache.getAcertos());
+        assertEquals(1, cache.getFalhas());
+        assertEquals(2.0 / 3, cache.getTaxaDeAcertos(), 0.0001);
+    }
+
+    @Test
+    public void ausenciaNaoRetida() {
+        assertNull(cache.byId("r"));
+        repositorio.persiste(resolucao("r", "nome"));
+        assertNotNull(cache.byId("r"));
+    }
+
+    @Test
+    public void alteracaoDescartaItem() {
+        cache.persisteTipo(tipo("t", "antigo"));
+        assertEquals("antigo", cache.tipoPeloCodigo("t").getNome());
+
+        cache.removeTipo("t");
+        assertNull(cache.tipoPeloCodigo("t"));
+
+        cache.persisteTipo(tipo("t", "novo"));
+        assertEquals("novo", cache.tipoPeloCodigo("t").getNome());
+
+        cache.persiste(resolucao("r", "nome"));
+        assertNotNull(cache.byId("r"));
+        cache.remove("r");
+        assertNull(cache.byId("r"));
+    }
+
+    @Test
+    public void itemExpira() {
+        repositorio.persiste(resolucao("r", "nome"));
+        cache.byId("r");
+
+        relogio.set(99);
+        cache.byId("r");
+        assertEquals(1, repositorio.consultas);
+
+        relogio.set(100);
+        cache.byId("r");
+        assertEquals(2, repositorio.consultas);
+        assertEquals(1, cache.getExpiracoes());
+    }
+
+    @Test
+    public void capacidadeDescartaMenosRecente() {
+        for (String id : Arrays.asList("a", "b", "c")) {
+            repositorio.persiste(resolucao(id, id));
+        }
+
+        cache.byId("a");
+        cache.byId("b");
+        cache.byId("a");
+        cache.byId("c");
+        assertEquals(1, cache.getRemocoes());
+
+        cache.byId("a");
+        assertEquals(3, repositorio.consultas);
+
+        cache.byId("b");
+        assertEquals(4, repositorio.consultas);
+    }
+}
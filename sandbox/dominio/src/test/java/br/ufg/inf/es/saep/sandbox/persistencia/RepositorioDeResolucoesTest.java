@@ -317,6 +317,29 @@ public class RepositorioDeResolucoesTest {
         assertNotEquals("a lista de ids não deve ser vazia", 0, identificadoresDasResolucoes.size());
     }
 
+    @Test
+    public void listaIdsDeResolucoesPorPagina() {
+        for (int i = 0; i < 3; i++) {
+            repositorioDeResolucoes.persiste(getResolucaoValida(UUID.randomUUID().toString()));
+        }
+
+        List<String> identificadores = new ArrayList<>();
+        Pagina<String> pagina = repositorioDeResolucoes.resolucoes(null, 2);
+        identificadores.addAll(pagina.getItens());
+        while (pagina.temProxima()) {
+            assertEquals("página intermediária deve estar completa", 2, pagina.getItens().size());
+            pagina = repositorioDeResolucoes.resolucoes(pagina.getProxima(), 2);
+            identificadores.addAll(pagina.getItens());
+        }
+
+        List<String> todos = repositorioDeResolucoes.resolucoes();
+        Collections.sort(todos);
+        assertEquals("páginas devem conter todas as resoluções, em ordem", todos, identificadores);
+
+        Pagina<Resolucao> resolucoes = repositorioDeResolucoes.paginaDeResolucoes(null, 2);
+        assertEquals(identificadores.get(1), resolucoes.getItens().get(1).getId());
+    }
+
     @Test
     public void removeResolucaoValida() {
         String idGerado = UUID.randomUUID().toString();
@@ -338,6 +361,38 @@ public class RepositorioDeResolucoesTest {
         repositorioDeResolucoes.persisteTipo(getTipoValido1());
     }
 
+    @Test
+    public void persisteTipoComIdJaPersistidoNaoAlteraTipo() {
+        String id = UUID.randomUUID().toString();
+        String nome = "original " + id;
+        repositorioDeResolucoes.persisteTipo(new Tipo(id, nome, "descricao", getAtributosDoTipo()));
+
+        try {
+            repositorioDeResolucoes.persisteTipo(new Tipo(id, "duplicado " + id, "descricao", getAtributosDoTipo()));
+            fail("tipo com id já persistido deve ser rejeitado");
+        } catch (IdentificadorExistente e) {
+            assertEquals(nome, repositorioDeResolucoes.tipoPeloCodigo(id).getNome());
+            assertEquals("o índice não deve conter o tipo rejeitado",
+                    0, repositorioDeResolucoes.tiposPeloNome("duplicado " + id).size());
+            assertEquals(1, repositorioDeResolucoes.tiposPeloNome(nome).size());
+        }
+    }
+
+    @Test
+    public void removeTipoAposRemocaoDaResolucaoQueOUsa() {
+        String id = UUID.randomUUID().toString();
+        repositorioDeResolucoes.persisteTipo(new Tipo(id, "nome", "descricao", getAtributosDoTipo()));
+
+        Regra regra = new Regra("v", Regra.PONTOS, "d", 10, 0, null, null, null, id, 1, null);
+        String resolucaoId = repositorioDeResolucoes.persiste(new Resolucao(UUID.randomUUID().toString(),
+                "nome", "descricao", getDataAprovacao(), Collections.singletonList(regra)));
+
+        repositorioDeResolucoes.remove(resolucaoId);
+        repositorioDeResolucoes.removeTipo(id);
+
+        assertNull("o tipo sem uso deve ser removido", repositorioDeResolucoes.tipoPeloCodigo(id));
+    }
+
     @Test
     public void persisteTipoValido() {
         Tipo tipo1 = getTipoValido1();
@@ -356,6 +411,40 @@ public class RepositorioDeResolucoesTest {
         repositorioDeResolucoes.persisteTipo(tipo2);
     }
 
+    @Test
+    public void persisteTiposEmLoteComDuplicado() {
+        List<Tipo> tipos = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tipos.add(new Tipo(UUID.randomUUID().toString(), "nome", "descricao", getAtributosDoTipo()));
+        }
+        tipos.add(2, tipos.get(0));
+
+        List<ResultadoDeInclusao> resultados = repositorioDeResolucoes.persisteTipos(tipos, 2);
+
+        assertEquals("deve haver um resultado por tipo", 6, resultados.size());
+        assertEquals(ResultadoDeInclusao.DUPLICADO, resultados.get(2));
+        assertEquals(ResultadoDeInclusao.INCLUIDO, resultados.get(5));
+        assertNotNull("tipo posterior ao duplicado deve ser persistido",
+                repositorioDeResolucoes.tipoPeloCodigo(tipos.get(3).getId()));
+    }
+
+    @Test
+    public void persisteTiposPercorridosUmaUnicaVez() {
+        String nome = "lote " + UUID.randomUUID().toString();
+        List<Tipo> tipos = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            tipos.add(new Tipo(UUID.randomUUID().toString(), nome, "descricao", getAtributosDoTipo()));
+        }
+
+        // Iterable que admite um único percurso.
+        Iterator<Tipo> unico = tipos.iterator();
+        List<ResultadoDeInclusao> resultados = repositorioDeResolucoes.persisteTipos(() -> unico, 2);
+
+        assertEquals("deve haver um resultado por tipo", 3, resultados.size());
+        assertEquals("os tipos incluídos devem constar do índice",
+                3, repositorioDeResolucoes.tiposPeloNome(nome).size());
+    }
+
     @Test
     public void recuperaTipoPeloCodigoExistente() {
         Tipo tipo1 = repositorioDeResolucoes.tipoPeloCodigo("APG");
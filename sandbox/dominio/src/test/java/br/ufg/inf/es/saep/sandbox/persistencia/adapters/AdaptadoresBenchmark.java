@@ -0,0 +1,105 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.adapters;
+
+import br.ufg.inf.es.saep.sandbox.dominio.*;
+import com.google.gson.*;
+
+import java.lang.reflect.Type;
+import java.util.*;
+
+/**
+ * Compara a conversão de Radocs e Pareceres pelos adapters de
+ * {@link Adaptadores} com a configuração anterior (reflexão, saída
+ * formatada e Avaliavel identificado pela árvore do objeto).
+ * Não é executado pelos testes; deve ser executado diretamente, com
+ * o classpath de testes, após {@code mvn test-compile}.
+ */
+public class AdaptadoresBenchmark {
+
+    private static final int RELATOS = 200;
+    private static final int REPETICOES = 2000;
+
+    public static void main(String[] args) {
+        Radoc radoc = radoc();
+        Parecer parecer = parecer();
+
+        Gson anterior = new GsonBuilder()
+                .setPrettyPrinting()
+                .registerTypeAdapter(Avaliavel.class, new AvaliavelPelaArvore())
+                .create();
+
+        for (int rodada = 0; rodada < 3; rodada++) {
+            System.out.println("Rodada " + (rodada + 1));
+            mede("anterior", anterior, radoc, Radoc.class);
+            mede("adapters", Adaptadores.gson(), radoc, Radoc.class);
+            mede("anterior", anterior, parecer, Parecer.class);
+            mede("adapters", Adaptadores.gson(), parecer, Parecer.class);
+        }
+    }
+
+    private static <T> void mede(String nome, Gson gson, T objeto, Class<T> classe) {
+        String json = gson.toJson(objeto);
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < REPETICOES; i++) {
+            json = gson.toJson(objeto);
+        }
+        long escrita = System.nanoTime() - inicio;
+
+        inicio = System.nanoTime();
+        for (int i = 0; i < REPETICOES; i++) {
+            gson.fromJson(json, classe);
+        }
+        long leitura = System.nanoTime() - inicio;
+
+        System.out.printf("  %-8s %-7s %8d bytes  escrita %7.1f us  leitura %7.1f us%n",
+                nome, classe.getSimpleName(), json.length(),
+                escrita / 1000.0 / REPETICOES, leitura / 1000.0 / REPETICOES);
+    }
+
+    private static Relato relato(int i) {
+        Map<String, Valor> valores = new HashMap<>();
+        valores.put("cha", new Valor(32f + i));
+        valores.put("titulo", new Valor("Disciplina " + i));
+        valores.put("obrigatoria", new Valor(i % 2 == 0));
+        return new Relato("aula", valores);
+    }
+
+    private static Radoc radoc() {
+        List<Relato> relatos = new ArrayList<>();
+        for (int i = 0; i < RELATOS; i++) {
+            relatos.add(relato(i));
+        }
+
+        return new Radoc("radoc", 2016, relatos);
+    }
+
+    private static Parecer parecer() {
+        List<Pontuacao> pontuacoes = new ArrayList<>();
+        List<Nota> notas = new ArrayList<>();
+        for (int i = 0; i < RELATOS; i++) {
+            pontuacoes.add(new Pontuacao("v" + i, new Valor((float) i)));
+            notas.add(new Nota(relato(i), relato(i + 1), "revisado"));
+        }
+
+        return new Parecer("parecer", "resolucao", Collections.singletonList("radoc"),
+                pontuacoes, "fundamentacao", notas);
+    }
+
+    /**
+     * Adapter de Avaliavel empregado anteriormente: monta a árvore
+     * do objeto para identificar a classe pelo campo "tipo".
+     */
+    private static class AvaliavelPelaArvore implements JsonSerializer<Avaliavel>, JsonDeserializer<Avaliavel> {
+
+        @Override
+        public Avaliavel deserialize(JsonElement json, Type tipoDaClasse, JsonDeserializationContext contexto) {
+            Type tipo = json.getAsJsonObject().has("tipo") ? Relato.class : Pontuacao.class;
+            return contexto.deserialize(json, tipo);
+        }
+
+        @Override
+        public JsonElement serialize(Avaliavel src, Type tipoDeSrc, JsonSerializationContext contexto) {
+            return contexto.serialize(src, src.getClass());
+        }
+    }
+}
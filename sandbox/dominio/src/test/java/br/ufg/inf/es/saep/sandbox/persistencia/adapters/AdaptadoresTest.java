@@ -0,0 +1,120 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.adapters;
+
+import br.ufg.inf.es.saep.sandbox.dominio.*;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class AdaptadoresTest {
+
+    private final Gson gson = Adaptadores.gson();
+
+    private static Relato relato(String tipo, float valor) {
+        Map<String, Valor> valores = new HashMap<>();
+        valores.put("b", new Valor(valor));
+        valores.put("a", new Valor("texto"));
+        return new Relato(tipo, valores);
+    }
+
+    @Test
+    public void parecerComNotasDeRelatoEPontuacao() {
+        Nota relatoAlterado = new Nota(relato("aula", 1), relato("aula", 2), "revisado");
+        Nota pontuacaoAlterada = new Nota(new Pontuacao("x", new Valor(1)), new Pontuacao("x", new Valor(true)), "j");
+        Parecer parecer = new Parecer("p", "r", Collections.singletonList("radoc"),
+                Collections.singletonList(new Pontuacao("y", new Valor(3.5f))), null,
+                Arrays.asList(relatoAlterado, pontuacaoAlterada));
+
+        String json = gson.toJson(parecer);
+        assertFalse(json.contains("\n"));
+        assertFalse(json.contains("fundamentacao"));
+
+        Parecer lido = gson.fromJson(json, Parecer.class);
+        assertEquals("p", lido.getId());
+        assertEquals("r", lido.getResolucao());
+        assertNull(lido.getFundamentacao());
+        assertEquals(Collections.singletonList("radoc"), lido.getRadocs());
+        assertEquals(3.5f, lido.getPontuacoes().get(0).getValor().getFloat(), 0.0001);
+        assertEquals(2, lido.getNotas().size());
+
+        Relato novo = (Relato) lido.getNotas().get(0).getItemNovo();
+        assertEquals("aula", novo.getTipo());
+        assertEquals(2f, novo.get("b").getFloat(), 0.0001);
+        assertEquals("texto", novo.get("a").getString());
+
+        Pontuacao pontuacao = (Pontuacao) lido.getNotas().get(1).getItemNovo();
+        assertTrue(pontuacao.getValor().getBoolean());
+    }
+
+    @Test
+    public void avaliavelIdentificadoPeloPrimeiroCampo() {
+        String json = gson.toJson(relato("aula", 1), Avaliavel.class);
+        assertTrue(json.startsWith("{\"classe\":\"relato\","));
+        assertTrue(json.contains("\"valores\":{\"a\":\"texto\",\"b\":1.0}"));
+
+        assertTrue(gson.fromJson(json, Avaliavel.class) instanceof Relato);
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void avaliavelSemClasseRejeitado() {
+        gson.fromJson("{\"tipo\":\"aula\",\"valores\":{}}", Avaliavel.class);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void adapterAnteriorMantidoParaConfiguracaoPorReflexao() {
+        Gson reflexao = new GsonBuilder()
+                .registerTypeAdapter(Avaliavel.class, new InterfaceAvaliavelAdapter())
+                .create();
+
+        String json = reflexao.toJson(relato("aula", 1), Avaliavel.class);
+        assertFalse(json.contains(AvaliavelAdapter.CLASSE));
+
+        Relato lido = (Relato) reflexao.fromJson(json, Avaliavel.class);
+        assertEquals("aula", lido.getTipo());
+
+        Pontuacao pontuacao = (Pontuacao) reflexao.fromJson(
+                reflexao.toJson(new Pontuacao("x", new Valor(2)), Avaliavel.class), Avaliavel.class);
+        assertEquals("x", pontuacao.getAtributo());
+    }
+
+    @Test
+    public void radocResolucaoETipo() {
+        Radoc radoc = new Radoc("radoc", 2016, Collections.singletonList(relato("aula", 4)));
+        Radoc radocLido = gson.fromJson(gson.toJson(radoc), Radoc.class);
+        assertEquals("radoc", radocLido.getId());
+        assertEquals(2016, radocLido.getAnoBase());
+        assertEquals(4f, radocLido.getRelatos().get(0).get("b").getFloat(), 0.0001);
+
+        Regra regra = new Regra("v", Regra.PONTOS, "d", 10, 0, null, null, null, "aula", 2, null);
+        Date aprovacao = new Date(123456789L);
+        Resolucao resolucao = new Resolucao("r", "nome", "descricao", aprovacao, Collections.singletonList(regra));
+        String json = gson.toJson(resolucao);
+        assertTrue(json.contains("\"dataAprovacao\":123456789"));
+
+        Resolucao lida = gson.fromJson(json, Resolucao.class);
+        assertEquals(aprovacao, lida.getDataAprovacao());
+        assertEquals("aula", lida.getRegras().get(0).getTipoRelato());
+        assertEquals(2f, lida.getRegras().get(0).getPontosPorItem(), 0.0001);
+
+        Set<Atributo> atributos = new HashSet<>();
+        atributos.add(new Atributo("a", "descricao", Atributo.REAL));
+        Tipo tipoLido = gson.fromJson(gson.toJson(new Tipo("t", "nome", "descricao", atributos)), Tipo.class);
+        assertEquals("t", tipoLido.getId());
+        assertEquals(Atributo.REAL, tipoLido.getAtributos().iterator().next().getTipo());
+    }
+
+    @Test
+    public void valorMantemTipo() {
+        assertEquals("false", gson.toJson(Valor.FALSO, Valor.class));
+        assertEquals("0.0", gson.toJson(Valor.ZERO, Valor.class));
+
+        for (Valor valor : Arrays.asList(Valor.FALSO, Valor.VERDADEIRO, Valor.ZERO, Valor.de(2.5f), Valor.de("a"))) {
+            assertEquals(valor, gson.fromJson(gson.toJson(valor, Valor.class), Valor.class));
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package br.ufg.inf.es.saep.sandbox.persistencia.codecs;
+
+import br.ufg.inf.es.saep.sandbox.dominio.*;
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonString;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.junit.Test;
+
+import java.text.DateFormat;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class CodecsTest {
+
+    private static <T> BsonDocument escreve(Class<T> classe, T objeto) {
+        Codec<T> codec = Codecs.registro().get(classe);
+        BsonDocument documento = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(documento), objeto, EncoderContext.builder().build());
+        return documento;
+    }
+
+    private static <T> T le(Class<T> classe, BsonDocument documento) {
+        Codec<T> codec = Codecs.registro().get(classe);
+        return codec.decode(new BsonDocumentReader(documento), DecoderContext.builder().build());
+    }
+
+    private static Relato relato(String tipo, float valor) {
+        Map<String, Valor> valores = new HashMap<>();
+        valores.put("b", new Valor(valor));
+        valores.put("a", new Valor("texto"));
+        return new Relato(tipo, valores);
+    }
+
+    @Test
+    public void parecerComNotasDeRelatoEPontuacao() {
+        Nota relatoAlterado = new Nota(relato("aula", 1), relato("aula", 2), "revisado");
+        Nota pontuacaoAlterada = new Nota(new Pontuacao("x", new Valor(1)), new Pontuacao("x", new Valor(true)), "j");
+        Parecer parecer = new Parecer("p", "r", Collections.singletonList("radoc"),
+                Collections.singletonList(new Pontuacao("y", new Valor(3.5f))), "f",
+                Arrays.asList(relatoAlterado, pontuacaoAlterada));
+
+        BsonDocument documento = escreve(Parecer.class, parecer);
+        assertEquals("p", documento.getString("_id").getValue());
+
+        Parecer lido = le(Parecer.class, documento);
+        assertEquals("p", lido.getId());
+        assertEquals("r", lido.getResolucao());
+        assertEquals(Collections.singletonList("radoc"), lido.getRadocs());
+        assertEquals(3.5f, lido.getPontuacoes().get(0).getValor().getFloat(), 0.0001);
+        assertEquals(2, lido.getNotas().size());
+
+        Relato novo = (Relato) lido.getNotas().get(0).getItemNovo();
+        assertEquals("aula", novo.getTipo());
+        assertEquals(2f, novo.get("b").getFloat(), 0.0001);
+        assertEquals("texto", novo.get("a").getString());
+
+        Pontuacao pontuacao = (Pontuacao) lido.getNotas().get(1).getItemNovo();
+        assertTrue(pontuacao.getValor().getBoolean());
+    }
+
+    @Test
+    public void valoresDeRelatoEmOrdemAlfabetica() {
+        BsonDocument documento = escreve(Relato.class, relato("aula", 1));
+
+        Iterator<String> variaveis = documento.getDocument("valores").keySet().iterator();
+        assertEquals("a", variaveis.next());
+        assertEquals("b", variaveis.next());
+    }
+
+    @Test
+    public void relatoLegadoForaDeOrdemLidoEReescritoEmOrdem() {
+        Relato relato = relato("aula", 1);
+        BsonDocument documento = escreve(Relato.class, relato);
+        documento.put("valores", legado(documento.getDocument("valores"), true));
+        assertEquals("b", documento.getDocument("valores").keySet().iterator().next());
+
+        Relato lido = le(Relato.class, documento);
+        assertEquals(escreve(Relato.class, relato), escreve(Relato.class, lido));
+        assertEquals(NotaCodec.chave(relato), NotaCodec.chave(lido));
+    }
+
+    @Test
+    public void resolucaoComDataBsonOuTextoLegado() {
+        Regra regra = new Regra("v", Regra.PONTOS, "d", 10, 0, null, null, null, "aula", 2, null);
+        Date aprovacao = new Date(1000L * (System.currentTimeMillis() / 1000L));
+        Resolucao resolucao = new Resolucao("r", "nome", "descricao", aprovacao, Collections.singletonList(regra));
+
+        BsonDocument documento = escreve(Resolucao.class, resolucao);
+        assertTrue(documento.get("dataAprovacao").isDateTime());
+
+        Resolucao lida = le(Resolucao.class, documento);
+        assertEquals("r", lida.getId());
+        assertEquals(aprovacao, lida.getDataAprovacao());
+        assertEquals("aula", lida.getRegras().get(0).getTipoRelato());
+        assertEquals(2f, lida.getRegras().get(0).getPontosPorItem(), 0.0001);
+
+        String legado = DateFormat.getDateTimeInstance(DateFormat.DEFAULT, DateFormat.DEFAULT, Locale.US)
+                .format(aprovacao);
+        documento.put("dataAprovacao", new BsonString(legado));
+        assertEquals(aprovacao, le(Resolucao.class, documento).getDataAprovacao());
+
+        documento.put("dataAprovacao", new BsonDateTime(0));
+        assertEquals(new Date(0), le(Resolucao.class, documento).getDataAprovacao());
+    }
+
+    @Test
+    public void tipoMantemCodigoNoCampoId() {
+        Set<Atributo> atributos = new HashSet<>();
+        atributos.add(new Atributo("a", "descricao", Atributo.REAL));
+        Tipo tipo = new Tipo("t", "nome", "descricao", atributos);
+
+        BsonDocument documento = escreve(Tipo.class, tipo);
+        assertEquals("t", documento.getString("id").getValue());
+        assertFalse(documento.containsKey("_id"));
+
+        Tipo lido = le(Tipo.class, documento);
+        assertEquals("t", lido.getId());
+        assertEquals(1, lido.getAtributos().size());
+        assertEquals(Atributo.REAL, lido.getAtributos().iterator().next().getTipo());
+    }
+
+    @Test
+    public void valorMantemTipo() {
+        for (Valor valor : Arrays.asList(Valor.FALSO, Valor.VERDADEIRO, Valor.ZERO, Valor.de(2.5f), Valor.de("a"))) {
+            assertEquals(valor, le(Valor.class, escreve(Valor.class, valor)));
+        }
+
+        BsonDocument legado = escreve(Valor.class, Valor.de("a"));
+        legado.remove("tipo");
+        assertEquals(Valor.de("a"), le(Valor.class, legado));
+    }
+
+    /**
+     * Documento de valores na forma anterior: sem o tipo de cada
+     * valor e, opcionalmente, em ordem inversa.
+     */
+    private static BsonDocument legado(BsonDocument valores, boolean inverte) {
+        List<String> nomes = new ArrayList<>(valores.keySet());
+        if (inverte) {
+            Collections.reverse(nomes);
+        }
+
+        BsonDocument legado = new BsonDocument();
+        for (String nome : nomes) {
+            BsonDocument valor = valores.getDocument(nome).clone();
+            valor.remove("tipo");
+            legado.put(nome, valor);
+        }
+
+        return legado;
+    }
+
+    @Test
+    public void notaLegadaProduzMesmaChave() {
+        Map<String, Valor> valores = new HashMap<>();
+        valores.put("b", new Valor(false));
+        valores.put("a", new Valor("texto"));
+        valores.put("c", new Valor(2.5f));
+        Relato relato = new Relato("aula", valores);
+        Nota nota = new Nota(relato, relato("aula", 2), "j");
+
+        BsonDocument documento = escreve(Nota.class, nota);
+        assertEquals(NotaCodec.chave(relato), documento.getString("chave").getValue());
+
+        BsonDocument anterior = documento.clone();
+        anterior.remove("chave");
+        BsonDocument original = anterior.getDocument("original");
+        original.put("valores", legado(original.getDocument("valores"), true));
+
+        Nota lida = le(Nota.class, anterior);
+        assertEquals(NotaCodec.chave(relato), escreve(Nota.class, lida).getString("chave").getValue());
+
+        Pontuacao falso = new Pontuacao("x", new Valor(false));
+        BsonDocument pontuacao = escreve(Nota.class, new Nota(falso, new Pontuacao("x", new Valor(true)), "j"));
+        pontuacao.remove("chave");
+        pontuacao.getDocument("original").getDocument("valor").remove("tipo");
+        assertEquals(NotaCodec.chave(falso), NotaCodec.chave(le(Nota.class, pontuacao).getItemOriginal()));
+    }
+
+    @Test
+    public void chavesDistintasParaItensDistintos() {
+        assertNotEquals(NotaCodec.chave(relato("aula", 1)), NotaCodec.chave(relato("aula", 2)));
+        assertNotEquals(NotaCodec.chave(relato("aula", 1)), NotaCodec.chave(relato("aul", 1)));
+        assertNotEquals(NotaCodec.chave(new Pontuacao("x", new Valor("ab"))),
+                NotaCodec.chave(new Pontuacao("xa", new Valor("b"))));
+    }
+}
@@ -13,10 +13,12 @@ public class ResolucaoRepositoryRam implements ResolucaoRepository {
 
     private Map<String, Resolucao> resolucoes;
     private Map<String, Tipo> tipos;
+    private IndiceDeTipos indiceDeTipos;
 
     public ResolucaoRepositoryRam() {
         resolucoes = new HashMap<>();
         tipos = new HashMap<>();
+        indiceDeTipos = new IndiceDeTipos();
     }
 
     @Override
@@ -48,11 +50,13 @@ public class ResolucaoRepositoryRam implements ResolucaoRepository {
     @Override
     public void persisteTipo(Tipo tipo) {
         tipos.put(tipo.getId(), tipo);
+        indiceDeTipos.inclui(tipo);
     }
 
     @Override
     public void removeTipo(String s) {
         tipos.remove(s);
+        indiceDeTipos.remove(s);
     }
 
     @Override
@@ -70,15 +74,6 @@ public class ResolucaoRepositoryRam implements ResolucaoRepository {
 
     @Override
     public List<Tipo> tiposPeloNome(String s) {
-        List<Tipo> semelhantes = new ArrayList<>();
-        Iterator<Tipo> valores = tipos.values().iterator();
-        while (valores.hasNext()) {
-            Tipo tipo = valores.next();
-            if (tipo.getNome().contains(s)) {
-                semelhantes.add(tipo);
-            }
-        }
-
-        return semelhantes;
+        return indiceDeTipos.contendo(s);
     }
 }